@@ -0,0 +1,41 @@
+package com.yourcompany.course.benchmark.jmh;
+
+import com.yourcompany.course.benchmark.WorkloadGenerator;
+
+/**
+ * 產生查詢用 ID 序列的分佈 (對應 {@link WorkloadGenerator} 的實作)。
+ */
+public enum KeyDistribution {
+
+    /** 每個 ID 被選中的機率相同。 */
+    UNIFORM {
+        @Override
+        WorkloadGenerator workload(long[] ids, long seed) {
+            return WorkloadGenerator.uniform(ids, seed);
+        }
+    },
+
+    /** 第 r 熱門的 ID 被選中的機率正比於 1 / r^0.99 (YCSB 預設值)。 */
+    ZIPFIAN {
+        @Override
+        WorkloadGenerator workload(long[] ids, long seed) {
+            return WorkloadGenerator.zipfian(ids, 0.99, seed);
+        }
+    };
+
+    abstract WorkloadGenerator workload(long[] ids, long seed);
+
+    /**
+     * @param ids    可選的 ID
+     * @param length 序列長度
+     * @return 依此分佈抽樣的 ID 序列
+     */
+    long[] sample(long[] ids, int length, long seed) {
+        WorkloadGenerator workload = workload(ids, seed);
+        long[] keys = new long[length];
+        for (int i = 0; i < length; i++) {
+            keys[i] = workload.nextId();
+        }
+        return keys;
+    }
+}
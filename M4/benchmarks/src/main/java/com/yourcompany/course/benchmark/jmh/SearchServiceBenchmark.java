@@ -0,0 +1,161 @@
+package com.yourcompany.course.benchmark.jmh;
+
+import com.yourcompany.course.config.DatabaseConfig;
+import com.yourcompany.course.generator.DataGenerator;
+import com.yourcompany.course.generator.EnrollmentLoadMode;
+import com.yourcompany.course.model.dto.CourseResult;
+import com.yourcompany.course.model.dto.StudentResult;
+import com.yourcompany.course.model.visitor.CourseRowVisitor;
+import com.yourcompany.course.model.visitor.PopularCourseVisitor;
+import com.yourcompany.course.model.visitor.StudentRowVisitor;
+import com.yourcompany.course.repository.DataRepository;
+import com.yourcompany.course.search.InMemorySearchService;
+import com.yourcompany.course.search.SearchService;
+import com.yourcompany.course.search.SqlSearchService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 以 JMH 量測 SqlSearchService 與 InMemorySearchService 三個查詢功能的吞吐量與延遲分佈。
+ * <p>
+ * 每組參數 (資料規模 x ID 分佈 x 實作) 在 Trial 開始前透過 DataGenerator 準備資料 (規模相同時會略過)，
+ * 查詢結果一律回傳給 JMH，避免被 JIT 當成無用程式碼消除。
+ * 以 -prof gc 執行時，gc.alloc.rate.norm 即每次查詢配置的位元組數，可比較 IN_MEMORY 與 IN_MEMORY_VIEWS，
+ * 以及 visit* 系列 (逐列回呼基本型別欄位、不建立 DTO) 與對應的 find* 查詢。
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 10, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class SearchServiceBenchmark {
+
+    private static final Logger logger = LoggerFactory.getLogger(SearchServiceBenchmark.class);
+
+    private static final int STUDENT_COUNT = 10000;
+    private static final int COURSE_COUNT = 1000;
+    private static final int TEACHER_COUNT = 100;
+    private static final int KEY_SEQUENCE_LENGTH = 1 << 16;
+
+    public enum Backend { SQL, IN_MEMORY, IN_MEMORY_VIEWS }
+
+    @State(Scope.Benchmark)
+    public static class Dataset {
+
+        @Param({"10000", "100000", "1000000"})
+        public int enrollments;
+
+        @Param({"UNIFORM", "ZIPFIAN"})
+        public KeyDistribution distribution;
+
+        @Param({"SQL", "IN_MEMORY", "IN_MEMORY_VIEWS"})
+        public Backend backend;
+
+        SearchService service;
+        long[] studentKeys;
+        long[] courseKeys;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            DataRepository repository = new DataRepository(DatabaseConfig.getDataSource());
+            new DataGenerator(repository).generate(STUDENT_COUNT, COURSE_COUNT, TEACHER_COUNT, enrollments,
+                    EnrollmentLoadMode.LOAD_DATA, message -> { });
+
+            if (backend != Backend.SQL) {
+                InMemorySearchService inMemory = new InMemorySearchService(repository);
+                inMemory.setMemoizeResults(backend == Backend.IN_MEMORY_VIEWS);
+                inMemory.loadData();
+                logger.info("In-memory footprint ({} enrollments):\n{}", enrollments, inMemory.getMemoryBreakdown());
+                service = inMemory;
+            } else {
+                service = new SqlSearchService(repository);
+            }
+
+            studentKeys = distribution.sample(repository.findAllStudentIds(), KEY_SEQUENCE_LENGTH, 42);
+            courseKeys = distribution.sample(repository.findAllCourseIds(), KEY_SEQUENCE_LENGTH, 43);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            DatabaseConfig.closeDataSource();
+        }
+    }
+
+    /**
+     * 每個執行緒各自走訪預先產生的 ID 序列，量測期間不產生亂數。
+     * 三個 visitor 在建立狀態時配置一次，把每列欄位累加成檢查碼回傳給 JMH，量測期間不再配置 lambda。
+     */
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int next;
+        long checksum;
+
+        final CourseRowVisitor courseRows = (courseId, credits, enrollmentMillis) -> {
+            checksum += courseId + credits + enrollmentMillis;
+            return true;
+        };
+        final StudentRowVisitor studentRows = (studentId, enrollmentMillis) -> {
+            checksum += studentId + enrollmentMillis;
+            return true;
+        };
+        final PopularCourseVisitor popularRows = (courseId, credits, enrollmentCount) -> {
+            checksum += courseId + credits + enrollmentCount;
+            return true;
+        };
+
+        int advance() {
+            int current = next;
+            next = (next + 1) & (KEY_SEQUENCE_LENGTH - 1);
+            return current;
+        }
+    }
+
+    @Benchmark
+    public List<CourseResult> findCoursesByStudent(Dataset dataset, Cursor cursor) {
+        return dataset.service.findCoursesByStudent(dataset.studentKeys[cursor.advance()]);
+    }
+
+    @Benchmark
+    public List<StudentResult> findStudentsByCourse(Dataset dataset, Cursor cursor) {
+        return dataset.service.findStudentsByCourse(dataset.courseKeys[cursor.advance()]);
+    }
+
+    @Benchmark
+    public List<CourseResult> findTop10PopularCourses(Dataset dataset) {
+        return dataset.service.findTop10PopularCourses();
+    }
+
+    @Benchmark
+    public long visitCoursesByStudent(Dataset dataset, Cursor cursor) {
+        dataset.service.visitCoursesByStudent(dataset.studentKeys[cursor.advance()], cursor.courseRows);
+        return cursor.checksum;
+    }
+
+    @Benchmark
+    public long visitStudentsByCourse(Dataset dataset, Cursor cursor) {
+        dataset.service.visitStudentsByCourse(dataset.courseKeys[cursor.advance()], cursor.studentRows);
+        return cursor.checksum;
+    }
+
+    @Benchmark
+    public long visitTop10PopularCourses(Dataset dataset, Cursor cursor) {
+        dataset.service.visitTopKPopularCourses(10, cursor.popularRows);
+        return cursor.checksum;
+    }
+}
@@ -1,21 +1,50 @@
 package com.yourcompany.course;
 
+import com.yourcompany.course.benchmark.HttpLoadTest;
+import com.yourcompany.course.benchmark.QueryMix;
+import com.yourcompany.course.benchmark.WorkloadGenerator;
 import com.yourcompany.course.config.DatabaseConfig;
 import com.yourcompany.course.generator.DataGenerator;
 import com.yourcompany.course.repository.DataRepository;
+import com.yourcompany.course.search.AdaptiveSearchService;
+import com.yourcompany.course.search.CachingSearchService;
+import com.yourcompany.course.search.CoalescingSearchService;
+import com.yourcompany.course.search.EnrollmentService;
 import com.yourcompany.course.search.InMemorySearchService;
 import com.yourcompany.course.search.SqlSearchService;
+import com.yourcompany.course.server.SearchHttpServer;
 import com.yourcompany.course.ui.MainFrame;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import javax.sql.DataSource;
 import javax.swing.*;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.file.Paths;
+import java.util.Arrays;
 
 /**
  * 專案主入口 (Composition Root)。
  * 負責初始化所有服務、依賴注入以及啟動 GUI。
+ * <p>
+ * 以 {@code --server [--port 8080] [--backend sql|memory|auto] [--threads N] [--load-test 秒數]} 啟動時不開 GUI，
+ * 改為啟動 HTTP 查詢伺服器 (見 {@link SearchHttpServer})；指定 --load-test 時對自己施加負載並輸出吞吐量後結束。
  */
 public class MainApplication {
 
+    private static final Logger logger = LoggerFactory.getLogger(MainApplication.class);
+
+    private static final int SQL_CACHE_MAXIMUM_SIZE = 10_000;
+    private static final long SQL_CACHE_TTL_MILLIS = 30_000;
+    private static final long ROUTER_SQL_LATENCY_THRESHOLD_MILLIS = 250;
+    private static final long ROUTER_FRESHNESS_CHECK_MILLIS = 1_000;
+
+    private static final int DEFAULT_SERVER_PORT = 8080;
+    private static final int[] HTTP_LOAD_TEST_CLIENTS = {1, 4, 16, 64};
+    private static final long HTTP_LOAD_TEST_WARMUP_MILLIS = 2_000;
+
     public static void main(String[] args) {
         // 1. 初始化資料庫連線池
         DataSource dataSource = DatabaseConfig.getDataSource();
@@ -25,16 +54,96 @@ public class MainApplication {
 
         // 3. 建立 Generator 和 Services (業務邏輯層)
         DataGenerator dataGenerator = new DataGenerator(dataRepository);
-        SqlSearchService sqlSearchService = new SqlSearchService(dataRepository);
+        CoalescingSearchService coalescingSqlService = new CoalescingSearchService(new SqlSearchService(dataRepository));
+        CachingSearchService sqlSearchService = new CachingSearchService(
+                coalescingSqlService, SQL_CACHE_MAXIMUM_SIZE, SQL_CACHE_TTL_MILLIS);
         InMemorySearchService inMemorySearchService = new InMemorySearchService(dataRepository);
+        inMemorySearchService.setSnapshotPath(Paths.get(System.getProperty("user.home"), ".course-search", "index.snapshot"));
+        EnrollmentService enrollmentService = new EnrollmentService(dataRepository, inMemorySearchService);
+        enrollmentService.addChangeListener(coalescingSqlService::onEnrollmentChanged);
+        enrollmentService.addChangeListener(sqlSearchService::onEnrollmentChanged);
+        // The router measures the database itself, so it bypasses the result cache (see AdaptiveSearchService).
+        AdaptiveSearchService adaptiveSearchService = new AdaptiveSearchService(coalescingSqlService, inMemorySearchService,
+                dataRepository, ROUTER_SQL_LATENCY_THRESHOLD_MILLIS, ROUTER_FRESHNESS_CHECK_MILLIS);
 
         // 4. 註冊關閉鉤子，確保程式結束時關閉連線池
         Runtime.getRuntime().addShutdownHook(new Thread(DatabaseConfig::closeDataSource));
 
+        if (Arrays.asList(args).contains("--server")) {
+            runServer(args, dataRepository, sqlSearchService, inMemorySearchService, adaptiveSearchService);
+            return;
+        }
+
         // 5. 啟動 GUI 並注入所有依賴
         SwingUtilities.invokeLater(() -> {
-            MainFrame mainFrame = new MainFrame(sqlSearchService, inMemorySearchService, dataGenerator);
+            MainFrame mainFrame = new MainFrame(sqlSearchService, inMemorySearchService, adaptiveSearchService,
+                    dataGenerator, dataRepository, enrollmentService);
             mainFrame.setVisible(true);
         });
     }
+
+    /**
+     * 無 GUI 模式：載入記憶體索引 (優先使用快照) 後啟動 HTTP 查詢伺服器。
+     */
+    private static void runServer(String[] args, DataRepository dataRepository,
+                                  CachingSearchService sqlSearchService, InMemorySearchService inMemorySearchService,
+                                  AdaptiveSearchService adaptiveSearchService) {
+        int port = Integer.parseInt(option(args, "--port", String.valueOf(DEFAULT_SERVER_PORT)));
+        int threads = Integer.parseInt(option(args, "--threads", String.valueOf(DatabaseConfig.MAXIMUM_POOL_SIZE)));
+        int loadTestSeconds = Integer.parseInt(option(args, "--load-test", "0"));
+        SearchHttpServer.Backend backend = SearchHttpServer.Backend.parse(option(args, "--backend", "memory"));
+        if (backend == null) {
+            logger.error("Unknown backend; use --backend sql, memory or auto.");
+            return;
+        }
+
+        try {
+            if (!inMemorySearchService.loadFromSnapshot()) {
+                logger.info("No usable index snapshot, loading the in-memory index from the database...");
+                inMemorySearchService.loadData();
+            }
+        } catch (RuntimeException e) {
+            logger.error("Failed to load the in-memory index; not starting the search HTTP server.", e);
+            return;
+        }
+
+        SearchHttpServer server;
+        try {
+            server = new SearchHttpServer(sqlSearchService, inMemorySearchService, adaptiveSearchService, backend,
+                    new InetSocketAddress(port), threads);
+        } catch (IOException e) {
+            logger.error("Failed to start the search HTTP server on port {}", port, e);
+            return;
+        }
+        server.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(server::close));
+        if (loadTestSeconds <= 0) return; // the server's dispatcher thread keeps the JVM alive
+
+        long[] studentIds = dataRepository.findAllStudentIds();
+        long[] courseIds = dataRepository.findAllCourseIds();
+        if (studentIds.length == 0 || courseIds.length == 0) {
+            logger.error("No students or courses to query; generate data first.");
+            System.exit(1);
+        }
+        HttpLoadTest loadTest = new HttpLoadTest(URI.create("http://localhost:" + server.getPort()), null,
+                seed -> WorkloadGenerator.uniform(studentIds, seed),
+                seed -> WorkloadGenerator.uniform(courseIds, seed),
+                new QueryMix(45, 45, 10));
+        System.out.println("====== HTTP 負載測試 (" + backend + ", " + server.getExecutorDescription()
+                + ", 查詢比例 學生選課/課程學生/熱門課程 = 45/45/10) ======");
+        for (int clients : HTTP_LOAD_TEST_CLIENTS) {
+            System.out.println(loadTest.run(clients, HTTP_LOAD_TEST_WARMUP_MILLIS, loadTestSeconds * 1000L));
+        }
+        System.exit(0);
+    }
+
+    /**
+     * @return 命令列中緊接在 name 之後的值；未指定時返回 defaultValue
+     */
+    private static String option(String[] args, String name, String defaultValue) {
+        for (int i = 0; i < args.length - 1; i++) {
+            if (args[i].equals(name)) return args[i + 1];
+        }
+        return defaultValue;
+    }
 }
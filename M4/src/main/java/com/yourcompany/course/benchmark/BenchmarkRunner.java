@@ -2,20 +2,90 @@ package com.yourcompany.course.benchmark;
 
 import com.yourcompany.course.model.dto.BenchmarkResult;
 import com.yourcompany.course.search.SearchService;
+import org.HdrHistogram.Histogram;
 
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
 import java.util.List;
 import java.util.function.Consumer;
+import java.util.function.LongFunction;
 
 /**
  * 負責執行效能測試的自動化工具。
+ * 每次呼叫的延遲都記錄在 HdrHistogram 中，並回報 p50/p90/p99/p99.9/max 與吞吐量，
+ * 以及量測期間平均每次呼叫配置的記憶體 (bytes/op)。
  */
 public class BenchmarkRunner {
 
     private static final int DEFAULT_ITERATIONS = 1000;
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    // 將每次呼叫的結果寫入 volatile 欄位，避免 JIT 把查詢當成無用程式碼消除
+    private static volatile Object sink;
+
+    /**
+     * 執行對 SearchService 的效能測試 (預熱次數與正式次數相同)。
+     *
+     * @param workload   產生查詢 ID 的來源
+     * @param iterations 正式量測的呼叫次數
+     * @param operation  要執行的搜尋操作，接收一個 ID 並回傳查詢結果
+     * @return 包含延遲分佈與吞吐量的結果物件。
+     */
+    public static BenchmarkResult run(WorkloadGenerator workload, int iterations, LongFunction<?> operation) {
+        return run(workload, iterations, iterations, operation);
+    }
 
     /**
      * 執行對 SearchService 的效能測試。
      *
+     * @param workload         產生查詢 ID 的來源
+     * @param warmupIterations 預熱 (Warm-up) 的呼叫次數，結果不計入統計
+     * @param iterations       正式量測的呼叫次數
+     * @param operation        要執行的搜尋操作，接收一個 ID 並回傳查詢結果
+     * @return 包含延遲分佈與吞吐量的結果物件。
+     */
+    public static BenchmarkResult run(WorkloadGenerator workload, int warmupIterations, int iterations, LongFunction<?> operation) {
+        if (iterations <= 0) {
+            return new BenchmarkResult(0, 0);
+        }
+
+        // 預熱 (Warm-up) - 讓 JIT 編譯後獲得更穩定的結果
+        for (int i = 0; i < warmupIterations; i++) {
+            sink = operation.apply(workload.nextId());
+        }
+
+        Histogram histogram = new Histogram(SIGNIFICANT_DIGITS);
+        long allocatedBefore = currentThreadAllocatedBytes();
+        long startTime = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            long id = workload.nextId();
+            long callStart = System.nanoTime();
+            sink = operation.apply(id);
+            histogram.recordValue(System.nanoTime() - callStart);
+        }
+        long totalTime = System.nanoTime() - startTime;
+        long allocatedAfter = currentThreadAllocatedBytes();
+
+        double allocatedPerOp = allocatedBefore >= 0 && allocatedAfter >= 0
+                ? (double) (allocatedAfter - allocatedBefore) / iterations
+                : -1;
+        return toResult(histogram, totalTime, iterations, allocatedPerOp);
+    }
+
+    /**
+     * @return 目前執行緒累計配置的位元組數 (HotSpot 的 com.sun.management.ThreadMXBean)；不支援時返回 -1
+     */
+    static long currentThreadAllocatedBytes() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (!(threads instanceof com.sun.management.ThreadMXBean)) return -1;
+        com.sun.management.ThreadMXBean hotspot = (com.sun.management.ThreadMXBean) threads;
+        if (!hotspot.isThreadAllocatedMemorySupported() || !hotspot.isThreadAllocatedMemoryEnabled()) return -1;
+        return hotspot.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    /**
+     * 執行對 SearchService 的效能測試 (保留給舊呼叫端，依序重播 testData)。
+     *
      * @param service 要測試的 SearchService 實例。
      * @param testData 測試數據，例如一組隨機的 studentId。
      * @param searchOperation 要執行的搜尋操作，是一個 Consumer，接收 SearchService 和一個 long 型的 id。
@@ -25,24 +95,33 @@ public class BenchmarkRunner {
         if (testData == null || testData.isEmpty()) {
             return new BenchmarkResult(0, 0);
         }
+        long[] ids = testData.stream().mapToLong(Long::longValue).toArray();
+        int iterations = Math.min(DEFAULT_ITERATIONS, ids.length);
+        return run(WorkloadGenerator.replay(ids), iterations, id -> {
+            searchOperation.accept(id);
+            return null;
+        });
+    }
 
-        int iterations = Math.min(DEFAULT_ITERATIONS, testData.size());
-
-        // 預熱 (Warm-up) - 可選，但有助於 JIT 編譯後獲得更穩定的結果
-        for (int i = 0; i < iterations / 10; i++) {
-            searchOperation.accept(testData.get(i));
-        }
-
-        long startTime = System.nanoTime();
-
-        for (int i = 0; i < iterations; i++) {
-            searchOperation.accept(testData.get(i));
-        }
+    /**
+     * 針對 findCoursesByStudent 方法的便捷測試方法。
+     */
+    public static BenchmarkResult runFindCoursesByStudent(SearchService service, WorkloadGenerator studentIds, int iterations) {
+        return run(studentIds, iterations, service::findCoursesByStudent);
+    }
 
-        long endTime = System.nanoTime();
+    /**
+     * 針對 findStudentsByCourse 方法的便捷測試方法。
+     */
+    public static BenchmarkResult runFindStudentsByCourse(SearchService service, WorkloadGenerator courseIds, int iterations) {
+        return run(courseIds, iterations, service::findStudentsByCourse);
+    }
 
-        long totalTime = endTime - startTime;
-        return new BenchmarkResult(totalTime, iterations);
+    /**
+     * 針對 findTopKPopularCourses 方法的便捷測試方法 (不需要 ID)。
+     */
+    public static BenchmarkResult runFindTopKPopularCourses(SearchService service, int k, int iterations) {
+        return run(WorkloadGenerator.replay(new long[]{k}), iterations, ignored -> service.findTopKPopularCourses(k));
     }
 
     /**
@@ -58,4 +137,18 @@ public class BenchmarkRunner {
     public static BenchmarkResult runFindStudentsByCourse(SearchService service, List<Long> courseIds) {
         return run(service, courseIds, service::findStudentsByCourse);
     }
+
+    static BenchmarkResult toResult(Histogram histogram, long totalTimeNanos, int iterations) {
+        return toResult(histogram, totalTimeNanos, iterations, -1);
+    }
+
+    static BenchmarkResult toResult(Histogram histogram, long totalTimeNanos, int iterations, double allocatedBytesPerOp) {
+        return new BenchmarkResult(totalTimeNanos, iterations,
+                histogram.getValueAtPercentile(50),
+                histogram.getValueAtPercentile(90),
+                histogram.getValueAtPercentile(99),
+                histogram.getValueAtPercentile(99.9),
+                histogram.getMaxValue(),
+                allocatedBytesPerOp);
+    }
 }
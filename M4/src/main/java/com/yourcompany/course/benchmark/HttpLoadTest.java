@@ -0,0 +1,150 @@
+package com.yourcompany.course.benchmark;
+
+import com.yourcompany.course.model.dto.LoadTestResult;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongFunction;
+
+/**
+ * 對 {@link com.yourcompany.course.server.SearchHttpServer} 施加 closed-loop 負載的 HTTP 用戶端，
+ * 量測含 HTTP 與 JSON 序列化在內的端到端吞吐量 (requests/s) 與延遲。
+ * 查詢種類與 ID 分佈的用法與 {@link LoadGenerator} 相同；非 2xx 回應與連線錯誤都計為錯誤，
+ * 不計入延遲分佈與吞吐量。
+ */
+public class HttpLoadTest {
+
+    private static final int SIGNIFICANT_DIGITS = 3;
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(10);
+
+    private final URI baseUri;
+    private final String backend;
+    private final LongFunction<WorkloadGenerator> studentWorkloads;
+    private final LongFunction<WorkloadGenerator> courseWorkloads;
+    private final QueryMix queryMix;
+    private final HttpClient client;
+
+    /**
+     * @param baseUri 伺服器位址，例如 http://localhost:8080
+     * @param backend 每個請求指定的方案 (sql 或 memory)；null 表示使用伺服器的預設方案
+     */
+    public HttpLoadTest(URI baseUri, String backend, LongFunction<WorkloadGenerator> studentWorkloads,
+                        LongFunction<WorkloadGenerator> courseWorkloads, QueryMix queryMix) {
+        this.baseUri = baseUri;
+        this.backend = backend;
+        this.studentWorkloads = studentWorkloads;
+        this.courseWorkloads = courseWorkloads;
+        this.queryMix = queryMix;
+        // JDK HttpServer speaks HTTP/1.1 only; skip the h2c upgrade attempt.
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(REQUEST_TIMEOUT)
+                .build();
+    }
+
+    /**
+     * 以 clients 個用戶端執行緒 (每個同時只有一個未完成請求) 執行一次負載測試。
+     */
+    public LoadTestResult run(int clients, long warmupMillis, long durationMillis) {
+        long measureStartNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(warmupMillis);
+        long endNanos = measureStartNanos + TimeUnit.MILLISECONDS.toNanos(durationMillis);
+
+        ExecutorService executor = Executors.newFixedThreadPool(clients, clientThreadFactory());
+        try {
+            List<Future<ClientStats>> futures = new ArrayList<>(clients);
+            for (int i = 0; i < clients; i++) {
+                int clientIndex = i;
+                futures.add(executor.submit(() -> runClient(clientIndex, measureStartNanos, endNanos)));
+            }
+
+            Histogram latency = new Histogram(SIGNIFICANT_DIGITS);
+            long errors = 0;
+            for (Future<ClientStats> future : futures) {
+                ClientStats stats = future.get();
+                latency.add(stats.latency);
+                errors += stats.errors;
+            }
+            return new LoadTestResult(clients, 0,
+                    BenchmarkRunner.toResult(latency, endNanos - measureStartNanos, (int) latency.getTotalCount()),
+                    0, 0, 0, 0, errors);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("HTTP load test was interrupted.", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("HTTP load test client failed.", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private ClientStats runClient(int clientIndex, long measureStartNanos, long endNanos) throws InterruptedException {
+        SplittableRandom random = new SplittableRandom(clientIndex * 0x9E3779B97F4A7C15L);
+        WorkloadGenerator students = studentWorkloads.apply(random.nextLong());
+        WorkloadGenerator courses = courseWorkloads.apply(random.nextLong());
+        ClientStats stats = new ClientStats();
+
+        while (true) {
+            long callStart = System.nanoTime();
+            if (callStart >= endNanos) break;
+
+            String path;
+            switch (queryMix.next(random)) {
+                case FIND_COURSES_BY_STUDENT:
+                    path = "/api/students/" + students.nextId() + "/courses";
+                    break;
+                case FIND_STUDENTS_BY_COURSE:
+                    path = "/api/courses/" + courses.nextId() + "/students";
+                    break;
+                default:
+                    path = "/api/courses/popular?k=10";
+                    break;
+            }
+            if (backend != null) path += (path.indexOf('?') < 0 ? "?backend=" : "&backend=") + backend;
+
+            HttpRequest request = HttpRequest.newBuilder(baseUri.resolve(path)).timeout(REQUEST_TIMEOUT).GET().build();
+            boolean succeeded;
+            try {
+                HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                succeeded = response.statusCode() / 100 == 2;
+            } catch (IOException e) {
+                succeeded = false;
+            }
+
+            if (callStart >= measureStartNanos) {
+                // Fast 4xx/5xx answers (e.g. 503 while shedding) would otherwise flatter the latency and throughput.
+                if (succeeded) stats.latency.recordValue(System.nanoTime() - callStart);
+                else stats.errors++;
+            }
+        }
+        return stats;
+    }
+
+    private static ThreadFactory clientThreadFactory() {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "http-load-client-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private static final class ClientStats {
+        final Histogram latency = new Histogram(SIGNIFICANT_DIGITS);
+        long errors;
+    }
+}
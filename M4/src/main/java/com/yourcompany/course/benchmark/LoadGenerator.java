@@ -0,0 +1,272 @@
+package com.yourcompany.course.benchmark;
+
+import com.yourcompany.course.config.PoolMetrics;
+import com.yourcompany.course.model.dto.LoadTestResult;
+import com.yourcompany.course.search.AsyncSearchService;
+import com.yourcompany.course.search.SearchService;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.function.LongFunction;
+
+/**
+ * 以 N 個工作執行緒同時對 SearchService 發出請求的負載產生器。
+ * <ul>
+ *     <li>Closed-loop (目標速率 &lt;= 0)：每個執行緒在前一個請求完成後立即送出下一個，量測系統的最大吞吐量。</li>
+ *     <li>Open-loop (目標速率 &gt; 0)：每個執行緒依固定排程送出請求，延遲從「預定送出時間」起算，
+ *     因此系統跟不上時的排隊時間也會反映在延遲中 (避免 coordinated omission)。</li>
+ * </ul>
+ */
+public class LoadGenerator {
+
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private static volatile Object sink;
+
+    private final SearchService service;
+    private final LongFunction<WorkloadGenerator> studentWorkloads;
+    private final LongFunction<WorkloadGenerator> courseWorkloads;
+    private final QueryMix queryMix;
+    private final PoolMetrics poolMetrics;
+
+    /**
+     * @param service          要測試的 SearchService
+     * @param studentWorkloads 依亂數種子建立學生ID來源 (每個執行緒一個)
+     * @param courseWorkloads  依亂數種子建立課程ID來源 (每個執行緒一個)
+     * @param queryMix         查詢種類比例
+     * @param poolMetrics      連線池統計，不需要時可為 null
+     */
+    public LoadGenerator(SearchService service, LongFunction<WorkloadGenerator> studentWorkloads,
+                         LongFunction<WorkloadGenerator> courseWorkloads, QueryMix queryMix, PoolMetrics poolMetrics) {
+        this.service = service;
+        this.studentWorkloads = studentWorkloads;
+        this.courseWorkloads = courseWorkloads;
+        this.queryMix = queryMix;
+        this.poolMetrics = poolMetrics;
+    }
+
+    /**
+     * 依序以不同執行緒數執行負載測試，得到吞吐量對執行緒數的擴展曲線。
+     *
+     * @param progress 每完成一個執行緒數就回報一次結果
+     */
+    public List<LoadTestResult> runScalingCurve(int[] threadCounts, long warmupMillis, long durationMillis,
+                                                double targetRatePerSecond, Consumer<LoadTestResult> progress) {
+        List<LoadTestResult> curve = new ArrayList<>(threadCounts.length);
+        for (int threads : threadCounts) {
+            LoadTestResult result = run(threads, warmupMillis, durationMillis, targetRatePerSecond);
+            curve.add(result);
+            progress.accept(result);
+        }
+        return curve;
+    }
+
+    /**
+     * 執行一次負載測試。
+     *
+     * @param threads             工作執行緒數
+     * @param warmupMillis        預熱時間，期間的請求不計入統計
+     * @param durationMillis      正式量測時間
+     * @param targetRatePerSecond 所有執行緒合計的目標速率；&lt;= 0 表示 closed-loop
+     */
+    public LoadTestResult run(int threads, long warmupMillis, long durationMillis, double targetRatePerSecond) {
+        long startNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(10);
+        long measureStartNanos = startNanos + TimeUnit.MILLISECONDS.toNanos(warmupMillis);
+        long endNanos = measureStartNanos + TimeUnit.MILLISECONDS.toNanos(durationMillis);
+        long intervalNanos = targetRatePerSecond > 0 ? (long) (threads * 1_000_000_000.0 / targetRatePerSecond) : 0;
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads, workerThreadFactory());
+        try {
+            List<Future<WorkerStats>> futures = new ArrayList<>(threads);
+            for (int i = 0; i < threads; i++) {
+                int workerIndex = i;
+                long firstSendNanos = startNanos + (intervalNanos * i) / threads; // stagger open-loop schedules
+                futures.add(executor.submit(() -> runWorker(workerIndex, firstSendNanos, intervalNanos, measureStartNanos, endNanos)));
+            }
+
+            Histogram poolWait = null;
+            long timeoutsBefore = 0;
+            if (poolMetrics != null) {
+                sleepUntil(measureStartNanos);
+                poolMetrics.takeAcquireHistogram(); // discard warm-up samples
+                timeoutsBefore = poolMetrics.getTimeoutCount();
+            }
+
+            Histogram latency = new Histogram(SIGNIFICANT_DIGITS);
+            long errors = 0;
+            for (Future<WorkerStats> future : futures) {
+                WorkerStats stats = future.get();
+                latency.add(stats.latency);
+                errors += stats.errors;
+            }
+
+            long poolTimeouts = 0;
+            if (poolMetrics != null) {
+                poolWait = poolMetrics.takeAcquireHistogram();
+                poolTimeouts = poolMetrics.getTimeoutCount() - timeoutsBefore;
+            }
+
+            return new LoadTestResult(threads, targetRatePerSecond,
+                    BenchmarkRunner.toResult(latency, endNanos - measureStartNanos, (int) latency.getTotalCount()),
+                    poolWait == null ? 0 : poolWait.getValueAtPercentile(50),
+                    poolWait == null ? 0 : poolWait.getValueAtPercentile(99),
+                    poolWait == null ? 0 : poolWait.getMaxValue(),
+                    poolTimeouts, errors);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Load test was interrupted.", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Load test worker failed.", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * 以非同步 API 執行 closed-loop 負載測試：單一送出執行緒維持 inFlight 個未完成的請求，
+     * 每完成一個就立即補送一個，用來與 {@link #run} (每個未完成請求佔一條呼叫端執行緒) 比較吞吐量。
+     *
+     * @param async    要測試的非同步服務 (應包裝與建構子相同的 SearchService)
+     * @param inFlight 同時未完成的請求數
+     */
+    public LoadTestResult runAsync(AsyncSearchService async, int inFlight, long warmupMillis, long durationMillis) {
+        long measureStartNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(warmupMillis);
+        long endNanos = measureStartNanos + TimeUnit.MILLISECONDS.toNanos(durationMillis);
+        SplittableRandom random = new SplittableRandom(0x9E3779B97F4A7C15L);
+        WorkloadGenerator students = studentWorkloads.apply(random.nextLong());
+        WorkloadGenerator courses = courseWorkloads.apply(random.nextLong());
+        Semaphore permits = new Semaphore(inFlight);
+        Histogram latency = new ConcurrentHistogram(SIGNIFICANT_DIGITS);
+        AtomicLong errors = new AtomicLong();
+
+        Histogram poolWait = null;
+        long timeoutsBefore = 0;
+        boolean poolMeasured = false;
+        try {
+            while (true) {
+                permits.acquire();
+                long callStart = System.nanoTime();
+                if (callStart >= endNanos) break;
+                if (poolMetrics != null && !poolMeasured && callStart >= measureStartNanos) {
+                    poolMetrics.takeAcquireHistogram(); // discard warm-up samples
+                    timeoutsBefore = poolMetrics.getTimeoutCount();
+                    poolMeasured = true;
+                }
+
+                CompletableFuture<?> call;
+                switch (queryMix.next(random)) {
+                    case FIND_COURSES_BY_STUDENT:
+                        call = async.findCoursesByStudent(students.nextId());
+                        break;
+                    case FIND_STUDENTS_BY_COURSE:
+                        call = async.findStudentsByCourse(courses.nextId());
+                        break;
+                    default:
+                        call = async.findTop10PopularCourses();
+                        break;
+                }
+                call.whenComplete((value, error) -> {
+                    if (error != null) errors.incrementAndGet();
+                    else sink = value;
+                    if (callStart >= measureStartNanos) latency.recordValue(System.nanoTime() - callStart);
+                    permits.release();
+                });
+            }
+            // Let the requests still in flight finish before reading the pool statistics.
+            permits.acquire(inFlight - 1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Load test was interrupted.", e);
+        }
+
+        long poolTimeouts = 0;
+        if (poolMetrics != null && poolMeasured) {
+            poolWait = poolMetrics.takeAcquireHistogram();
+            poolTimeouts = poolMetrics.getTimeoutCount() - timeoutsBefore;
+        }
+        return new LoadTestResult(inFlight, 0,
+                BenchmarkRunner.toResult(latency, endNanos - measureStartNanos, (int) latency.getTotalCount()),
+                poolWait == null ? 0 : poolWait.getValueAtPercentile(50),
+                poolWait == null ? 0 : poolWait.getValueAtPercentile(99),
+                poolWait == null ? 0 : poolWait.getMaxValue(),
+                poolTimeouts, errors.get(), true);
+    }
+
+    private WorkerStats runWorker(int workerIndex, long firstSendNanos, long intervalNanos, long measureStartNanos, long endNanos) {
+        SplittableRandom random = new SplittableRandom(workerIndex * 0x9E3779B97F4A7C15L);
+        WorkloadGenerator students = studentWorkloads.apply(random.nextLong());
+        WorkloadGenerator courses = courseWorkloads.apply(random.nextLong());
+        WorkerStats stats = new WorkerStats();
+
+        long nextSendNanos = firstSendNanos;
+        sleepUntil(firstSendNanos);
+        while (true) {
+            long callStart;
+            if (intervalNanos > 0) {
+                sleepUntil(nextSendNanos);
+                callStart = nextSendNanos;
+                nextSendNanos += intervalNanos;
+            } else {
+                callStart = System.nanoTime();
+            }
+            if (callStart >= endNanos) break;
+
+            try {
+                switch (queryMix.next(random)) {
+                    case FIND_COURSES_BY_STUDENT:
+                        sink = service.findCoursesByStudent(students.nextId());
+                        break;
+                    case FIND_STUDENTS_BY_COURSE:
+                        sink = service.findStudentsByCourse(courses.nextId());
+                        break;
+                    default:
+                        sink = service.findTop10PopularCourses();
+                        break;
+                }
+            } catch (RuntimeException e) {
+                stats.errors++;
+            }
+
+            if (callStart >= measureStartNanos) {
+                stats.latency.recordValue(System.nanoTime() - callStart);
+            }
+        }
+        return stats;
+    }
+
+    private static void sleepUntil(long deadlineNanos) {
+        long remaining;
+        while ((remaining = deadlineNanos - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+
+    private static ThreadFactory workerThreadFactory() {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "load-generator-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private static final class WorkerStats {
+        final Histogram latency = new Histogram(SIGNIFICANT_DIGITS);
+        long errors;
+    }
+}
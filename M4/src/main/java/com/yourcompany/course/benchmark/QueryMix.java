@@ -0,0 +1,48 @@
+package com.yourcompany.course.benchmark;
+
+import java.util.SplittableRandom;
+
+/**
+ * 負載測試中三種查詢的權重比例。
+ */
+public class QueryMix {
+
+    public enum Operation {
+        FIND_COURSES_BY_STUDENT,
+        FIND_STUDENTS_BY_COURSE,
+        FIND_TOP_10_COURSES
+    }
+
+    private final int coursesByStudentWeight;
+    private final int studentsByCourseWeight;
+    private final int topCoursesWeight;
+    private final int totalWeight;
+
+    public QueryMix(int coursesByStudentWeight, int studentsByCourseWeight, int topCoursesWeight) {
+        if (coursesByStudentWeight < 0 || studentsByCourseWeight < 0 || topCoursesWeight < 0) {
+            throw new IllegalArgumentException("Query mix weights must not be negative.");
+        }
+        this.coursesByStudentWeight = coursesByStudentWeight;
+        this.studentsByCourseWeight = studentsByCourseWeight;
+        this.topCoursesWeight = topCoursesWeight;
+        this.totalWeight = coursesByStudentWeight + studentsByCourseWeight + topCoursesWeight;
+        if (totalWeight == 0) {
+            throw new IllegalArgumentException("Query mix needs at least one non-zero weight.");
+        }
+    }
+
+    /**
+     * @return 依權重隨機選出的查詢種類
+     */
+    public Operation next(SplittableRandom random) {
+        int pick = random.nextInt(totalWeight);
+        if (pick < coursesByStudentWeight) return Operation.FIND_COURSES_BY_STUDENT;
+        if (pick < coursesByStudentWeight + studentsByCourseWeight) return Operation.FIND_STUDENTS_BY_COURSE;
+        return Operation.FIND_TOP_10_COURSES;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d/%d/%d", coursesByStudentWeight, studentsByCourseWeight, topCoursesWeight);
+    }
+}
@@ -0,0 +1,22 @@
+package com.yourcompany.course.benchmark;
+
+/**
+ * 重播預先記錄的查詢 ID 序列。
+ */
+class ReplayWorkload implements WorkloadGenerator {
+
+    private final long[] recordedIds;
+    private int next;
+
+    ReplayWorkload(long[] recordedIds) {
+        if (recordedIds.length == 0) throw new IllegalArgumentException("Workload requires at least one id.");
+        this.recordedIds = recordedIds.clone();
+    }
+
+    @Override
+    public long nextId() {
+        long id = recordedIds[next];
+        next = next + 1 == recordedIds.length ? 0 : next + 1;
+        return id;
+    }
+}
@@ -0,0 +1,23 @@
+package com.yourcompany.course.benchmark;
+
+import java.util.SplittableRandom;
+
+/**
+ * 均勻分佈的查詢 ID。
+ */
+class UniformWorkload implements WorkloadGenerator {
+
+    private final long[] ids;
+    private final SplittableRandom random;
+
+    UniformWorkload(long[] ids, long seed) {
+        if (ids.length == 0) throw new IllegalArgumentException("Workload requires at least one id.");
+        this.ids = ids.clone();
+        this.random = new SplittableRandom(seed);
+    }
+
+    @Override
+    public long nextId() {
+        return ids[random.nextInt(ids.length)];
+    }
+}
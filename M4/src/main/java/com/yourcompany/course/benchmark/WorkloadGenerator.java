@@ -0,0 +1,34 @@
+package com.yourcompany.course.benchmark;
+
+/**
+ * 效能測試時產生查詢 ID 的來源。
+ * 實作不需要是執行緒安全的；多執行緒測試時每個執行緒應使用各自的實例。
+ */
+public interface WorkloadGenerator {
+
+    /**
+     * @return 下一個要查詢的 ID
+     */
+    long nextId();
+
+    /**
+     * 每個 ID 被選中的機率相同。
+     */
+    static WorkloadGenerator uniform(long[] ids, long seed) {
+        return new UniformWorkload(ids, seed);
+    }
+
+    /**
+     * 第 r 熱門的 ID 被選中的機率正比於 1 / r^exponent；哪些 ID 較熱門由 seed 隨機決定。
+     */
+    static WorkloadGenerator zipfian(long[] ids, double exponent, long seed) {
+        return new ZipfianWorkload(ids, exponent, seed);
+    }
+
+    /**
+     * 依序重播一組真實記錄的 ID，播完後從頭開始。
+     */
+    static WorkloadGenerator replay(long[] recordedIds) {
+        return new ReplayWorkload(recordedIds);
+    }
+}
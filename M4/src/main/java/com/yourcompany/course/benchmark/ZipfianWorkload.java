@@ -0,0 +1,43 @@
+package com.yourcompany.course.benchmark;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Zipf 分佈的查詢 ID：先將 ID 隨機排名，再以累積分佈函數 (CDF) 二分搜尋抽樣。
+ */
+class ZipfianWorkload implements WorkloadGenerator {
+
+    private final long[] rankedIds;
+    private final double[] cdf;
+    private final SplittableRandom random;
+
+    ZipfianWorkload(long[] ids, double exponent, long seed) {
+        if (ids.length == 0) throw new IllegalArgumentException("Workload requires at least one id.");
+        this.random = new SplittableRandom(seed);
+        this.rankedIds = ids.clone();
+        for (int i = rankedIds.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            long tmp = rankedIds[i];
+            rankedIds[i] = rankedIds[j];
+            rankedIds[j] = tmp;
+        }
+
+        this.cdf = new double[rankedIds.length];
+        double sum = 0;
+        for (int rank = 0; rank < rankedIds.length; rank++) {
+            sum += 1.0 / Math.pow(rank + 1, exponent);
+            cdf[rank] = sum;
+        }
+        for (int rank = 0; rank < cdf.length; rank++) {
+            cdf[rank] /= sum;
+        }
+    }
+
+    @Override
+    public long nextId() {
+        int rank = Arrays.binarySearch(cdf, random.nextDouble());
+        if (rank < 0) rank = -rank - 1;
+        return rankedIds[Math.min(rank, rankedIds.length - 1)];
+    }
+}
@@ -15,7 +15,10 @@ import java.util.Properties;
 public class DatabaseConfig {
 
     private static final String PROPS_FILE = "/database.properties";
+    /** 連線池最大連線數；非同步查詢的執行緒池依此設定大小 */
+    public static final int MAXIMUM_POOL_SIZE = 20;
     private static HikariDataSource dataSource;
+    private static final PoolMetrics poolMetrics = new PoolMetrics();
 
     /**
      * 獲取設定好的 DataSource 單例。
@@ -28,6 +31,14 @@ public class DatabaseConfig {
         return dataSource;
     }
 
+    /**
+     * 獲取連線池的等待時間統計。
+     * @return PoolMetrics 實例
+     */
+    public static PoolMetrics getPoolMetrics() {
+        return poolMetrics;
+    }
+
     private static void initDataSource() {
         try {
             Properties props = loadProperties();
@@ -39,7 +50,7 @@ public class DatabaseConfig {
             config.setDriverClassName(props.getProperty("spring.datasource.driver-class-name"));
             
             // --- HikariCP 效能調優 ---
-            config.setMaximumPoolSize(20); // 最大連線數
+            config.setMaximumPoolSize(MAXIMUM_POOL_SIZE); // 最大連線數
             config.setMinimumIdle(5); // 最小閒置連線數
             config.setConnectionTimeout(30000); // 連線逾時時間
             config.setIdleTimeout(600000); // 閒置連線存活時間
@@ -47,6 +58,9 @@ public class DatabaseConfig {
             config.addDataSourceProperty("cachePrepStmts", "true");
             config.addDataSourceProperty("prepStmtCacheSize", "250");
             config.addDataSourceProperty("prepStmtCacheSqlLimit", "2048");
+            config.addDataSourceProperty("allowLocalInfile", "true"); // LOAD DATA LOCAL INFILE bulk mode
+
+            config.setMetricsTrackerFactory(poolMetrics);
 
             dataSource = new HikariDataSource(config);
 
@@ -0,0 +1,57 @@
+package com.yourcompany.course.config;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 收集 HikariCP 連線池的等待時間 (從呼叫 getConnection() 到取得連線)。
+ * 以 HdrHistogram Recorder 記錄，可多執行緒同時寫入，並依區間取出統計。
+ */
+public class PoolMetrics implements MetricsTrackerFactory {
+
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private final Recorder acquireNanos = new Recorder(SIGNIFICANT_DIGITS);
+    private final LongAdder timeouts = new LongAdder();
+    private volatile PoolStats poolStats;
+
+    @Override
+    public IMetricsTracker create(String poolName, PoolStats poolStats) {
+        this.poolStats = poolStats;
+        return new IMetricsTracker() {
+            @Override
+            public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+                acquireNanos.recordValue(elapsedAcquiredNanos);
+            }
+
+            @Override
+            public void recordConnectionTimeout() {
+                timeouts.increment();
+            }
+        };
+    }
+
+    /**
+     * 取出自上次呼叫以來的連線等待時間分佈，並開始新的統計區間。
+     */
+    public Histogram takeAcquireHistogram() {
+        return acquireNanos.getIntervalHistogram();
+    }
+
+    public long getTimeoutCount() {
+        return timeouts.sum();
+    }
+
+    /**
+     * @return 目前正在等待連線的執行緒數，連線池尚未建立時返回 0。
+     */
+    public int getPendingThreads() {
+        PoolStats stats = poolStats;
+        return stats == null ? 0 : stats.getPendingThreads();
+    }
+}
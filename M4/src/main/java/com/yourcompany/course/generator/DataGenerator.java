@@ -20,17 +20,34 @@ import java.util.function.Consumer;
  */
 public class DataGenerator {
 
-    private static final int BATCH_SIZE = 5000;
+    private static final int DEFAULT_ENROLLMENT_BATCH_SIZE = 5000;
+    private static final long PROGRESS_INTERVAL_ROWS = 1_000_000;
 
     private final Faker faker = new Faker();
     private final Random random = new Random();
     private final DataRepository repository;
+    private int enrollmentBatchSize = DEFAULT_ENROLLMENT_BATCH_SIZE;
 
     public DataGenerator(DataRepository repository) {
         this.repository = repository;
     }
 
+    /**
+     * 設定每批寫入的選課紀錄數。老師/學生/課程的批次大小請見 {@link DataRepository#setInsertBatchSize(int)}。
+     */
+    public void setEnrollmentBatchSize(int enrollmentBatchSize) {
+        this.enrollmentBatchSize = enrollmentBatchSize;
+    }
+
     public void generate(int studentCount, int courseCount, int teacherCount, int enrollmentCount, Consumer<String> progressConsumer) {
+        generate(studentCount, courseCount, teacherCount, enrollmentCount, EnrollmentLoadMode.BATCH_INSERT, progressConsumer);
+    }
+
+    /**
+     * @param loadMode 選課紀錄的寫入方式 (JDBC 批次或 LOAD DATA 大量匯入)
+     */
+    public void generate(int studentCount, int courseCount, int teacherCount, int enrollmentCount,
+                         EnrollmentLoadMode loadMode, Consumer<String> progressConsumer) {
         try {
             progressConsumer.accept("--- Starting Smart Data Generation Process ---");
 
@@ -41,7 +58,7 @@ public class DataGenerator {
             List<Teacher> teachers = handleTeachersGeneration(teacherCount, progressConsumer);
             List<Student> students = handleStudentsGeneration(studentCount, progressConsumer);
             List<Course> courses = handleCoursesGeneration(courseCount, teachers, progressConsumer);
-            handleEnrollmentsGeneration(enrollmentCount, students, courses, progressConsumer);
+            handleEnrollmentsGeneration(enrollmentCount, students, courses, loadMode, progressConsumer);
 
             progressConsumer.accept("\n--- Data Generation Process Completed Successfully! ---");
         } catch (Exception e) {
@@ -66,7 +83,9 @@ public class DataGenerator {
                     newTeachers.add(new Teacher(null, faker.name().fullName(), email));
                 }
             }
-            repository.batchInsertTeachers(newTeachers);
+            long startTime = System.nanoTime();
+            int inserted = repository.batchInsertTeachers(newTeachers);
+            reportThroughput("teachers", inserted, System.nanoTime() - startTime, progressConsumer);
         }
         return repository.findAllTeachers();
     }
@@ -87,7 +106,9 @@ public class DataGenerator {
                     newStudents.add(new Student(null, faker.name().firstName(), faker.name().lastName(), faker.date().birthday(18, 25), email));
                 }
             }
-            repository.batchInsertStudents(newStudents);
+            long startTime = System.nanoTime();
+            int inserted = repository.batchInsertStudents(newStudents);
+            reportThroughput("students", inserted, System.nanoTime() - startTime, progressConsumer);
         }
         return repository.findAllStudents();
     }
@@ -109,12 +130,15 @@ public class DataGenerator {
                 Teacher teacher = teachers.get(random.nextInt(teachers.size()));
                 newCourses.add(new Course(null, faker.educator().course(), faker.lorem().sentence(), faker.number().numberBetween(1, 5), teacher.getTeacherId()));
             }
-            repository.batchInsertCourses(newCourses);
+            long startTime = System.nanoTime();
+            int inserted = repository.batchInsertCourses(newCourses);
+            reportThroughput("courses", inserted, System.nanoTime() - startTime, progressConsumer);
         }
         return repository.findAllCourses();
     }
 
-    private void handleEnrollmentsGeneration(int requiredCount, List<Student> students, List<Course> courses, Consumer<String> progressConsumer) {
+    private void handleEnrollmentsGeneration(int requiredCount, List<Student> students, List<Course> courses,
+                                             EnrollmentLoadMode loadMode, Consumer<String> progressConsumer) {
         progressConsumer.accept(String.format("\nStep 5: Checking Enrollment data (target: %d)...", requiredCount));
         if (students.isEmpty() || courses.isEmpty()) {
             progressConsumer.accept("ERROR: Cannot generate enrollments without students and courses.");
@@ -129,8 +153,15 @@ public class DataGenerator {
         progressConsumer.accept(String.format("Found %d enrollments. Clearing and regenerating to meet target of %d...", currentCount, requiredCount));
         repository.truncateEnrollments();
 
-        List<Enrollment> batch = new ArrayList<>(BATCH_SIZE);
+        if (loadMode != EnrollmentLoadMode.BATCH_INSERT) {
+            bulkLoadEnrollments(requiredCount, students, courses, loadMode == EnrollmentLoadMode.LOAD_DATA_DEFERRED_INDEXES, progressConsumer);
+            return;
+        }
+
+        List<Enrollment> batch = new ArrayList<>(enrollmentBatchSize);
         int totalGenerated = 0;
+        int totalInserted = 0;
+        long insertNanos = 0;
 
         outer_loop:
         for (int i = 0; i < students.size(); i++) {
@@ -143,8 +174,10 @@ public class DataGenerator {
                 batch.add(new Enrollment(student.getStudentId(), course.getCourseId(), faker.date().past(365 * 2, TimeUnit.DAYS)));
                 totalGenerated++;
 
-                if (batch.size() == BATCH_SIZE) {
-                    repository.batchInsertEnrollments(batch);
+                if (batch.size() == enrollmentBatchSize) {
+                    long startTime = System.nanoTime();
+                    totalInserted += repository.batchInsertEnrollments(batch);
+                    insertNanos += System.nanoTime() - startTime;
                     progressConsumer.accept(String.format("Inserted batch. Total enrollments so far: %d/%d", totalGenerated, requiredCount));
                     batch.clear();
                 }
@@ -152,8 +185,61 @@ public class DataGenerator {
         }
 
         if (!batch.isEmpty()) {
-            repository.batchInsertEnrollments(batch);
+            long startTime = System.nanoTime();
+            totalInserted += repository.batchInsertEnrollments(batch);
+            insertNanos += System.nanoTime() - startTime;
             progressConsumer.accept(String.format("Inserted batch. Total enrollments so far: %d/%d", totalGenerated, requiredCount));
         }
+        reportThroughput("enrollments", totalInserted, insertNanos, progressConsumer);
+    }
+
+    private void bulkLoadEnrollments(int requiredCount, List<Student> students, List<Course> courses,
+                                     boolean deferIndexes, Consumer<String> progressConsumer) {
+        if (deferIndexes) {
+            progressConsumer.accept("Dropping Enrollment secondary indexes before bulk load...");
+            repository.dropEnrollmentSecondaryIndexes();
+        }
+
+        progressConsumer.accept("Streaming generated enrollments into LOAD DATA LOCAL INFILE...");
+        EnrollmentCsvStream csv = new EnrollmentCsvStream(enrollmentRowSource(requiredCount, students, courses), PROGRESS_INTERVAL_ROWS,
+                rows -> progressConsumer.accept(String.format("Streamed %d/%d enrollments...", rows, requiredCount)));
+        long startTime = System.nanoTime();
+        long loaded = repository.loadEnrollments(csv);
+        long loadNanos = System.nanoTime() - startTime;
+        reportThroughput("enrollments", loaded, loadNanos, progressConsumer);
+
+        if (deferIndexes) {
+            progressConsumer.accept("Re-creating Enrollment secondary indexes...");
+            long indexStart = System.nanoTime();
+            repository.createEnrollmentSecondaryIndexes();
+            long indexNanos = System.nanoTime() - indexStart;
+            progressConsumer.accept(String.format("Indexes rebuilt in %.2f s; end-to-end %.0f rows/s.",
+                    indexNanos / 1_000_000_000.0, loaded / ((loadNanos + indexNanos) / 1_000_000_000.0)));
+        }
+    }
+
+    /**
+     * 與批次模式相同的學生/課程配對規則，逐列產生選課紀錄而不建立 Enrollment 物件。
+     */
+    private EnrollmentCsvStream.RowSource enrollmentRowSource(int requiredCount, List<Student> students, List<Course> courses) {
+        int[] cursor = new int[3]; // student index, course offset, generated rows
+        return handler -> {
+            if (cursor[2] >= requiredCount || cursor[0] >= students.size()) return false;
+            Student student = students.get(cursor[0]);
+            Course course = courses.get((cursor[0] + cursor[1]) % courses.size());
+            handler.onRow(student.getStudentId(), course.getCourseId(), faker.date().past(365 * 2, TimeUnit.DAYS).getTime());
+            cursor[2]++;
+            if (++cursor[1] == courses.size()) {
+                cursor[1] = 0;
+                cursor[0]++;
+            }
+            return true;
+        };
+    }
+
+    private void reportThroughput(String table, long rows, long elapsedNanos, Consumer<String> progressConsumer) {
+        double seconds = elapsedNanos / 1_000_000_000.0;
+        progressConsumer.accept(String.format("Inserted %d %s in %.2f s (%.0f rows/s).",
+                rows, table, seconds, seconds > 0 ? rows / seconds : 0));
     }
 }
@@ -0,0 +1,97 @@
+package com.yourcompany.course.generator;
+
+import com.yourcompany.course.repository.EnrollmentRowHandler;
+
+import java.io.InputStream;
+import java.util.function.LongConsumer;
+
+/**
+ * 邊讀邊產生 "student_id,course_id,epoch_seconds\n" 文字列的 InputStream，
+ * 供 LOAD DATA LOCAL INFILE 直接讀取，不需寫出暫存檔，也不需把所有資料列留在記憶體中。
+ */
+class EnrollmentCsvStream extends InputStream {
+
+    /**
+     * 資料列來源：每次呼叫產生一列並交給 handler，沒有更多資料時返回 false。
+     */
+    @FunctionalInterface
+    interface RowSource {
+        boolean next(EnrollmentRowHandler handler);
+    }
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_ROW_BYTES = 3 * 20 + 3; // three longs plus separators
+
+    private final RowSource source;
+    private final long progressInterval;
+    private final LongConsumer progressListener;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private final byte[] digits = new byte[20];
+    private int position;
+    private int limit;
+    private long rows;
+    private boolean exhausted;
+
+    EnrollmentCsvStream(RowSource source, long progressInterval, LongConsumer progressListener) {
+        this.source = source;
+        this.progressInterval = progressInterval;
+        this.progressListener = progressListener;
+    }
+
+    long getRows() {
+        return rows;
+    }
+
+    @Override
+    public int read() {
+        if (position == limit && !fill()) return -1;
+        return buffer[position++] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] target, int offset, int length) {
+        if (length == 0) return 0;
+        if (position == limit && !fill()) return -1;
+        int count = Math.min(length, limit - position);
+        System.arraycopy(buffer, position, target, offset, count);
+        position += count;
+        return count;
+    }
+
+    private boolean fill() {
+        position = 0;
+        limit = 0;
+        while (!exhausted && limit + MAX_ROW_BYTES <= buffer.length) {
+            exhausted = !source.next(this::writeRow);
+        }
+        return limit > 0;
+    }
+
+    private void writeRow(long studentId, long courseId, long enrollmentMillis) {
+        writeLong(studentId);
+        buffer[limit++] = ',';
+        writeLong(courseId);
+        buffer[limit++] = ',';
+        writeLong(enrollmentMillis / 1000);
+        buffer[limit++] = '\n';
+        rows++;
+        if (progressInterval > 0 && rows % progressInterval == 0) {
+            progressListener.accept(rows);
+        }
+    }
+
+    private void writeLong(long value) {
+        if (value < 0) {
+            buffer[limit++] = '-';
+            value = -value;
+        }
+        int length = 0;
+        do {
+            digits[length++] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while (value != 0);
+        while (length > 0) {
+            buffer[limit++] = digits[--length];
+        }
+    }
+}
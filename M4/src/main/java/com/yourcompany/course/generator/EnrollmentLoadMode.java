@@ -0,0 +1,16 @@
+package com.yourcompany.course.generator;
+
+/**
+ * 選課紀錄的寫入方式。
+ */
+public enum EnrollmentLoadMode {
+
+    /** 以 JDBC addBatch/executeBatch 分批 INSERT。 */
+    BATCH_INSERT,
+
+    /** 將產生的資料列透過記憶體串流送入 LOAD DATA LOCAL INFILE。 */
+    LOAD_DATA,
+
+    /** 同 LOAD_DATA，但先移除 Enrollment 的次要索引與外鍵，載入完成後再重建。 */
+    LOAD_DATA_DEFERRED_INDEXES
+}
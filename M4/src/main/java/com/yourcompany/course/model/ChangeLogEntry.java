@@ -0,0 +1,30 @@
+package com.yourcompany.course.model;
+
+/**
+ * ChangeLog 表的一列：記錄哪一張表的哪一個主鍵發生了變更 (由 db_schema.sql 中的 trigger 寫入)。
+ */
+public class ChangeLogEntry {
+    public static final String STUDENT = "Student";
+    public static final String COURSE = "Course";
+    public static final String ENROLLMENT = "Enrollment";
+
+    private final long changeId;
+    private final String tableName;
+    private final String operation; // I, U or D
+    private final Long studentId;
+    private final Long courseId;
+
+    public ChangeLogEntry(long changeId, String tableName, String operation, Long studentId, Long courseId) {
+        this.changeId = changeId;
+        this.tableName = tableName;
+        this.operation = operation;
+        this.studentId = studentId;
+        this.courseId = courseId;
+    }
+
+    public long getChangeId() { return changeId; }
+    public String getTableName() { return tableName; }
+    public String getOperation() { return operation; }
+    public Long getStudentId() { return studentId; }
+    public Long getCourseId() { return courseId; }
+}
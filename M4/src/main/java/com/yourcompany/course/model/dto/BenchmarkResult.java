@@ -8,7 +8,28 @@ public class BenchmarkResult {
     private final double averageTimeNanos;  // 平均耗時 (奈秒)
     private final int iterations;         // 執行次數
 
+    // 延遲分佈 (奈秒)，僅在以直方圖記錄每次呼叫時提供
+    private final long p50Nanos;
+    private final long p90Nanos;
+    private final long p99Nanos;
+    private final long p999Nanos;
+    private final long maxNanos;
+
+    // 量測期間呼叫端執行緒平均每次呼叫配置的位元組數，JVM 不支援量測時為 -1
+    private final double allocatedBytesPerOp;
+
     public BenchmarkResult(long totalTimeNanos, int iterations) {
+        this(totalTimeNanos, iterations, 0, 0, 0, 0, 0);
+    }
+
+    public BenchmarkResult(long totalTimeNanos, int iterations,
+                           long p50Nanos, long p90Nanos, long p99Nanos, long p999Nanos, long maxNanos) {
+        this(totalTimeNanos, iterations, p50Nanos, p90Nanos, p99Nanos, p999Nanos, maxNanos, -1);
+    }
+
+    public BenchmarkResult(long totalTimeNanos, int iterations,
+                           long p50Nanos, long p90Nanos, long p99Nanos, long p999Nanos, long maxNanos,
+                           double allocatedBytesPerOp) {
         this.totalTimeNanos = totalTimeNanos;
         this.iterations = iterations;
         if (iterations > 0) {
@@ -16,6 +37,12 @@ public class BenchmarkResult {
         } else {
             this.averageTimeNanos = 0;
         }
+        this.p50Nanos = p50Nanos;
+        this.p90Nanos = p90Nanos;
+        this.p99Nanos = p99Nanos;
+        this.p999Nanos = p999Nanos;
+        this.maxNanos = maxNanos;
+        this.allocatedBytesPerOp = allocatedBytesPerOp;
     }
 
     public long getTotalTimeNanos() {
@@ -30,13 +57,70 @@ public class BenchmarkResult {
         return iterations;
     }
 
+    public long getP50Nanos() {
+        return p50Nanos;
+    }
+
+    public long getP90Nanos() {
+        return p90Nanos;
+    }
+
+    public long getP99Nanos() {
+        return p99Nanos;
+    }
+
+    public long getP999Nanos() {
+        return p999Nanos;
+    }
+
+    public long getMaxNanos() {
+        return maxNanos;
+    }
+
+    /**
+     * @return 平均每次呼叫配置的位元組數；未量測時為 -1
+     */
+    public double getAllocatedBytesPerOp() {
+        return allocatedBytesPerOp;
+    }
+
+    public boolean hasAllocationRate() {
+        return allocatedBytesPerOp >= 0;
+    }
+
+    /**
+     * @return 每秒完成的呼叫次數
+     */
+    public double getThroughputPerSecond() {
+        return totalTimeNanos > 0 ? iterations * 1_000_000_000.0 / totalTimeNanos : 0;
+    }
+
+    public boolean hasLatencyDistribution() {
+        return maxNanos > 0;
+    }
+
     @Override
     public String toString() {
-        return String.format(
+        String summary = String.format(
             "測試報告: 總共執行 %d 次, 總耗時: %.2f ms, 平均耗時: %.4f ms",
             iterations,
             totalTimeNanos / 1_000_000.0,
             averageTimeNanos / 1_000_000.0
         );
+        if (!hasLatencyDistribution()) {
+            return summary;
+        }
+        String allocation = hasAllocationRate()
+                ? String.format("\n記憶體配置: %.1f bytes/op", allocatedBytesPerOp)
+                : "";
+        return summary + String.format(
+            "\n延遲分佈: p50 %.4f ms, p90 %.4f ms, p99 %.4f ms, p99.9 %.4f ms, max %.4f ms\n吞吐量: %.0f ops/s",
+            p50Nanos / 1_000_000.0,
+            p90Nanos / 1_000_000.0,
+            p99Nanos / 1_000_000.0,
+            p999Nanos / 1_000_000.0,
+            maxNanos / 1_000_000.0,
+            getThroughputPerSecond()
+        ) + allocation;
     }
 }
@@ -0,0 +1,68 @@
+package com.yourcompany.course.model.dto;
+
+/**
+ * 用於封裝單一快取命中率與淘汰次數的資料傳輸物件 (DTO)。
+ */
+public class CacheStats {
+    private final String name;
+    private final long hitCount;
+    private final long missCount;        // 含因過期而重新查詢的次數
+    private final long evictionCount;    // 因容量上限被淘汰的項目數
+    private final long expirationCount;  // 因 TTL 到期被移除的項目數
+    private final int size;
+    private final int maximumSize;
+
+    public CacheStats(String name, long hitCount, long missCount, long evictionCount, long expirationCount,
+                      int size, int maximumSize) {
+        this.name = name;
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.evictionCount = evictionCount;
+        this.expirationCount = expirationCount;
+        this.size = size;
+        this.maximumSize = maximumSize;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    public long getMissCount() {
+        return missCount;
+    }
+
+    public long getRequestCount() {
+        return hitCount + missCount;
+    }
+
+    public double getHitRate() {
+        long requests = getRequestCount();
+        return requests == 0 ? 0.0 : (double) hitCount / requests;
+    }
+
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    public long getExpirationCount() {
+        return expirationCount;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int getMaximumSize() {
+        return maximumSize;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: 命中 %d, 未命中 %d, 命中率 %.1f%%, 淘汰 %d, 過期 %d, 項目 %d/%d",
+                name, hitCount, missCount, getHitRate() * 100, evictionCount, expirationCount, size, maximumSize);
+    }
+}
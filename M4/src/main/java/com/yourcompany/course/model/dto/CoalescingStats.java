@@ -0,0 +1,49 @@
+package com.yourcompany.course.model.dto;
+
+/**
+ * 用於封裝單一查詢種類的請求合併 (single-flight) 統計的資料傳輸物件 (DTO)。
+ */
+public class CoalescingStats {
+    private final String name;
+    private final long executionCount; // 實際送到被包裝服務的查詢數
+    private final long coalescedCount; // 直接共用其他呼叫進行中查詢結果的呼叫數
+    private final long retryCount;     // 共用的查詢被取消而重新查詢的次數
+
+    public CoalescingStats(String name, long executionCount, long coalescedCount, long retryCount) {
+        this.name = name;
+        this.executionCount = executionCount;
+        this.coalescedCount = coalescedCount;
+        this.retryCount = retryCount;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getExecutionCount() {
+        return executionCount;
+    }
+
+    public long getCoalescedCount() {
+        return coalescedCount;
+    }
+
+    public long getRetryCount() {
+        return retryCount;
+    }
+
+    public long getRequestCount() {
+        return executionCount + coalescedCount;
+    }
+
+    public double getCoalescedRate() {
+        long requests = getRequestCount();
+        return requests == 0 ? 0.0 : (double) coalescedCount / requests;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: 實際查詢 %d, 合併 %d, 合併率 %.1f%%, 取消後重查 %d",
+                name, executionCount, coalescedCount, getCoalescedRate() * 100, retryCount);
+    }
+}
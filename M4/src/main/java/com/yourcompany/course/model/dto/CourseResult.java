@@ -3,7 +3,7 @@ package com.yourcompany.course.model.dto;
 import java.util.Date;
 
 /**
- * 用於封裝課程查詢結果的資料傳輸物件 (DTO)。
+ * 用於封裝課程查詢結果的資料傳輸物件 (DTO)。記憶體索引回傳的是不可修改的子類別 {@link ReadOnlyCourseResult}。
  */
 public class CourseResult {
     private String courseName;
@@ -60,10 +60,10 @@ public class CourseResult {
     @Override
     public String toString() {
         return "CourseResult{" +
-                "courseName='" + courseName + '\'' +
-                ", credits=" + credits +
-                (enrollmentDate != null ? ", enrollmentDate=" + enrollmentDate : "") +
-                (enrollmentCount > 0 ? ", enrollmentCount=" + enrollmentCount : "") +
+                "courseName='" + getCourseName() + '\'' +
+                ", credits=" + getCredits() +
+                (getEnrollmentDate() != null ? ", enrollmentDate=" + getEnrollmentDate() : "") +
+                (getEnrollmentCount() > 0 ? ", enrollmentCount=" + getEnrollmentCount() : "") +
                 '}';
     }
 }
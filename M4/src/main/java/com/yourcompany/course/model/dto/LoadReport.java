@@ -0,0 +1,113 @@
+package com.yourcompany.course.model.dto;
+
+/**
+ * 用於封裝記憶體索引載入過程各階段耗時的資料傳輸物件 (DTO)。
+ */
+public class LoadReport {
+    private final long studentPhaseNanos;    // 載入學生資料耗時
+    private final long coursePhaseNanos;     // 載入課程資料耗時
+    private final long enrollmentScanNanos;  // 所有 Enrollment 分區掃描完成的牆鐘時間
+    private final long[] partitionNanos;     // 每個分區各自的掃描耗時
+    private final long mergeNanos;           // 合併片段並建立索引耗時
+    private final long totalNanos;           // 總耗時
+    private final long studentRows;
+    private final long courseRows;
+    private final long enrollmentRows;
+    private final boolean fromSnapshot;      // 是否由磁碟快照還原而非 JDBC 讀取
+
+    public LoadReport(long studentPhaseNanos, long coursePhaseNanos, long enrollmentScanNanos, long[] partitionNanos,
+                      long mergeNanos, long totalNanos, long studentRows, long courseRows, long enrollmentRows) {
+        this.studentPhaseNanos = studentPhaseNanos;
+        this.coursePhaseNanos = coursePhaseNanos;
+        this.enrollmentScanNanos = enrollmentScanNanos;
+        this.partitionNanos = partitionNanos.clone();
+        this.mergeNanos = mergeNanos;
+        this.totalNanos = totalNanos;
+        this.studentRows = studentRows;
+        this.courseRows = courseRows;
+        this.enrollmentRows = enrollmentRows;
+        this.fromSnapshot = false;
+    }
+
+    private LoadReport(long totalNanos, long studentRows, long courseRows, long enrollmentRows) {
+        this.studentPhaseNanos = 0;
+        this.coursePhaseNanos = 0;
+        this.enrollmentScanNanos = 0;
+        this.partitionNanos = new long[0];
+        this.mergeNanos = 0;
+        this.totalNanos = totalNanos;
+        this.studentRows = studentRows;
+        this.courseRows = courseRows;
+        this.enrollmentRows = enrollmentRows;
+        this.fromSnapshot = true;
+    }
+
+    /**
+     * 建立由快照還原時的報告，只記錄總耗時 (含筆數驗證、映射、校驗與建立索引)。
+     */
+    public static LoadReport fromSnapshot(long totalNanos, long studentRows, long courseRows, long enrollmentRows) {
+        return new LoadReport(totalNanos, studentRows, courseRows, enrollmentRows);
+    }
+
+    public long getStudentPhaseNanos() {
+        return studentPhaseNanos;
+    }
+
+    public long getCoursePhaseNanos() {
+        return coursePhaseNanos;
+    }
+
+    public long getEnrollmentScanNanos() {
+        return enrollmentScanNanos;
+    }
+
+    public long[] getPartitionNanos() {
+        return partitionNanos.clone();
+    }
+
+    public long getMergeNanos() {
+        return mergeNanos;
+    }
+
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    public long getStudentRows() {
+        return studentRows;
+    }
+
+    public long getCourseRows() {
+        return courseRows;
+    }
+
+    public long getEnrollmentRows() {
+        return enrollmentRows;
+    }
+
+    public boolean isFromSnapshot() {
+        return fromSnapshot;
+    }
+
+    @Override
+    public String toString() {
+        if (fromSnapshot) {
+            return String.format("載入報告 (磁碟快照): 學生 %d 筆, 課程 %d 筆, 選課 %d 筆, 總耗時 %.1f ms",
+                    studentRows, courseRows, enrollmentRows, totalNanos / 1_000_000.0);
+        }
+        StringBuilder partitions = new StringBuilder();
+        for (int i = 0; i < partitionNanos.length; i++) {
+            if (i > 0) partitions.append(", ");
+            partitions.append(String.format("%.1f", partitionNanos[i] / 1_000_000.0));
+        }
+        return String.format(
+            "載入報告: 學生 %d 筆 %.1f ms, 課程 %d 筆 %.1f ms, 選課 %d 筆 %.1f ms (%d 個分區: [%s] ms), 合併 %.1f ms, 總耗時 %.1f ms",
+            studentRows, studentPhaseNanos / 1_000_000.0,
+            courseRows, coursePhaseNanos / 1_000_000.0,
+            enrollmentRows, enrollmentScanNanos / 1_000_000.0,
+            partitionNanos.length, partitions,
+            mergeNanos / 1_000_000.0,
+            totalNanos / 1_000_000.0
+        );
+    }
+}
@@ -0,0 +1,98 @@
+package com.yourcompany.course.model.dto;
+
+/**
+ * 用於封裝多執行緒負載測試結果的資料傳輸物件 (DTO)。
+ */
+public class LoadTestResult {
+    private final int threads;                // 工作執行緒數
+    private final double targetRatePerSecond; // 目標請求速率 (0 表示 closed-loop)
+    private final BenchmarkResult latency;    // 請求延遲分佈與吞吐量
+    private final long poolWaitP50Nanos;      // 連線池等待時間
+    private final long poolWaitP99Nanos;
+    private final long poolWaitMaxNanos;
+    private final long poolTimeouts;          // 期間內取得連線逾時的次數
+    private final long errors;                // 查詢拋出例外的次數
+    private final boolean async;              // threads 是否代表非同步 API 的同時未完成請求數
+
+    public LoadTestResult(int threads, double targetRatePerSecond, BenchmarkResult latency,
+                          long poolWaitP50Nanos, long poolWaitP99Nanos, long poolWaitMaxNanos,
+                          long poolTimeouts, long errors) {
+        this(threads, targetRatePerSecond, latency, poolWaitP50Nanos, poolWaitP99Nanos, poolWaitMaxNanos, poolTimeouts, errors, false);
+    }
+
+    /**
+     * @param async 為 true 時 threads 代表透過非同步 API 同時未完成的請求數，而不是呼叫端執行緒數
+     */
+    public LoadTestResult(int threads, double targetRatePerSecond, BenchmarkResult latency,
+                          long poolWaitP50Nanos, long poolWaitP99Nanos, long poolWaitMaxNanos,
+                          long poolTimeouts, long errors, boolean async) {
+        this.threads = threads;
+        this.targetRatePerSecond = targetRatePerSecond;
+        this.latency = latency;
+        this.poolWaitP50Nanos = poolWaitP50Nanos;
+        this.poolWaitP99Nanos = poolWaitP99Nanos;
+        this.poolWaitMaxNanos = poolWaitMaxNanos;
+        this.poolTimeouts = poolTimeouts;
+        this.errors = errors;
+        this.async = async;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public double getTargetRatePerSecond() {
+        return targetRatePerSecond;
+    }
+
+    public BenchmarkResult getLatency() {
+        return latency;
+    }
+
+    public double getThroughputPerSecond() {
+        return latency.getThroughputPerSecond();
+    }
+
+    public long getPoolWaitP50Nanos() {
+        return poolWaitP50Nanos;
+    }
+
+    public long getPoolWaitP99Nanos() {
+        return poolWaitP99Nanos;
+    }
+
+    public long getPoolWaitMaxNanos() {
+        return poolWaitMaxNanos;
+    }
+
+    public long getPoolTimeouts() {
+        return poolTimeouts;
+    }
+
+    public long getErrors() {
+        return errors;
+    }
+
+    public boolean isAsync() {
+        return async;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+            "%3d %s%s: 吞吐量 %,10.0f ops/s, p50 %.3f ms, p99 %.3f ms, max %.3f ms | 連線池等待 p50 %.3f ms, p99 %.3f ms, max %.3f ms, 逾時 %d, 錯誤 %d",
+            threads,
+            async ? "並行請求 (非同步)" : "執行緒",
+            targetRatePerSecond > 0 ? String.format(" (目標 %.0f ops/s)", targetRatePerSecond) : "",
+            latency.getThroughputPerSecond(),
+            latency.getP50Nanos() / 1_000_000.0,
+            latency.getP99Nanos() / 1_000_000.0,
+            latency.getMaxNanos() / 1_000_000.0,
+            poolWaitP50Nanos / 1_000_000.0,
+            poolWaitP99Nanos / 1_000_000.0,
+            poolWaitMaxNanos / 1_000_000.0,
+            poolTimeouts,
+            errors
+        );
+    }
+}
@@ -0,0 +1,68 @@
+package com.yourcompany.course.model.dto;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 用於封裝記憶體用量明細的資料傳輸物件 (DTO)。
+ * 每一項包含類別 (索引、實體快取、字串池...)、結構名稱與估算的位元組數。
+ */
+public class MemoryBreakdown {
+
+    public static class Entry {
+        private final String category;
+        private final String name;
+        private final long bytes;
+
+        public Entry(String category, String name, long bytes) {
+            this.category = category;
+            this.name = name;
+            this.bytes = bytes;
+        }
+
+        public String getCategory() { return category; }
+        public String getName() { return name; }
+        public long getBytes() { return bytes; }
+    }
+
+    private final List<Entry> entries = new ArrayList<>();
+
+    public MemoryBreakdown add(String category, String name, long bytes) {
+        entries.add(new Entry(category, name, bytes));
+        return this;
+    }
+
+    public List<Entry> getEntries() {
+        return Collections.unmodifiableList(entries);
+    }
+
+    public long getTotalBytes() {
+        long total = 0;
+        for (Entry entry : entries) {
+            total += entry.bytes;
+        }
+        return total;
+    }
+
+    /**
+     * @return 指定類別的合計位元組數
+     */
+    public long getCategoryBytes(String category) {
+        long total = 0;
+        for (Entry entry : entries) {
+            if (entry.category.equals(category)) total += entry.bytes;
+        }
+        return total;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (Entry entry : entries) {
+            sb.append(String.format("  %-14s %-30s %,14d bytes%n", entry.category, entry.name, entry.bytes));
+        }
+        sb.append(String.format("  %-45s %,14d bytes (%.1f MB)", "總計", getTotalBytes(), getTotalBytes() / (1024.0 * 1024.0)));
+        return sb.toString();
+    }
+}
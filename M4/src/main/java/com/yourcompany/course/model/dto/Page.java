@@ -0,0 +1,73 @@
+package com.yourcompany.course.model.dto;
+
+import java.nio.ByteBuffer;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 分頁查詢的一頁結果與取得下一頁用的游標 (cursor)。
+ * <p>
+ * 游標對呼叫端是不透明的字串，只能原封不動地傳回產生它的同一個服務；
+ * 其內容 (鍵值或位移) 由各服務自行解讀。
+ *
+ * @param <T> 結果項目的型別
+ */
+public class Page<T> {
+    private final List<T> items;
+    private final String nextCursor; // 最後一頁為 null
+
+    public Page(List<T> items, String nextCursor) {
+        this.items = Collections.unmodifiableList(items);
+        this.nextCursor = nextCursor;
+    }
+
+    public static <T> Page<T> empty() {
+        return new Page<>(Collections.emptyList(), null);
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+
+    /**
+     * 把一個 long (最後一筆的鍵或下一頁的位移) 編碼成游標字串。
+     */
+    public static String encodeCursor(long position) {
+        byte[] bytes = ByteBuffer.allocate(Long.BYTES).putLong(position).array();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    /**
+     * @param cursor 由 {@link #encodeCursor(long)} 產生的字串
+     * @throws IllegalArgumentException 游標格式不正確時
+     */
+    public static long decodeCursor(String cursor) {
+        byte[] bytes;
+        try {
+            bytes = Base64.getUrlDecoder().decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid page cursor: " + cursor, e);
+        }
+        if (bytes.length != Long.BYTES) {
+            throw new IllegalArgumentException("Invalid page cursor: " + cursor);
+        }
+        return ByteBuffer.wrap(bytes).getLong();
+    }
+
+    @Override
+    public String toString() {
+        return "Page{" +
+                "items=" + items.size() +
+                ", nextCursor=" + nextCursor +
+                '}';
+    }
+}
@@ -0,0 +1,60 @@
+package com.yourcompany.course.model.dto;
+
+import java.sql.Timestamp;
+import java.util.Date;
+
+/**
+ * 記憶體索引回傳的課程結果：建立後不可修改，可安全地被多個呼叫端與執行緒共用 (例如被記住的結果視圖)。
+ * <p>
+ * setter 一律拋出 {@link UnsupportedOperationException}；{@link #getEnrollmentDate()} 每次回傳新的 Timestamp，
+ * 呼叫端修改它不影響其他人。
+ */
+public final class ReadOnlyCourseResult extends CourseResult {
+    private static final long NO_ENROLLMENT_DATE = Long.MIN_VALUE;
+
+    private final long enrollmentMillis;
+
+    private ReadOnlyCourseResult(String courseName, int credits, long enrollmentCount, long enrollmentMillis) {
+        super(courseName, credits, enrollmentCount);
+        this.enrollmentMillis = enrollmentMillis;
+    }
+
+    /**
+     * @return 學生選課清單中的一列
+     */
+    public static ReadOnlyCourseResult enrolled(String courseName, int credits, long enrollmentMillis) {
+        return new ReadOnlyCourseResult(courseName, credits, 0, enrollmentMillis);
+    }
+
+    /**
+     * @return 熱門課程排名中的一列
+     */
+    public static ReadOnlyCourseResult popular(String courseName, int credits, long enrollmentCount) {
+        return new ReadOnlyCourseResult(courseName, credits, enrollmentCount, NO_ENROLLMENT_DATE);
+    }
+
+    @Override
+    public Date getEnrollmentDate() {
+        return enrollmentMillis == NO_ENROLLMENT_DATE ? null : new Timestamp(enrollmentMillis);
+    }
+
+    @Override
+    public void setCourseName(String courseName) {
+        throw new UnsupportedOperationException("Shared in-memory results are read-only");
+    }
+
+    @Override
+    public void setCredits(int credits) {
+        throw new UnsupportedOperationException("Shared in-memory results are read-only");
+    }
+
+    @Override
+    public void setEnrollmentDate(Date enrollmentDate) {
+        throw new UnsupportedOperationException("Shared in-memory results are read-only");
+    }
+
+    @Override
+    public void setEnrollmentCount(long enrollmentCount) {
+        throw new UnsupportedOperationException("Shared in-memory results are read-only");
+    }
+}
@@ -0,0 +1,75 @@
+package com.yourcompany.course.model.dto;
+
+import java.sql.Timestamp;
+import java.util.Date;
+
+/**
+ * 記憶體索引回傳的學生結果：建立後不可修改，可安全地被多個呼叫端與執行緒共用 (例如被記住的結果視圖)。
+ * <p>
+ * 以姓名與 email 的組成部分建立，全名與 email 延後到第一次讀取時才組合；組合結果以 volatile 欄位記住，
+ * 同時讀取的執行緒最多各組合一次，結果相同。setter 一律拋出 {@link UnsupportedOperationException}，
+ * {@link #getEnrollmentDate()} 每次回傳新的 Timestamp，呼叫端修改它不影響其他人。
+ */
+public final class ReadOnlyStudentResult extends StudentResult {
+    private final String firstName;
+    private final String lastName;
+    private final String emailLocalPart;
+    private final String emailDomain;
+    private final long enrollmentMillis;
+
+    private volatile String studentFullName;
+    private volatile String email;
+
+    /**
+     * @param emailDomain email '@' 之後的部分；null 表示 emailLocalPart 就是完整的 email
+     */
+    public ReadOnlyStudentResult(String firstName, String lastName, String emailLocalPart, String emailDomain,
+                                 long enrollmentMillis) {
+        super(null, null, null);
+        this.firstName = firstName;
+        this.lastName = lastName;
+        this.emailLocalPart = emailLocalPart;
+        this.emailDomain = emailDomain;
+        this.enrollmentMillis = enrollmentMillis;
+    }
+
+    @Override
+    public String getStudentFullName() {
+        String fullName = studentFullName;
+        if (fullName == null) {
+            fullName = firstName + " " + lastName;
+            studentFullName = fullName;
+        }
+        return fullName;
+    }
+
+    @Override
+    public String getEmail() {
+        String value = email;
+        if (value == null && emailLocalPart != null) {
+            value = emailDomain == null ? emailLocalPart : emailLocalPart + "@" + emailDomain;
+            email = value;
+        }
+        return value;
+    }
+
+    @Override
+    public Date getEnrollmentDate() {
+        return new Timestamp(enrollmentMillis);
+    }
+
+    @Override
+    public void setStudentFullName(String studentFullName) {
+        throw new UnsupportedOperationException("Shared in-memory results are read-only");
+    }
+
+    @Override
+    public void setEmail(String email) {
+        throw new UnsupportedOperationException("Shared in-memory results are read-only");
+    }
+
+    @Override
+    public void setEnrollmentDate(Date enrollmentDate) {
+        throw new UnsupportedOperationException("Shared in-memory results are read-only");
+    }
+}
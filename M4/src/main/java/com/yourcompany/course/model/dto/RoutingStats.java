@@ -0,0 +1,71 @@
+package com.yourcompany.course.model.dto;
+
+/**
+ * 用於封裝自動路由 (SQL / 記憶體) 統計的資料傳輸物件 (DTO)。
+ */
+public class RoutingStats {
+    private final long memoryCalls;       // 由記憶體索引回答的請求數 (含降級)
+    private final long sqlCalls;          // 由 SQL 回答的請求數
+    private final long degradedCalls;     // SQL 斷路期間改由 (可能過期的) 記憶體索引回答的請求數
+    private final long shedCalls;         // SQL 斷路且記憶體索引不可用而直接拒絕的請求數
+    private final long memoryLatencyNanos; // 指數加權移動平均延遲；尚無樣本時為 -1
+    private final long sqlLatencyNanos;
+    private final String circuitState;
+    private final boolean indexUsable;    // 記憶體索引目前是否已載入、未在載入中且未過期
+
+    public RoutingStats(long memoryCalls, long sqlCalls, long degradedCalls, long shedCalls,
+                        long memoryLatencyNanos, long sqlLatencyNanos, String circuitState, boolean indexUsable) {
+        this.memoryCalls = memoryCalls;
+        this.sqlCalls = sqlCalls;
+        this.degradedCalls = degradedCalls;
+        this.shedCalls = shedCalls;
+        this.memoryLatencyNanos = memoryLatencyNanos;
+        this.sqlLatencyNanos = sqlLatencyNanos;
+        this.circuitState = circuitState;
+        this.indexUsable = indexUsable;
+    }
+
+    public long getMemoryCalls() {
+        return memoryCalls;
+    }
+
+    public long getSqlCalls() {
+        return sqlCalls;
+    }
+
+    public long getDegradedCalls() {
+        return degradedCalls;
+    }
+
+    public long getShedCalls() {
+        return shedCalls;
+    }
+
+    public long getMemoryLatencyNanos() {
+        return memoryLatencyNanos;
+    }
+
+    public long getSqlLatencyNanos() {
+        return sqlLatencyNanos;
+    }
+
+    public String getCircuitState() {
+        return circuitState;
+    }
+
+    public boolean isIndexUsable() {
+        return indexUsable;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("記憶體 %d (降級 %d), SQL %d, 拒絕 %d | 平均延遲 記憶體 %s, SQL %s | SQL 斷路器 %s, 記憶體索引%s",
+                memoryCalls, degradedCalls, sqlCalls, shedCalls,
+                formatMillis(memoryLatencyNanos), formatMillis(sqlLatencyNanos),
+                circuitState, indexUsable ? "可用" : "不可用");
+    }
+
+    private static String formatMillis(long nanos) {
+        return nanos < 0 ? "-" : String.format("%.3f ms", nanos / 1_000_000.0);
+    }
+}
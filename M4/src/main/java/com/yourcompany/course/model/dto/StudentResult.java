@@ -4,6 +4,7 @@ import java.util.Date;
 
 /**
  * FINAL REFACTORED VERSION - Matches the correct database schema.
+ * 記憶體索引回傳的是不可修改的子類別 {@link ReadOnlyStudentResult}。
  */
 public class StudentResult {
     private String studentFullName;
@@ -27,9 +28,9 @@ public class StudentResult {
     @Override
     public String toString() {
         return "StudentResult{" +
-                "studentFullName='" + studentFullName + '\'' +
-                ", email='" + email + '\'' +
-                ", enrollmentDate=" + enrollmentDate +
+                "studentFullName='" + getStudentFullName() + '\'' +
+                ", email='" + getEmail() + '\'' +
+                ", enrollmentDate=" + getEnrollmentDate() +
                 '}';
     }
 }
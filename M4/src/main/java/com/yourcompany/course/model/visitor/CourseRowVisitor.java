@@ -0,0 +1,16 @@
+package com.yourcompany.course.model.visitor;
+
+/**
+ * 逐列接收「某學生選修的課程」的回呼介面，只傳遞基本型別欄位，不建立 DTO。
+ */
+@FunctionalInterface
+public interface CourseRowVisitor {
+
+    /**
+     * @param courseId         課程ID
+     * @param credits          學分數
+     * @param enrollmentMillis 選課時間 (epoch 毫秒)
+     * @return true 繼續走訪下一列；false 提前結束
+     */
+    boolean visit(long courseId, int credits, long enrollmentMillis);
+}
@@ -0,0 +1,16 @@
+package com.yourcompany.course.model.visitor;
+
+/**
+ * 依選修人數由多到少逐列接收熱門課程的回呼介面，只傳遞基本型別欄位，不建立 DTO。
+ */
+@FunctionalInterface
+public interface PopularCourseVisitor {
+
+    /**
+     * @param courseId        課程ID
+     * @param credits         學分數
+     * @param enrollmentCount 選修人數
+     * @return true 繼續走訪下一列；false 提前結束
+     */
+    boolean visit(long courseId, int credits, long enrollmentCount);
+}
@@ -0,0 +1,15 @@
+package com.yourcompany.course.model.visitor;
+
+/**
+ * 逐列接收「選修某課程的學生」的回呼介面，只傳遞基本型別欄位，不建立 DTO。
+ */
+@FunctionalInterface
+public interface StudentRowVisitor {
+
+    /**
+     * @param studentId        學生ID
+     * @param enrollmentMillis 選課時間 (epoch 毫秒)
+     * @return true 繼續走訪下一列；false 提前結束
+     */
+    boolean visit(long studentId, long enrollmentMillis);
+}
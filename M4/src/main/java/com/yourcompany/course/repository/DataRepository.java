@@ -1,11 +1,16 @@
 package com.yourcompany.course.repository;
 
+import com.yourcompany.course.model.ChangeLogEntry;
 import com.yourcompany.course.model.Course;
 import com.yourcompany.course.model.Enrollment;
 import com.yourcompany.course.model.Student;
 import com.yourcompany.course.model.Teacher;
 import com.yourcompany.course.model.dto.CourseResult;
+import com.yourcompany.course.model.dto.Page;
 import com.yourcompany.course.model.dto.StudentResult;
+import com.yourcompany.course.model.visitor.CourseRowVisitor;
+import com.yourcompany.course.model.visitor.PopularCourseVisitor;
+import com.yourcompany.course.model.visitor.StudentRowVisitor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -16,8 +21,16 @@ import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.LongStream;
 
 /**
  * FINAL REFACTORED VERSION - Matches the correct database schema.
@@ -25,12 +38,33 @@ import java.util.stream.Collectors;
 public class DataRepository {
 
     private static final Logger logger = LoggerFactory.getLogger(DataRepository.class);
+    private static final int DEFAULT_STREAM_FETCH_SIZE = 10_000;
+    private static final int DEFAULT_INSERT_BATCH_SIZE = 1_000;
+    private static final int KEY_LOOKUP_BATCH_SIZE = 1_000;
+    private static final int MAX_PLACEHOLDERS = 65_535; // MariaDB limit on parameters per prepared statement
+
     private final DataSource dataSource;
+    private int streamFetchSize = DEFAULT_STREAM_FETCH_SIZE;
+    private int insertBatchSize = DEFAULT_INSERT_BATCH_SIZE;
 
     public DataRepository(DataSource dataSource) {
         this.dataSource = dataSource;
     }
 
+    /**
+     * 設定串流讀取 (stream*) 時每次從伺服器取回的列數。
+     */
+    public void setStreamFetchSize(int streamFetchSize) {
+        this.streamFetchSize = streamFetchSize;
+    }
+
+    /**
+     * 設定 batchInsertTeachers/Students/Courses 每條多列 INSERT 包含的列數。
+     */
+    public void setInsertBatchSize(int insertBatchSize) {
+        this.insertBatchSize = insertBatchSize;
+    }
+
     public void setupDatabase() {
         String schema;
         try (InputStream in = getClass().getResourceAsStream("/db_schema.sql")) {
@@ -84,68 +118,119 @@ public class DataRepository {
 
     // --- END of Smart Generation Methods ---
 
-    public void batchInsertTeachers(List<Teacher> teachers) {
-        String sql = "INSERT INTO Teacher (name, email) VALUES (?, ?)";
-        try (Connection conn = dataSource.getConnection(); PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-            for (Teacher teacher : teachers) {
-                pstmt.setString(1, teacher.getName());
-                pstmt.setString(2, teacher.getEmail());
-                if (pstmt.executeUpdate() > 0) {
-                    try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
-                        if (generatedKeys.next()) {
-                            teacher.setTeacherId(generatedKeys.getLong(1));
+    /**
+     * 以多列 VALUES 的 INSERT 分批寫入老師，並把資料庫產生的 ID 寫回物件。
+     *
+     * @return 實際寫入的列數
+     */
+    public int batchInsertTeachers(List<Teacher> teachers) {
+        return insertMultiRow("Teacher", "name, email", 2, teachers, (pstmt, index, teacher) -> {
+            pstmt.setString(index, teacher.getName());
+            pstmt.setString(index + 1, teacher.getEmail());
+        }, Teacher::setTeacherId);
+    }
+
+    /**
+     * 以多列 VALUES 的 INSERT 分批寫入學生，並把資料庫產生的 ID 寫回物件。
+     *
+     * @return 實際寫入的列數
+     */
+    public int batchInsertStudents(List<Student> students) {
+        return insertMultiRow("Student", "first_name, last_name, date_of_birth, email", 4, students, (pstmt, index, student) -> {
+            pstmt.setString(index, student.getFirstName());
+            pstmt.setString(index + 1, student.getLastName());
+            pstmt.setDate(index + 2, new java.sql.Date(student.getDateOfBirth().getTime()));
+            pstmt.setString(index + 3, student.getEmail());
+        }, Student::setStudentId);
+    }
+
+    /**
+     * 以多列 VALUES 的 INSERT 分批寫入課程，並把資料庫產生的 ID 寫回物件。
+     *
+     * @return 實際寫入的列數
+     */
+    public int batchInsertCourses(List<Course> courses) {
+        return insertMultiRow("Course", "course_name, course_description, credits, teacher_id", 4, courses, (pstmt, index, course) -> {
+            pstmt.setString(index, course.getCourseName());
+            pstmt.setString(index + 1, course.getCourseDescription());
+            pstmt.setInt(index + 2, course.getCredits());
+            pstmt.setLong(index + 3, course.getTeacherId());
+        }, Course::setCourseId);
+    }
+
+    /**
+     * 每 insertBatchSize 列組成一條 INSERT ... VALUES (...), (...), ... 送出，一次網路往返寫入整批資料。
+     * <p>
+     * Connector/J 3.x 對多列 INSERT 只回傳第一列的 LAST_INSERT_ID，
+     * 因此其餘列的 ID 以 first + i * @@auto_increment_increment 推得；
+     * 單一多列 INSERT 屬於 "simple insert"，InnoDB 保證其 ID 連續 (innodb_autoinc_lock_mode &lt;= 1)。
+     */
+    private <T> int insertMultiRow(String table, String columns, int columnCount, List<T> rows,
+                                   RowBinder<T> binder, BiConsumer<T, Long> idSetter) {
+        if (rows.isEmpty()) return 0;
+        int chunkSize = Math.max(1, Math.min(insertBatchSize, MAX_PLACEHOLDERS / columnCount));
+        String rowPlaceholder = "(" + String.join(", ", Collections.nCopies(columnCount, "?")) + ")";
+        int inserted = 0;
+        try (Connection conn = dataSource.getConnection()) {
+            long increment = autoIncrementIncrement(conn);
+            setChangeLogSuppressed(conn, true);
+            try {
+                for (int from = 0; from < rows.size(); from += chunkSize) {
+                    List<T> chunk = rows.subList(from, Math.min(from + chunkSize, rows.size()));
+                    String sql = "INSERT INTO " + table + " (" + columns + ") VALUES "
+                            + String.join(", ", Collections.nCopies(chunk.size(), rowPlaceholder));
+                    try (PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+                        int parameterIndex = 1;
+                        for (T row : chunk) {
+                            binder.bind(pstmt, parameterIndex, row);
+                            parameterIndex += columnCount;
                         }
+                        int affected = pstmt.executeUpdate();
+                        try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
+                            if (generatedKeys.next()) {
+                                long firstId = generatedKeys.getLong(1);
+                                for (int i = 0; i < chunk.size(); i++) {
+                                    idSetter.accept(chunk.get(i), firstId + i * increment);
+                                }
+                            }
+                        }
+                        inserted += affected;
                     }
                 }
+            } finally {
+                setChangeLogSuppressed(conn, false);
             }
         } catch (SQLException e) {
-            logger.error("Insert for Teacher failed.", e);
+            logger.error("Batch insert for {} failed after {} rows.", table, inserted, e);
         }
+        return inserted;
     }
 
-    public void batchInsertStudents(List<Student> students) {
-        String sql = "INSERT INTO Student (first_name, last_name, date_of_birth, email) VALUES (?, ?, ?, ?)";
-        try (Connection conn = dataSource.getConnection(); PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-            for (Student student : students) {
-                pstmt.setString(1, student.getFirstName());
-                pstmt.setString(2, student.getLastName());
-                pstmt.setDate(3, new java.sql.Date(student.getDateOfBirth().getTime()));
-                pstmt.setString(4, student.getEmail());
-                if (pstmt.executeUpdate() > 0) {
-                    try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
-                        if (generatedKeys.next()) {
-                            student.setStudentId(generatedKeys.getLong(1));
-                        }
-                    }
-                }
-            }
-        } catch (SQLException e) {
-            logger.error("Insert for Student failed.", e);
+    private long autoIncrementIncrement(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery("SELECT @@auto_increment_increment")) {
+            return rs.next() ? rs.getLong(1) : 1;
         }
     }
 
-    public void batchInsertCourses(List<Course> courses) {
-        String sql = "INSERT INTO Course (course_name, course_description, credits, teacher_id) VALUES (?, ?, ?, ?)";
-        try (Connection conn = dataSource.getConnection(); PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-            for (Course course : courses) {
-                pstmt.setString(1, course.getCourseName());
-                pstmt.setString(2, course.getCourseDescription());
-                pstmt.setInt(3, course.getCredits());
-                pstmt.setLong(4, course.getTeacherId());
-                if (pstmt.executeUpdate() > 0) {
-                    try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
-                        if (generatedKeys.next()) {
-                            course.setCourseId(generatedKeys.getLong(1));
-                        }
-                    }
-                }
-            }
-        } catch (SQLException e) {
-            logger.error("Insert for Course failed.", e);
+    /**
+     * 設定此連線的 @skip_change_log，讓 db_schema.sql 中的 trigger 不為大量寫入記錄變更。
+     * 大量寫入後呼叫端應以 InMemorySearchService.loadData() 完整重新載入。
+     */
+    private static void setChangeLogSuppressed(Connection conn, boolean suppressed) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute(suppressed ? "SET @skip_change_log = 1" : "SET @skip_change_log = NULL");
         }
     }
 
-    public void batchInsertEnrollments(List<Enrollment> enrollments) {
+    @FunctionalInterface
+    private interface RowBinder<T> {
+        void bind(PreparedStatement pstmt, int firstParameterIndex, T row) throws SQLException;
+    }
+
+    /**
+     * @return 實際寫入的列數
+     */
+    public int batchInsertEnrollments(List<Enrollment> enrollments) {
         String sql = "INSERT INTO Enrollment (student_id, course_id, enrollment_date) VALUES (?, ?, ?)";
         try (Connection conn = dataSource.getConnection(); PreparedStatement pstmt = conn.prepareStatement(sql)) {
             for (Enrollment enrollment : enrollments) {
@@ -154,18 +239,139 @@ public class DataRepository {
                 pstmt.setTimestamp(3, new Timestamp(enrollment.getEnrollmentDate().getTime()));
                 pstmt.addBatch();
             }
-            pstmt.executeBatch();
+            setChangeLogSuppressed(conn, true);
+            try {
+                return affectedRows(pstmt.executeBatch());
+            } finally {
+                setChangeLogSuppressed(conn, false);
+            }
         } catch (SQLException e) {
             logger.error("Batch insert for Enrollment failed.", e);
+            return 0;
+        }
+    }
+
+    /**
+     * 加總 executeBatch() 的更新筆數；驅動程式無法得知個別筆數時 (例如開啟 rewriteBatchedStatements)
+     * 回傳 SUCCESS_NO_INFO，此時以成功寫入一列計算。
+     */
+    private static int affectedRows(int[] updateCounts) {
+        int rows = 0;
+        for (int count : updateCounts) {
+            if (count > 0) {
+                rows += count;
+            } else if (count == Statement.SUCCESS_NO_INFO) {
+                rows++;
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * 新增單筆選課 (會寫入 ChangeLog)。
+     *
+     * @return 成功寫入返回 true；已選過此課、學生或課程不存在或其他錯誤時返回 false
+     */
+    public boolean insertEnrollment(long studentId, long courseId, Timestamp enrollmentDate) {
+        String sql = "INSERT INTO Enrollment (student_id, course_id, enrollment_date) VALUES (?, ?, ?)";
+        try (Connection conn = dataSource.getConnection(); PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setLong(1, studentId);
+            pstmt.setLong(2, courseId);
+            pstmt.setTimestamp(3, enrollmentDate);
+            return pstmt.executeUpdate() == 1;
+        } catch (SQLIntegrityConstraintViolationException e) {
+            logger.info("Enrollment ({}, {}) rejected: {}", studentId, courseId, e.getMessage());
+        } catch (SQLException e) {
+            logger.error("Failed to insert enrollment ({}, {})", studentId, courseId, e);
+        }
+        return false;
+    }
+
+    /**
+     * 刪除單筆選課 (會寫入 ChangeLog)。
+     *
+     * @return 確實刪除了一列時返回 true
+     */
+    public boolean deleteEnrollment(long studentId, long courseId) {
+        String sql = "DELETE FROM Enrollment WHERE student_id = ? AND course_id = ?";
+        try (Connection conn = dataSource.getConnection(); PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setLong(1, studentId);
+            pstmt.setLong(2, courseId);
+            return pstmt.executeUpdate() == 1;
+        } catch (SQLException e) {
+            logger.error("Failed to delete enrollment ({}, {})", studentId, courseId, e);
+        }
+        return false;
+    }
+
+    // --- Bulk load path (LOAD DATA LOCAL INFILE) ---
+
+    /**
+     * 透過 LOAD DATA LOCAL INFILE 從記憶體串流匯入選課紀錄 (需要連線屬性 allowLocalInfile=true)。
+     * 串流內容為 "student_id,course_id,epoch_seconds" 的文字列。
+     * 匯入期間在此連線上關閉 unique_checks 與 foreign_key_checks，也不寫入 ChangeLog。
+     *
+     * @return 匯入的列數
+     */
+    public long loadEnrollments(InputStream csv) {
+        String sql = "LOAD DATA LOCAL INFILE 'enrollments.csv' INTO TABLE Enrollment "
+                + "FIELDS TERMINATED BY ',' LINES TERMINATED BY '\\n' "
+                + "(student_id, course_id, @enrollment_seconds) SET enrollment_date = FROM_UNIXTIME(@enrollment_seconds)";
+        try (Connection conn = dataSource.getConnection(); Statement stmt = conn.createStatement()) {
+            stmt.execute("SET SESSION unique_checks = 0, SESSION foreign_key_checks = 0, @skip_change_log = 1");
+            try {
+                stmt.unwrap(org.mariadb.jdbc.Statement.class).setLocalInfileInputStream(csv);
+                return stmt.executeLargeUpdate(sql);
+            } finally {
+                stmt.execute("SET SESSION unique_checks = 1, SESSION foreign_key_checks = 1, @skip_change_log = NULL");
+            }
+        } catch (SQLException e) {
+            logger.error("LOAD DATA for Enrollment failed.", e);
+            return 0;
+        }
+    }
+
+    /**
+     * 移除 Enrollment 的次要索引與外鍵 (名稱見 db_schema.sql)，供大量匯入前使用。
+     */
+    public void dropEnrollmentSecondaryIndexes() {
+        try (Connection conn = dataSource.getConnection(); Statement stmt = conn.createStatement()) {
+            stmt.execute("ALTER TABLE Enrollment DROP FOREIGN KEY fk_enrollment_student, DROP FOREIGN KEY fk_enrollment_course");
+            stmt.execute("ALTER TABLE Enrollment DROP INDEX idx_enrollment_student_id, DROP INDEX idx_enrollment_course_id");
+        } catch (SQLException e) {
+            logger.error("Failed to drop Enrollment secondary indexes", e);
         }
     }
 
+    /**
+     * 重建 {@link #dropEnrollmentSecondaryIndexes()} 移除的索引與外鍵。
+     * 外鍵在 foreign_key_checks = 0 下加回，不重新驗證已匯入的資料。
+     */
+    public void createEnrollmentSecondaryIndexes() {
+        try (Connection conn = dataSource.getConnection(); Statement stmt = conn.createStatement()) {
+            stmt.execute("ALTER TABLE Enrollment ADD INDEX idx_enrollment_student_id (student_id), ADD INDEX idx_enrollment_course_id (course_id)");
+            stmt.execute("SET SESSION foreign_key_checks = 0");
+            try {
+                stmt.execute("ALTER TABLE Enrollment ADD CONSTRAINT fk_enrollment_student FOREIGN KEY (student_id) REFERENCES Student(student_id), "
+                        + "ADD CONSTRAINT fk_enrollment_course FOREIGN KEY (course_id) REFERENCES Course(course_id)");
+            } finally {
+                stmt.execute("SET SESSION foreign_key_checks = 1");
+            }
+        } catch (SQLException e) {
+            logger.error("Failed to re-create Enrollment secondary indexes", e);
+        }
+    }
+
+    // --- Search queries: each statement is registered with the calling thread's QueryCancellation (if any),
+    // so an async caller's timeout or cancel() reaches Statement.cancel().
+
     public List<CourseResult> findCoursesByStudentId(long studentId) {
         List<CourseResult> results = new ArrayList<>();
         String sql = "SELECT c.course_name, c.credits, e.enrollment_date FROM Enrollment e JOIN Course c ON e.course_id = c.course_id WHERE e.student_id = ?";
-        try (Connection conn = dataSource.getConnection(); PreparedStatement stmt = conn.prepareStatement(sql)) {
+        try (Connection conn = dataSource.getConnection(); PreparedStatement stmt = conn.prepareStatement(sql);
+             QueryCancellation.RegisteredQuery query = QueryCancellation.register(stmt)) {
             stmt.setLong(1, studentId);
-            try (ResultSet rs = stmt.executeQuery()) {
+            try (ResultSet rs = query.executeQuery()) {
                 while (rs.next()) {
                     results.add(new CourseResult(rs.getString("course_name"), rs.getInt("credits"), rs.getTimestamp("enrollment_date")));
                 }
@@ -179,9 +385,10 @@ public class DataRepository {
     public List<StudentResult> findStudentsByCourseId(long courseId) {
         List<StudentResult> results = new ArrayList<>();
         String sql = "SELECT s.first_name, s.last_name, s.email, e.enrollment_date FROM Enrollment e JOIN Student s ON e.student_id = s.student_id WHERE e.course_id = ?";
-        try (Connection conn = dataSource.getConnection(); PreparedStatement stmt = conn.prepareStatement(sql)) {
+        try (Connection conn = dataSource.getConnection(); PreparedStatement stmt = conn.prepareStatement(sql);
+             QueryCancellation.RegisteredQuery query = QueryCancellation.register(stmt)) {
             stmt.setLong(1, courseId);
-            try (ResultSet rs = stmt.executeQuery()) {
+            try (ResultSet rs = query.executeQuery()) {
                 while (rs.next()) {
                     String fullName = rs.getString("first_name") + " " + rs.getString("last_name");
                     results.add(new StudentResult(fullName, rs.getString("email"), rs.getTimestamp("enrollment_date")));
@@ -193,15 +400,174 @@ public class DataRepository {
         return results;
     }
 
+    /**
+     * {@link #findCoursesByStudentId(long)} 的批次版：每 {@value #KEY_LOOKUP_BATCH_SIZE} 個學生一條 IN 查詢，
+     * 共用同一條連線，依結果中的 student_id 分組。
+     *
+     * @return 依鍵第一次出現的順序排列，每個鍵都有一項；發生錯誤時記錄日誌，所有鍵都對應空列表
+     */
+    public Map<Long, List<CourseResult>> findCoursesByStudentIds(long[] studentIds) {
+        Map<Long, List<CourseResult>> results = emptyGroups(studentIds);
+        try {
+            forEachChunk(new ArrayList<>(results.keySet()), 1,
+                    "SELECT e.student_id, c.course_name, c.credits, e.enrollment_date FROM Enrollment e JOIN Course c ON e.course_id = c.course_id WHERE e.student_id IN ",
+                    "?", (pstmt, index, id) -> pstmt.setLong(index, id),
+                    rs -> results.get(rs.getLong(1)).add(new CourseResult(rs.getString(2), rs.getInt(3), rs.getTimestamp(4))));
+        } catch (SQLException e) {
+            logger.error("Error finding courses for {} students", studentIds.length, e);
+            return emptyGroups(studentIds);
+        }
+        return results;
+    }
+
+    /**
+     * {@link #findStudentsByCourseId(long)} 的批次版：每 {@value #KEY_LOOKUP_BATCH_SIZE} 門課程一條 IN 查詢，依 course_id 分組。
+     *
+     * @return 依鍵第一次出現的順序排列，每個鍵都有一項；發生錯誤時記錄日誌，所有鍵都對應空列表
+     */
+    public Map<Long, List<StudentResult>> findStudentsByCourseIds(long[] courseIds) {
+        Map<Long, List<StudentResult>> results = emptyGroups(courseIds);
+        try {
+            forEachChunk(new ArrayList<>(results.keySet()), 1,
+                    "SELECT e.course_id, s.first_name, s.last_name, s.email, e.enrollment_date FROM Enrollment e JOIN Student s ON e.student_id = s.student_id WHERE e.course_id IN ",
+                    "?", (pstmt, index, id) -> pstmt.setLong(index, id),
+                    rs -> results.get(rs.getLong(1)).add(new StudentResult(rs.getString(2) + " " + rs.getString(3), rs.getString(4), rs.getTimestamp(5))));
+        } catch (SQLException e) {
+            logger.error("Error finding students for {} courses", courseIds.length, e);
+            return emptyGroups(courseIds);
+        }
+        return results;
+    }
+
+    private static <R> Map<Long, List<R>> emptyGroups(long[] keys) {
+        Map<Long, List<R>> groups = new LinkedHashMap<>(keys.length * 4 / 3 + 1);
+        for (long key : keys) {
+            groups.putIfAbsent(key, new ArrayList<>());
+        }
+        return groups;
+    }
+
+    /**
+     * 以 keyset 分頁讀取課程名單：只讀 student_id 大於 afterStudentId 的前 pageSize 筆，
+     * 由 Enrollment 的 course_id 索引 (InnoDB 次要索引隱含主鍵 student_id) 直接定位，不需要 OFFSET 掃過前面的列。
+     *
+     * @param afterStudentId 上一頁最後一位學生的 ID；第一頁傳入 Long.MIN_VALUE
+     * @return 一頁結果；游標為本頁最後一位學生的 ID，沒有下一頁時為 null
+     */
+    public Page<StudentResult> findStudentsByCourseIdPage(long courseId, long afterStudentId, int pageSize) {
+        List<StudentResult> results = new ArrayList<>(pageSize);
+        long lastStudentId = afterStudentId;
+        boolean hasNext = false;
+        // Fetch one extra row to learn whether another page exists without a COUNT(*).
+        String sql = "SELECT e.student_id, s.first_name, s.last_name, s.email, e.enrollment_date FROM Enrollment e JOIN Student s ON e.student_id = s.student_id "
+                + "WHERE e.course_id = ? AND e.student_id > ? ORDER BY e.student_id LIMIT ?";
+        try (Connection conn = dataSource.getConnection(); PreparedStatement stmt = conn.prepareStatement(sql);
+             QueryCancellation.RegisteredQuery query = QueryCancellation.register(stmt)) {
+            stmt.setLong(1, courseId);
+            stmt.setLong(2, afterStudentId);
+            stmt.setInt(3, pageSize + 1);
+            try (ResultSet rs = query.executeQuery()) {
+                while (rs.next()) {
+                    if (results.size() == pageSize) {
+                        hasNext = true;
+                        break;
+                    }
+                    lastStudentId = rs.getLong("student_id");
+                    String fullName = rs.getString("first_name") + " " + rs.getString("last_name");
+                    results.add(new StudentResult(fullName, rs.getString("email"), rs.getTimestamp("enrollment_date")));
+                }
+            }
+        } catch (SQLException e) {
+            logger.error("Error finding students for course {} after student {}", courseId, afterStudentId, e);
+            return Page.empty();
+        }
+        return new Page<>(results, hasNext ? Page.encodeCursor(lastStudentId) : null);
+    }
+
+    // --- Visitor variants: columns are read as primitives straight off the ResultSet, no list or DTO per row.
+    // enrollment_date goes through getTimestamp() like every other reader (list queries, streaming load,
+    // refresh): UNIX_TIMESTAMP() skips the driver's session-to-JVM time zone handling, so visitor and
+    // list results would disagree whenever the two zones differ.
+
+    /**
+     * @return 交給 visitor 的列數；發生錯誤時記錄日誌並返回已走訪的列數
+     */
+    public int visitCoursesByStudentId(long studentId, CourseRowVisitor visitor) {
+        int visited = 0;
+        String sql = "SELECT e.course_id, c.credits, e.enrollment_date "
+                + "FROM Enrollment e JOIN Course c ON e.course_id = c.course_id WHERE e.student_id = ?";
+        try (Connection conn = dataSource.getConnection(); PreparedStatement stmt = conn.prepareStatement(sql);
+             QueryCancellation.RegisteredQuery query = QueryCancellation.register(stmt)) {
+            stmt.setLong(1, studentId);
+            try (ResultSet rs = query.executeQuery()) {
+                while (rs.next()) {
+                    visited++;
+                    if (!visitor.visit(rs.getLong(1), rs.getInt(2), rs.getTimestamp(3).getTime())) break;
+                }
+            }
+        } catch (SQLException e) {
+            logger.error("Error visiting courses for student {}", studentId, e);
+        }
+        return visited;
+    }
+
+    /**
+     * 只讀取 Enrollment 表 (外鍵保證學生存在)，不需要 JOIN Student。
+     */
+    public int visitStudentsByCourseId(long courseId, StudentRowVisitor visitor) {
+        int visited = 0;
+        String sql = "SELECT student_id, enrollment_date FROM Enrollment WHERE course_id = ?";
+        try (Connection conn = dataSource.getConnection(); PreparedStatement stmt = conn.prepareStatement(sql);
+             QueryCancellation.RegisteredQuery query = QueryCancellation.register(stmt)) {
+            stmt.setLong(1, courseId);
+            try (ResultSet rs = query.executeQuery()) {
+                while (rs.next()) {
+                    visited++;
+                    if (!visitor.visit(rs.getLong(1), rs.getTimestamp(2).getTime())) break;
+                }
+            }
+        } catch (SQLException e) {
+            logger.error("Error visiting students for course {}", courseId, e);
+        }
+        return visited;
+    }
+
+    public int visitTopPopularCourses(int limit, PopularCourseVisitor visitor) {
+        int visited = 0;
+        String sql = "SELECT c.course_id, c.credits, COUNT(e.student_id) AS enrollment_count FROM Enrollment e JOIN Course c ON e.course_id = c.course_id "
+                + "GROUP BY c.course_id, c.credits ORDER BY enrollment_count DESC LIMIT ?";
+        try (Connection conn = dataSource.getConnection(); PreparedStatement stmt = conn.prepareStatement(sql);
+             QueryCancellation.RegisteredQuery query = QueryCancellation.register(stmt)) {
+            stmt.setInt(1, limit);
+            try (ResultSet rs = query.executeQuery()) {
+                while (rs.next()) {
+                    visited++;
+                    if (!visitor.visit(rs.getLong(1), rs.getInt(2), rs.getLong(3))) break;
+                }
+            }
+        } catch (SQLException e) {
+            logger.error("Error visiting top {} popular courses", limit, e);
+        }
+        return visited;
+    }
+
     public List<CourseResult> findTop10PopularCourses() {
+        return findTopPopularCourses(10);
+    }
+
+    public List<CourseResult> findTopPopularCourses(int limit) {
         List<CourseResult> results = new ArrayList<>();
-        String sql = "SELECT c.course_name, c.credits, COUNT(e.student_id) AS enrollment_count FROM Enrollment e JOIN Course c ON e.course_id = c.course_id GROUP BY c.course_id, c.course_name, c.credits ORDER BY enrollment_count DESC LIMIT 10";
-        try (Connection conn = dataSource.getConnection(); PreparedStatement stmt = conn.prepareStatement(sql); ResultSet rs = stmt.executeQuery()) {
-            while (rs.next()) {
-                results.add(new CourseResult(rs.getString("course_name"), rs.getInt("credits"), rs.getLong("enrollment_count")));
+        String sql = "SELECT c.course_name, c.credits, COUNT(e.student_id) AS enrollment_count FROM Enrollment e JOIN Course c ON e.course_id = c.course_id GROUP BY c.course_id, c.course_name, c.credits ORDER BY enrollment_count DESC LIMIT ?";
+        try (Connection conn = dataSource.getConnection(); PreparedStatement stmt = conn.prepareStatement(sql);
+             QueryCancellation.RegisteredQuery query = QueryCancellation.register(stmt)) {
+            stmt.setInt(1, limit);
+            try (ResultSet rs = query.executeQuery()) {
+                while (rs.next()) {
+                    results.add(new CourseResult(rs.getString("course_name"), rs.getInt("credits"), rs.getLong("enrollment_count")));
+                }
             }
         } catch (SQLException e) {
-            logger.error("Error finding top 10 popular courses", e);
+            logger.error("Error finding top {} popular courses", limit, e);
         }
         return results;
     }
@@ -259,4 +625,303 @@ public class DataRepository {
         }
         return enrollments;
     }
+
+    /**
+     * @return 所有學生ID，供效能測試產生查詢工作負載
+     */
+    public long[] findAllStudentIds() {
+        return findAllIds("SELECT student_id FROM Student", "Student");
+    }
+
+    /**
+     * @return 所有課程ID，供效能測試產生查詢工作負載
+     */
+    public long[] findAllCourseIds() {
+        return findAllIds("SELECT course_id FROM Course", "Course");
+    }
+
+    private long[] findAllIds(String sql, String tableName) {
+        LongStream.Builder ids = LongStream.builder();
+        try (Connection conn = dataSource.getConnection(); PreparedStatement stmt = prepareStreaming(conn, sql); ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                ids.add(rs.getLong(1));
+            }
+        } catch (SQLException e) {
+            logger.error("Error finding all ids from {}", tableName, e);
+        }
+        return ids.build().toArray();
+    }
+
+    // --- Streaming (cursor-based) readers for bulk loading ---
+
+    /**
+     * 以 forward-only 游標逐列讀取所有學生，不建立中間 List。
+     *
+     * @return 讀取的列數
+     * @throws RuntimeException 讀取中途失敗時；此時 handler 已收到的列並不完整，不可拿來建立索引
+     */
+    public long streamAllStudents(Consumer<Student> handler) {
+        String sql = "SELECT student_id, first_name, last_name, date_of_birth, email FROM Student";
+        long rows = 0;
+        try (Connection conn = dataSource.getConnection(); PreparedStatement stmt = prepareStreaming(conn, sql); ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                handler.accept(new Student(rs.getLong(1), rs.getString(2), rs.getString(3), rs.getDate(4), rs.getString(5)));
+                rows++;
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Streaming students failed after " + rows + " rows.", e);
+        }
+        return rows;
+    }
+
+    /**
+     * 以 forward-only 游標逐列讀取所有課程，不建立中間 List。
+     *
+     * @return 讀取的列數
+     * @throws RuntimeException 讀取中途失敗時；此時 handler 已收到的列並不完整，不可拿來建立索引
+     */
+    public long streamAllCourses(Consumer<Course> handler) {
+        String sql = "SELECT course_id, course_name, course_description, credits, teacher_id FROM Course";
+        long rows = 0;
+        try (Connection conn = dataSource.getConnection(); PreparedStatement stmt = prepareStreaming(conn, sql); ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                handler.accept(new Course(rs.getLong(1), rs.getString(2), rs.getString(3), rs.getInt(4), rs.getLong(5)));
+                rows++;
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Streaming courses failed after " + rows + " rows.", e);
+        }
+        return rows;
+    }
+
+    /**
+     * 以 forward-only 游標逐列讀取所有選課紀錄，只把基本型別欄位交給 handler。
+     *
+     * @return 讀取的列數
+     * @throws RuntimeException 讀取中途失敗時；此時 handler 已收到的列並不完整，不可拿來建立索引
+     */
+    public long streamAllEnrollments(EnrollmentRowHandler handler) {
+        String sql = "SELECT student_id, course_id, enrollment_date FROM Enrollment";
+        long rows = 0;
+        try (Connection conn = dataSource.getConnection(); PreparedStatement stmt = prepareStreaming(conn, sql); ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                handler.onRow(rs.getLong(1), rs.getLong(2), rs.getTimestamp(3).getTime());
+                rows++;
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Streaming enrollments failed after " + rows + " rows.", e);
+        }
+        return rows;
+    }
+
+    /**
+     * 以 forward-only 游標讀取 student_id 落在 [fromStudentId, toStudentId) 的選課紀錄，
+     * 供平行載入時依學生ID範圍分割掃描。
+     *
+     * @return 讀取的列數
+     * @throws RuntimeException 讀取中途失敗時；此時 handler 已收到的列並不完整，不可拿來建立索引
+     */
+    public long streamEnrollmentsByStudentRange(long fromStudentId, long toStudentId, EnrollmentRowHandler handler) {
+        String sql = "SELECT student_id, course_id, enrollment_date FROM Enrollment WHERE student_id >= ? AND student_id < ?";
+        long rows = 0;
+        try (Connection conn = dataSource.getConnection(); PreparedStatement stmt = prepareStreaming(conn, sql)) {
+            stmt.setLong(1, fromStudentId);
+            stmt.setLong(2, toStudentId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    handler.onRow(rs.getLong(1), rs.getLong(2), rs.getTimestamp(3).getTime());
+                    rows++;
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Streaming enrollments for student range [" + fromStudentId + ", " + toStudentId
+                    + ") failed after " + rows + " rows.", e);
+        }
+        return rows;
+    }
+
+    /**
+     * @return Enrollment 表中 student_id 的 {最小值, 最大值}；表為空時返回 {0, -1}。
+     * @throws RuntimeException 查詢失敗時 (不能當成空表，否則會載入一個沒有任何選課的索引)
+     */
+    public long[] findEnrollmentStudentIdRange() {
+        String sql = "SELECT MIN(student_id), MAX(student_id) FROM Enrollment";
+        try (Connection conn = dataSource.getConnection(); PreparedStatement stmt = conn.prepareStatement(sql); ResultSet rs = stmt.executeQuery()) {
+            if (rs.next() && rs.getObject(1) != null) {
+                return new long[]{rs.getLong(1), rs.getLong(2)};
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Finding the enrollment student id range failed.", e);
+        }
+        return new long[]{0, -1};
+    }
+
+    // --- Change tracking (ChangeLog) for incremental refresh ---
+
+    /**
+     * @return ChangeLog 目前最大的 change_id；表為空或不存在時返回 0。
+     */
+    public long findLatestChangeId() {
+        String sql = "SELECT COALESCE(MAX(change_id), 0) FROM ChangeLog";
+        try (Connection conn = dataSource.getConnection(); PreparedStatement stmt = conn.prepareStatement(sql); ResultSet rs = stmt.executeQuery()) {
+            if (rs.next()) {
+                return rs.getLong(1);
+            }
+        } catch (SQLException e) {
+            logger.error("Error finding latest change id", e);
+        }
+        return 0;
+    }
+
+    /**
+     * @return change_id 大於 afterChangeId 的變更，依 change_id 遞增排序，最多 limit 筆
+     */
+    public List<ChangeLogEntry> findChangesSince(long afterChangeId, int limit) {
+        List<ChangeLogEntry> changes = new ArrayList<>();
+        String sql = "SELECT change_id, table_name, operation, student_id, course_id FROM ChangeLog WHERE change_id > ? ORDER BY change_id LIMIT ?";
+        try (Connection conn = dataSource.getConnection(); PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setLong(1, afterChangeId);
+            stmt.setInt(2, limit);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    changes.add(new ChangeLogEntry(rs.getLong(1), rs.getString(2), rs.getString(3),
+                            rs.getObject(4, Long.class), rs.getObject(5, Long.class)));
+                }
+            }
+        } catch (SQLException e) {
+            logger.error("Error finding changes after change id {}", afterChangeId, e);
+        }
+        return changes;
+    }
+
+    /**
+     * 重新查詢先前讀取時還看不到的 change_id (配號後尚未提交的交易)。
+     *
+     * @return 其中目前已經存在的變更，依 change_id 遞增排序
+     * @throws RuntimeException 查詢失敗時 (不能當成這些變更都不存在)
+     */
+    public List<ChangeLogEntry> findChangesByIds(Collection<Long> changeIds) {
+        List<ChangeLogEntry> changes = new ArrayList<>();
+        try {
+            forEachChunk(new ArrayList<>(changeIds), 1, "SELECT change_id, table_name, operation, student_id, course_id FROM ChangeLog WHERE change_id IN ",
+                    "?", (pstmt, index, id) -> pstmt.setLong(index, id),
+                    rs -> changes.add(new ChangeLogEntry(rs.getLong(1), rs.getString(2), rs.getString(3),
+                            rs.getObject(4, Long.class), rs.getObject(5, Long.class))));
+        } catch (SQLException e) {
+            throw new RuntimeException("Finding " + changeIds.size() + " changes by id failed.", e);
+        }
+        changes.sort(Comparator.comparingLong(ChangeLogEntry::getChangeId));
+        return changes;
+    }
+
+    /**
+     * 刪除 change_id 小於或等於 throughChangeId 的變更紀錄 (已被所有讀取者消化的部分)。
+     *
+     * @return 刪除的筆數；失敗時返回 0，紀錄保留到下一次清理
+     */
+    public int pruneChangesThrough(long throughChangeId) {
+        String sql = "DELETE FROM ChangeLog WHERE change_id <= ?";
+        try (Connection conn = dataSource.getConnection(); PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setLong(1, throughChangeId);
+            return stmt.executeUpdate();
+        } catch (SQLException e) {
+            logger.error("Failed to prune changes through change id {}", throughChangeId, e);
+        }
+        return 0;
+    }
+
+    /**
+     * @return 指定 ID 中目前仍存在的學生；不存在的 ID 不會出現在結果中
+     * @throws RuntimeException 查詢失敗時。不回傳部分結果：呼叫端會把沒查到的 ID 當成已刪除
+     */
+    public List<Student> findStudentsByIds(Collection<Long> studentIds) {
+        List<Student> students = new ArrayList<>();
+        try {
+            forEachChunk(new ArrayList<>(studentIds), 1, "SELECT student_id, first_name, last_name, date_of_birth, email FROM Student WHERE student_id IN ",
+                    "?", (pstmt, index, id) -> pstmt.setLong(index, id),
+                    rs -> students.add(new Student(rs.getLong(1), rs.getString(2), rs.getString(3), rs.getDate(4), rs.getString(5))));
+        } catch (SQLException e) {
+            throw new RuntimeException("Finding " + studentIds.size() + " students by id failed.", e);
+        }
+        return students;
+    }
+
+    /**
+     * @return 指定 ID 中目前仍存在的課程；不存在的 ID 不會出現在結果中
+     * @throws RuntimeException 查詢失敗時。不回傳部分結果：呼叫端會把沒查到的 ID 當成已刪除
+     */
+    public List<Course> findCoursesByIds(Collection<Long> courseIds) {
+        List<Course> courses = new ArrayList<>();
+        try {
+            forEachChunk(new ArrayList<>(courseIds), 1, "SELECT course_id, course_name, course_description, credits, teacher_id FROM Course WHERE course_id IN ",
+                    "?", (pstmt, index, id) -> pstmt.setLong(index, id),
+                    rs -> courses.add(new Course(rs.getLong(1), rs.getString(2), rs.getString(3), rs.getInt(4), rs.getLong(5))));
+        } catch (SQLException e) {
+            throw new RuntimeException("Finding " + courseIds.size() + " courses by id failed.", e);
+        }
+        return courses;
+    }
+
+    /**
+     * 依 (student_id, course_id) 主鍵查詢選課紀錄。
+     *
+     * @param keys 每個元素為 {student_id, course_id}
+     * @return 目前仍存在的選課紀錄
+     * @throws RuntimeException 查詢失敗時。不回傳部分結果：呼叫端會把沒查到的鍵當成已退選
+     */
+    public List<Enrollment> findEnrollmentsByKeys(List<long[]> keys) {
+        List<Enrollment> enrollments = new ArrayList<>();
+        try {
+            forEachChunk(keys, 2, "SELECT student_id, course_id, enrollment_date FROM Enrollment WHERE (student_id, course_id) IN ",
+                    "(?, ?)", (pstmt, index, key) -> {
+                        pstmt.setLong(index, key[0]);
+                        pstmt.setLong(index + 1, key[1]);
+                    },
+                    rs -> enrollments.add(new Enrollment(rs.getLong(1), rs.getLong(2), rs.getTimestamp(3))));
+        } catch (SQLException e) {
+            throw new RuntimeException("Finding " + keys.size() + " enrollments by key failed.", e);
+        }
+        return enrollments;
+    }
+
+    @FunctionalInterface
+    private interface RowReader {
+        void read(ResultSet rs) throws SQLException;
+    }
+
+    /**
+     * 將 keys 依參數上限分段，每段組成一條 "... IN (p, p, ...)" 查詢。
+     *
+     * @throws SQLException 任一分段查詢失敗時；之前分段讀到的列已交給 reader，由呼叫端決定如何處理不完整的結果
+     */
+    private <T> void forEachChunk(List<T> keys, int parametersPerKey, String sqlPrefix, String keyPlaceholder,
+                                  RowBinder<T> binder, RowReader reader) throws SQLException {
+        if (keys.isEmpty()) return;
+        int chunkSize = Math.max(1, Math.min(KEY_LOOKUP_BATCH_SIZE, MAX_PLACEHOLDERS / parametersPerKey));
+        try (Connection conn = dataSource.getConnection()) {
+            for (int from = 0; from < keys.size(); from += chunkSize) {
+                List<T> chunk = keys.subList(from, Math.min(from + chunkSize, keys.size()));
+                String sql = sqlPrefix + "(" + String.join(", ", Collections.nCopies(chunk.size(), keyPlaceholder)) + ")";
+                try (PreparedStatement pstmt = conn.prepareStatement(sql);
+                     QueryCancellation.RegisteredQuery query = QueryCancellation.register(pstmt)) {
+                    int parameterIndex = 1;
+                    for (T key : chunk) {
+                        binder.bind(pstmt, parameterIndex, key);
+                        parameterIndex += parametersPerKey;
+                    }
+                    try (ResultSet rs = query.executeQuery()) {
+                        while (rs.next()) {
+                            reader.read(rs);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private PreparedStatement prepareStreaming(Connection conn, String sql) throws SQLException {
+        PreparedStatement stmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        stmt.setFetchSize(streamFetchSize);
+        return stmt;
+    }
 }
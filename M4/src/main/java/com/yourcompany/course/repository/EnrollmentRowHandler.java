@@ -0,0 +1,15 @@
+package com.yourcompany.course.repository;
+
+/**
+ * 逐列接收 Enrollment 資料的回呼介面，只傳遞基本型別欄位，不建立實體物件。
+ */
+@FunctionalInterface
+public interface EnrollmentRowHandler {
+
+    /**
+     * @param studentId        學生ID
+     * @param courseId         課程ID
+     * @param enrollmentMillis 選課時間 (epoch milliseconds)
+     */
+    void onRow(long studentId, long courseId, long enrollmentMillis);
+}
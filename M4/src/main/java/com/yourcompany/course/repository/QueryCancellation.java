@@ -0,0 +1,114 @@
+package com.yourcompany.course.repository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * 一次查詢呼叫的取消權杖：呼叫端在工作執行緒上 {@link #bind()} 後執行查詢，
+ * DataRepository 透過 {@link #register(PreparedStatement)} 返回的 {@link RegisteredQuery} 執行查詢，
+ * 執行中的 Statement 因此登記在目前執行緒綁定的權杖上，
+ * 其他執行緒呼叫 {@link #cancel()} 時即對該 Statement 呼叫 {@link Statement#cancel()}，由資料庫中止查詢。
+ * <p>
+ * Statement 在關閉 (連線歸還連線池) 之前就會解除登記，且登記、解除與取消彼此互斥，
+ * 因此取消不會落到已被其他查詢重新借用的連線上。
+ */
+public final class QueryCancellation {
+
+    private static final Logger logger = LoggerFactory.getLogger(QueryCancellation.class);
+
+    private static final ThreadLocal<QueryCancellation> CURRENT = new ThreadLocal<>();
+
+    private Statement running;
+    private boolean cancelled;
+
+    /**
+     * {@link #bind()} 的綁定，關閉時還原執行緒原本綁定的權杖。
+     */
+    public interface Registration extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    /**
+     * 把權杖綁定到目前執行緒，直到返回的 Registration 關閉為止。
+     */
+    public Registration bind() {
+        QueryCancellation previous = CURRENT.get();
+        CURRENT.set(this);
+        return () -> {
+            if (previous == null) CURRENT.remove();
+            else CURRENT.set(previous);
+        };
+    }
+
+    /**
+     * @return 目前執行緒綁定的權杖；未綁定時返回 null
+     */
+    public static QueryCancellation current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * 登記目前執行緒即將執行的 Statement。
+     *
+     * @return 用來執行該 Statement 的登記，查詢結束 (關閉 Statement 之前) 時必須關閉
+     * @throws SQLException 權杖已被取消，不應再開始查詢
+     */
+    static RegisteredQuery register(PreparedStatement statement) throws SQLException {
+        QueryCancellation cancellation = CURRENT.get();
+        if (cancellation != null) {
+            synchronized (cancellation) {
+                if (cancellation.cancelled) throw new SQLException("Query was cancelled before it started.");
+                cancellation.running = statement;
+            }
+        }
+        return new RegisteredQuery(cancellation, statement);
+    }
+
+    /**
+     * 取消目前正在執行的查詢 (若有)，之後登記的查詢也會立即被取消。可重複呼叫。
+     */
+    public synchronized void cancel() {
+        cancelled = true;
+        if (running == null) return;
+        try {
+            running.cancel();
+        } catch (SQLException e) {
+            logger.warn("Failed to cancel running statement", e);
+        }
+    }
+
+    public synchronized boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * 已登記到權杖的查詢：以 {@link #executeQuery()} 執行，在 try-with-resources 中使用，結束時解除登記。
+     */
+    static final class RegisteredQuery implements AutoCloseable {
+        private final QueryCancellation cancellation; // null when the thread had no token bound
+        private final PreparedStatement statement;
+
+        private RegisteredQuery(QueryCancellation cancellation, PreparedStatement statement) {
+            this.cancellation = cancellation;
+            this.statement = statement;
+        }
+
+        ResultSet executeQuery() throws SQLException {
+            return statement.executeQuery();
+        }
+
+        @Override
+        public void close() {
+            if (cancellation == null) return;
+            synchronized (cancellation) {
+                if (cancellation.running == statement) cancellation.running = null;
+            }
+        }
+    }
+}
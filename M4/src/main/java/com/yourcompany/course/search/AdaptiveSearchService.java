@@ -0,0 +1,346 @@
+package com.yourcompany.course.search;
+
+import com.yourcompany.course.model.dto.CourseResult;
+import com.yourcompany.course.model.dto.Page;
+import com.yourcompany.course.model.dto.RoutingStats;
+import com.yourcompany.course.model.dto.StudentResult;
+import com.yourcompany.course.model.visitor.CourseRowVisitor;
+import com.yourcompany.course.model.visitor.PopularCourseVisitor;
+import com.yourcompany.course.model.visitor.StudentRowVisitor;
+import com.yourcompany.course.repository.DataRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 依每個請求當下的狀況在 SQL 與記憶體索引之間自動選擇的 SearchService。
+ * <ul>
+ *     <li>記憶體索引只有在已載入、不在載入中、未被標記過期 ({@link InMemorySearchService#markStale()})
+ *     且已追上 ChangeLog 時才會被使用，其餘時候 (例如首次載入完成前) 交給 SQL。
+ *     背景執行緒定期比對 ChangeLog 最新的 change_id，落後時呼叫 {@link InMemorySearchService#refresh()} 追上，
+ *     追上之前的請求改走 SQL。</li>
+ *     <li>兩者都可用時，選擇指數加權移動平均 (EWMA) 延遲較低的一方；約每 {@value #EXPLORE_INTERVAL} 個請求
+ *     改送另一方一次，讓其平均延遲保持最新。</li>
+ *     <li>SQL 的平均延遲超過門檻時斷路器跳開 (OPEN)：要送往 SQL 的請求改由記憶體索引回答 (即使過期或載入中，視為降級)，
+ *     索引從未載入時則直接以 RejectedExecutionException 拒絕，不再對已經過載的資料庫加壓。
+ *     {@value #CIRCUIT_OPEN_MILLIS} ms 後放行一個試探請求 (HALF_OPEN)，其延遲低於門檻才恢復 (CLOSED)。</li>
+ * </ul>
+ */
+public class AdaptiveSearchService implements SearchService, AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdaptiveSearchService.class);
+
+    public enum CircuitState {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private enum Admission {
+        NORMAL, TRIAL, REJECTED
+    }
+
+    // A new sample moves the average by 1/8 of the difference, as in TCP's smoothed RTT.
+    private static final int EWMA_SHIFT = 3;
+    private static final int EXPLORE_INTERVAL = 100;
+    // In-memory calls take microseconds; timing every one would make the shared average a contention point.
+    private static final int MEMORY_SAMPLE_INTERVAL = 16;
+    private static final long CIRCUIT_OPEN_MILLIS = 5_000;
+    // Prefixes of the page cursors handed out by this router
+    private static final char MEMORY_CURSOR = 'm';
+    private static final char SQL_CURSOR = 's';
+
+    private final SearchService sqlService;
+    private final InMemorySearchService inMemoryService;
+    private final DataRepository dataRepository;
+    private final long sqlLatencyThresholdNanos;
+    private final ScheduledExecutorService freshnessChecker;
+
+    private final LatencyAverage memoryLatency = new LatencyAverage();
+    private final LatencyAverage sqlLatency = new LatencyAverage();
+    private final LongAdder memoryCalls = new LongAdder();
+    private final LongAdder sqlCalls = new LongAdder();
+    private final LongAdder degradedCalls = new LongAdder();
+    private final LongAdder shedCalls = new LongAdder();
+
+    // false while the index lags the ChangeLog and a refresh is catching it up
+    private volatile boolean indexCaughtUp = true;
+
+    // Written under this; read without the lock on the fast path.
+    private volatile CircuitState circuit = CircuitState.CLOSED;
+    private long circuitOpenedNanos;
+
+    /**
+     * @param sqlService                SQL 方案，不應含結果快取：快取命中會讓降級時回傳過期資料，
+     *                                  命中的延遲也會被計入 SQL 的平均，使斷路器無法反映資料庫本身的負載 (查詢合併則無妨)
+     * @param inMemoryService           記憶體方案
+     * @param dataRepository            用來查詢 ChangeLog 最新位置
+     * @param sqlLatencyThresholdMillis SQL 平均延遲超過此值 (毫秒) 時斷路
+     * @param freshnessCheckMillis      檢查索引是否落後 ChangeLog 的間隔 (毫秒)；0 表示不檢查
+     */
+    public AdaptiveSearchService(SearchService sqlService, InMemorySearchService inMemoryService, DataRepository dataRepository,
+                                 long sqlLatencyThresholdMillis, long freshnessCheckMillis) {
+        this.sqlService = sqlService;
+        this.inMemoryService = inMemoryService;
+        this.dataRepository = dataRepository;
+        this.sqlLatencyThresholdNanos = TimeUnit.MILLISECONDS.toNanos(sqlLatencyThresholdMillis);
+        if (freshnessCheckMillis > 0) {
+            freshnessChecker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "index-freshness-check");
+                thread.setDaemon(true);
+                return thread;
+            });
+            freshnessChecker.scheduleWithFixedDelay(this::checkFreshness, freshnessCheckMillis, freshnessCheckMillis, TimeUnit.MILLISECONDS);
+        } else {
+            freshnessChecker = null;
+        }
+    }
+
+    @Override
+    public List<CourseResult> findCoursesByStudent(long studentId) {
+        return route(() -> inMemoryService.findCoursesByStudent(studentId), () -> sqlService.findCoursesByStudent(studentId));
+    }
+
+    @Override
+    public List<StudentResult> findStudentsByCourse(long courseId) {
+        return route(() -> inMemoryService.findStudentsByCourse(courseId), () -> sqlService.findStudentsByCourse(courseId));
+    }
+
+    /**
+     * 第一頁依一般規則選擇方案；之後的頁面固定交給發出游標的方案
+     * (SQL 的游標是學生ID、記憶體的游標是位移，不能互換)，因此回傳的游標前面多一個方案標記字元。
+     * SQL 斷路期間，SQL 發出的游標無法改由記憶體接續，會以 RejectedExecutionException 拒絕。
+     */
+    @Override
+    public Page<StudentResult> findStudentsByCourse(long courseId, int pageSize, String cursor) {
+        if (cursor == null) {
+            return route(() -> tagCursor(MEMORY_CURSOR, inMemoryService.findStudentsByCourse(courseId, pageSize, null)),
+                    () -> tagCursor(SQL_CURSOR, sqlService.findStudentsByCourse(courseId, pageSize, null)));
+        }
+        if (cursor.isEmpty()) throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        String backendCursor = cursor.substring(1);
+        switch (cursor.charAt(0)) {
+            case MEMORY_CURSOR:
+                return tagCursor(MEMORY_CURSOR, callMemory(() -> inMemoryService.findStudentsByCourse(courseId, pageSize, backendCursor)));
+            case SQL_CURSOR:
+                Admission admission = admitSql();
+                if (admission == Admission.REJECTED) {
+                    shedCalls.increment();
+                    throw new RejectedExecutionException("SQL backend circuit is open; restart paging from the first page.");
+                }
+                return tagCursor(SQL_CURSOR, callSql(() -> sqlService.findStudentsByCourse(courseId, pageSize, backendCursor),
+                        admission == Admission.TRIAL));
+            default:
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+    }
+
+    private static Page<StudentResult> tagCursor(char backend, Page<StudentResult> page) {
+        return page.getNextCursor() == null ? page : new Page<>(page.getItems(), backend + page.getNextCursor());
+    }
+
+    @Override
+    public Map<Long, List<CourseResult>> findCoursesByStudents(long[] studentIds) {
+        return route(() -> inMemoryService.findCoursesByStudents(studentIds), () -> sqlService.findCoursesByStudents(studentIds));
+    }
+
+    @Override
+    public Map<Long, List<StudentResult>> findStudentsByCourses(long[] courseIds) {
+        return route(() -> inMemoryService.findStudentsByCourses(courseIds), () -> sqlService.findStudentsByCourses(courseIds));
+    }
+
+    @Override
+    public List<CourseResult> findTopKPopularCourses(int k) {
+        return route(() -> inMemoryService.findTopKPopularCourses(k), () -> sqlService.findTopKPopularCourses(k));
+    }
+
+    @Override
+    public int visitCoursesByStudent(long studentId, CourseRowVisitor visitor) {
+        return route(() -> inMemoryService.visitCoursesByStudent(studentId, visitor),
+                () -> sqlService.visitCoursesByStudent(studentId, visitor));
+    }
+
+    @Override
+    public int visitStudentsByCourse(long courseId, StudentRowVisitor visitor) {
+        return route(() -> inMemoryService.visitStudentsByCourse(courseId, visitor),
+                () -> sqlService.visitStudentsByCourse(courseId, visitor));
+    }
+
+    @Override
+    public int visitTopKPopularCourses(int k, PopularCourseVisitor visitor) {
+        return route(() -> inMemoryService.visitTopKPopularCourses(k, visitor),
+                () -> sqlService.visitTopKPopularCourses(k, visitor));
+    }
+
+    @Override
+    public String getServiceName() {
+        return "Adaptive Router";
+    }
+
+    /**
+     * @return 記憶體索引目前是否可以直接回答 (已載入、不在載入中、未過期且已追上 ChangeLog)
+     */
+    public boolean isIndexUsable() {
+        return inMemoryService.isLoaded() && !inMemoryService.isLoading() && !inMemoryService.isStale() && indexCaughtUp;
+    }
+
+    public CircuitState getCircuitState() {
+        return circuit;
+    }
+
+    public RoutingStats getRoutingStats() {
+        return new RoutingStats(memoryCalls.sum(), sqlCalls.sum(), degradedCalls.sum(), shedCalls.sum(),
+                memoryLatency.get(), sqlLatency.get(), circuit.name(), isIndexUsable());
+    }
+
+    @Override
+    public void close() {
+        if (freshnessChecker != null) freshnessChecker.shutdownNow();
+    }
+
+    private <T> T route(Supplier<T> memoryQuery, Supplier<T> sqlQuery) {
+        boolean indexUsable = isIndexUsable();
+        if (indexUsable && !preferSql()) return callMemory(memoryQuery);
+
+        Admission admission = admitSql();
+        if (admission != Admission.REJECTED) return callSql(sqlQuery, admission == Admission.TRIAL);
+
+        // SQL is shedding load: an old or still-loading index beats piling onto a struggling database.
+        if (inMemoryService.isLoaded()) {
+            if (!indexUsable) degradedCalls.increment();
+            return callMemory(memoryQuery);
+        }
+        shedCalls.increment();
+        throw new RejectedExecutionException("SQL backend circuit is open and the in-memory index is not loaded.");
+    }
+
+    /**
+     * 兩個方案都可用時，平均延遲較低者優先，偶爾改送另一方以更新其平均延遲。
+     */
+    private boolean preferSql() {
+        long memory = memoryLatency.get();
+        long sql = sqlLatency.get();
+        boolean sqlFaster = sql >= 0 && memory >= 0 && sql < memory;
+        boolean explore = ThreadLocalRandom.current().nextInt(EXPLORE_INTERVAL) == 0;
+        return sqlFaster != explore;
+    }
+
+    private <T> T callMemory(Supplier<T> query) {
+        memoryCalls.increment();
+        if (ThreadLocalRandom.current().nextInt(MEMORY_SAMPLE_INTERVAL) != 0) return query.get();
+        long start = System.nanoTime();
+        T result = query.get();
+        memoryLatency.record(System.nanoTime() - start);
+        return result;
+    }
+
+    private <T> T callSql(Supplier<T> query, boolean trial) {
+        sqlCalls.increment();
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            T result = query.get();
+            failed = false;
+            return result;
+        } finally {
+            onSqlCompleted(System.nanoTime() - start, failed, trial);
+        }
+    }
+
+    private Admission admitSql() {
+        if (circuit == CircuitState.CLOSED) return Admission.NORMAL;
+        synchronized (this) {
+            if (circuit == CircuitState.CLOSED) return Admission.NORMAL;
+            // HALF_OPEN means the single trial request is still running.
+            if (circuit == CircuitState.HALF_OPEN) return Admission.REJECTED;
+            if (System.nanoTime() - circuitOpenedNanos < TimeUnit.MILLISECONDS.toNanos(CIRCUIT_OPEN_MILLIS)) {
+                return Admission.REJECTED;
+            }
+            circuit = CircuitState.HALF_OPEN;
+            return Admission.TRIAL;
+        }
+    }
+
+    private void onSqlCompleted(long elapsedNanos, boolean failed, boolean trial) {
+        if (trial) {
+            synchronized (this) {
+                if (!failed && elapsedNanos <= sqlLatencyThresholdNanos) {
+                    sqlLatency.reset(elapsedNanos);
+                    circuit = CircuitState.CLOSED;
+                    logger.info("SQL circuit closed: trial query took {} ms.", TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+                } else {
+                    open(elapsedNanos);
+                }
+            }
+            return;
+        }
+        long average = sqlLatency.record(elapsedNanos);
+        if (average > sqlLatencyThresholdNanos && circuit == CircuitState.CLOSED) {
+            synchronized (this) {
+                if (circuit == CircuitState.CLOSED) open(average);
+            }
+        }
+    }
+
+    // Caller holds this.
+    private void open(long latencyNanos) {
+        circuit = CircuitState.OPEN;
+        circuitOpenedNanos = System.nanoTime();
+        logger.warn("SQL circuit opened: latency {} ms exceeds {} ms, shedding SQL load for {} ms.",
+                TimeUnit.NANOSECONDS.toMillis(latencyNanos), TimeUnit.NANOSECONDS.toMillis(sqlLatencyThresholdNanos),
+                CIRCUIT_OPEN_MILLIS);
+    }
+
+    /**
+     * 索引落後 ChangeLog 時先標記為未追上 (請求改走 SQL)，再以增量 refresh 追上。
+     */
+    private void checkFreshness() {
+        try {
+            if (!inMemoryService.isLoaded() || inMemoryService.isLoading()) return;
+            long latest = dataRepository.findLatestChangeId();
+            if (latest <= inMemoryService.getLastChangeId()) {
+                indexCaughtUp = true;
+                return;
+            }
+            indexCaughtUp = false;
+            inMemoryService.refresh();
+            indexCaughtUp = inMemoryService.getLastChangeId() >= latest;
+        } catch (RuntimeException e) {
+            // An exception escaping here would silently cancel the schedule.
+            logger.error("Error checking in-memory index freshness", e);
+        }
+    }
+
+    /**
+     * 以 CAS 更新的整數 EWMA；尚無樣本時為 -1。
+     */
+    private static final class LatencyAverage {
+        private final AtomicLong average = new AtomicLong(-1);
+
+        long record(long nanos) {
+            long previous;
+            long next;
+            do {
+                previous = average.get();
+                next = previous < 0 ? nanos : previous + ((nanos - previous) >> EWMA_SHIFT);
+            } while (!average.compareAndSet(previous, next));
+            return next;
+        }
+
+        long get() {
+            return average.get();
+        }
+
+        void reset(long nanos) {
+            average.set(nanos);
+        }
+    }
+}
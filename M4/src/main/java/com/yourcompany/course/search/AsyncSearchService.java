@@ -0,0 +1,201 @@
+package com.yourcompany.course.search;
+
+import com.yourcompany.course.model.dto.CourseResult;
+import com.yourcompany.course.model.dto.Page;
+import com.yourcompany.course.model.dto.StudentResult;
+import com.yourcompany.course.repository.QueryCancellation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * 把任一 SearchService 包裝成回傳 CompletableFuture 的非同步介面，呼叫端不必為每個查詢佔用一條執行緒。
+ * <p>
+ * 查詢在固定大小的執行緒池上執行，等待佇列有上限：佇列滿時 future 立即以 RejectedExecutionException 失敗，
+ * 而不是無限制地堆積請求。包裝 SqlSearchService 時，執行緒數應與連線池大小相同
+ * (見 {@link com.yourcompany.course.config.DatabaseConfig#MAXIMUM_POOL_SIZE})，多出來的執行緒只會在連線池上排隊。
+ * <p>
+ * future 逾時或被呼叫端 cancel 時：尚未開始的查詢直接從佇列移除；
+ * 已在執行的 SQL 查詢透過 {@link QueryCancellation} 呼叫 Statement.cancel()，由資料庫中止查詢並釋放連線。
+ * 記憶體查詢本身很短，不會被中斷，只是結果被捨棄。
+ */
+public class AsyncSearchService implements AutoCloseable {
+
+    private final SearchService delegate;
+    private final ThreadPoolExecutor executor;
+    private final long defaultTimeoutMillis;
+
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong timedOut = new AtomicLong();
+    private final AtomicLong cancelled = new AtomicLong();
+
+    /**
+     * @param delegate             實際執行查詢的服務
+     * @param threads              執行緒數 (同時執行中的查詢上限)
+     * @param queueCapacity        等待佇列的容量
+     * @param defaultTimeoutMillis 未指定逾時的呼叫所使用的逾時 (毫秒)；0 表示不逾時
+     */
+    public AsyncSearchService(SearchService delegate, int threads, int queueCapacity, long defaultTimeoutMillis) {
+        if (threads <= 0) throw new IllegalArgumentException("threads must be positive: " + threads);
+        if (queueCapacity <= 0) throw new IllegalArgumentException("queueCapacity must be positive: " + queueCapacity);
+        this.delegate = delegate;
+        this.defaultTimeoutMillis = defaultTimeoutMillis;
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), daemonThreadFactory(), new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    public CompletableFuture<List<CourseResult>> findCoursesByStudent(long studentId) {
+        return submit(service -> service.findCoursesByStudent(studentId), defaultTimeoutMillis);
+    }
+
+    public CompletableFuture<List<StudentResult>> findStudentsByCourse(long courseId) {
+        return submit(service -> service.findStudentsByCourse(courseId), defaultTimeoutMillis);
+    }
+
+    public CompletableFuture<Page<StudentResult>> findStudentsByCourse(long courseId, int pageSize, String cursor) {
+        return submit(service -> service.findStudentsByCourse(courseId, pageSize, cursor), defaultTimeoutMillis);
+    }
+
+    public CompletableFuture<List<CourseResult>> findTopKPopularCourses(int k) {
+        return submit(service -> service.findTopKPopularCourses(k), defaultTimeoutMillis);
+    }
+
+    public CompletableFuture<List<CourseResult>> findTop10PopularCourses() {
+        return findTopKPopularCourses(10);
+    }
+
+    public CompletableFuture<Map<Long, List<CourseResult>>> findCoursesByStudents(long[] studentIds) {
+        return submit(service -> service.findCoursesByStudents(studentIds), defaultTimeoutMillis);
+    }
+
+    public CompletableFuture<Map<Long, List<StudentResult>>> findStudentsByCourses(long[] courseIds) {
+        return submit(service -> service.findStudentsByCourses(courseIds), defaultTimeoutMillis);
+    }
+
+    /**
+     * 以指定的逾時非同步執行任一查詢。
+     *
+     * @param query         對被包裝服務執行的查詢
+     * @param timeoutMillis 逾時 (毫秒)，從送出時起算 (含排隊時間)；0 表示不逾時
+     * @return 查詢結果；逾時時以 TimeoutException 失敗，佇列已滿時以 RejectedExecutionException 失敗
+     */
+    public <T> CompletableFuture<T> submit(Function<SearchService, T> query, long timeoutMillis) {
+        QueryTask<T> task = new QueryTask<>(query);
+        CompletableFuture<T> result = task.result;
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            rejected.incrementAndGet();
+            result.completeExceptionally(e);
+            return result;
+        }
+
+        if (timeoutMillis > 0) result.orTimeout(timeoutMillis, TimeUnit.MILLISECONDS);
+        result.whenComplete((value, error) -> {
+            if (error == null) return;
+            if (error instanceof TimeoutException) timedOut.incrementAndGet();
+            else if (error instanceof CancellationException) cancelled.incrementAndGet();
+            executor.remove(task);
+            task.cancellation.cancel();
+        });
+        return result;
+    }
+
+    public String getServiceName() {
+        return delegate.getServiceName() + " (Async)";
+    }
+
+    public SearchService getDelegate() {
+        return delegate;
+    }
+
+    public int getThreads() {
+        return executor.getMaximumPoolSize();
+    }
+
+    /**
+     * @return 正在執行的查詢數
+     */
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+
+    /**
+     * @return 排隊等待執行緒的查詢數
+     */
+    public int getQueuedCount() {
+        return executor.getQueue().size();
+    }
+
+    public long getRejectedCount() {
+        return rejected.get();
+    }
+
+    public long getTimedOutCount() {
+        return timedOut.get();
+    }
+
+    public long getCancelledCount() {
+        return cancelled.get();
+    }
+
+    /**
+     * 停止接受新查詢，佇列中尚未開始的查詢以 CancellationException 結束；執行中的查詢會跑完。
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+        List<Runnable> pending = new ArrayList<>();
+        executor.getQueue().drainTo(pending);
+        for (Runnable task : pending) {
+            ((QueryTask<?>) task).result.cancel(false);
+        }
+    }
+
+    /**
+     * 一次查詢：結果 future 與該查詢專用的取消權杖。
+     */
+    private final class QueryTask<T> implements Runnable {
+        final CompletableFuture<T> result = new CompletableFuture<>();
+        final QueryCancellation cancellation = new QueryCancellation();
+        private final Function<SearchService, T> query;
+
+        QueryTask(Function<SearchService, T> query) {
+            this.query = query;
+        }
+
+        @Override
+        public void run() {
+            if (result.isDone()) return; // timed out or cancelled while queued
+            QueryCancellation.Registration binding = cancellation.bind();
+            try {
+                result.complete(query.apply(delegate));
+            } catch (RuntimeException e) {
+                result.completeExceptionally(e);
+            } finally {
+                binding.close();
+            }
+        }
+    }
+
+    private static ThreadFactory daemonThreadFactory() {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "async-search-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,192 @@
+package com.yourcompany.course.search;
+
+import com.yourcompany.course.model.dto.CacheStats;
+import com.yourcompany.course.model.dto.CourseResult;
+import com.yourcompany.course.model.dto.Page;
+import com.yourcompany.course.model.dto.StudentResult;
+import com.yourcompany.course.model.visitor.CourseRowVisitor;
+import com.yourcompany.course.model.visitor.PopularCourseVisitor;
+import com.yourcompany.course.model.visitor.StudentRowVisitor;
+import com.yourcompany.course.search.cache.SegmentedLruCache;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * 為任一 SearchService 加上 read-through 快取的裝飾器 (主要用於包裝 SqlSearchService)。
+ * <p>
+ * 三種查詢各自有一個分段 LRU 快取 (見 SegmentedLruCache)，鍵為學生 ID、課程 ID 與 K 值。
+ * 未命中時在鎖外呼叫被包裝的服務再寫回快取；空結果不寫入，避免把一次資料庫錯誤 (回傳空列表) 保留到過期為止。
+ * 回傳的列表為唯讀且可能被多個呼叫端共用。
+ * <p>
+ * 本程序內的選課異動透過 {@link #onEnrollmentChanged(long, long)} 立即失效相關項目；
+ * 其他來源對資料庫的修改則在 TTL 到期後才會反映。
+ */
+public class CachingSearchService implements SearchService {
+
+    private final SearchService delegate;
+    private final SegmentedLruCache<Long, List<CourseResult>> coursesByStudent;
+    private final SegmentedLruCache<Long, List<StudentResult>> studentsByCourse;
+    private final SegmentedLruCache<Integer, List<CourseResult>> topKCourses;
+
+    /**
+     * @param delegate    實際執行查詢的服務
+     * @param maximumSize 每種查詢最多快取的項目數
+     * @param ttlMillis   項目的存活時間 (毫秒)；0 表示只依容量淘汰
+     */
+    public CachingSearchService(SearchService delegate, int maximumSize, long ttlMillis) {
+        this.delegate = delegate;
+        this.coursesByStudent = new SegmentedLruCache<>("學生選課", maximumSize, ttlMillis);
+        this.studentsByCourse = new SegmentedLruCache<>("課程學生", maximumSize, ttlMillis);
+        // Only a handful of distinct K values are ever asked for.
+        this.topKCourses = new SegmentedLruCache<>("熱門課程", Math.min(maximumSize, 64), ttlMillis);
+    }
+
+    @Override
+    public List<CourseResult> findCoursesByStudent(long studentId) {
+        List<CourseResult> cached = coursesByStudent.get(studentId);
+        if (cached != null) return cached;
+        long stamp = coursesByStudent.loadStamp(studentId);
+        return store(coursesByStudent, studentId, delegate.findCoursesByStudent(studentId), stamp);
+    }
+
+    @Override
+    public List<StudentResult> findStudentsByCourse(long courseId) {
+        List<StudentResult> cached = studentsByCourse.get(courseId);
+        if (cached != null) return cached;
+        long stamp = studentsByCourse.loadStamp(courseId);
+        return store(studentsByCourse, courseId, delegate.findStudentsByCourse(courseId), stamp);
+    }
+
+    /**
+     * 先逐鍵查快取，只把未命中的鍵整批交給被包裝服務的批次查詢，結果再逐鍵寫回快取。
+     */
+    @Override
+    public Map<Long, List<CourseResult>> findCoursesByStudents(long[] studentIds) {
+        return findAll(coursesByStudent, studentIds, delegate::findCoursesByStudents);
+    }
+
+    @Override
+    public Map<Long, List<StudentResult>> findStudentsByCourses(long[] courseIds) {
+        return findAll(studentsByCourse, courseIds, delegate::findStudentsByCourses);
+    }
+
+    private <R> Map<Long, List<R>> findAll(SegmentedLruCache<Long, List<R>> cache, long[] keys,
+                                            Function<long[], Map<Long, List<R>>> loader) {
+        Map<Long, List<R>> results = new LinkedHashMap<>(keys.length * 4 / 3 + 1);
+        long[] misses = new long[keys.length];
+        long[] stamps = new long[keys.length];
+        int missCount = 0;
+        for (long key : keys) {
+            if (results.containsKey(key)) continue;
+            List<R> cached = cache.get(key);
+            results.put(key, cached);
+            if (cached == null) {
+                stamps[missCount] = cache.loadStamp(key);
+                misses[missCount++] = key;
+            }
+        }
+        if (missCount == 0) return results;
+
+        Map<Long, List<R>> loaded = loader.apply(Arrays.copyOf(misses, missCount));
+        for (int i = 0; i < missCount; i++) {
+            List<R> answer = loaded.get(misses[i]);
+            results.put(misses[i], store(cache, misses[i], answer != null ? answer : Collections.emptyList(), stamps[i]));
+        }
+        return results;
+    }
+
+    /**
+     * 分頁查詢本身就只讀一頁，不經過快取。
+     */
+    @Override
+    public Page<StudentResult> findStudentsByCourse(long courseId, int pageSize, String cursor) {
+        return delegate.findStudentsByCourse(courseId, pageSize, cursor);
+    }
+
+    @Override
+    public List<CourseResult> findTopKPopularCourses(int k) {
+        List<CourseResult> cached = topKCourses.get(k);
+        if (cached != null) return cached;
+        long stamp = topKCourses.loadStamp(k);
+        return store(topKCourses, k, delegate.findTopKPopularCourses(k), stamp);
+    }
+
+    // The visitor API exists to avoid materializing results, so it is never cached.
+
+    @Override
+    public int visitCoursesByStudent(long studentId, CourseRowVisitor visitor) {
+        return delegate.visitCoursesByStudent(studentId, visitor);
+    }
+
+    @Override
+    public int visitStudentsByCourse(long courseId, StudentRowVisitor visitor) {
+        return delegate.visitStudentsByCourse(courseId, visitor);
+    }
+
+    @Override
+    public int visitTopKPopularCourses(int k, PopularCourseVisitor visitor) {
+        return delegate.visitTopKPopularCourses(k, visitor);
+    }
+
+    @Override
+    public String getServiceName() {
+        return delegate.getServiceName() + " (Cached)";
+    }
+
+    public SearchService getDelegate() {
+        return delegate;
+    }
+
+    public void invalidateStudent(long studentId) {
+        coursesByStudent.invalidate(studentId);
+    }
+
+    public void invalidateCourse(long courseId) {
+        studentsByCourse.invalidate(courseId);
+    }
+
+    public void invalidatePopularity() {
+        topKCourses.invalidateAll();
+    }
+
+    /**
+     * 一筆選課新增或刪除後呼叫：該學生的課表、該課程的名單與熱門排名都可能改變。
+     */
+    public void onEnrollmentChanged(long studentId, long courseId) {
+        invalidateStudent(studentId);
+        invalidateCourse(courseId);
+        invalidatePopularity();
+    }
+
+    /**
+     * 清除全部快取 (例如重新生成資料之後)。
+     */
+    public void invalidateAll() {
+        coursesByStudent.invalidateAll();
+        studentsByCourse.invalidateAll();
+        topKCourses.invalidateAll();
+    }
+
+    public List<CacheStats> getCacheStats() {
+        return Arrays.asList(coursesByStudent.stats(), studentsByCourse.stats(), topKCourses.stats());
+    }
+
+    public void resetCacheStats() {
+        coursesByStudent.resetStats();
+        studentsByCourse.resetStats();
+        topKCourses.resetStats();
+    }
+
+    private <K, R> List<R> store(SegmentedLruCache<K, List<R>> cache, K key, List<R> loaded, long stamp) {
+        if (loaded.isEmpty()) return loaded;
+        List<R> result = Collections.unmodifiableList(loaded);
+        // If this key was invalidated while we were querying, our result may predate the change: skip the write.
+        cache.putIfNotInvalidated(key, result, stamp);
+        return result;
+    }
+}
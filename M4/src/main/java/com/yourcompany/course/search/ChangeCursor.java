@@ -0,0 +1,98 @@
+package com.yourcompany.course.search;
+
+import com.yourcompany.course.model.ChangeLogEntry;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * ChangeLog 的讀取位置。
+ * <p>
+ * change_id 在 INSERT 時配號、交易提交後才看得到，所以較小的 id 可能比較大的 id 晚出現。
+ * 只記住讀過的最大 id 會永遠跳過這種晚提交的變更，因此位置以下尚未出現的 id 記為缺口，
+ * 每次同步重新查詢，直到出現或逾時為止 (交易已回滾，或 InnoDB 配了號卻沒有用上)。
+ * 清理 ChangeLog 不得越過最小的缺口。
+ * <p>
+ * 非執行緒安全，由 {@link InMemorySearchService} 在持有自身的鎖時使用。
+ */
+final class ChangeCursor {
+
+    // A jump larger than this is an allocation skip (server restart, bulk reservation), not in-flight
+    // transactions; only the ids just below the jump are tracked.
+    static final int MAX_TRACKED_GAPS = 4096;
+
+    private long position;
+    // change_id -> System.nanoTime() when the gap was first noticed
+    private final TreeMap<Long, Long> gaps = new TreeMap<>();
+
+    /**
+     * @param position 已確定消化到的 change_id；之後的紀錄都會被讀取
+     */
+    ChangeCursor(long position) {
+        this.position = position;
+    }
+
+    /**
+     * @return 讀過的最大 change_id
+     */
+    long position() {
+        return position;
+    }
+
+    boolean hasGaps() {
+        return !gaps.isEmpty();
+    }
+
+    /**
+     * @return 尚未出現的 change_id，遞增排序
+     */
+    List<Long> gaps() {
+        return new ArrayList<>(gaps.keySet());
+    }
+
+    /**
+     * 記錄一批依 change_id 遞增、且都在目前位置之後的紀錄，把跳過的 id 記為缺口。
+     */
+    void advance(List<ChangeLogEntry> changes, long nowNanos) {
+        for (ChangeLogEntry change : changes) {
+            long id = change.getChangeId();
+            if (id <= position) continue;
+            long from = Math.max(position + 1, id - MAX_TRACKED_GAPS);
+            for (long missing = from; missing < id; missing++) {
+                gaps.put(missing, nowNanos);
+            }
+            position = id;
+        }
+        while (gaps.size() > MAX_TRACKED_GAPS) {
+            gaps.pollFirstEntry();
+        }
+    }
+
+    /**
+     * 移除已經出現的缺口。
+     */
+    void fill(List<ChangeLogEntry> changes) {
+        for (ChangeLogEntry change : changes) {
+            gaps.remove(change.getChangeId());
+        }
+    }
+
+    /**
+     * 放棄在 cutoffNanos 之前就已發現、至今仍未出現的缺口。
+     */
+    void expireGaps(long cutoffNanos) {
+        for (Iterator<Map.Entry<Long, Long>> it = gaps.entrySet().iterator(); it.hasNext(); ) {
+            if (it.next().getValue() - cutoffNanos < 0) it.remove();
+        }
+    }
+
+    /**
+     * @return 可以安全刪除的最大 change_id：目前位置與最小缺口之前兩者中較小的一個
+     */
+    long pruneLimit() {
+        return gaps.isEmpty() ? position : Math.min(position, gaps.firstKey() - 1);
+    }
+}
@@ -0,0 +1,120 @@
+package com.yourcompany.course.search;
+
+import com.yourcompany.course.model.dto.CoalescingStats;
+import com.yourcompany.course.model.dto.CourseResult;
+import com.yourcompany.course.model.dto.Page;
+import com.yourcompany.course.model.dto.StudentResult;
+import com.yourcompany.course.model.visitor.CourseRowVisitor;
+import com.yourcompany.course.model.visitor.PopularCourseVisitor;
+import com.yourcompany.course.model.visitor.StudentRowVisitor;
+import com.yourcompany.course.search.cache.SingleFlight;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 合併同時進行的相同查詢的裝飾器 (主要用於包裝 SqlSearchService)：
+ * 多個呼叫端同時查詢同一學生、同一課程或同一個 K 值時，只有第一個會送出資料庫查詢，其餘等待並共用其結果
+ * (見 {@link SingleFlight})。熱門課程名單或熱門排名在尖峰時被大量同時請求時，資料庫只需執行一次 JOIN / GROUP BY。
+ * <p>
+ * 與 {@link CachingSearchService} 不同，結果在查詢結束後就不再保留，所以不會延長資料過期的時間；
+ * 兩者可以疊加，由快取處理重複請求、由本類別處理快取未命中時同時湧入的請求。
+ * 回傳的列表為唯讀且可能被多個呼叫端共用。
+ * <p>
+ * 分頁、批次與走訪版查詢直接交給被包裝的服務：分頁游標與批次鍵組合很少完全相同，visitor 則無法共用。
+ */
+public class CoalescingSearchService implements SearchService {
+
+    private final SearchService delegate;
+    private final SingleFlight<Long, List<CourseResult>> coursesByStudent = new SingleFlight<>("學生選課");
+    private final SingleFlight<Long, List<StudentResult>> studentsByCourse = new SingleFlight<>("課程學生");
+    private final SingleFlight<Integer, List<CourseResult>> topKCourses = new SingleFlight<>("熱門課程");
+
+    public CoalescingSearchService(SearchService delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public List<CourseResult> findCoursesByStudent(long studentId) {
+        return coursesByStudent.load(studentId, () -> Collections.unmodifiableList(delegate.findCoursesByStudent(studentId)));
+    }
+
+    @Override
+    public List<StudentResult> findStudentsByCourse(long courseId) {
+        return studentsByCourse.load(courseId, () -> Collections.unmodifiableList(delegate.findStudentsByCourse(courseId)));
+    }
+
+    @Override
+    public List<CourseResult> findTopKPopularCourses(int k) {
+        return topKCourses.load(k, () -> Collections.unmodifiableList(delegate.findTopKPopularCourses(k)));
+    }
+
+    @Override
+    public Page<StudentResult> findStudentsByCourse(long courseId, int pageSize, String cursor) {
+        return delegate.findStudentsByCourse(courseId, pageSize, cursor);
+    }
+
+    @Override
+    public Map<Long, List<CourseResult>> findCoursesByStudents(long[] studentIds) {
+        return delegate.findCoursesByStudents(studentIds);
+    }
+
+    @Override
+    public Map<Long, List<StudentResult>> findStudentsByCourses(long[] courseIds) {
+        return delegate.findStudentsByCourses(courseIds);
+    }
+
+    @Override
+    public int visitCoursesByStudent(long studentId, CourseRowVisitor visitor) {
+        return delegate.visitCoursesByStudent(studentId, visitor);
+    }
+
+    @Override
+    public int visitStudentsByCourse(long courseId, StudentRowVisitor visitor) {
+        return delegate.visitStudentsByCourse(courseId, visitor);
+    }
+
+    @Override
+    public int visitTopKPopularCourses(int k, PopularCourseVisitor visitor) {
+        return delegate.visitTopKPopularCourses(k, visitor);
+    }
+
+    @Override
+    public String getServiceName() {
+        return delegate.getServiceName() + " (Coalesced)";
+    }
+
+    public SearchService getDelegate() {
+        return delegate;
+    }
+
+    /**
+     * 一筆選課新增或刪除後呼叫：之後的呼叫不再加入修改前就已送出的相關查詢，確保讀得到剛寫入的資料。
+     */
+    public void onEnrollmentChanged(long studentId, long courseId) {
+        coursesByStudent.forget(studentId);
+        studentsByCourse.forget(courseId);
+        topKCourses.forgetAll();
+    }
+
+    /**
+     * 資料整批改變 (例如重新生成資料之後) 時呼叫。
+     */
+    public void forgetAll() {
+        coursesByStudent.forgetAll();
+        studentsByCourse.forgetAll();
+        topKCourses.forgetAll();
+    }
+
+    public List<CoalescingStats> getCoalescingStats() {
+        return Arrays.asList(coursesByStudent.stats(), studentsByCourse.stats(), topKCourses.stats());
+    }
+
+    public void resetCoalescingStats() {
+        coursesByStudent.resetStats();
+        studentsByCourse.resetStats();
+        topKCourses.resetStats();
+    }
+}
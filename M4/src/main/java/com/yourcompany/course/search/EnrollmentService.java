@@ -0,0 +1,80 @@
+package com.yourcompany.course.search;
+
+import com.yourcompany.course.repository.DataRepository;
+
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 選課 / 退選的寫入服務：先寫入 Enrollment 表，成功後在同一個操作中更新記憶體索引的雙向清單與熱門度排名。
+ * <p>
+ * 同一組 (學生, 課程) 的操作以分段鎖 (lock striping，由 InMemorySearchService 持有並與其 refresh() 共用) 序列化，
+ * 保證資料庫與記憶體的套用順序一致；不同組合的寫入彼此並行。記憶體端的更新只鎖住受影響的鍵 (見 EnrollmentOverlay)，查詢完全不取鎖。
+ */
+public class EnrollmentService {
+
+    private final DataRepository dataRepository;
+    private final InMemorySearchService inMemoryService;
+    private final List<ChangeListener> listeners = new CopyOnWriteArrayList<>();
+
+    public EnrollmentService(DataRepository dataRepository, InMemorySearchService inMemoryService) {
+        this.dataRepository = dataRepository;
+        this.inMemoryService = inMemoryService;
+    }
+
+    /**
+     * @return 成功選課返回 true；已選過、學生或課程不存在或資料庫錯誤時返回 false
+     */
+    public boolean enroll(long studentId, long courseId) {
+        // TIMESTAMP keeps whole seconds; use the same value in memory so a later refresh() is a no-op.
+        long enrollmentMillis = System.currentTimeMillis() / 1000 * 1000;
+        ReentrantLock lock = inMemoryService.enrollmentLock(studentId, courseId);
+        lock.lock();
+        try {
+            if (!dataRepository.insertEnrollment(studentId, courseId, new Timestamp(enrollmentMillis))) return false;
+            inMemoryService.applyEnrollment(studentId, courseId, enrollmentMillis);
+            notifyListeners(studentId, courseId);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return 確實退選了一筆選課時返回 true
+     */
+    public boolean drop(long studentId, long courseId) {
+        ReentrantLock lock = inMemoryService.enrollmentLock(studentId, courseId);
+        lock.lock();
+        try {
+            if (!dataRepository.deleteEnrollment(studentId, courseId)) return false;
+            inMemoryService.applyDrop(studentId, courseId);
+            notifyListeners(studentId, courseId);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 註冊選課異動的監聽器 (例如 SQL 查詢快取的失效)，在資料庫寫入成功後、仍持有該組合的鎖時呼叫。
+     */
+    public void addChangeListener(ChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    private void notifyListeners(long studentId, long courseId) {
+        for (ChangeListener listener : listeners) {
+            listener.onEnrollmentChanged(studentId, courseId);
+        }
+    }
+
+    /**
+     * 選課或退選成功後的回呼。
+     */
+    public interface ChangeListener {
+        void onEnrollmentChanged(long studentId, long courseId);
+    }
+}
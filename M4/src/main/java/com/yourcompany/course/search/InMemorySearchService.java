@@ -1,128 +1,764 @@
 package com.yourcompany.course.search;
 
+import com.yourcompany.course.model.ChangeLogEntry;
 import com.yourcompany.course.model.Course;
 import com.yourcompany.course.model.Enrollment;
 import com.yourcompany.course.model.Student;
 import com.yourcompany.course.model.dto.CourseResult;
+import com.yourcompany.course.model.dto.LoadReport;
+import com.yourcompany.course.model.dto.MemoryBreakdown;
+import com.yourcompany.course.model.dto.Page;
 import com.yourcompany.course.model.dto.StudentResult;
+import com.yourcompany.course.model.visitor.CourseRowVisitor;
+import com.yourcompany.course.model.visitor.PopularCourseVisitor;
+import com.yourcompany.course.model.visitor.StudentRowVisitor;
 import com.yourcompany.course.repository.DataRepository;
+import com.yourcompany.course.search.index.EnrollmentIndex;
+import com.yourcompany.course.search.index.EnrollmentOverlay;
+import com.yourcompany.course.search.index.EntityOverlay;
+import com.yourcompany.course.search.index.IndexSnapshot;
+import com.yourcompany.course.search.index.MemoryLayout;
+import com.yourcompany.course.search.index.PopularityIndex;
+import com.yourcompany.course.search.index.Postings;
 
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
-import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongFunction;
+import java.util.stream.IntStream;
 
 /**
  * FINAL REFACTORED VERSION - Matches the correct database schema.
+ * 選課關係以 CSR 索引 ({@link EnrollmentIndex}) 儲存，實體快取則以序號 (ordinal) 為索引的陣列儲存。
+ * 載入後的變更由 {@link #refresh()} 從 ChangeLog 讀取，套用到 CSR 之上的增量層 ({@link EnrollmentOverlay}、{@link EntityOverlay})。
+ * <p>
+ * 上述結構打包成一個 {@link SearchState}，重新載入時在旁邊建好新的一組再整組替換，
+ * 查詢從不加鎖，也不會看到載入到一半或新舊混雜的索引。
  */
 public class InMemorySearchService implements SearchService {
 
+    public static final String CATEGORY_INDEX = "索引";
+    public static final String CATEGORY_ENTITY_CACHE = "實體快取";
+    public static final String CATEGORY_STRING_POOL = "字串池";
+    public static final String CATEGORY_RESULT_VIEWS = "結果視圖";
+
+    // Student: studentId, firstName, lastName, dateOfBirth, email
+    private static final long STUDENT_SHALLOW_BYTES = MemoryLayout.objectBytes(5, 0);
+    // Course: courseId, courseName, courseDescription, teacherId + int credits
+    private static final long COURSE_SHALLOW_BYTES = MemoryLayout.objectBytes(4, Integer.BYTES);
+    private static final int REFRESH_BATCH_SIZE = 10_000;
+    // A load starts reading this many ids below its high-water mark: ids allocated before the mark whose
+    // transactions had not committed are missing from the scan too. Far above what 20 pooled
+    // connections running single-statement transactions can hold open at once.
+    private static final long LATE_COMMIT_WINDOW = 256;
+    // A ChangeLog id still missing this long after a later id was read is taken as rolled back or never used.
+    private static final long GAP_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(60);
+    // Below this many keys a batch is cheaper to answer on the calling thread than to split.
+    private static final int PARALLEL_LOOKUP_THRESHOLD = 64;
+    private static final int ENROLLMENT_LOCK_STRIPES = 64;
+
     private final DataRepository dataRepository;
+    // Serialize "read or write the Enrollment row, then update the overlay" per (student, course) pair
+    // between EnrollmentService and refresh(), so neither can overwrite the other with an older row state.
+    private final ReentrantLock[] enrollmentLocks = new ReentrantLock[ENROLLMENT_LOCK_STRIPES];
 
-    // Indices and Caches
-    private Map<Long, List<Enrollment>> studentEnrollmentIndex;
-    private Map<Long, List<Enrollment>> courseEnrollmentIndex;
-    private Map<Long, Student> studentDetailsCache;
-    private Map<Long, Course> courseDetailsCache;
+    // Everything a query needs, published as a unit; null until the first load.
+    private volatile SearchState state;
+    // ChangeLog position of the published state, with the ids still missing below it. Guarded by this.
+    private ChangeCursor changeCursor = new ChangeCursor(0);
+    // changeCursor.position(); written only while holding this, read lock-free
+    private volatile long lastChangeId;
+    private volatile boolean loading;
+    // Set when the tables were replaced behind the ChangeLog's back; cleared by the next full load.
+    private volatile boolean stale;
 
-    private long memoryUsageBytes = 0;
+    private Path snapshotPath;
+    // ChangeLog position the snapshot file resumes from; -1 until this process has read or written it. Guarded by this.
+    private long snapshotChangeId = -1;
+    private volatile boolean memoizeResults;
+
+    // Leave a few of the 20 pooled connections for the Student/Course readers and other callers.
+    private int loadPartitions = Math.min(Runtime.getRuntime().availableProcessors(), 16);
 
     public InMemorySearchService(DataRepository dataRepository) {
         this.dataRepository = dataRepository;
+        for (int i = 0; i < enrollmentLocks.length; i++) {
+            enrollmentLocks[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * 以 JDBC 重新讀取所有資料表並建立索引；若設定了快照路徑，完成後寫出快照供下次啟動使用。
+     * <p>
+     * 新索引在背景建立，期間查詢繼續使用舊索引；建好後以一次 volatile 寫入切換。
+     *
+     * @throws RuntimeException 任一資料表或變更查詢失敗時；不寫快照也不清理 ChangeLog。失敗若發生在切換之前，
+     *                          已發佈的索引保持不變；若在切換後補變更時失敗，未套用的變更留給下一次 {@link #refresh()}
+     */
+    public synchronized void loadData() {
+        loading = true;
+        try {
+            loadAll();
+        } finally {
+            loading = false;
+        }
+    }
+
+    private void loadAll() {
+        // Read the high-water mark first: changes that race with the scan are replayed below,
+        // which is harmless because applying a change re-reads the current row state.
+        long scannedChangeId = dataRepository.findLatestChangeId();
+
+        // Rows are streamed straight from forward-only cursors into the dictionaries and the
+        // CSR fragments, so no intermediate List<Enrollment> is ever materialized.
+        ParallelIndexLoader.Result loaded = new ParallelIndexLoader(dataRepository, loadPartitions).load();
+        SearchState next = new SearchState(loaded.index, loaded.students, loaded.courses, loaded.popularity, loaded.report);
+        ChangeCursor cursor = new ChangeCursor(Math.max(0, scannedChangeId - LATE_COMMIT_WINDOW));
+        catchUp(next, cursor);
+        publish(next, cursor);
+
+        if (snapshotPath != null) {
+            // The snapshot holds the scanned rows only, so it resumes from the pre-scan mark.
+            boolean written = new IndexSnapshot(loaded.index, loaded.students, loaded.courses, scannedChangeId).write(snapshotPath);
+            snapshotChangeId = written ? scannedChangeId : -1;
+        }
+        pruneConsumedChanges();
+    }
+
+    /**
+     * 嘗試從磁碟快照還原索引，不讀取任何資料表內容，只以三個 COUNT(*) 驗證快照是否過期。
+     * 還原後先補上快照之後的變更，再發佈新狀態。
+     *
+     * @return 是否成功還原；未設定快照路徑、檔案不存在、筆數不符或校驗失敗時返回 false，原有資料保持不變。
+     * @throws RuntimeException 補變更時查詢失敗，語意同 {@link #loadData()}
+     */
+    public synchronized boolean loadFromSnapshot() {
+        if (snapshotPath == null) return false;
+        loading = true;
+        try {
+            return restoreSnapshot();
+        } finally {
+            loading = false;
+        }
+    }
+
+    private boolean restoreSnapshot() {
+        long start = System.nanoTime();
+        IndexSnapshot snapshot = IndexSnapshot.read(snapshotPath,
+                dataRepository.countStudents(), dataRepository.countCourses(), dataRepository.countEnrollments());
+        if (snapshot == null) return false;
+
+        EnrollmentIndex index = snapshot.getIndex();
+        PopularityIndex popularity = PopularityIndex.build(index.getCourseIds(), index::courseDegree);
+        SearchState next = new SearchState(index, snapshot.getStudents(), snapshot.getCourses(), popularity, null);
+        ChangeCursor cursor = new ChangeCursor(Math.max(0, snapshot.getChangeId() - LATE_COMMIT_WINDOW));
+        catchUp(next, cursor);
+        LoadReport report = LoadReport.fromSnapshot(System.nanoTime() - start,
+                snapshot.getStudents().size(), snapshot.getCourses().size(), index.enrollmentCount());
+        publish(next.withLoadReport(report), cursor);
+        snapshotChangeId = snapshot.getChangeId();
+        pruneConsumedChanges();
+        return true;
+    }
+
+    /**
+     * 只讀取上次同步之後 ChangeLog 中記錄的變更，並就地修補索引、快取與熱門度排名。
+     * 成本與變更筆數成正比，與資料總量無關。先前讀取時被跳過的 change_id (當時尚未提交) 也會重新查詢，見 {@link ChangeCursor}。
+     * <p>
+     * 每個變更的鍵都會重新查詢目前的資料列：存在即新增/更新，不存在即刪除，
+     * 所以重複套用同一筆變更不會有副作用。套用後刪除已不再需要的 ChangeLog 紀錄 (見 {@link #pruneConsumedChanges()})。
+     *
+     * @return 套用的 ChangeLog 筆數；尚未載入資料時返回 0
+     * @throws RuntimeException 查詢失敗時；失敗那一批的變更不算已同步，也不會被清理，下一次呼叫會重新套用
+     */
+    public synchronized int refresh() {
+        SearchState current = state;
+        if (current == null) return 0;
+        int applied;
+        try {
+            applied = catchUp(current, changeCursor);
+        } finally {
+            lastChangeId = changeCursor.position();
+        }
+        if (applied > 0) pruneConsumedChanges();
+        return applied;
+    }
+
+    /**
+     * @return 已讀到的最大 ChangeLog change_id (其下仍可能有尚未提交、之後才補上的變更)
+     */
+    public long getLastChangeId() {
+        return lastChangeId;
+    }
+
+    /**
+     * @return 是否已載入過索引 (之後即使重新載入中，查詢仍使用舊索引回答)
+     */
+    public boolean isLoaded() {
+        return state != null;
+    }
+
+    /**
+     * @return 是否正在執行 {@link #loadData()} 或 {@link #loadFromSnapshot()}
+     */
+    public boolean isLoading() {
+        return loading;
+    }
+
+    /**
+     * 標記索引已過期：資料表被整批替換 (例如重新生成資料，不寫入 ChangeLog) 時呼叫，
+     * 無法由 {@link #refresh()} 追上，直到下一次完整載入成功為止。
+     */
+    public void markStale() {
+        stale = true;
+    }
+
+    public boolean isStale() {
+        return stale;
+    }
+
+    /**
+     * @return 該 (學生, 課程) 組合的寫入鎖：持有期間讀寫該筆 Enrollment 並更新索引，
+     *         {@link EnrollmentService} 與 {@link #refresh()} 因此不會以較舊的資料列狀態覆蓋對方的結果
+     */
+    ReentrantLock enrollmentLock(long studentId, long courseId) {
+        return enrollmentLocks[enrollmentStripe(studentId, courseId)];
+    }
+
+    private static int enrollmentStripe(long studentId, long courseId) {
+        long h = (studentId * 31 + courseId) * 0x9E3779B97F4A7C15L;
+        return (int) (h >>> 58); // top 6 bits -> 64 stripes
+    }
+
+    /**
+     * 把已寫入資料庫的選課套用到目前的索引 (供 {@link EnrollmentService} 在持有 {@link #enrollmentLock} 時呼叫)。
+     * 若套用期間索引被重新載入，會再套用到新發佈的狀態；重複套用不會重複計數。
+     */
+    void applyEnrollment(long studentId, long courseId, long enrollmentMillis) {
+        for (SearchState applied = null, current = state; current != null && current != applied; current = state) {
+            current.putEnrollment(studentId, courseId, enrollmentMillis);
+            applied = current;
+        }
+    }
+
+    /**
+     * 把已從資料庫刪除的選課套用到目前的索引，語意同 {@link #applyEnrollment}。
+     */
+    void applyDrop(long studentId, long courseId) {
+        for (SearchState applied = null, current = state; current != null && current != applied; current = state) {
+            current.removeEnrollment(studentId, courseId);
+            applied = current;
+        }
     }
 
-    public void loadData() {
-        clearData();
-        long memoryBefore = getMemoryUsage();
+    /**
+     * 發佈新狀態後再補一次變更：在最後一次 catchUp 查詢之後、切換之前提交的選課只套用到了舊狀態
+     * (applyEnrollment 當時看到的還是舊的 state)，但其 ChangeLog 紀錄尚未被 cursor 讀過。
+     */
+    private void publish(SearchState next, ChangeCursor cursor) {
+        changeCursor = cursor;
+        lastChangeId = cursor.position();
+        state = next;
+        stale = false;
+        try {
+            catchUp(next, cursor);
+        } finally {
+            lastChangeId = cursor.position();
+        }
+    }
+
+    /**
+     * 先重新查詢 cursor 的缺口，再把 cursor 位置之後的所有變更套用到 target，並推進 cursor。
+     * 查詢失敗時拋出例外，cursor 停在最後一個完整套用的批次。
+     *
+     * @return 套用的 ChangeLog 筆數
+     */
+    private int catchUp(SearchState target, ChangeCursor cursor) {
+        int applied = 0;
+        if (cursor.hasGaps()) {
+            List<ChangeLogEntry> late = dataRepository.findChangesByIds(cursor.gaps());
+            applyChanges(target, late);
+            cursor.fill(late);
+            cursor.expireGaps(System.nanoTime() - GAP_TIMEOUT_NANOS);
+            applied += late.size();
+        }
+        while (true) {
+            List<ChangeLogEntry> changes = dataRepository.findChangesSince(cursor.position(), REFRESH_BATCH_SIZE);
+            if (changes.isEmpty()) break;
+            applyChanges(target, changes);
+            cursor.advance(changes, System.nanoTime());
+            applied += changes.size();
+            if (changes.size() < REFRESH_BATCH_SIZE) break;
+        }
+        return applied;
+    }
 
-        List<Student> allStudents = dataRepository.findAllStudents();
-        List<Course> allCourses = dataRepository.findAllCourses();
-        List<Enrollment> allEnrollments = dataRepository.findAllEnrollments();
+    /**
+     * 刪除已被消化的 ChangeLog 紀錄，避免資料表無限成長。可刪到的位置是目前發佈狀態的讀取位置 (不越過最小的缺口)
+     * 與快照檔續讀位置兩者中較小的一個：快照還原時要從後者往前 {@value #LATE_COMMIT_WINDOW} 筆開始重播。
+     * 設定了快照路徑但尚未讀寫過快照 (磁碟上可能是較舊的檔案) 時不刪除。
+     */
+    private void pruneConsumedChanges() {
+        long through = changeCursor.pruneLimit();
+        if (snapshotPath != null) {
+            if (snapshotChangeId < 0) return;
+            through = Math.min(through, snapshotChangeId - LATE_COMMIT_WINDOW);
+        }
+        if (through <= 0) return;
+        dataRepository.pruneChangesThrough(through);
+    }
 
-        studentEnrollmentIndex = allEnrollments.stream()
-                .collect(Collectors.groupingBy(Enrollment::getStudentId));
+    private void applyChanges(SearchState target, List<ChangeLogEntry> changes) {
+        Set<Long> studentIds = new LinkedHashSet<>();
+        Set<Long> courseIds = new LinkedHashSet<>();
+        Map<List<Long>, long[]> enrollmentKeys = new LinkedHashMap<>();
+        for (ChangeLogEntry change : changes) {
+            switch (change.getTableName()) {
+                case ChangeLogEntry.STUDENT:
+                    studentIds.add(change.getStudentId());
+                    break;
+                case ChangeLogEntry.COURSE:
+                    courseIds.add(change.getCourseId());
+                    break;
+                case ChangeLogEntry.ENROLLMENT:
+                    enrollmentKeys.putIfAbsent(Arrays.asList(change.getStudentId(), change.getCourseId()),
+                            new long[]{change.getStudentId(), change.getCourseId()});
+                    break;
+                default:
+                    break;
+            }
+        }
 
-        courseEnrollmentIndex = allEnrollments.stream()
-                .collect(Collectors.groupingBy(Enrollment::getCourseId));
+        // Every lookup runs before the first overlay write: a failed lookup throws and leaves the
+        // overlays untouched, instead of returning fewer rows whose keys would be applied as deletes.
+        List<Student> students = dataRepository.findStudentsByIds(studentIds);
+        List<Course> courses = dataRepository.findCoursesByIds(courseIds);
 
-        studentDetailsCache = allStudents.stream()
-                .collect(Collectors.toMap(Student::getStudentId, student -> student));
+        // Hold the stripe locks of every changed pair from the enrollment read to the overlay write, so an
+        // enroll or drop cannot commit in between and then be undone by our older row state.
+        List<ReentrantLock> locks = enrollmentLocks(enrollmentKeys.values());
+        locks.forEach(ReentrantLock::lock);
+        try {
+            Map<List<Long>, Long> enrollments = new HashMap<>();
+            for (Enrollment enrollment : dataRepository.findEnrollmentsByKeys(new ArrayList<>(enrollmentKeys.values()))) {
+                enrollments.put(Arrays.asList(enrollment.getStudentId(), enrollment.getCourseId()), enrollment.getEnrollmentDate().getTime());
+            }
 
-        courseDetailsCache = allCourses.stream()
-                .collect(Collectors.toMap(Course::getCourseId, course -> course));
-        
-        long memoryAfter = getMemoryUsage();
-        this.memoryUsageBytes = memoryAfter - memoryBefore;
+            // Entities first, so enrollments that reference new students or courses can be rendered.
+            Set<Long> deletedStudents = new HashSet<>(studentIds);
+            for (Student student : students) {
+                target.studentOverlay.put(student.getStudentId(), student);
+                deletedStudents.remove(student.getStudentId());
+            }
+            deletedStudents.forEach(target.studentOverlay::markDeleted);
+
+            Set<Long> deletedCourses = new HashSet<>(courseIds);
+            for (Course course : courses) {
+                target.courseOverlay.put(course.getCourseId(), course);
+                deletedCourses.remove(course.getCourseId());
+            }
+            deletedCourses.forEach(target.courseOverlay::markDeleted);
+            // Memoized views embed entity fields (names, credits), so any entity change invalidates them all.
+            if (!studentIds.isEmpty() || !courseIds.isEmpty()) target.invalidateResultViews();
+
+            for (Map.Entry<List<Long>, long[]> key : enrollmentKeys.entrySet()) {
+                Long millis = enrollments.get(key.getKey());
+                long[] pair = key.getValue();
+                if (millis != null) {
+                    target.putEnrollment(pair[0], pair[1], millis);
+                } else {
+                    target.removeEnrollment(pair[0], pair[1]);
+                }
+            }
+        } finally {
+            locks.forEach(ReentrantLock::unlock);
+        }
     }
 
-    private void clearData() {
-        studentEnrollmentIndex = null;
-        courseEnrollmentIndex = null;
-        studentDetailsCache = null;
-        courseDetailsCache = null;
-        System.gc();
+    /**
+     * @return keys 所屬的鎖，依分段順序排列且不重複；依此順序加鎖不會死結 ({@link EnrollmentService} 一次只持有一把)
+     */
+    private List<ReentrantLock> enrollmentLocks(Collection<long[]> keys) {
+        boolean[] needed = new boolean[enrollmentLocks.length];
+        for (long[] key : keys) {
+            needed[enrollmentStripe(key[0], key[1])] = true;
+        }
+        List<ReentrantLock> locks = new ArrayList<>();
+        for (int i = 0; i < needed.length; i++) {
+            if (needed[i]) locks.add(enrollmentLocks[i]);
+        }
+        return locks;
     }
 
-    private long getMemoryUsage() {
-        Runtime runtime = Runtime.getRuntime();
-        return runtime.totalMemory() - runtime.freeMemory();
+    /**
+     * 設定快照檔位置，null 表示停用快照。
+     */
+    public synchronized void setSnapshotPath(Path snapshotPath) {
+        this.snapshotPath = snapshotPath;
+        this.snapshotChangeId = -1;
     }
 
+    /**
+     * 設定 Enrollment 表平行掃描的分區數 (1 表示單一連線循序掃描)。
+     */
+    public void setLoadPartitions(int loadPartitions) {
+        this.loadPartitions = loadPartitions;
+    }
+
+    /**
+     * 啟用或停用結果視圖：啟用後每位學生 / 每門課程的查詢結果在第一次查詢時建好並記住，
+     * 之後同一個鍵直接回傳同一個唯讀列表，查詢不再配置物件。停用時立即釋放已記住的結果。
+     * <p>
+     * 回傳的列表與結果物件由所有呼叫端共用，不得修改。
+     */
+    public void setMemoizeResults(boolean memoizeResults) {
+        this.memoizeResults = memoizeResults;
+        SearchState current = state;
+        if (!memoizeResults && current != null) current.invalidateResultViews();
+    }
+
+    public boolean isMemoizeResults() {
+        return memoizeResults;
+    }
+
+    /**
+     * @return 目前使用中的索引的載入報告，尚未載入時返回 null。
+     */
+    public LoadReport getLastLoadReport() {
+        SearchState current = state;
+        return current == null ? null : current.loadReport;
+    }
+
+    /**
+     * @return 索引、實體快取與字串的估算總用量 (位元組)，即 {@link #getMemoryBreakdown()} 的總計。
+     */
     public long getMemoryUsageBytes() {
-        return memoryUsageBytes;
+        return getMemoryBreakdown().getTotalBytes();
+    }
+
+    /**
+     * @return 對照用：目前的選課資料若改以 List&lt;Enrollment&gt; 物件保存的估算位元組數；尚未載入時返回 0
+     */
+    public long getEnrollmentObjectLayoutBytes() {
+        SearchState current = state;
+        return current == null ? 0 : current.index.objectLayoutBytes();
+    }
+
+    /**
+     * 依物件配置與元素數量估算每個索引、實體快取與字串池的記憶體用量，未載入時返回空明細。
+     * 不量測 heap，因此結果不受 GC 時機影響，重複呼叫會得到相同的數字。
+     */
+    public MemoryBreakdown getMemoryBreakdown() {
+        MemoryBreakdown breakdown = new MemoryBreakdown();
+        SearchState current = state;
+        if (current == null) return breakdown;
+
+        current.index.appendMemoryBreakdown(breakdown, CATEGORY_INDEX);
+        breakdown.add(CATEGORY_INDEX, "popularity buckets", current.popularity.memoryBytes());
+        breakdown.add(CATEGORY_INDEX, "enrollment delta overlay", current.enrollmentOverlay.memoryBytes());
+
+        current.students.appendMemoryBreakdown(breakdown, CATEGORY_ENTITY_CACHE, CATEGORY_STRING_POOL);
+        current.courses.appendMemoryBreakdown(breakdown, CATEGORY_ENTITY_CACHE, CATEGORY_STRING_POOL);
+
+        // Entities replaced by refresh() are plain objects; strings shared between them are counted once.
+        Set<Object> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        long[] overrides = {0};
+        current.studentOverlay.forEach(student -> overrides[0] += studentBytes(student, seen));
+        current.courseOverlay.forEach(course -> overrides[0] += courseBytes(course, seen));
+        breakdown.add(CATEGORY_ENTITY_CACHE, "entity overrides", overrides[0]);
+
+        ResultViews views = current.existingResultViews();
+        if (views != null) breakdown.add(CATEGORY_RESULT_VIEWS, "memoized query results", views.memoryBytes());
+        return breakdown;
+    }
+
+    private static long studentBytes(Student student, Set<Object> seen) {
+        return STUDENT_SHALLOW_BYTES + MemoryLayout.BOXED_LONG_BYTES + MemoryLayout.dateBytes(student.getDateOfBirth())
+                + uniqueStringBytes(student.getFirstName(), seen) + uniqueStringBytes(student.getLastName(), seen)
+                + uniqueStringBytes(student.getEmail(), seen);
+    }
+
+    private static long courseBytes(Course course, Set<Object> seen) {
+        return COURSE_SHALLOW_BYTES + MemoryLayout.BOXED_LONG_BYTES
+                + (course.getTeacherId() != null ? MemoryLayout.BOXED_LONG_BYTES : 0)
+                + uniqueStringBytes(course.getCourseName(), seen) + uniqueStringBytes(course.getCourseDescription(), seen);
+    }
+
+    private static long uniqueStringBytes(String value, Set<Object> seen) {
+        return value != null && seen.add(value) ? MemoryLayout.stringBytes(value) : 0;
     }
 
     @Override
     public List<CourseResult> findCoursesByStudent(long studentId) {
-        if (studentEnrollmentIndex == null) return Collections.emptyList();
+        SearchState current = state;
+        if (current == null) return Collections.emptyList();
+        return coursesByStudent(current, studentId);
+    }
 
-        List<Enrollment> enrollments = studentEnrollmentIndex.getOrDefault(studentId, Collections.emptyList());
+    @Override
+    public List<StudentResult> findStudentsByCourse(long courseId) {
+        SearchState current = state;
+        if (current == null) return Collections.emptyList();
+        return studentsByCourse(current, courseId);
+    }
 
-        return enrollments.stream()
-                .map(enrollment -> {
-                    Course course = courseDetailsCache.get(enrollment.getCourseId());
-                    if (course == null) return null;
-                    return new CourseResult(course.getCourseName(), course.getCredits(), enrollment.getEnrollmentDate());
-                })
-                .filter(java.util.Objects::nonNull)
-                .collect(Collectors.toList());
+    /**
+     * 把鍵陣列切給 common ForkJoinPool 平行查詢；所有鍵都以同一個 SearchState 回答，不會橫跨一次 refresh。
+     */
+    @Override
+    public Map<Long, List<CourseResult>> findCoursesByStudents(long[] studentIds) {
+        SearchState current = state;
+        return fanOut(studentIds, studentId -> current == null ? Collections.emptyList() : coursesByStudent(current, studentId));
     }
 
     @Override
-    public List<StudentResult> findStudentsByCourse(long courseId) {
-        if (courseEnrollmentIndex == null) return Collections.emptyList();
+    public Map<Long, List<StudentResult>> findStudentsByCourses(long[] courseIds) {
+        SearchState current = state;
+        return fanOut(courseIds, courseId -> current == null ? Collections.emptyList() : studentsByCourse(current, courseId));
+    }
+
+    private static <R> Map<Long, List<R>> fanOut(long[] keys, LongFunction<List<R>> lookup) {
+        Object[] answers = new Object[keys.length];
+        IntStream positions = IntStream.range(0, keys.length);
+        if (keys.length >= PARALLEL_LOOKUP_THRESHOLD) positions = positions.parallel();
+        positions.forEach(i -> answers[i] = lookup.apply(keys[i]));
+
+        Map<Long, List<R>> results = new LinkedHashMap<>(keys.length * 4 / 3 + 1);
+        for (int i = 0; i < keys.length; i++) {
+            @SuppressWarnings("unchecked")
+            List<R> answer = (List<R>) answers[i];
+            results.putIfAbsent(keys[i], answer);
+        }
+        return results;
+    }
+
+    private List<CourseResult> coursesByStudent(SearchState current, long studentId) {
+        EnrollmentIndex index = current.index;
+
+        Postings changed = current.enrollmentOverlay.studentPostings(studentId);
+        if (changed != null) {
+            List<CourseResult> results = new ArrayList<>(changed.size());
+            for (int i = 0; i < changed.size(); i++) {
+                CourseResult result = current.courseResult(changed.idAt(i), -1, changed.millisAt(i));
+                if (result != null) results.add(result);
+            }
+            return results;
+        }
+
+        int student = index.getStudentIds().ordinalOf(studentId);
+        if (student < 0) return Collections.emptyList();
+
+        ResultViews views = memoizeResults ? current.resultViews() : null;
+        if (views != null) {
+            List<CourseResult> memoized = views.coursesOf(student);
+            if (memoized != null) return memoized;
+        }
+
+        int start = index.studentRangeStart(student);
+        int end = index.studentRangeEnd(student);
+        List<CourseResult> results = new ArrayList<>(end - start);
+        for (int position = start; position < end; position++) {
+            CourseResult result = current.courseResultAt(index.courseOrdinalAt(position), index.studentEnrollmentMillisAt(student, position));
+            if (result != null) results.add(result);
+        }
+        return views != null ? views.rememberCourses(student, Collections.unmodifiableList(results)) : results;
+    }
+
+    private List<StudentResult> studentsByCourse(SearchState current, long courseId) {
+        EnrollmentIndex index = current.index;
+
+        Postings changed = current.enrollmentOverlay.coursePostings(courseId);
+        if (changed != null) {
+            List<StudentResult> results = new ArrayList<>(changed.size());
+            for (int i = 0; i < changed.size(); i++) {
+                StudentResult result = current.studentResult(changed.idAt(i), -1, changed.millisAt(i));
+                if (result != null) results.add(result);
+            }
+            return results;
+        }
+
+        int course = index.getCourseIds().ordinalOf(courseId);
+        if (course < 0) return Collections.emptyList();
 
-        List<Enrollment> enrollments = courseEnrollmentIndex.getOrDefault(courseId, Collections.emptyList());
+        ResultViews views = memoizeResults ? current.resultViews() : null;
+        if (views != null) {
+            List<StudentResult> memoized = views.studentsOf(course);
+            if (memoized != null) return memoized;
+        }
 
-        return enrollments.stream()
-                .map(enrollment -> {
-                    Student student = studentDetailsCache.get(enrollment.getStudentId());
-                    if (student == null) return null;
-                    String fullName = student.getFirstName() + " " + student.getLastName();
-                    return new StudentResult(fullName, student.getEmail(), enrollment.getEnrollmentDate());
-                })
-                .filter(java.util.Objects::nonNull)
-                .collect(Collectors.toList());
+        int start = index.courseRangeStart(course);
+        int end = index.courseRangeEnd(course);
+        List<StudentResult> results = new ArrayList<>(end - start);
+        for (int position = start; position < end; position++) {
+            StudentResult result = current.studentResultAt(index.studentOrdinalAt(position), index.courseEnrollmentMillisAt(course, position));
+            if (result != null) results.add(result);
+        }
+        return views != null ? views.rememberStudents(course, Collections.unmodifiableList(results)) : results;
     }
 
+    /**
+     * 以位移切片 (offset slicing) 分頁：游標是下一頁在該課程選課清單中的起始位置，
+     * 直接定位到 CSR 區段 (或差異層的清單) 中的該位置，每頁只建立 pageSize 個結果物件。
+     */
     @Override
-    public List<CourseResult> findTop10PopularCourses() {
-        if (courseEnrollmentIndex == null) return Collections.emptyList();
-
-        return courseEnrollmentIndex.entrySet().stream()
-                .sorted(Map.Entry.<Long, List<Enrollment>>comparingByValue(Comparator.comparingInt(List::size)).reversed())
-                .limit(10)
-                .map(entry -> {
-                    Course course = courseDetailsCache.get(entry.getKey());
-                    if (course == null) return null;
-                    long enrollmentCount = entry.getValue().size();
-                    return new CourseResult(course.getCourseName(), course.getCredits(), enrollmentCount);
-                })
-                .filter(java.util.Objects::nonNull)
-                .collect(Collectors.toList());
-    }
-    
+    public Page<StudentResult> findStudentsByCourse(long courseId, int pageSize, String cursor) {
+        if (pageSize <= 0) throw new IllegalArgumentException("pageSize must be positive: " + pageSize);
+        long offset = cursor == null ? 0 : Page.decodeCursor(cursor);
+        SearchState current = state;
+        if (current == null || offset < 0) return Page.empty();
+        EnrollmentIndex index = current.index;
+
+        Postings changed = current.enrollmentOverlay.coursePostings(courseId);
+        if (changed != null) {
+            int from = (int) Math.min(offset, changed.size());
+            int to = Math.min(changed.size(), from + pageSize);
+            List<StudentResult> results = new ArrayList<>(to - from);
+            for (int i = from; i < to; i++) {
+                StudentResult result = current.studentResult(changed.idAt(i), -1, changed.millisAt(i));
+                if (result != null) results.add(result);
+            }
+            return new Page<>(results, to < changed.size() ? Page.encodeCursor(to) : null);
+        }
+
+        int course = index.getCourseIds().ordinalOf(courseId);
+        if (course < 0) return Page.empty();
+
+        int start = index.courseRangeStart(course);
+        int end = index.courseRangeEnd(course);
+        int from = (int) Math.min(start + offset, end);
+        int to = Math.min(end, from + pageSize);
+        List<StudentResult> results = new ArrayList<>(to - from);
+        for (int position = from; position < to; position++) {
+            StudentResult result = current.studentResultAt(index.studentOrdinalAt(position), index.courseEnrollmentMillisAt(course, position));
+            if (result != null) results.add(result);
+        }
+        return new Page<>(results, to < end ? Page.encodeCursor(to - start) : null);
+    }
+
+    @Override
+    public List<CourseResult> findTopKPopularCourses(int k) {
+        SearchState current = state;
+        if (current == null || k <= 0) return Collections.emptyList();
+
+        // Like the SQL path's LIMIT, asking for more courses than exist just returns them all.
+        int limit = Math.min(k, current.popularity.courseCount());
+        long[] courseIds = new long[limit];
+        int[] counts = new int[limit];
+        int n = current.popularity.topK(limit, courseIds, counts);
+
+        List<CourseResult> results = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            CourseResult result = current.popularCourseResult(courseIds[i], counts[i]);
+            if (result != null) results.add(result);
+        }
+        return results;
+    }
+
+    /**
+     * 直接走訪 CSR 區段 (或差異層的清單)，每列只讀取陣列中的基本型別值，不配置任何物件。
+     */
+    @Override
+    public int visitCoursesByStudent(long studentId, CourseRowVisitor visitor) {
+        SearchState current = state;
+        if (current == null) return 0;
+        EnrollmentIndex index = current.index;
+
+        int visited = 0;
+        Postings changed = current.enrollmentOverlay.studentPostings(studentId);
+        if (changed != null) {
+            for (int i = 0; i < changed.size(); i++) {
+                long courseId = changed.idAt(i);
+                int credits = current.creditsOf(courseId, -1);
+                if (credits < 0) continue;
+                visited++;
+                if (!visitor.visit(courseId, credits, changed.millisAt(i))) break;
+            }
+            return visited;
+        }
+
+        int student = index.getStudentIds().ordinalOf(studentId);
+        if (student < 0) return 0;
+
+        int end = index.studentRangeEnd(student);
+        for (int position = index.studentRangeStart(student); position < end; position++) {
+            int course = index.courseOrdinalAt(position);
+            long courseId = index.getCourseIds().idAt(course);
+            int credits = current.creditsOf(courseId, course);
+            if (credits < 0) continue;
+            visited++;
+            if (!visitor.visit(courseId, credits, index.studentEnrollmentMillisAt(student, position))) break;
+        }
+        return visited;
+    }
+
+    @Override
+    public int visitStudentsByCourse(long courseId, StudentRowVisitor visitor) {
+        SearchState current = state;
+        if (current == null) return 0;
+        EnrollmentIndex index = current.index;
+
+        int visited = 0;
+        Postings changed = current.enrollmentOverlay.coursePostings(courseId);
+        if (changed != null) {
+            for (int i = 0; i < changed.size(); i++) {
+                long studentId = changed.idAt(i);
+                if (!current.studentExists(studentId, -1)) continue;
+                visited++;
+                if (!visitor.visit(studentId, changed.millisAt(i))) break;
+            }
+            return visited;
+        }
+
+        int course = index.getCourseIds().ordinalOf(courseId);
+        if (course < 0) return 0;
+
+        int end = index.courseRangeEnd(course);
+        for (int position = index.courseRangeStart(course); position < end; position++) {
+            int student = index.studentOrdinalAt(position);
+            long studentId = index.getStudentIds().idAt(student);
+            if (!current.studentExists(studentId, student)) continue;
+            visited++;
+            if (!visitor.visit(studentId, index.courseEnrollmentMillisAt(course, position))) break;
+        }
+        return visited;
+    }
+
+    /**
+     * 熱門排名需要先在鎖的保護下複製出前 K 名 (兩個長度 K 的暫存陣列)，再在鎖外逐列回呼，避免在鎖內執行呼叫端的程式碼。
+     */
+    @Override
+    public int visitTopKPopularCourses(int k, PopularCourseVisitor visitor) {
+        SearchState current = state;
+        if (current == null || k <= 0) return 0;
+
+        // Like the SQL path's LIMIT, asking for more courses than exist just returns them all.
+        int limit = Math.min(k, current.popularity.courseCount());
+        long[] courseIds = new long[limit];
+        int[] counts = new int[limit];
+        int n = current.popularity.topK(limit, courseIds, counts);
+
+        int visited = 0;
+        for (int i = 0; i < n; i++) {
+            int credits = current.creditsOf(courseIds[i], -1);
+            if (credits < 0) continue;
+            visited++;
+            if (!visitor.visit(courseIds[i], credits, counts[i])) break;
+        }
+        return visited;
+    }
+
     @Override
     public String getServiceName() {
         return "In-Memory Search Service";
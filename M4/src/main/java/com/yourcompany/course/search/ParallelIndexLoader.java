@@ -0,0 +1,215 @@
+package com.yourcompany.course.search;
+
+import com.yourcompany.course.model.dto.LoadReport;
+import com.yourcompany.course.repository.DataRepository;
+import com.yourcompany.course.search.index.CourseTable;
+import com.yourcompany.course.search.index.EnrollmentIndex;
+import com.yourcompany.course.search.index.IdDictionary;
+import com.yourcompany.course.search.index.PopularityIndex;
+import com.yourcompany.course.search.index.StudentTable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 平行載入 Student、Course 與 Enrollment 三張表並建立記憶體索引。
+ * <p>
+ * 三張表同時讀取，Enrollment 另依 student_id 範圍切成多個分區，
+ * 每個分區使用連線池中各自的連線掃描並收集片段，最後合併成一個 CSR 索引。
+ * 任一表或任一分區讀取失敗，整次載入即失敗，不會以缺少部分分區的資料建立索引。
+ */
+class ParallelIndexLoader {
+
+    private final DataRepository dataRepository;
+    private final int partitions;
+
+    ParallelIndexLoader(DataRepository dataRepository, int partitions) {
+        this.dataRepository = dataRepository;
+        this.partitions = Math.max(1, partitions);
+    }
+
+    Result load() {
+        long loadStart = System.nanoTime();
+        long[] studentIdRange = dataRepository.findEnrollmentStudentIdRange();
+        long[][] ranges = splitRange(studentIdRange[0], studentIdRange[1], partitions);
+        int expectedFragmentSize = (int) (dataRepository.countEnrollments() / Math.max(1, ranges.length) * 11 / 10);
+
+        ExecutorService executor = Executors.newFixedThreadPool(ranges.length + 2, daemonThreadFactory());
+        try {
+            Future<StudentPhase> studentFuture = executor.submit(this::loadStudents);
+            Future<CoursePhase> courseFuture = executor.submit(this::loadCourses);
+
+            long scanStart = System.nanoTime();
+            CompletionService<Fragment> scans = new ExecutorCompletionService<>(executor);
+            for (int i = 0; i < ranges.length; i++) {
+                int partition = i;
+                scans.submit(() -> scanPartition(partition, ranges[partition][0], ranges[partition][1], expectedFragmentSize));
+            }
+
+            // Take partitions in completion order, so the first failed range aborts the load
+            // without waiting for the ranges ahead of it to finish.
+            Fragment[] scanned = new Fragment[ranges.length];
+            for (int i = 0; i < ranges.length; i++) {
+                Fragment fragment = scans.take().get();
+                scanned[fragment.partition] = fragment;
+            }
+            List<EnrollmentIndex.Builder> fragments = new ArrayList<>(ranges.length);
+            long[] partitionNanos = new long[ranges.length];
+            long scanEnd = scanStart;
+            long enrollmentRows = 0;
+            for (int i = 0; i < scanned.length; i++) {
+                fragments.add(scanned[i].builder);
+                partitionNanos[i] = scanned[i].elapsedNanos;
+                scanEnd = Math.max(scanEnd, scanned[i].finishedAtNanos);
+                enrollmentRows += scanned[i].rows;
+            }
+            StudentPhase studentPhase = studentFuture.get();
+            CoursePhase coursePhase = courseFuture.get();
+
+            long mergeStart = System.nanoTime();
+            EnrollmentIndex index = EnrollmentIndex.merge(fragments, studentPhase.ids, coursePhase.ids);
+            fragments.clear();
+            PopularityIndex popularity = PopularityIndex.build(coursePhase.ids, index::courseDegree);
+            long mergeNanos = System.nanoTime() - mergeStart;
+
+            LoadReport report = new LoadReport(
+                    studentPhase.elapsedNanos, coursePhase.elapsedNanos, scanEnd - scanStart, partitionNanos,
+                    mergeNanos, System.nanoTime() - loadStart,
+                    studentPhase.ids.size(), coursePhase.ids.size(), enrollmentRows);
+            return new Result(index, popularity, studentPhase.students, coursePhase.courses, report);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Parallel index load was interrupted.", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Parallel index load failed.", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private StudentPhase loadStudents() {
+        long start = System.nanoTime();
+        int expected = (int) dataRepository.countStudents();
+        IdDictionary ids = new IdDictionary(expected);
+        StudentTable.Builder students = new StudentTable.Builder(expected);
+        int[] rows = {0};
+        dataRepository.streamAllStudents(student -> {
+            if (ids.add(student.getStudentId()) == rows[0]) {
+                students.add(student);
+                rows[0]++;
+            }
+        });
+        return new StudentPhase(ids, students.build(), System.nanoTime() - start);
+    }
+
+    private CoursePhase loadCourses() {
+        long start = System.nanoTime();
+        int expected = (int) dataRepository.countCourses();
+        IdDictionary ids = new IdDictionary(expected);
+        CourseTable.Builder courses = new CourseTable.Builder(expected);
+        int[] rows = {0};
+        dataRepository.streamAllCourses(course -> {
+            if (ids.add(course.getCourseId()) == rows[0]) {
+                courses.add(course);
+                rows[0]++;
+            }
+        });
+        return new CoursePhase(ids, courses.build(), System.nanoTime() - start);
+    }
+
+    private Fragment scanPartition(int partition, long fromStudentId, long toStudentId, int expectedSize) {
+        long start = System.nanoTime();
+        EnrollmentIndex.Builder builder = new EnrollmentIndex.Builder(expectedSize);
+        long rows = dataRepository.streamEnrollmentsByStudentRange(fromStudentId, toStudentId, builder::add);
+        long end = System.nanoTime();
+        return new Fragment(partition, builder, rows, end - start, end);
+    }
+
+    /**
+     * 將 [min, max] 切成最多 parts 個等寬的半開區間 [from, to)。
+     */
+    static long[][] splitRange(long min, long max, int parts) {
+        if (max < min) return new long[0][];
+        long span = max - min + 1;
+        int count = (int) Math.min(parts, span);
+        long width = (span + count - 1) / count;
+        List<long[]> ranges = new ArrayList<>(count);
+        for (long from = min; from <= max; from += width) {
+            ranges.add(new long[]{from, Math.min(from + width, max + 1)});
+        }
+        return ranges.toArray(new long[0][]);
+    }
+
+    private static ThreadFactory daemonThreadFactory() {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "index-loader-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    static final class Result {
+        final EnrollmentIndex index;
+        final PopularityIndex popularity;
+        final StudentTable students;
+        final CourseTable courses;
+        final LoadReport report;
+
+        Result(EnrollmentIndex index, PopularityIndex popularity, StudentTable students, CourseTable courses, LoadReport report) {
+            this.index = index;
+            this.popularity = popularity;
+            this.students = students;
+            this.courses = courses;
+            this.report = report;
+        }
+    }
+
+    private static final class StudentPhase {
+        final IdDictionary ids;
+        final StudentTable students;
+        final long elapsedNanos;
+
+        StudentPhase(IdDictionary ids, StudentTable students, long elapsedNanos) {
+            this.ids = ids;
+            this.students = students;
+            this.elapsedNanos = elapsedNanos;
+        }
+    }
+
+    private static final class CoursePhase {
+        final IdDictionary ids;
+        final CourseTable courses;
+        final long elapsedNanos;
+
+        CoursePhase(IdDictionary ids, CourseTable courses, long elapsedNanos) {
+            this.ids = ids;
+            this.courses = courses;
+            this.elapsedNanos = elapsedNanos;
+        }
+    }
+
+    private static final class Fragment {
+        final int partition;
+        final EnrollmentIndex.Builder builder;
+        final long rows;
+        final long elapsedNanos;
+        final long finishedAtNanos;
+
+        Fragment(int partition, EnrollmentIndex.Builder builder, long rows, long elapsedNanos, long finishedAtNanos) {
+            this.partition = partition;
+            this.builder = builder;
+            this.rows = rows;
+            this.elapsedNanos = elapsedNanos;
+            this.finishedAtNanos = finishedAtNanos;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.yourcompany.course.search;
+
+import com.yourcompany.course.model.dto.CourseResult;
+import com.yourcompany.course.model.dto.StudentResult;
+import com.yourcompany.course.search.index.MemoryLayout;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 依學生 / 課程序號記住已建好的唯讀查詢結果，重複查詢同一個鍵時直接回傳同一個列表，不再配置任何物件。
+ * <p>
+ * 列表在第一次查詢時建立 (lazy memoization)，之後由所有呼叫端共用：列表是唯讀的，其中的
+ * {@link com.yourcompany.course.model.dto.ReadOnlyCourseResult} / {@link com.yourcompany.course.model.dto.ReadOnlyStudentResult}
+ * 也沒有可用的 setter，且可安全地跨執行緒讀取。
+ * 只記住 CSR 上未被增量層覆寫的鍵；實體資料變更時由 SearchState 整組換新。
+ */
+final class ResultViews {
+
+    // Shallow sizes of the shared result objects, used for the memory breakdown.
+    private static final long LIST_BYTES = MemoryLayout.objectBytes(2, 0)    // Collections.UnmodifiableRandomAccessList
+            + MemoryLayout.objectBytes(1, 2 * Integer.BYTES);                    // ArrayList: elementData, size, modCount
+    // ReadOnlyCourseResult: courseName, enrollmentDate (unused) + int credits, long enrollmentCount, long enrollmentMillis
+    private static final long COURSE_RESULT_BYTES = MemoryLayout.objectBytes(2, Integer.BYTES + 2 * Long.BYTES);
+    // ReadOnlyStudentResult: 3 unused base fields, 4 name/email parts, 2 lazily joined strings + long enrollmentMillis
+    private static final long STUDENT_RESULT_BYTES = MemoryLayout.objectBytes(9, Long.BYTES);
+
+    private final AtomicReferenceArray<List<CourseResult>> coursesByStudent;
+    private final AtomicReferenceArray<List<StudentResult>> studentsByCourse;
+
+    ResultViews(int studentCount, int courseCount) {
+        this.coursesByStudent = new AtomicReferenceArray<>(studentCount);
+        this.studentsByCourse = new AtomicReferenceArray<>(courseCount);
+    }
+
+    List<CourseResult> coursesOf(int studentOrdinal) {
+        return coursesByStudent.get(studentOrdinal);
+    }
+
+    /**
+     * @return 實際被記住的列表；其他執行緒先完成時返回對方的列表，讓所有呼叫端共用同一份
+     */
+    List<CourseResult> rememberCourses(int studentOrdinal, List<CourseResult> view) {
+        return coursesByStudent.compareAndSet(studentOrdinal, null, view) ? view : coursesByStudent.get(studentOrdinal);
+    }
+
+    List<StudentResult> studentsOf(int courseOrdinal) {
+        return studentsByCourse.get(courseOrdinal);
+    }
+
+    List<StudentResult> rememberStudents(int courseOrdinal, List<StudentResult> view) {
+        return studentsByCourse.compareAndSet(courseOrdinal, null, view) ? view : studentsByCourse.get(courseOrdinal);
+    }
+
+    /**
+     * @return 兩個序號陣列與目前已記住的列表及結果物件的估算大小 (不含結果中延後組合的字串)；隨查詢逐步增加
+     */
+    long memoryBytes() {
+        long total = MemoryLayout.objectBytes(2, 0)
+                + MemoryLayout.arrayBytes(coursesByStudent.length(), MemoryLayout.REFERENCE_BYTES)
+                + MemoryLayout.arrayBytes(studentsByCourse.length(), MemoryLayout.REFERENCE_BYTES);
+        for (int i = 0; i < coursesByStudent.length(); i++) {
+            List<CourseResult> view = coursesByStudent.get(i);
+            if (view != null) total += viewBytes(view.size(), COURSE_RESULT_BYTES);
+        }
+        for (int i = 0; i < studentsByCourse.length(); i++) {
+            List<StudentResult> view = studentsByCourse.get(i);
+            if (view != null) total += viewBytes(view.size(), STUDENT_RESULT_BYTES);
+        }
+        return total;
+    }
+
+    private static long viewBytes(int size, long elementBytes) {
+        return LIST_BYTES + MemoryLayout.arrayBytes(size, MemoryLayout.REFERENCE_BYTES) + size * elementBytes;
+    }
+}
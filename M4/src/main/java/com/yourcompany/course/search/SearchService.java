@@ -1,8 +1,14 @@
 package com.yourcompany.course.search;
 
 import com.yourcompany.course.model.dto.CourseResult;
+import com.yourcompany.course.model.dto.Page;
 import com.yourcompany.course.model.dto.StudentResult;
+import com.yourcompany.course.model.visitor.CourseRowVisitor;
+import com.yourcompany.course.model.visitor.PopularCourseVisitor;
+import com.yourcompany.course.model.visitor.StudentRowVisitor;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * 定義所有搜尋功能的標準介面。
@@ -26,12 +32,96 @@ public interface SearchService {
      */
     List<StudentResult> findStudentsByCourse(long courseId);
 
+    /**
+     * 功能 2 & 3 (分頁版): 分頁查詢選修該課程的學生，延遲只與頁面大小有關而與名單長度無關。
+     * 預設實作取出完整名單後切片，各方案應覆寫為真正的分頁查詢。
+     *
+     * @param courseId 課程ID
+     * @param pageSize 每頁筆數 (必須大於 0)
+     * @param cursor   上一頁回傳的 {@link Page#getNextCursor()}；查詢第一頁時傳入 null
+     * @return 一頁結果；沒有下一頁時 nextCursor 為 null
+     */
+    default Page<StudentResult> findStudentsByCourse(long courseId, int pageSize, String cursor) {
+        if (pageSize <= 0) throw new IllegalArgumentException("pageSize must be positive: " + pageSize);
+        List<StudentResult> all = findStudentsByCourse(courseId);
+        int from = cursor == null ? 0 : (int) Math.min(Page.decodeCursor(cursor), all.size());
+        int to = Math.min(all.size(), from + pageSize);
+        return new Page<>(all.subList(from, to), to < all.size() ? Page.encodeCursor(to) : null);
+    }
+
+    /**
+     * 功能 1 (批次版): 一次查詢多位學生選修的課程。
+     * 預設實作逐一呼叫 {@link #findCoursesByStudent(long)}，各方案應覆寫為集合式查詢。
+     *
+     * @param studentIds 學生ID陣列，可含重複
+     * @return 依鍵在陣列中第一次出現的順序排列的結果；每個鍵都有一項，查無資料的鍵對應空列表
+     */
+    default Map<Long, List<CourseResult>> findCoursesByStudents(long[] studentIds) {
+        Map<Long, List<CourseResult>> results = new LinkedHashMap<>(studentIds.length * 4 / 3 + 1);
+        for (long studentId : studentIds) {
+            results.computeIfAbsent(studentId, this::findCoursesByStudent);
+        }
+        return results;
+    }
+
+    /**
+     * 功能 2 & 3 (批次版): 一次查詢多門課程的學生名單。
+     * 預設實作逐一呼叫 {@link #findStudentsByCourse(long)}，各方案應覆寫為集合式查詢。
+     *
+     * @param courseIds 課程ID陣列，可含重複
+     * @return 依鍵在陣列中第一次出現的順序排列的結果；每個鍵都有一項，查無資料的鍵對應空列表
+     */
+    default Map<Long, List<StudentResult>> findStudentsByCourses(long[] courseIds) {
+        Map<Long, List<StudentResult>> results = new LinkedHashMap<>(courseIds.length * 4 / 3 + 1);
+        for (long courseId : courseIds) {
+            results.computeIfAbsent(courseId, this::findStudentsByCourse);
+        }
+        return results;
+    }
+
     /**
      * 功能 4: 查找選修人數最多的前10門熱門課程。
      *
      * @return 包含熱門課程資訊的列表，按選修人數降序排列。
      */
-    List<CourseResult> findTop10PopularCourses();
+    default List<CourseResult> findTop10PopularCourses() {
+        return findTopKPopularCourses(10);
+    }
+
+    /**
+     * 功能 4 (通用版): 查找選修人數最多的前 K 門熱門課程。
+     *
+     * @param k 要回傳的課程數
+     * @return 包含熱門課程資訊的列表，按選修人數降序排列。
+     */
+    List<CourseResult> findTopKPopularCourses(int k);
+
+    /**
+     * 功能 1 (走訪版): 逐列把學生選修的課程交給 visitor，只傳遞 ID、學分與選課時間，不建立列表與 DTO。
+     *
+     * @param studentId 學生ID
+     * @param visitor   接收每一列的回呼；回傳 false 可提前結束
+     * @return 交給 visitor 的列數
+     */
+    int visitCoursesByStudent(long studentId, CourseRowVisitor visitor);
+
+    /**
+     * 功能 2 & 3 (走訪版): 逐列把選修該課程的學生 ID 與選課時間交給 visitor。
+     *
+     * @param courseId 課程ID
+     * @param visitor  接收每一列的回呼；回傳 false 可提前結束
+     * @return 交給 visitor 的列數
+     */
+    int visitStudentsByCourse(long courseId, StudentRowVisitor visitor);
+
+    /**
+     * 功能 4 (走訪版): 依選修人數由多到少，把前 K 門課程的 ID、學分與人數交給 visitor。
+     *
+     * @param k       要走訪的課程數
+     * @param visitor 接收每一列的回呼；回傳 false 可提前結束
+     * @return 交給 visitor 的列數
+     */
+    int visitTopKPopularCourses(int k, PopularCourseVisitor visitor);
 
     /**
      * (可選) 獲取服務名稱，用於在UI或日誌中標識。
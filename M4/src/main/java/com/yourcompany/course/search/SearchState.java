@@ -0,0 +1,191 @@
+package com.yourcompany.course.search;
+
+import com.yourcompany.course.model.Course;
+import com.yourcompany.course.model.Student;
+import com.yourcompany.course.model.dto.CourseResult;
+import com.yourcompany.course.model.dto.LoadReport;
+import com.yourcompany.course.model.dto.ReadOnlyCourseResult;
+import com.yourcompany.course.model.dto.ReadOnlyStudentResult;
+import com.yourcompany.course.model.dto.StudentResult;
+import com.yourcompany.course.search.index.CourseTable;
+import com.yourcompany.course.search.index.EnrollmentIndex;
+import com.yourcompany.course.search.index.EnrollmentOverlay;
+import com.yourcompany.course.search.index.EntityOverlay;
+import com.yourcompany.course.search.index.PopularityIndex;
+import com.yourcompany.course.search.index.StudentTable;
+
+
+/**
+ * InMemorySearchService 某一次載入的完整狀態：CSR 索引、實體快取、熱門度排名與其增量層。
+ * <p>
+ * 新的狀態在背景完整建好之後，才以一次 volatile 寫入發佈 (見 InMemorySearchService#state)，
+ * 查詢開始時只讀取一次該欄位，整個查詢都使用同一個狀態，因此不會看到新舊混雜的資料。
+ * 舊狀態在進行中的查詢結束、不再被引用後由 GC 回收。
+ * <p>
+ * 索引與實體表發佈後不再修改；refresh() 的變更只寫入執行緒安全的增量層與熱門度排名。
+ * 查詢結果直接從欄式實體表 (字典編碼的字串) 建立，只有被 refresh() 覆寫的實體才以物件形式保存。
+ */
+final class SearchState {
+
+    final EnrollmentIndex index;
+    final StudentTable students;
+    final CourseTable courses;
+    final PopularityIndex popularity;
+    final EnrollmentOverlay enrollmentOverlay;
+    final EntityOverlay<Student> studentOverlay;
+    final EntityOverlay<Course> courseOverlay;
+    final LoadReport loadReport;
+
+    // Memoized query results; created on first use and dropped whenever an entity changes.
+    private volatile ResultViews resultViews;
+
+    SearchState(EnrollmentIndex index, StudentTable students, CourseTable courses, PopularityIndex popularity, LoadReport loadReport) {
+        this.index = index;
+        this.students = students;
+        this.courses = courses;
+        this.popularity = popularity;
+        this.enrollmentOverlay = new EnrollmentOverlay(index);
+        this.studentOverlay = new EntityOverlay<>();
+        this.courseOverlay = new EntityOverlay<>();
+        this.loadReport = loadReport;
+    }
+
+    /**
+     * @return 以新的載入報告取代舊報告的狀態，共用同一組索引與增量層
+     */
+    SearchState withLoadReport(LoadReport report) {
+        return new SearchState(this, report);
+    }
+
+    private SearchState(SearchState other, LoadReport loadReport) {
+        this.index = other.index;
+        this.students = other.students;
+        this.courses = other.courses;
+        this.popularity = other.popularity;
+        this.enrollmentOverlay = other.enrollmentOverlay;
+        this.studentOverlay = other.studentOverlay;
+        this.courseOverlay = other.courseOverlay;
+        this.loadReport = loadReport;
+        this.resultViews = other.resultViews;
+    }
+
+    /**
+     * @return 目前的結果視圖，第一次呼叫時建立
+     */
+    ResultViews resultViews() {
+        ResultViews views = resultViews;
+        if (views == null) {
+            synchronized (this) {
+                views = resultViews;
+                if (views == null) {
+                    resultViews = views = new ResultViews(students.size(), courses.size());
+                }
+            }
+        }
+        return views;
+    }
+
+    /**
+     * @return 目前的結果視圖；尚未建立時返回 null
+     */
+    ResultViews existingResultViews() {
+        return resultViews;
+    }
+
+    /**
+     * 捨棄所有已記住的結果 (學生或課程資料被修改、或停用結果視圖時呼叫)。
+     * 正在使用舊視圖的查詢只會寫入被捨棄的那一份，不影響之後的查詢。
+     */
+    void invalidateResultViews() {
+        resultViews = null;
+    }
+
+    /**
+     * @param ordinal 學生序號，已知時省去一次字典查詢；未知時傳入 -1
+     * @return 學生選課結果；學生已不存在時返回 null
+     */
+    StudentResult studentResult(long studentId, int ordinal, long enrollmentMillis) {
+        if (studentOverlay.isOverridden(studentId)) {
+            Student student = studentOverlay.resolve(studentId, null);
+            if (student == null) return null;
+            return new ReadOnlyStudentResult(student.getFirstName(), student.getLastName(), student.getEmail(), null,
+                    enrollmentMillis);
+        }
+        int student = ordinal >= 0 ? ordinal : index.getStudentIds().ordinalOf(studentId);
+        if (student < 0) return null;
+        return new ReadOnlyStudentResult(students.firstName(student), students.lastName(student),
+                students.emailLocalPart(student), students.emailDomain(student), enrollmentMillis);
+    }
+
+    StudentResult studentResultAt(int ordinal, long enrollmentMillis) {
+        return studentResult(index.getStudentIds().idAt(ordinal), ordinal, enrollmentMillis);
+    }
+
+    /**
+     * @param ordinal 課程序號；未知時傳入 -1
+     * @return 課程選課結果；課程已不存在時返回 null
+     */
+    CourseResult courseResult(long courseId, int ordinal, long enrollmentMillis) {
+        if (courseOverlay.isOverridden(courseId)) {
+            Course course = courseOverlay.resolve(courseId, null);
+            if (course == null) return null;
+            return ReadOnlyCourseResult.enrolled(course.getCourseName(), course.getCredits(), enrollmentMillis);
+        }
+        int course = ordinal >= 0 ? ordinal : index.getCourseIds().ordinalOf(courseId);
+        if (course < 0) return null;
+        return ReadOnlyCourseResult.enrolled(courses.courseName(course), courses.credits(course), enrollmentMillis);
+    }
+
+    CourseResult courseResultAt(int ordinal, long enrollmentMillis) {
+        return courseResult(index.getCourseIds().idAt(ordinal), ordinal, enrollmentMillis);
+    }
+
+    /**
+     * @return 熱門課程結果；課程已不存在時返回 null
+     */
+    CourseResult popularCourseResult(long courseId, long enrollmentCount) {
+        if (courseOverlay.isOverridden(courseId)) {
+            Course course = courseOverlay.resolve(courseId, null);
+            return course == null ? null : ReadOnlyCourseResult.popular(course.getCourseName(), course.getCredits(), enrollmentCount);
+        }
+        int course = index.getCourseIds().ordinalOf(courseId);
+        if (course < 0) return null;
+        return ReadOnlyCourseResult.popular(courses.courseName(course), courses.credits(course), enrollmentCount);
+    }
+
+    /**
+     * @param ordinal 學生序號；未知時傳入 -1
+     * @return 學生是否存在 (考慮 refresh() 的刪除與新增)
+     */
+    boolean studentExists(long studentId, int ordinal) {
+        if (studentOverlay.isOverridden(studentId)) return studentOverlay.resolve(studentId, null) != null;
+        return ordinal >= 0 || index.getStudentIds().ordinalOf(studentId) >= 0;
+    }
+
+    /**
+     * @param ordinal 課程序號；未知時傳入 -1
+     * @return 課程的學分數；課程已不存在時返回 -1
+     */
+    int creditsOf(long courseId, int ordinal) {
+        if (courseOverlay.isOverridden(courseId)) {
+            Course course = courseOverlay.resolve(courseId, null);
+            return course == null ? -1 : course.getCredits();
+        }
+        int course = ordinal >= 0 ? ordinal : index.getCourseIds().ordinalOf(courseId);
+        return course < 0 ? -1 : courses.credits(course);
+    }
+
+    /**
+     * 在增量層新增或更新一筆選課，並同步熱門度排名。
+     */
+    void putEnrollment(long studentId, long courseId, long enrollmentMillis) {
+        if (enrollmentOverlay.put(studentId, courseId, enrollmentMillis)) popularity.increment(courseId);
+    }
+
+    /**
+     * 在增量層移除一筆選課，並同步熱門度排名。
+     */
+    void removeEnrollment(long studentId, long courseId) {
+        if (enrollmentOverlay.remove(studentId, courseId)) popularity.decrement(courseId);
+    }
+}
@@ -1,10 +1,15 @@
 package com.yourcompany.course.search;
 
 import com.yourcompany.course.model.dto.CourseResult;
+import com.yourcompany.course.model.dto.Page;
 import com.yourcompany.course.model.dto.StudentResult;
+import com.yourcompany.course.model.visitor.CourseRowVisitor;
+import com.yourcompany.course.model.visitor.PopularCourseVisitor;
+import com.yourcompany.course.model.visitor.StudentRowVisitor;
 import com.yourcompany.course.repository.DataRepository;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * 方案 A: 完全依賴資料庫 (SQL) 進行搜尋的服務實現。
@@ -27,9 +32,44 @@ public class SqlSearchService implements SearchService {
         return dataRepository.findStudentsByCourseId(courseId);
     }
 
+    /**
+     * Keyset 分頁：游標記錄上一頁最後一位學生的 ID，沿 (course_id, student_id) 索引從該位置往後讀取。
+     */
     @Override
-    public List<CourseResult> findTop10PopularCourses() {
-        return dataRepository.findTop10PopularCourses();
+    public Page<StudentResult> findStudentsByCourse(long courseId, int pageSize, String cursor) {
+        if (pageSize <= 0) throw new IllegalArgumentException("pageSize must be positive: " + pageSize);
+        long afterStudentId = cursor == null ? Long.MIN_VALUE : Page.decodeCursor(cursor);
+        return dataRepository.findStudentsByCourseIdPage(courseId, afterStudentId, pageSize);
+    }
+
+    @Override
+    public List<CourseResult> findTopKPopularCourses(int k) {
+        return dataRepository.findTopPopularCourses(k);
+    }
+
+    @Override
+    public Map<Long, List<CourseResult>> findCoursesByStudents(long[] studentIds) {
+        return dataRepository.findCoursesByStudentIds(studentIds);
+    }
+
+    @Override
+    public Map<Long, List<StudentResult>> findStudentsByCourses(long[] courseIds) {
+        return dataRepository.findStudentsByCourseIds(courseIds);
+    }
+
+    @Override
+    public int visitCoursesByStudent(long studentId, CourseRowVisitor visitor) {
+        return dataRepository.visitCoursesByStudentId(studentId, visitor);
+    }
+
+    @Override
+    public int visitStudentsByCourse(long courseId, StudentRowVisitor visitor) {
+        return dataRepository.visitStudentsByCourseId(courseId, visitor);
+    }
+
+    @Override
+    public int visitTopKPopularCourses(int k, PopularCourseVisitor visitor) {
+        return dataRepository.visitTopPopularCourses(k, visitor);
     }
 
     @Override
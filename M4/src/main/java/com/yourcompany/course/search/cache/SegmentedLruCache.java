@@ -0,0 +1,194 @@
+package com.yourcompany.course.search.cache;
+
+import com.yourcompany.course.model.dto.CacheStats;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 有容量上限與 TTL 的分段 LRU (Segmented LRU) 快取。
+ * <p>
+ * 新項目先進入試用區 (probation)，在試用區中再次被命中才晉升到保護區 (protected)；
+ * 保護區滿時把最久未用的項目降回試用區，容量不足時一律從試用區的最舊項目開始淘汰。
+ * 因此只被查過一次的鍵 (例如一次性的全表掃描) 不會把反覆被查的熱門鍵擠出快取。
+ * <p>
+ * 所有操作都在同一把鎖內完成且只是幾次雜湊表操作；載入資料由呼叫端在鎖外進行。
+ * 呼叫端在載入前以 {@link #loadStamp(Object)} 取得戳記，載入後以 {@link #putIfNotInvalidated} 寫回：
+ * 載入期間該鍵 (或整個快取) 若被失效過，結果可能早於失效前的修改，就不寫入。
+ *
+ * @param <K> 鍵的型別
+ * @param <V> 值的型別
+ */
+public class SegmentedLruCache<K, V> {
+
+    private static final double PROTECTED_RATIO = 0.8;
+    private static final int INVALIDATION_STRIPES = 256;
+
+    private final String name;
+    private final int maximumSize;
+    private final int protectedCapacity;
+    private final long ttlNanos;
+
+    // accessOrder = true: get() moves the entry to the tail, so the head is always the LRU entry.
+    private final LinkedHashMap<K, Entry<V>> probation = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<K, Entry<V>> protectedSegment = new LinkedHashMap<>(16, 0.75f, true);
+
+    // Invalidation counters per key-hash stripe and for the whole cache; both only ever grow,
+    // so their sum changes whenever either does. Unrelated keys sharing a stripe only cost a skipped write.
+    private final long[] keyInvalidations = new long[INVALIDATION_STRIPES];
+    private long cacheInvalidations;
+
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+    private long expirationCount;
+
+    /**
+     * @param name        快取名稱，用於統計輸出
+     * @param maximumSize 最多保留的項目數
+     * @param ttlMillis   項目寫入後的存活時間 (毫秒)；0 或負數表示不過期
+     */
+    public SegmentedLruCache(String name, int maximumSize, long ttlMillis) {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("maximumSize must be positive: " + maximumSize);
+        }
+        this.name = name;
+        this.maximumSize = maximumSize;
+        this.protectedCapacity = Math.max(1, (int) (maximumSize * PROTECTED_RATIO));
+        this.ttlNanos = ttlMillis > 0 ? ttlMillis * 1_000_000L : 0;
+    }
+
+    /**
+     * @return 快取中未過期的值；不存在或已過期時返回 null (並計為一次未命中)
+     */
+    public synchronized V get(K key) {
+        Entry<V> entry = protectedSegment.get(key);
+        if (entry != null) {
+            if (isExpired(entry)) {
+                protectedSegment.remove(key);
+                expirationCount++;
+                missCount++;
+                return null;
+            }
+            hitCount++;
+            return entry.value;
+        }
+
+        entry = probation.remove(key);
+        if (entry == null) {
+            missCount++;
+            return null;
+        }
+        if (isExpired(entry)) {
+            expirationCount++;
+            missCount++;
+            return null;
+        }
+        hitCount++;
+        promote(key, entry);
+        return entry.value;
+    }
+
+    /**
+     * 寫入或覆蓋一個項目，並重新計算其 TTL。
+     */
+    public synchronized void put(K key, V value) {
+        Entry<V> entry = new Entry<>(value, ttlNanos == 0 ? 0 : System.nanoTime() + ttlNanos);
+        if (protectedSegment.containsKey(key)) {
+            protectedSegment.put(key, entry);
+            return;
+        }
+        probation.put(key, entry);
+        while (probation.size() + protectedSegment.size() > maximumSize) {
+            evictOne();
+        }
+    }
+
+    /**
+     * @return 目前此鍵的失效戳記，在載入資料之前取得並交給 {@link #putIfNotInvalidated}
+     */
+    public synchronized long loadStamp(K key) {
+        return keyInvalidations[stripeOf(key)] + cacheInvalidations;
+    }
+
+    /**
+     * 只有在取得 stamp 之後此鍵與整個快取都未被失效時才寫入；檢查與寫入在同一把鎖內完成。
+     *
+     * @return 是否寫入
+     */
+    public synchronized boolean putIfNotInvalidated(K key, V value, long stamp) {
+        if (loadStamp(key) != stamp) return false;
+        put(key, value);
+        return true;
+    }
+
+    public synchronized void invalidate(K key) {
+        keyInvalidations[stripeOf(key)]++;
+        if (protectedSegment.remove(key) == null) {
+            probation.remove(key);
+        }
+    }
+
+    public synchronized void invalidateAll() {
+        cacheInvalidations++;
+        protectedSegment.clear();
+        probation.clear();
+    }
+
+    public synchronized int size() {
+        return probation.size() + protectedSegment.size();
+    }
+
+    public synchronized CacheStats stats() {
+        return new CacheStats(name, hitCount, missCount, evictionCount, expirationCount, size(), maximumSize);
+    }
+
+    public synchronized void resetStats() {
+        hitCount = 0;
+        missCount = 0;
+        evictionCount = 0;
+        expirationCount = 0;
+    }
+
+    private void promote(K key, Entry<V> entry) {
+        protectedSegment.put(key, entry);
+        if (protectedSegment.size() > protectedCapacity) {
+            Iterator<Map.Entry<K, Entry<V>>> lru = protectedSegment.entrySet().iterator();
+            Map.Entry<K, Entry<V>> demoted = lru.next();
+            lru.remove();
+            probation.put(demoted.getKey(), demoted.getValue());
+        }
+    }
+
+    private void evictOne() {
+        LinkedHashMap<K, Entry<V>> victimSegment = probation.isEmpty() ? protectedSegment : probation;
+        Iterator<Map.Entry<K, Entry<V>>> lru = victimSegment.entrySet().iterator();
+        Entry<V> victim = lru.next().getValue();
+        lru.remove();
+        if (isExpired(victim)) {
+            expirationCount++;
+        } else {
+            evictionCount++;
+        }
+    }
+
+    private static int stripeOf(Object key) {
+        int h = key.hashCode() * 0x9E3779B9;
+        return h >>> 24; // top 8 bits -> 256 stripes
+    }
+
+    private boolean isExpired(Entry<V> entry) {
+        return entry.expiresAtNanos != 0 && System.nanoTime() - entry.expiresAtNanos >= 0;
+    }
+
+    private static final class Entry<V> {
+        final V value;
+        final long expiresAtNanos;
+
+        Entry(V value, long expiresAtNanos) {
+            this.value = value;
+            this.expiresAtNanos = expiresAtNanos;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.yourcompany.course.search.cache;
+
+import com.yourcompany.course.model.dto.CoalescingStats;
+import com.yourcompany.course.repository.QueryCancellation;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 同一個鍵同時只執行一次載入 (single-flight)：第一個呼叫者 (leader) 在自己的執行緒上執行載入，
+ * 載入期間以同一鍵進來的呼叫者只等待並共用 leader 的結果，不另外查詢。載入結束即移除，結果不會被保留。
+ * <p>
+ * leader 的查詢若已透過其綁定的 {@link QueryCancellation} 被取消，其結果可能不完整
+ * (DataRepository 在查詢失敗時返回空列表)，此時等待者不共用結果，而是各自重新嘗試。
+ * 等待者本身被取消時不會中斷 leader 的查詢，只是等到它結束。
+ */
+public final class SingleFlight<K, V> {
+
+    private final String name;
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder executions = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+
+    public SingleFlight(String name) {
+        this.name = name;
+    }
+
+    /**
+     * @param loader 實際的查詢；只在沒有同鍵查詢進行中時於目前執行緒上呼叫
+     * @return 本次或進行中查詢的結果，可能與其他呼叫者共用同一個物件
+     */
+    public V load(K key, Supplier<V> loader) {
+        while (true) {
+            CompletableFuture<V> flight = new CompletableFuture<>();
+            CompletableFuture<V> running = inFlight.putIfAbsent(key, flight);
+            if (running == null) return lead(key, flight, loader);
+            try {
+                V shared = running.join();
+                coalesced.increment();
+                return shared;
+            } catch (CancellationException e) {
+                retries.increment(); // the leader was cancelled; its answer may be truncated
+            } catch (CompletionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+                if (cause instanceof Error) throw (Error) cause;
+                throw e;
+            }
+        }
+    }
+
+    private V lead(K key, CompletableFuture<V> flight, Supplier<V> loader) {
+        executions.increment();
+        QueryCancellation cancellation = QueryCancellation.current();
+        V value;
+        try {
+            value = loader.get();
+        } catch (RuntimeException | Error e) {
+            inFlight.remove(key, flight);
+            flight.completeExceptionally(e);
+            throw e;
+        }
+        // Unpublish before completing so that callers arriving from now on start a fresh load.
+        inFlight.remove(key, flight);
+        if (cancellation != null && cancellation.isCancelled()) flight.cancel(false);
+        else flight.complete(value);
+        return value;
+    }
+
+    /**
+     * 讓之後的呼叫者不再加入此鍵目前進行中的查詢 (例如資料已被修改，進行中的查詢可能讀到修改前的資料)。
+     * 已在等待的呼叫者仍會拿到該查詢的結果。
+     */
+    public void forget(K key) {
+        inFlight.remove(key);
+    }
+
+    public void forgetAll() {
+        inFlight.clear();
+    }
+
+    public CoalescingStats stats() {
+        return new CoalescingStats(name, executions.sum(), coalesced.sum(), retries.sum());
+    }
+
+    public void resetStats() {
+        executions.reset();
+        coalesced.reset();
+        retries.reset();
+    }
+}
@@ -0,0 +1,131 @@
+package com.yourcompany.course.search.index;
+
+import com.yourcompany.course.model.Course;
+import com.yourcompany.course.model.dto.MemoryBreakdown;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * 以欄式陣列儲存的課程實體快取，以課程序號 (ordinal) 為索引。
+ * 課程名稱以字典編碼並快取解碼結果，查詢結果直接共用同一個 String；課程描述只在讀取時解碼。
+ */
+public final class CourseTable {
+
+    private static final long NULL_TEACHER = Long.MIN_VALUE;
+
+    private final StringDictionary names;
+    private final StringDictionary descriptions;
+    private final int[] nameCodes;
+    private final int[] descriptionCodes;
+    private final int[] credits;
+    private final long[] teacherIds;
+
+    private CourseTable(StringDictionary names, StringDictionary descriptions,
+                        int[] nameCodes, int[] descriptionCodes, int[] credits, long[] teacherIds) {
+        this.names = names;
+        this.descriptions = descriptions;
+        this.nameCodes = nameCodes;
+        this.descriptionCodes = descriptionCodes;
+        this.credits = credits;
+        this.teacherIds = teacherIds;
+    }
+
+    public int size() {
+        return nameCodes.length;
+    }
+
+    public String courseName(int ordinal) {
+        return names.get(nameCodes[ordinal]);
+    }
+
+    public String courseDescription(int ordinal) {
+        return descriptions.get(descriptionCodes[ordinal]);
+    }
+
+    public int credits(int ordinal) {
+        return credits[ordinal];
+    }
+
+    /**
+     * @return 授課老師 ID；資料庫為 NULL 時返回 null
+     */
+    public Long teacherId(int ordinal) {
+        return teacherIds[ordinal] == NULL_TEACHER ? null : teacherIds[ordinal];
+    }
+
+    public void appendMemoryBreakdown(MemoryBreakdown breakdown, String entityCategory, String stringCategory) {
+        breakdown.add(entityCategory, "course columns", MemoryLayout.objectBytes(6, 0)
+                + 3 * MemoryLayout.arrayBytes(nameCodes.length, Integer.BYTES)
+                + MemoryLayout.arrayBytes(teacherIds.length, Long.BYTES));
+        breakdown.add(stringCategory, "course names", names.memoryBytes());
+        breakdown.add(stringCategory, "course descriptions", descriptions.memoryBytes());
+    }
+
+    void writeTo(SnapshotOutput out) throws IOException {
+        names.writeTo(out);
+        descriptions.writeTo(out);
+        out.writeInts(nameCodes);
+        out.writeInts(descriptionCodes);
+        out.writeInts(credits);
+        out.writeLongs(teacherIds);
+    }
+
+    static CourseTable readFrom(SnapshotInput in, int expectedRows) {
+        StringDictionary names = StringDictionary.readFrom(in, true);
+        StringDictionary descriptions = StringDictionary.readFrom(in, false);
+        int[] nameCodes = in.readInts();
+        int[] descriptionCodes = in.readInts();
+        int[] credits = in.readInts();
+        long[] teacherIds = in.readLongs();
+        if (nameCodes.length != expectedRows || descriptionCodes.length != expectedRows
+                || credits.length != expectedRows || teacherIds.length != expectedRows
+                || !StudentTable.codesInRange(nameCodes, names) || !StudentTable.codesInRange(descriptionCodes, descriptions)) {
+            throw new IllegalStateException("Snapshot course columns do not match the course dictionary.");
+        }
+        return new CourseTable(names, descriptions, nameCodes, descriptionCodes, credits, teacherIds);
+    }
+
+    /**
+     * 依序號順序加入課程資料列。非執行緒安全。
+     */
+    public static final class Builder {
+
+        private final StringDictionary.Builder names = new StringDictionary.Builder();
+        private final StringDictionary.Builder descriptions = new StringDictionary.Builder();
+        private int[] nameCodes;
+        private int[] descriptionCodes;
+        private int[] credits;
+        private long[] teacherIds;
+        private int size;
+
+        public Builder(int expectedSize) {
+            int capacity = Math.max(16, expectedSize);
+            nameCodes = new int[capacity];
+            descriptionCodes = new int[capacity];
+            credits = new int[capacity];
+            teacherIds = new long[capacity];
+        }
+
+        public void add(Course course) {
+            if (size == nameCodes.length) {
+                int capacity = size * 2;
+                nameCodes = Arrays.copyOf(nameCodes, capacity);
+                descriptionCodes = Arrays.copyOf(descriptionCodes, capacity);
+                credits = Arrays.copyOf(credits, capacity);
+                teacherIds = Arrays.copyOf(teacherIds, capacity);
+            }
+            nameCodes[size] = names.add(course.getCourseName());
+            descriptionCodes[size] = descriptions.add(course.getCourseDescription());
+            credits[size] = course.getCredits();
+            teacherIds[size] = course.getTeacherId() != null ? course.getTeacherId() : NULL_TEACHER;
+            size++;
+        }
+
+        public CourseTable build() {
+            return new CourseTable(names.build(true), descriptions.build(false),
+                    Arrays.copyOf(nameCodes, size), Arrays.copyOf(descriptionCodes, size),
+                    Arrays.copyOf(credits, size), Arrays.copyOf(teacherIds, size));
+        }
+    }
+}
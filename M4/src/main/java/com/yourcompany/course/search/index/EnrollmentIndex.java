@@ -0,0 +1,287 @@
+package com.yourcompany.course.search.index;
+
+import com.yourcompany.course.model.dto.MemoryBreakdown;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 以 CSR (Compressed Sparse Row) 格式儲存的雙向選課索引。
+ * <p>
+ * 每個方向都由一個 offsets 陣列與一個緊密排列的鄰居陣列組成：
+ * 學生序號 s 的課程位於 studentCourses[studentOffsets[s] .. studentOffsets[s + 1])，
+ * 課程方向亦同。全部使用基本型別陣列，不為每筆選課建立物件。
+ * 選課時間以 {@link TimestampColumn} 按 posting list 差值編碼，讀取時需同時提供所屬的學生 / 課程序號。
+ */
+public final class EnrollmentIndex {
+
+    private final IdDictionary studentIds;
+    private final IdDictionary courseIds;
+
+    private final int[] studentOffsets;
+    private final int[] studentCourses;
+    private final TimestampColumn studentEnrollmentTimes;
+
+    private final int[] courseOffsets;
+    private final int[] courseStudents;
+    private final TimestampColumn courseEnrollmentTimes;
+
+    private EnrollmentIndex(IdDictionary studentIds, IdDictionary courseIds,
+                            int[] studentOffsets, int[] studentCourses, TimestampColumn studentEnrollmentTimes,
+                            int[] courseOffsets, int[] courseStudents, TimestampColumn courseEnrollmentTimes) {
+        this.studentIds = studentIds;
+        this.courseIds = courseIds;
+        this.studentOffsets = studentOffsets;
+        this.studentCourses = studentCourses;
+        this.studentEnrollmentTimes = studentEnrollmentTimes;
+        this.courseOffsets = courseOffsets;
+        this.courseStudents = courseStudents;
+        this.courseEnrollmentTimes = courseEnrollmentTimes;
+    }
+
+    public IdDictionary getStudentIds() {
+        return studentIds;
+    }
+
+    public IdDictionary getCourseIds() {
+        return courseIds;
+    }
+
+    public int enrollmentCount() {
+        return studentCourses.length;
+    }
+
+    // --- Student -> Course direction ---
+
+    public int studentRangeStart(int studentOrdinal) {
+        return studentOffsets[studentOrdinal];
+    }
+
+    public int studentRangeEnd(int studentOrdinal) {
+        return studentOffsets[studentOrdinal + 1];
+    }
+
+    public int courseOrdinalAt(int position) {
+        return studentCourses[position];
+    }
+
+    /**
+     * @param studentOrdinal 位置所屬的學生序號
+     * @param position       介於 {@link #studentRangeStart(int)} 與 {@link #studentRangeEnd(int)} 之間的位置
+     */
+    public long studentEnrollmentMillisAt(int studentOrdinal, int position) {
+        return studentEnrollmentTimes.millisAt(studentOrdinal, position);
+    }
+
+    // --- Course -> Student direction ---
+
+    public int courseRangeStart(int courseOrdinal) {
+        return courseOffsets[courseOrdinal];
+    }
+
+    public int courseRangeEnd(int courseOrdinal) {
+        return courseOffsets[courseOrdinal + 1];
+    }
+
+    public int studentOrdinalAt(int position) {
+        return courseStudents[position];
+    }
+
+    /**
+     * @param courseOrdinal 位置所屬的課程序號
+     * @param position      介於 {@link #courseRangeStart(int)} 與 {@link #courseRangeEnd(int)} 之間的位置
+     */
+    public long courseEnrollmentMillisAt(int courseOrdinal, int position) {
+        return courseEnrollmentTimes.millisAt(courseOrdinal, position);
+    }
+
+    public int courseDegree(int courseOrdinal) {
+        return courseOffsets[courseOrdinal + 1] - courseOffsets[courseOrdinal];
+    }
+
+    /**
+     * 將每個結構實際佔用的位元組數 (依陣列長度計算) 加入明細。
+     *
+     * @param category 明細中使用的類別名稱
+     */
+    public void appendMemoryBreakdown(MemoryBreakdown breakdown, String category) {
+        breakdown.add(category, "student id dictionary", studentIds.memoryBytes());
+        breakdown.add(category, "course id dictionary", courseIds.memoryBytes());
+        breakdown.add(category, "student->course offsets", MemoryLayout.arrayBytes(studentOffsets.length, Integer.BYTES));
+        breakdown.add(category, "student->course postings", MemoryLayout.arrayBytes(studentCourses.length, Integer.BYTES));
+        breakdown.add(category, "student->course dates", studentEnrollmentTimes.memoryBytes());
+        breakdown.add(category, "course->student offsets", MemoryLayout.arrayBytes(courseOffsets.length, Integer.BYTES));
+        breakdown.add(category, "course->student postings", MemoryLayout.arrayBytes(courseStudents.length, Integer.BYTES));
+        breakdown.add(category, "course->student dates", courseEnrollmentTimes.memoryBytes());
+    }
+
+    /**
+     * @return 選課時間是否已差值編碼 (false 表示資料中有非整秒或跨度過大的時間，改存原始毫秒)
+     */
+    public boolean isTimestampEncoded() {
+        return studentEnrollmentTimes.isEncoded() && courseEnrollmentTimes.isEncoded();
+    }
+
+    /**
+     * 作為對照：同樣的選課資料若以一個 List&lt;Enrollment&gt; (每筆含 Long, Long, Date 物件) 保存所需的位元組數。
+     */
+    public long objectLayoutBytes() {
+        long perEnrollment = MemoryLayout.objectBytes(3, 0) + 2 * MemoryLayout.BOXED_LONG_BYTES + MemoryLayout.DATE_BYTES
+                + MemoryLayout.REFERENCE_BYTES;
+        return MemoryLayout.objectBytes(1, 2 * Integer.BYTES) + MemoryLayout.ARRAY_HEADER_BYTES
+                + (long) enrollmentCount() * perEnrollment;
+    }
+
+    void writeTo(SnapshotOutput out) throws IOException {
+        out.writeInts(studentOffsets);
+        out.writeInts(studentCourses);
+        studentEnrollmentTimes.writeTo(out);
+        out.writeInts(courseOffsets);
+        out.writeInts(courseStudents);
+        courseEnrollmentTimes.writeTo(out);
+    }
+
+    /**
+     * 讀回 {@link #writeTo(SnapshotOutput)} 寫出的陣列，並檢查長度與字典大小一致。
+     */
+    static EnrollmentIndex readFrom(SnapshotInput in, IdDictionary studentIds, IdDictionary courseIds) {
+        int[] studentOffsets = in.readInts();
+        int[] studentCourses = in.readInts();
+        TimestampColumn studentTimes = TimestampColumn.readFrom(in, studentIds.size(), studentCourses.length);
+        int[] courseOffsets = in.readInts();
+        int[] courseStudents = in.readInts();
+        TimestampColumn courseTimes = TimestampColumn.readFrom(in, courseIds.size(), courseStudents.length);
+        int enrollments = studentCourses.length;
+        if (studentOffsets.length != studentIds.size() + 1 || courseOffsets.length != courseIds.size() + 1
+                || studentOffsets[studentIds.size()] != enrollments || courseOffsets[courseIds.size()] != enrollments
+                || courseStudents.length != enrollments) {
+            throw new IllegalStateException("Snapshot CSR arrays do not match the dictionaries.");
+        }
+        return new EnrollmentIndex(studentIds, courseIds,
+                studentOffsets, studentCourses, studentTimes,
+                courseOffsets, courseStudents, courseTimes);
+    }
+
+    /**
+     * 收集原始 (student_id, course_id, enrollment_date) 資料列，再一次建出 CSR 索引。
+     */
+    public static final class Builder {
+
+        private long[] studentColumn;
+        private long[] courseColumn;
+        private long[] millisColumn;
+        private int size;
+
+        public Builder() {
+            this(1024);
+        }
+
+        /**
+         * @param expectedSize 預期的選課筆數，預先配置足夠容量以避免擴容時的複製。
+         */
+        public Builder(int expectedSize) {
+            int capacity = Math.max(16, expectedSize);
+            studentColumn = new long[capacity];
+            courseColumn = new long[capacity];
+            millisColumn = new long[capacity];
+        }
+
+        public void add(long studentId, long courseId, long enrollmentMillis) {
+            if (size == studentColumn.length) {
+                int newCapacity = size * 2;
+                studentColumn = Arrays.copyOf(studentColumn, newCapacity);
+                courseColumn = Arrays.copyOf(courseColumn, newCapacity);
+                millisColumn = Arrays.copyOf(millisColumn, newCapacity);
+            }
+            studentColumn[size] = studentId;
+            courseColumn[size] = courseId;
+            millisColumn[size] = enrollmentMillis;
+            size++;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        /**
+         * 以兩次計數排序 (counting sort) 建立雙向 CSR。
+         * 引用不存在的學生或課程的資料列會被忽略。
+         */
+        public EnrollmentIndex build(IdDictionary studentIds, IdDictionary courseIds) {
+            return EnrollmentIndex.merge(Collections.singletonList(this), studentIds, courseIds);
+        }
+    }
+
+    /**
+     * 將多個分區各自收集的片段 (fragment) 合併為一個 CSR 索引，不需先把片段串接成一個大陣列。
+     * 片段依傳入順序合併，因此每個 posting list 內的順序是確定的。
+     * 引用不存在的學生或課程的資料列會被忽略。
+     */
+    public static EnrollmentIndex merge(List<Builder> fragments, IdDictionary studentIds, IdDictionary courseIds) {
+        int studentCount = studentIds.size();
+        int courseCount = courseIds.size();
+        int[] studentOffsets = new int[studentCount + 1];
+        int[] courseOffsets = new int[courseCount + 1];
+        int[][] studentOrdinals = new int[fragments.size()][];
+        int[][] courseOrdinals = new int[fragments.size()][];
+
+        int valid = 0;
+        for (int f = 0; f < fragments.size(); f++) {
+            Builder fragment = fragments.get(f);
+            int[] fragmentStudents = new int[fragment.size];
+            int[] fragmentCourses = new int[fragment.size];
+            for (int i = 0; i < fragment.size; i++) {
+                int s = studentIds.ordinalOf(fragment.studentColumn[i]);
+                int c = courseIds.ordinalOf(fragment.courseColumn[i]);
+                fragmentStudents[i] = s;
+                fragmentCourses[i] = c;
+                if (s >= 0 && c >= 0) {
+                    studentOffsets[s + 1]++;
+                    courseOffsets[c + 1]++;
+                    valid++;
+                }
+            }
+            studentOrdinals[f] = fragmentStudents;
+            courseOrdinals[f] = fragmentCourses;
+        }
+        for (int s = 0; s < studentCount; s++) {
+            studentOffsets[s + 1] += studentOffsets[s];
+        }
+        for (int c = 0; c < courseCount; c++) {
+            courseOffsets[c + 1] += courseOffsets[c];
+        }
+
+        int[] studentCourses = new int[valid];
+        long[] studentMillis = new long[valid];
+        int[] courseStudents = new int[valid];
+        long[] courseMillis = new long[valid];
+        int[] studentCursor = Arrays.copyOf(studentOffsets, studentCount);
+        int[] courseCursor = Arrays.copyOf(courseOffsets, courseCount);
+
+        for (int f = 0; f < fragments.size(); f++) {
+            long[] millisColumn = fragments.get(f).millisColumn;
+            int[] fragmentStudents = studentOrdinals[f];
+            int[] fragmentCourses = courseOrdinals[f];
+            for (int i = 0; i < fragmentStudents.length; i++) {
+                int s = fragmentStudents[i];
+                int c = fragmentCourses[i];
+                if (s < 0 || c < 0) continue;
+                int sp = studentCursor[s]++;
+                studentCourses[sp] = c;
+                studentMillis[sp] = millisColumn[i];
+                int cp = courseCursor[c]++;
+                courseStudents[cp] = s;
+                courseMillis[cp] = millisColumn[i];
+            }
+            studentOrdinals[f] = null;
+            courseOrdinals[f] = null;
+        }
+
+        // The full-width millis arrays only live until their postings are encoded.
+        return new EnrollmentIndex(studentIds, courseIds,
+                studentOffsets, studentCourses, TimestampColumn.encode(studentOffsets, studentMillis),
+                courseOffsets, courseStudents, TimestampColumn.encode(courseOffsets, courseMillis));
+    }
+}
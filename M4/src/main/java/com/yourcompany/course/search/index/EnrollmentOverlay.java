@@ -0,0 +1,130 @@
+package com.yourcompany.course.search.index;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 疊在不可變 CSR 索引 ({@link EnrollmentIndex}) 之上的增量層。
+ * <p>
+ * 某個學生或課程第一次被修改時，從 CSR 複製出它完整的 {@link Postings}，之後的修改都以
+ * copy-on-write 替換該鍵的清單；查詢時有覆寫的鍵讀增量層，其餘仍讀 CSR。
+ * 每次修改只複製受影響的兩個清單，成本與變更量成正比，與資料總量無關。
+ * <p>
+ * 寫入以 ConcurrentHashMap 的 per-key compute 互斥：課程方向的更新在學生方向的 compute 之內完成，
+ * 所以寫入者之間看到的兩個方向永遠一致，且鎖的取得順序固定 (先學生再課程)，不會死結。
+ * 讀取不取鎖，兩個方向也不是一起發佈的：課程方向的新清單在學生方向的 compute 返回前就已可見，
+ * 讀取端可能短暫看到課程清單已含某筆選課、學生清單卻還沒有。每個清單本身總是完整的。
+ */
+public final class EnrollmentOverlay {
+
+    // ConcurrentHashMap.Node: hash, key, val, next + the boxed Long key
+    private static final long ENTRY_OVERHEAD_BYTES = MemoryLayout.objectBytes(3, Integer.BYTES) + MemoryLayout.BOXED_LONG_BYTES;
+
+    private final EnrollmentIndex base;
+    private final ConcurrentHashMap<Long, Postings> byStudent = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, Postings> byCourse = new ConcurrentHashMap<>();
+
+    public EnrollmentOverlay(EnrollmentIndex base) {
+        this.base = base;
+    }
+
+    /**
+     * @return 該學生被覆寫後的完整選課清單；未被修改過時返回 null，應改讀 CSR
+     */
+    public Postings studentPostings(long studentId) {
+        return byStudent.isEmpty() ? null : byStudent.get(studentId);
+    }
+
+    /**
+     * @return 該課程被覆寫後的完整學生清單；未被修改過時返回 null，應改讀 CSR
+     */
+    public Postings coursePostings(long courseId) {
+        return byCourse.isEmpty() ? null : byCourse.get(courseId);
+    }
+
+    public boolean contains(long studentId, long courseId) {
+        Postings postings = studentPostings(studentId);
+        return (postings != null ? postings : baseStudentPostings(studentId)).indexOf(courseId) >= 0;
+    }
+
+    /**
+     * 新增或更新一筆選課。
+     *
+     * @return 原本不存在這筆選課時返回 true (課程人數因此加一)
+     */
+    public boolean put(long studentId, long courseId, long enrollmentMillis) {
+        boolean[] added = new boolean[1];
+        byStudent.compute(studentId, (id, current) -> {
+            Postings postings = current != null ? current : baseStudentPostings(id);
+            added[0] = postings.indexOf(courseId) < 0;
+            byCourse.compute(courseId, (cid, currentCourse) ->
+                    (currentCourse != null ? currentCourse : baseCoursePostings(cid)).with(studentId, enrollmentMillis));
+            return postings.with(courseId, enrollmentMillis);
+        });
+        return added[0];
+    }
+
+    /**
+     * 移除一筆選課。
+     *
+     * @return 原本存在這筆選課時返回 true (課程人數因此減一)
+     */
+    public boolean remove(long studentId, long courseId) {
+        boolean[] removed = new boolean[1];
+        byStudent.compute(studentId, (id, current) -> {
+            Postings postings = current != null ? current : baseStudentPostings(id);
+            if (postings.indexOf(courseId) < 0) return current;
+            removed[0] = true;
+            byCourse.compute(courseId, (cid, currentCourse) ->
+                    (currentCourse != null ? currentCourse : baseCoursePostings(cid)).without(studentId));
+            return postings.without(courseId);
+        });
+        return removed[0];
+    }
+
+    /**
+     * @return 被覆寫的學生數 + 課程數
+     */
+    public int overriddenKeys() {
+        return byStudent.size() + byCourse.size();
+    }
+
+    public long memoryBytes() {
+        long bytes = MemoryLayout.arrayBytes(Integer.highestOneBit(Math.max(1, byStudent.size()) * 2), MemoryLayout.REFERENCE_BYTES)
+                + MemoryLayout.arrayBytes(Integer.highestOneBit(Math.max(1, byCourse.size()) * 2), MemoryLayout.REFERENCE_BYTES);
+        for (Postings postings : byStudent.values()) {
+            bytes += ENTRY_OVERHEAD_BYTES + postings.memoryBytes();
+        }
+        for (Postings postings : byCourse.values()) {
+            bytes += ENTRY_OVERHEAD_BYTES + postings.memoryBytes();
+        }
+        return bytes;
+    }
+
+    private Postings baseStudentPostings(long studentId) {
+        int student = base.getStudentIds().ordinalOf(studentId);
+        if (student < 0) return Postings.EMPTY;
+        int start = base.studentRangeStart(student);
+        int end = base.studentRangeEnd(student);
+        long[] ids = new long[end - start];
+        long[] millis = new long[end - start];
+        for (int position = start; position < end; position++) {
+            ids[position - start] = base.getCourseIds().idAt(base.courseOrdinalAt(position));
+            millis[position - start] = base.studentEnrollmentMillisAt(student, position);
+        }
+        return new Postings(ids, millis);
+    }
+
+    private Postings baseCoursePostings(long courseId) {
+        int course = base.getCourseIds().ordinalOf(courseId);
+        if (course < 0) return Postings.EMPTY;
+        int start = base.courseRangeStart(course);
+        int end = base.courseRangeEnd(course);
+        long[] ids = new long[end - start];
+        long[] millis = new long[end - start];
+        for (int position = start; position < end; position++) {
+            ids[position - start] = base.getStudentIds().idAt(base.studentOrdinalAt(position));
+            millis[position - start] = base.courseEnrollmentMillisAt(course, position);
+        }
+        return new Postings(ids, millis);
+    }
+}
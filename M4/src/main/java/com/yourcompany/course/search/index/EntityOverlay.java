@@ -0,0 +1,56 @@
+package com.yourcompany.course.search.index;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * 以 ID 覆寫實體快取 (學生或課程) 的增量層：新增、修改的實體與刪除標記。
+ * 未被覆寫的 ID 沿用載入時的快取陣列。
+ */
+public final class EntityOverlay<T> {
+
+    private static final Object DELETED = new Object();
+
+    private final ConcurrentHashMap<Long, Object> entries = new ConcurrentHashMap<>();
+
+    public void put(long id, T entity) {
+        entries.put(id, entity);
+    }
+
+    public void markDeleted(long id) {
+        entries.put(id, DELETED);
+    }
+
+    /**
+     * @return 該 ID 是否被新增、修改或刪除過；一旦為 true 就不會再變回 false
+     */
+    public boolean isOverridden(long id) {
+        return !entries.isEmpty() && entries.containsKey(id);
+    }
+
+    /**
+     * @param base 載入時快取中的實體 (不存在時為 null)
+     * @return 覆寫後的實體；已刪除時返回 null，未被覆寫時返回 base
+     */
+    @SuppressWarnings("unchecked")
+    public T resolve(long id, T base) {
+        if (entries.isEmpty()) return base;
+        Object value = entries.get(id);
+        if (value == null) return base;
+        return value == DELETED ? null : (T) value;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * 走訪所有覆寫的實體 (不含刪除標記)。
+     */
+    @SuppressWarnings("unchecked")
+    public void forEach(Consumer<T> action) {
+        for (Object value : entries.values()) {
+            if (value != DELETED) action.accept((T) value);
+        }
+    }
+}
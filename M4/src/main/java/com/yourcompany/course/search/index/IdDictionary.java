@@ -0,0 +1,103 @@
+package com.yourcompany.course.search.index;
+
+import java.util.Arrays;
+
+/**
+ * 將資料庫的 BIGINT 主鍵對應到連續的 int 序號 (ordinal)。
+ * 使用開放定址法的基本型別雜湊表，避免 Map&lt;Long, ...&gt; 的裝箱成本。
+ */
+public final class IdDictionary {
+
+    private static final int EMPTY = -1;
+    private static final float LOAD_FACTOR = 0.5f;
+
+    private long[] keys;
+    private int[] slots;
+    private long[] ids = new long[16];
+    private int size;
+
+    public IdDictionary() {
+        this(16);
+    }
+
+    public IdDictionary(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, (int) (expectedSize / LOAD_FACTOR)) - 1) << 1;
+        keys = new long[capacity];
+        slots = new int[capacity];
+        Arrays.fill(slots, EMPTY);
+        ids = new long[Math.max(16, expectedSize)];
+    }
+
+    /**
+     * 取得 ID 的序號，若不存在則新增並回傳新的序號。
+     */
+    public int add(long id) {
+        int mask = keys.length - 1;
+        int i = mix(id) & mask;
+        while (slots[i] != EMPTY) {
+            if (keys[i] == id) return slots[i];
+            i = (i + 1) & mask;
+        }
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, size * 2);
+        }
+        keys[i] = id;
+        slots[i] = size;
+        ids[size] = id;
+        int ordinal = size++;
+        if (size > keys.length * LOAD_FACTOR) {
+            rehash(keys.length * 2);
+        }
+        return ordinal;
+    }
+
+    /**
+     * @return ID 對應的序號，若不存在則返回 -1。
+     */
+    public int ordinalOf(long id) {
+        int mask = keys.length - 1;
+        int i = mix(id) & mask;
+        while (slots[i] != EMPTY) {
+            if (keys[i] == id) return slots[i];
+            i = (i + 1) & mask;
+        }
+        return EMPTY;
+    }
+
+    public long idAt(int ordinal) {
+        return ids[ordinal];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long memoryBytes() {
+        return MemoryLayout.arrayBytes(keys.length, Long.BYTES)
+                + MemoryLayout.arrayBytes(slots.length, Integer.BYTES)
+                + MemoryLayout.arrayBytes(ids.length, Long.BYTES);
+    }
+
+    private void rehash(int newCapacity) {
+        long[] newKeys = new long[newCapacity];
+        int[] newSlots = new int[newCapacity];
+        Arrays.fill(newSlots, EMPTY);
+        int mask = newCapacity - 1;
+        for (int ordinal = 0; ordinal < size; ordinal++) {
+            long id = ids[ordinal];
+            int i = mix(id) & mask;
+            while (newSlots[i] != EMPTY) {
+                i = (i + 1) & mask;
+            }
+            newKeys[i] = id;
+            newSlots[i] = ordinal;
+        }
+        keys = newKeys;
+        slots = newSlots;
+    }
+
+    private static int mix(long id) {
+        long h = id * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
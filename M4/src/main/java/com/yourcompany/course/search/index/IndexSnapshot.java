@@ -0,0 +1,237 @@
+package com.yourcompany.course.search.index;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * 記憶體索引與實體快取的二進位快照。
+ * <p>
+ * 檔案格式為 72 位元組的標頭 (magic、版本、三張表的筆數、內容長度、CRC32 與同步到的 ChangeLog change_id)，
+ * 後接學生與課程的 ID 與欄式實體表 (字典編碼的字串)，以及 CSR 陣列。讀取時以 {@link FileChannel#map} 映射整個檔案，
+ * 驗證標頭筆數與資料庫目前的筆數相符、內容的 CRC32 正確後，才從映射的頁面建立索引。
+ * 所有陣列都複製到 heap 上，讀取結束即解除映射，不會一直佔用檔案 (Windows 上取代舊快照需要檔案未被映射)。
+ */
+public final class IndexSnapshot {
+
+    private static final Logger logger = LoggerFactory.getLogger(IndexSnapshot.class);
+
+    private static final long MAGIC = 0x4353_5249_4458_3031L; // "CSRIDX01"
+    private static final int VERSION = 4;
+    private static final int HEADER_BYTES = 72;
+    // Unsafe.invokeCleaner(ByteBuffer) bound to the Unsafe instance; null if the runtime does not offer it
+    private static final MethodHandle INVOKE_CLEANER = lookupCleaner();
+
+    private final EnrollmentIndex index;
+    private final StudentTable students;
+    private final CourseTable courses;
+    private final long changeId;
+
+    /**
+     * @param students 依學生序號排列，第 i 列的 ID 即 index.getStudentIds().idAt(i)
+     * @param courses  依課程序號排列
+     * @param changeId 快照內容已包含的最後一筆 ChangeLog change_id
+     */
+    public IndexSnapshot(EnrollmentIndex index, StudentTable students, CourseTable courses, long changeId) {
+        this.index = index;
+        this.students = students;
+        this.courses = courses;
+        this.changeId = changeId;
+    }
+
+    public EnrollmentIndex getIndex() {
+        return index;
+    }
+
+    public StudentTable getStudents() {
+        return students;
+    }
+
+    public CourseTable getCourses() {
+        return courses;
+    }
+
+    public long getChangeId() {
+        return changeId;
+    }
+
+    /**
+     * 先寫入同目錄下的暫存檔，完成後再以原子搬移取代舊快照，避免留下寫到一半的檔案。
+     *
+     * @return 是否寫入成功
+     */
+    public boolean write(Path path) {
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try {
+            Path parent = path.toAbsolutePath().getParent();
+            if (parent != null) Files.createDirectories(parent);
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                channel.position(HEADER_BYTES);
+                SnapshotOutput out = new SnapshotOutput(channel);
+                writePayload(out);
+                out.flush();
+
+                ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+                header.putLong(MAGIC).putInt(VERSION).putInt(0)
+                        .putLong(students.size()).putLong(courses.size()).putLong(index.enrollmentCount())
+                        .putLong(out.bytesWritten()).putLong(out.checksum()).putLong(System.currentTimeMillis())
+                        .putLong(changeId);
+                header.flip();
+                while (header.hasRemaining()) {
+                    channel.write(header, header.position());
+                }
+                channel.force(true);
+            }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            logger.info("Wrote index snapshot to {} ({} bytes).", path, Files.size(path));
+            return true;
+        } catch (IOException e) {
+            logger.error("Failed to write index snapshot to {}", path, e);
+            try {
+                Files.deleteIfExists(temp);
+            } catch (IOException ignored) {
+                // best effort
+            }
+            return false;
+        }
+    }
+
+    /**
+     * 映射並驗證快照檔。
+     *
+     * @return 快照內容；檔案不存在、筆數與資料庫不符或校驗失敗時返回 null
+     */
+    public static IndexSnapshot read(Path path, long expectedStudents, long expectedCourses, long expectedEnrollments) {
+        if (!Files.isRegularFile(path)) return null;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES || size > Integer.MAX_VALUE) {
+                logger.warn("Ignoring index snapshot {}: unexpected size {}.", path, size);
+                return null;
+            }
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            try {
+                return parse(path, mapped, size, expectedStudents, expectedCourses, expectedEnrollments);
+            } finally {
+                // Every array has been copied onto the heap by now. Drop the mapping explicitly instead of
+                // waiting for the buffer to be collected: until then the file stays open, and on Windows the
+                // next write() cannot replace it.
+                unmap(mapped);
+            }
+        } catch (IOException | BufferUnderflowException | IllegalStateException | NegativeArraySizeException e) {
+            logger.warn("Failed to read index snapshot {}", path, e);
+            return null;
+        }
+    }
+
+    private static IndexSnapshot parse(Path path, MappedByteBuffer mapped, long size,
+                                       long expectedStudents, long expectedCourses, long expectedEnrollments) {
+        if (mapped.getLong() != MAGIC || mapped.getInt() != VERSION) {
+            logger.warn("Ignoring index snapshot {}: unknown format.", path);
+            return null;
+        }
+        mapped.getInt();
+        long studentRows = mapped.getLong();
+        long courseRows = mapped.getLong();
+        long enrollmentRows = mapped.getLong();
+        long payloadBytes = mapped.getLong();
+        long checksum = mapped.getLong();
+        mapped.getLong(); // created at
+        long changeId = mapped.getLong();
+        if (studentRows != expectedStudents || courseRows != expectedCourses || enrollmentRows != expectedEnrollments) {
+            logger.info("Index snapshot {} is stale (snapshot {}/{}/{} rows, database {}/{}/{}).", path,
+                    studentRows, courseRows, enrollmentRows, expectedStudents, expectedCourses, expectedEnrollments);
+            return null;
+        }
+        if (payloadBytes != size - HEADER_BYTES) {
+            logger.warn("Ignoring index snapshot {}: truncated payload.", path);
+            return null;
+        }
+
+        mapped.position(HEADER_BYTES);
+        ByteBuffer payload = mapped.slice();
+        CRC32 crc = new CRC32();
+        crc.update(payload.duplicate());
+        if (crc.getValue() != checksum) {
+            logger.warn("Ignoring index snapshot {}: checksum mismatch.", path);
+            return null;
+        }
+        return readPayload(new SnapshotInput(payload), changeId);
+    }
+
+    /**
+     * 立即解除映射 (sun.misc.Unsafe#invokeCleaner，以反射取得)；執行環境不支援時留待 GC 回收。
+     * 呼叫後不可再存取該 buffer 及其 slice。
+     */
+    private static void unmap(MappedByteBuffer buffer) {
+        if (INVOKE_CLEANER == null) return;
+        try {
+            INVOKE_CLEANER.invokeExact((ByteBuffer) buffer);
+        } catch (Throwable e) {
+            logger.warn("Failed to unmap index snapshot buffer", e);
+        }
+    }
+
+    private static MethodHandle lookupCleaner() {
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            return MethodHandles.lookup()
+                    .findVirtual(unsafeClass, "invokeCleaner", MethodType.methodType(void.class, ByteBuffer.class))
+                    .bindTo(theUnsafe.get(null));
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            logger.debug("Explicit unmapping is unavailable; snapshot mappings are released by GC.", e);
+            return null;
+        }
+    }
+
+    private void writePayload(SnapshotOutput out) throws IOException {
+        writeIds(out, index.getStudentIds());
+        students.writeTo(out);
+        writeIds(out, index.getCourseIds());
+        courses.writeTo(out);
+        index.writeTo(out);
+    }
+
+    private static void writeIds(SnapshotOutput out, IdDictionary ids) throws IOException {
+        long[] values = new long[ids.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = ids.idAt(i);
+        }
+        out.writeLongs(values);
+    }
+
+    private static IndexSnapshot readPayload(SnapshotInput in, long changeId) {
+        IdDictionary studentIds = readIds(in, "student");
+        StudentTable students = StudentTable.readFrom(in, studentIds.size());
+        IdDictionary courseIds = readIds(in, "course");
+        CourseTable courses = CourseTable.readFrom(in, courseIds.size());
+        EnrollmentIndex index = EnrollmentIndex.readFrom(in, studentIds, courseIds);
+        return new IndexSnapshot(index, students, courses, changeId);
+    }
+
+    private static IdDictionary readIds(SnapshotInput in, String entity) {
+        long[] values = in.readLongs();
+        IdDictionary ids = new IdDictionary(values.length);
+        for (int i = 0; i < values.length; i++) {
+            if (ids.add(values[i]) != i) throw new IllegalStateException("Duplicate " + entity + " id " + values[i] + " in snapshot.");
+        }
+        return ids;
+    }
+}
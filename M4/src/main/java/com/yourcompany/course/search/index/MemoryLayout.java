@@ -0,0 +1,69 @@
+package com.yourcompany.course.search.index;
+
+import java.util.Date;
+
+/**
+ * 估算 JVM 物件佔用空間的工具 (假設 64-bit HotSpot、開啟 compressed oops 與 compact strings)。
+ * 只依物件配置 (object layout) 與元素數量計算，不呼叫 System.gc()，結果是確定的。
+ */
+public final class MemoryLayout {
+
+    public static final int OBJECT_HEADER_BYTES = 12;
+    public static final int ARRAY_HEADER_BYTES = 16;
+    public static final int REFERENCE_BYTES = 4;
+    public static final int OBJECT_ALIGNMENT = 8;
+
+    /** java.lang.String: header + value + hash + coder + hashIsZero */
+    public static final long STRING_SHALLOW_BYTES = align(OBJECT_HEADER_BYTES + REFERENCE_BYTES + 4 + 1 + 1);
+    /** java.util.Date / java.sql.Date / java.sql.Timestamp (不含 nanos): header + fastTime + cdate */
+    public static final long DATE_BYTES = align(OBJECT_HEADER_BYTES + 8 + REFERENCE_BYTES);
+    /** java.lang.Long */
+    public static final long BOXED_LONG_BYTES = align(OBJECT_HEADER_BYTES + 8);
+
+    private MemoryLayout() {
+    }
+
+    /**
+     * 計算一個基本型別陣列的大小。
+     *
+     * @param length 陣列長度
+     * @param elementBytes 每個元素的位元組數 (int = 4, long = 8 ...)
+     * @return 對齊後的位元組數
+     */
+    public static long arrayBytes(int length, int elementBytes) {
+        return align(ARRAY_HEADER_BYTES + (long) length * elementBytes);
+    }
+
+    /**
+     * 計算一個物件 (不含其引用的其他物件) 的大小。
+     *
+     * @param referenceFields 引用欄位數
+     * @param primitiveBytes  基本型別欄位合計的位元組數
+     */
+    public static long objectBytes(int referenceFields, int primitiveBytes) {
+        return align(OBJECT_HEADER_BYTES + (long) referenceFields * REFERENCE_BYTES + primitiveBytes);
+    }
+
+    /**
+     * 計算一個 String 及其內部 byte[] 的大小；只含 Latin-1 字元時每字元 1 byte，否則 2 bytes。
+     */
+    public static long stringBytes(String value) {
+        if (value == null) return 0;
+        int bytesPerChar = 1;
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) > 0xFF) {
+                bytesPerChar = 2;
+                break;
+            }
+        }
+        return STRING_SHALLOW_BYTES + arrayBytes(value.length(), bytesPerChar);
+    }
+
+    public static long dateBytes(Date value) {
+        return value == null ? 0 : DATE_BYTES;
+    }
+
+    public static long align(long bytes) {
+        return (bytes + OBJECT_ALIGNMENT - 1) / OBJECT_ALIGNMENT * OBJECT_ALIGNMENT;
+    }
+}
@@ -0,0 +1,206 @@
+package com.yourcompany.course.search.index;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * 以「計數桶」維護課程熱門度排名的結構。
+ * <p>
+ * 所有課程依選課人數遞減排列在 {@code order} 中，同一人數的課程形成連續的一段 (bucket)。
+ * {@code above[k]} 記錄人數大於 k 的課程數，也就是 bucket k 的起始位置。
+ * 人數加一或減一時只需與 bucket 邊界交換一次，為 O(1)；查詢前 K 名直接讀取前 K 個位置，為 O(K)。
+ * <p>
+ * 寫入持有 {@link StampedLock} 的寫鎖 (只涵蓋 O(1) 的交換)，讀取先以樂觀讀 (optimistic read) 複製結果，
+ * 驗證期間沒有寫入才採用，否則退回讀鎖重做，因此大量查詢不會彼此阻塞。
+ */
+public final class PopularityIndex {
+
+    private final StampedLock lock = new StampedLock();
+    private final IdDictionary courseIds;
+    private int[] counts;
+    private int[] order;
+    private int[] positions;
+    private int[] above;
+
+    private PopularityIndex(IdDictionary courseIds, int[] counts, int[] order, int[] positions, int[] above) {
+        this.courseIds = courseIds;
+        this.counts = counts;
+        this.order = order;
+        this.positions = positions;
+        this.above = above;
+    }
+
+    public static PopularityIndex empty() {
+        return new PopularityIndex(new IdDictionary(), new int[16], new int[16], new int[16], new int[16]);
+    }
+
+    /**
+     * 依載入時的選課人數一次建立排名 (計數排序，O(n + maxCount))。
+     *
+     * @param courses 課程 ID 字典，序號與 degree 的參數一致
+     * @param degree  課程序號 -> 選課人數
+     */
+    public static PopularityIndex build(IdDictionary courses, IntUnaryOperator degree) {
+        int size = courses.size();
+        IdDictionary courseIds = new IdDictionary(size);
+        int[] counts = new int[Math.max(16, size)];
+        int maxCount = 0;
+        for (int c = 0; c < size; c++) {
+            courseIds.add(courses.idAt(c));
+            counts[c] = degree.applyAsInt(c);
+            maxCount = Math.max(maxCount, counts[c]);
+        }
+
+        // above[k] = number of courses with count > k
+        int[] above = new int[maxCount + 2];
+        for (int c = 0; c < size; c++) {
+            if (counts[c] > 0) above[counts[c] - 1]++;
+        }
+        for (int k = maxCount - 1; k >= 0; k--) {
+            above[k] += above[k + 1];
+        }
+
+        int[] order = new int[counts.length];
+        int[] positions = new int[counts.length];
+        int[] cursor = new int[maxCount + 1];
+        for (int k = 0; k <= maxCount; k++) {
+            cursor[k] = above[k];
+        }
+        for (int c = 0; c < size; c++) {
+            int position = cursor[counts[c]]++;
+            order[position] = c;
+            positions[c] = position;
+        }
+        return new PopularityIndex(courseIds, counts, order, positions, above);
+    }
+
+    public void increment(long courseId) {
+        long stamp = lock.writeLock();
+        try {
+            int slot = slotOf(courseId);
+            int k = counts[slot];
+            if (k + 1 >= above.length) {
+                above = Arrays.copyOf(above, Math.max(above.length * 2, k + 2));
+            }
+            swap(positions[slot], above[k]);
+            above[k]++;
+            counts[slot] = k + 1;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public void decrement(long courseId) {
+        long stamp = lock.writeLock();
+        try {
+            int slot = courseIds.ordinalOf(courseId);
+            if (slot < 0 || counts[slot] == 0) return;
+            int k = counts[slot];
+            swap(positions[slot], above[k - 1] - 1);
+            above[k - 1]--;
+            counts[slot] = k - 1;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public int countOf(long courseId) {
+        long stamp = lock.readLock();
+        try {
+            int slot = courseIds.ordinalOf(courseId);
+            return slot < 0 ? 0 : counts[slot];
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * @return 排名中的課程數 (含人數為 0 者)，即 {@link #topK} 可能寫出的筆數上限
+     */
+    public int courseCount() {
+        long stamp = lock.readLock();
+        try {
+            return courseIds.size();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * 將選課人數最多的前 K 門課程 (不含人數為 0 者) 寫入輸出陣列。
+     *
+     * @return 實際寫入的筆數
+     */
+    public int topK(int k, long[] courseIdsOut, int[] countsOut) {
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            try {
+                int n = copyTop(k, courseIdsOut, countsOut);
+                if (lock.validate(stamp)) return n;
+            } catch (IndexOutOfBoundsException e) {
+                // A concurrent resize was observed mid-copy; retry under the read lock.
+            }
+        }
+        stamp = lock.readLock();
+        try {
+            return copyTop(k, courseIdsOut, countsOut);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public long memoryBytes() {
+        long stamp = lock.readLock();
+        try {
+            return courseIds.memoryBytes()
+                    + MemoryLayout.arrayBytes(counts.length, Integer.BYTES)
+                    + MemoryLayout.arrayBytes(order.length, Integer.BYTES)
+                    + MemoryLayout.arrayBytes(positions.length, Integer.BYTES)
+                    + MemoryLayout.arrayBytes(above.length, Integer.BYTES);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private int copyTop(int k, long[] courseIdsOut, int[] countsOut) {
+        int[] above = this.above;
+        int[] order = this.order;
+        int[] counts = this.counts;
+        int n = Math.min(Math.min(k, above.length > 0 ? above[0] : 0), Math.min(courseIdsOut.length, countsOut.length));
+        for (int i = 0; i < n; i++) {
+            int slot = order[i];
+            courseIdsOut[i] = courseIds.idAt(slot);
+            countsOut[i] = counts[slot];
+        }
+        return n;
+    }
+
+    private int slotOf(long courseId) {
+        int slot = courseIds.ordinalOf(courseId);
+        if (slot >= 0) return slot;
+
+        // A course seen for the first time starts with count 0 at the tail of the ranking.
+        slot = courseIds.add(courseId);
+        if (slot == counts.length) {
+            int newCapacity = counts.length * 2;
+            counts = Arrays.copyOf(counts, newCapacity);
+            order = Arrays.copyOf(order, newCapacity);
+            positions = Arrays.copyOf(positions, newCapacity);
+        }
+        counts[slot] = 0;
+        order[slot] = slot;
+        positions[slot] = slot;
+        return slot;
+    }
+
+    private void swap(int i, int j) {
+        if (i == j) return;
+        int a = order[i];
+        int b = order[j];
+        order[i] = b;
+        order[j] = a;
+        positions[b] = i;
+        positions[a] = j;
+    }
+}
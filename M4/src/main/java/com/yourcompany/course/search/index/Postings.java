@@ -0,0 +1,78 @@
+package com.yourcompany.course.search.index;
+
+import java.util.Arrays;
+
+/**
+ * 一個學生 (或課程) 完整的選課清單：對方的 ID 與選課時間。
+ * 不可變 (immutable)，修改時複製出新的實例 (copy-on-write)，讀取端不需加鎖。
+ */
+public final class Postings {
+
+    static final Postings EMPTY = new Postings(new long[0], new long[0]);
+
+    private final long[] ids;
+    private final long[] millis;
+
+    Postings(long[] ids, long[] millis) {
+        this.ids = ids;
+        this.millis = millis;
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    public long idAt(int index) {
+        return ids[index];
+    }
+
+    public long millisAt(int index) {
+        return millis[index];
+    }
+
+    public int indexOf(long id) {
+        for (int i = 0; i < ids.length; i++) {
+            if (ids[i] == id) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * @return 加入 (或更新選課時間) 後的新清單；新項目附加在尾端
+     */
+    Postings with(long id, long enrollmentMillis) {
+        int index = indexOf(id);
+        if (index >= 0) {
+            if (millis[index] == enrollmentMillis) return this;
+            long[] newMillis = millis.clone();
+            newMillis[index] = enrollmentMillis;
+            return new Postings(ids, newMillis);
+        }
+        long[] newIds = Arrays.copyOf(ids, ids.length + 1);
+        long[] newMillis = Arrays.copyOf(millis, millis.length + 1);
+        newIds[ids.length] = id;
+        newMillis[millis.length] = enrollmentMillis;
+        return new Postings(newIds, newMillis);
+    }
+
+    /**
+     * @return 移除後的新清單；id 不存在時回傳自己
+     */
+    Postings without(long id) {
+        int index = indexOf(id);
+        if (index < 0) return this;
+        long[] newIds = new long[ids.length - 1];
+        long[] newMillis = new long[millis.length - 1];
+        System.arraycopy(ids, 0, newIds, 0, index);
+        System.arraycopy(ids, index + 1, newIds, index, ids.length - index - 1);
+        System.arraycopy(millis, 0, newMillis, 0, index);
+        System.arraycopy(millis, index + 1, newMillis, index, millis.length - index - 1);
+        return new Postings(newIds, newMillis);
+    }
+
+    long memoryBytes() {
+        return MemoryLayout.objectBytes(2, 0)
+                + MemoryLayout.arrayBytes(ids.length, Long.BYTES)
+                + MemoryLayout.arrayBytes(millis.length, Long.BYTES);
+    }
+}
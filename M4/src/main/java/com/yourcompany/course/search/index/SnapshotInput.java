@@ -0,0 +1,44 @@
+package com.yourcompany.course.search.index;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 從記憶體映射 (memory-mapped) 的快照內容讀取資料，格式與 {@link SnapshotOutput} 對應。
+ * 陣列以 IntBuffer/LongBuffer 視圖整批複製，由作業系統直接從 page cache 提供資料。
+ */
+final class SnapshotInput {
+
+    private final ByteBuffer buffer;
+
+    SnapshotInput(ByteBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    int readInt() {
+        return buffer.getInt();
+    }
+
+    long readLong() {
+        return buffer.getLong();
+    }
+
+    byte[] readBytes() {
+        byte[] values = new byte[buffer.getInt()];
+        buffer.get(values);
+        return values;
+    }
+
+    int[] readInts() {
+        int[] values = new int[buffer.getInt()];
+        buffer.asIntBuffer().get(values);
+        buffer.position(buffer.position() + values.length * Integer.BYTES);
+        return values;
+    }
+
+    long[] readLongs() {
+        long[] values = new long[buffer.getInt()];
+        buffer.asLongBuffer().get(values);
+        buffer.position(buffer.position() + values.length * Long.BYTES);
+        return values;
+    }
+}
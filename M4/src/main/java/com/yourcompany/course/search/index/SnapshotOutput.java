@@ -0,0 +1,87 @@
+package com.yourcompany.course.search.index;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.zip.CRC32;
+
+/**
+ * 將快照內容以大端序 (big-endian) 寫入 FileChannel，並同時計算 CRC32。
+ * 基本型別陣列以區塊方式整批複製進緩衝區，不逐一呼叫 write。
+ */
+final class SnapshotOutput {
+
+    private static final int BUFFER_BYTES = 1 << 20;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+    private final CRC32 crc = new CRC32();
+    private long bytesWritten;
+
+    SnapshotOutput(FileChannel channel) {
+        this.channel = channel;
+    }
+
+    void writeInt(int value) throws IOException {
+        ensure(Integer.BYTES);
+        buffer.putInt(value);
+    }
+
+    void writeLong(long value) throws IOException {
+        ensure(Long.BYTES);
+        buffer.putLong(value);
+    }
+
+    void writeBytes(byte[] values) throws IOException {
+        writeInt(values.length);
+        for (int offset = 0; offset < values.length; ) {
+            ensure(1);
+            int n = Math.min(buffer.remaining(), values.length - offset);
+            buffer.put(values, offset, n);
+            offset += n;
+        }
+    }
+
+    void writeInts(int[] values) throws IOException {
+        writeInt(values.length);
+        for (int offset = 0; offset < values.length; ) {
+            ensure(Integer.BYTES);
+            int n = Math.min(buffer.remaining() / Integer.BYTES, values.length - offset);
+            buffer.asIntBuffer().put(values, offset, n);
+            buffer.position(buffer.position() + n * Integer.BYTES);
+            offset += n;
+        }
+    }
+
+    void writeLongs(long[] values) throws IOException {
+        writeInt(values.length);
+        for (int offset = 0; offset < values.length; ) {
+            ensure(Long.BYTES);
+            int n = Math.min(buffer.remaining() / Long.BYTES, values.length - offset);
+            buffer.asLongBuffer().put(values, offset, n);
+            buffer.position(buffer.position() + n * Long.BYTES);
+            offset += n;
+        }
+    }
+
+    void flush() throws IOException {
+        buffer.flip();
+        crc.update(buffer.duplicate());
+        while (buffer.hasRemaining()) {
+            bytesWritten += channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    long bytesWritten() {
+        return bytesWritten;
+    }
+
+    long checksum() {
+        return crc.getValue();
+    }
+
+    private void ensure(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) flush();
+    }
+}
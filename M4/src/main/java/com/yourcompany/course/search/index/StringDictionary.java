@@ -0,0 +1,121 @@
+package com.yourcompany.course.search.index;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 字典編碼 (dictionary encoding) 的唯讀字串表：每個不同的字串只存一次，
+ * 以 UTF-8 位元組連續放在同一個 byte[] 中，呼叫端只保存 int 代碼。
+ * <p>
+ * 重複率高的欄位 (姓名、email 網域、課程名稱) 可啟用解碼快取，同一代碼每次取回同一個 String 實例；
+ * 幾乎不重複的欄位 (email 帳號、課程描述) 則在讀取時才解碼，不常駐 String 物件。
+ */
+public final class StringDictionary {
+
+    /** null 值的代碼 */
+    public static final int NULL_CODE = -1;
+
+    private final byte[] bytes;
+    private final int[] offsets; // offsets[code] .. offsets[code + 1] 為該字串的 UTF-8 位元組
+    private final String[] decoded; // 未啟用解碼快取時為 null
+
+    private StringDictionary(byte[] bytes, int[] offsets, boolean cacheDecoded) {
+        this.bytes = bytes;
+        this.offsets = offsets;
+        this.decoded = cacheDecoded ? new String[offsets.length - 1] : null;
+    }
+
+    public int size() {
+        return offsets.length - 1;
+    }
+
+    /**
+     * @return 代碼對應的字串；code 為 {@link #NULL_CODE} 時返回 null
+     */
+    public String get(int code) {
+        if (code == NULL_CODE) return null;
+        if (decoded == null) return decode(code);
+        // Racy but benign: String is immutable, so at worst two threads decode the same value.
+        String value = decoded[code];
+        if (value == null) {
+            value = decode(code);
+            decoded[code] = value;
+        }
+        return value;
+    }
+
+    private String decode(int code) {
+        return new String(bytes, offsets[code], offsets[code + 1] - offsets[code], StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return 位元組陣列、位移陣列與解碼快取的估算大小；解碼快取以全部填滿計算，結果與查詢歷史無關
+     */
+    public long memoryBytes() {
+        long total = MemoryLayout.objectBytes(3, 0)
+                + MemoryLayout.arrayBytes(bytes.length, 1)
+                + MemoryLayout.arrayBytes(offsets.length, Integer.BYTES);
+        if (decoded != null) {
+            total += MemoryLayout.arrayBytes(decoded.length, MemoryLayout.REFERENCE_BYTES);
+            for (int code = 0; code < decoded.length; code++) {
+                total += MemoryLayout.stringBytes(decode(code));
+            }
+        }
+        return total;
+    }
+
+    void writeTo(SnapshotOutput out) throws IOException {
+        out.writeBytes(bytes);
+        out.writeInts(offsets);
+    }
+
+    static StringDictionary readFrom(SnapshotInput in, boolean cacheDecoded) {
+        byte[] bytes = in.readBytes();
+        int[] offsets = in.readInts();
+        if (offsets.length == 0 || offsets[0] != 0 || offsets[offsets.length - 1] != bytes.length) {
+            throw new IllegalStateException("Snapshot string dictionary offsets do not match its bytes.");
+        }
+        return new StringDictionary(bytes, offsets, cacheDecoded);
+    }
+
+    /**
+     * 逐一加入字串並去除重複，完成後以 {@link #build(boolean)} 產生唯讀字典。非執行緒安全。
+     */
+    public static final class Builder {
+
+        private final Map<String, Integer> codes = new HashMap<>();
+        private byte[] bytes = new byte[1024];
+        private int[] offsets = new int[17];
+        private int length;
+        private int size;
+
+        /**
+         * @return 字串的代碼；相同內容的字串得到相同代碼，null 得到 {@link #NULL_CODE}
+         */
+        public int add(String value) {
+            if (value == null) return NULL_CODE;
+            Integer existing = codes.get(value);
+            if (existing != null) return existing;
+
+            byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+            if (length + encoded.length > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + encoded.length));
+            }
+            System.arraycopy(encoded, 0, bytes, length, encoded.length);
+            length += encoded.length;
+            if (size + 2 > offsets.length) {
+                offsets = Arrays.copyOf(offsets, offsets.length * 2);
+            }
+            offsets[++size] = length;
+            codes.put(value, size - 1);
+            return size - 1;
+        }
+
+        public StringDictionary build(boolean cacheDecoded) {
+            return new StringDictionary(Arrays.copyOf(bytes, length), Arrays.copyOf(offsets, size + 1), cacheDecoded);
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.yourcompany.course.search.index;
+
+import com.yourcompany.course.model.Student;
+import com.yourcompany.course.model.dto.MemoryBreakdown;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * 以欄式 (columnar) 陣列儲存的學生實體快取，以學生序號 (ordinal) 為索引。
+ * <p>
+ * 姓與名共用一個字典，email 拆成帳號與網域兩個字典 (網域只有少數幾種)，
+ * 每位學生只佔幾個 int 代碼與一個 long 生日，不再為每一列保留 Student、Long、Date 與三個 String 物件。
+ */
+public final class StudentTable {
+
+    private static final long NULL_DATE = Long.MIN_VALUE;
+
+    private final StringDictionary names;
+    private final StringDictionary emailLocalParts;
+    private final StringDictionary emailDomains;
+    private final int[] firstNames;
+    private final int[] lastNames;
+    private final int[] emailLocals;
+    private final int[] emailDomainCodes;
+    private final long[] datesOfBirth;
+
+    private StudentTable(StringDictionary names, StringDictionary emailLocalParts, StringDictionary emailDomains,
+                         int[] firstNames, int[] lastNames, int[] emailLocals, int[] emailDomainCodes, long[] datesOfBirth) {
+        this.names = names;
+        this.emailLocalParts = emailLocalParts;
+        this.emailDomains = emailDomains;
+        this.firstNames = firstNames;
+        this.lastNames = lastNames;
+        this.emailLocals = emailLocals;
+        this.emailDomainCodes = emailDomainCodes;
+        this.datesOfBirth = datesOfBirth;
+    }
+
+    public int size() {
+        return firstNames.length;
+    }
+
+    public String firstName(int ordinal) {
+        return names.get(firstNames[ordinal]);
+    }
+
+    public String lastName(int ordinal) {
+        return names.get(lastNames[ordinal]);
+    }
+
+    /**
+     * @return email 中 '@' 之前的部分 (沒有 '@' 時為整個 email)，每次呼叫都重新解碼
+     */
+    public String emailLocalPart(int ordinal) {
+        return emailLocalParts.get(emailLocals[ordinal]);
+    }
+
+    /**
+     * @return email 中 '@' 之後的網域；沒有 '@' 時返回 null
+     */
+    public String emailDomain(int ordinal) {
+        return emailDomains.get(emailDomainCodes[ordinal]);
+    }
+
+    public String email(int ordinal) {
+        String local = emailLocalPart(ordinal);
+        String domain = emailDomain(ordinal);
+        return domain == null ? local : local + "@" + domain;
+    }
+
+    /**
+     * @return 生日的 epoch 毫秒；資料庫為 NULL 時返回 Long.MIN_VALUE
+     */
+    public long dateOfBirthMillis(int ordinal) {
+        return datesOfBirth[ordinal];
+    }
+
+    /**
+     * 依欄位陣列與各字典分別記入明細。
+     *
+     * @param entityCategory 欄位陣列的分類
+     * @param stringCategory 字典的分類
+     */
+    public void appendMemoryBreakdown(MemoryBreakdown breakdown, String entityCategory, String stringCategory) {
+        breakdown.add(entityCategory, "student columns", MemoryLayout.objectBytes(8, 0)
+                + 4 * MemoryLayout.arrayBytes(firstNames.length, Integer.BYTES)
+                + MemoryLayout.arrayBytes(datesOfBirth.length, Long.BYTES));
+        breakdown.add(stringCategory, "student names", names.memoryBytes());
+        breakdown.add(stringCategory, "student email local parts", emailLocalParts.memoryBytes());
+        breakdown.add(stringCategory, "student email domains", emailDomains.memoryBytes());
+    }
+
+    void writeTo(SnapshotOutput out) throws IOException {
+        names.writeTo(out);
+        emailLocalParts.writeTo(out);
+        emailDomains.writeTo(out);
+        out.writeInts(firstNames);
+        out.writeInts(lastNames);
+        out.writeInts(emailLocals);
+        out.writeInts(emailDomainCodes);
+        out.writeLongs(datesOfBirth);
+    }
+
+    /**
+     * 讀回 {@link #writeTo(SnapshotOutput)} 寫出的內容，並檢查每個欄位都有 expectedRows 筆。
+     */
+    static StudentTable readFrom(SnapshotInput in, int expectedRows) {
+        StringDictionary names = StringDictionary.readFrom(in, true);
+        StringDictionary emailLocalParts = StringDictionary.readFrom(in, false);
+        StringDictionary emailDomains = StringDictionary.readFrom(in, true);
+        int[] firstNames = in.readInts();
+        int[] lastNames = in.readInts();
+        int[] emailLocals = in.readInts();
+        int[] emailDomainCodes = in.readInts();
+        long[] datesOfBirth = in.readLongs();
+        if (firstNames.length != expectedRows || lastNames.length != expectedRows || emailLocals.length != expectedRows
+                || emailDomainCodes.length != expectedRows || datesOfBirth.length != expectedRows
+                || !codesInRange(firstNames, names) || !codesInRange(lastNames, names)
+                || !codesInRange(emailLocals, emailLocalParts) || !codesInRange(emailDomainCodes, emailDomains)) {
+            throw new IllegalStateException("Snapshot student columns do not match the student dictionary.");
+        }
+        return new StudentTable(names, emailLocalParts, emailDomains,
+                firstNames, lastNames, emailLocals, emailDomainCodes, datesOfBirth);
+    }
+
+    static boolean codesInRange(int[] codes, StringDictionary dictionary) {
+        for (int code : codes) {
+            if (code < StringDictionary.NULL_CODE || code >= dictionary.size()) return false;
+        }
+        return true;
+    }
+
+    /**
+     * 依序號順序加入學生資料列；第 i 次 {@link #add(Student)} 的學生即序號 i。非執行緒安全。
+     */
+    public static final class Builder {
+
+        private final StringDictionary.Builder names = new StringDictionary.Builder();
+        private final StringDictionary.Builder emailLocalParts = new StringDictionary.Builder();
+        private final StringDictionary.Builder emailDomains = new StringDictionary.Builder();
+        private int[] firstNames;
+        private int[] lastNames;
+        private int[] emailLocals;
+        private int[] emailDomainCodes;
+        private long[] datesOfBirth;
+        private int size;
+
+        public Builder(int expectedSize) {
+            int capacity = Math.max(16, expectedSize);
+            firstNames = new int[capacity];
+            lastNames = new int[capacity];
+            emailLocals = new int[capacity];
+            emailDomainCodes = new int[capacity];
+            datesOfBirth = new long[capacity];
+        }
+
+        public void add(Student student) {
+            if (size == firstNames.length) {
+                int capacity = size * 2;
+                firstNames = Arrays.copyOf(firstNames, capacity);
+                lastNames = Arrays.copyOf(lastNames, capacity);
+                emailLocals = Arrays.copyOf(emailLocals, capacity);
+                emailDomainCodes = Arrays.copyOf(emailDomainCodes, capacity);
+                datesOfBirth = Arrays.copyOf(datesOfBirth, capacity);
+            }
+            firstNames[size] = names.add(student.getFirstName());
+            lastNames[size] = names.add(student.getLastName());
+            String email = student.getEmail();
+            int at = email == null ? -1 : email.lastIndexOf('@');
+            emailLocals[size] = emailLocalParts.add(at < 0 ? email : email.substring(0, at));
+            emailDomainCodes[size] = at < 0 ? StringDictionary.NULL_CODE : emailDomains.add(email.substring(at + 1));
+            datesOfBirth[size] = student.getDateOfBirth() != null ? student.getDateOfBirth().getTime() : NULL_DATE;
+            size++;
+        }
+
+        public StudentTable build() {
+            return new StudentTable(names.build(true), emailLocalParts.build(false), emailDomains.build(true),
+                    Arrays.copyOf(firstNames, size), Arrays.copyOf(lastNames, size), Arrays.copyOf(emailLocals, size),
+                    Arrays.copyOf(emailDomainCodes, size), Arrays.copyOf(datesOfBirth, size));
+        }
+    }
+}
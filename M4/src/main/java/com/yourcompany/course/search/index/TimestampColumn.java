@@ -0,0 +1,113 @@
+package com.yourcompany.course.search.index;
+
+import java.io.IOException;
+
+/**
+ * CSR 某一方向的選課時間欄位，以 posting list 為單位做 frame-of-reference 差值編碼：
+ * 每個 list 記一個基準秒數 (該 list 中最早的選課時間)，每筆選課只存相對於基準的秒數差 (無號 32 位元)。
+ * <p>
+ * 資料庫的 TIMESTAMP 只有秒精度，因此每筆從 8 bytes 的 epoch 毫秒降為 4 bytes，且仍可依位置隨機存取 (分頁需要)。
+ * 若有任何時間不是整秒，或同一 list 的時間跨度超過 2^32 秒，整個欄位改存原始毫秒，確保不失真。
+ */
+final class TimestampColumn {
+
+    private static final int ENCODED = 1;
+    private static final int RAW = 0;
+    private static final long MAX_DELTA_SECONDS = 0xFFFF_FFFFL;
+
+    private final long[] baseSeconds;  // 每個 posting list 一個；未編碼時為 null
+    private final int[] deltaSeconds;  // 與鄰居陣列同長度，以無號整數解讀；未編碼時為 null
+    private final long[] rawMillis;    // 僅在無法無損編碼時使用
+
+    private TimestampColumn(long[] baseSeconds, int[] deltaSeconds, long[] rawMillis) {
+        this.baseSeconds = baseSeconds;
+        this.deltaSeconds = deltaSeconds;
+        this.rawMillis = rawMillis;
+    }
+
+    /**
+     * @param offsets 該方向的 CSR offsets，list i 佔用 millis[offsets[i] .. offsets[i + 1])
+     * @param millis  依 CSR 位置排列的 epoch 毫秒
+     */
+    static TimestampColumn encode(int[] offsets, long[] millis) {
+        int lists = offsets.length - 1;
+        long[] baseSeconds = new long[lists];
+        for (int list = 0; list < lists; list++) {
+            int start = offsets[list];
+            int end = offsets[list + 1];
+            long min = Long.MAX_VALUE;
+            long max = Long.MIN_VALUE;
+            for (int position = start; position < end; position++) {
+                if (millis[position] % 1000 != 0) return new TimestampColumn(null, null, millis);
+                long seconds = millis[position] / 1000;
+                min = Math.min(min, seconds);
+                max = Math.max(max, seconds);
+            }
+            if (start == end) continue;
+            if (max - min > MAX_DELTA_SECONDS) return new TimestampColumn(null, null, millis);
+            baseSeconds[list] = min;
+        }
+
+        int[] deltaSeconds = new int[millis.length];
+        for (int list = 0; list < lists; list++) {
+            for (int position = offsets[list]; position < offsets[list + 1]; position++) {
+                deltaSeconds[position] = (int) (millis[position] / 1000 - baseSeconds[list]);
+            }
+        }
+        return new TimestampColumn(baseSeconds, deltaSeconds, null);
+    }
+
+    /**
+     * @param list     位置所屬的 posting list (學生或課程序號)
+     * @param position CSR 位置
+     * @return 選課時間的 epoch 毫秒
+     */
+    long millisAt(int list, int position) {
+        if (rawMillis != null) return rawMillis[position];
+        return (baseSeconds[list] + Integer.toUnsignedLong(deltaSeconds[position])) * 1000;
+    }
+
+    int length() {
+        return rawMillis != null ? rawMillis.length : deltaSeconds.length;
+    }
+
+    boolean isEncoded() {
+        return rawMillis == null;
+    }
+
+    long memoryBytes() {
+        if (rawMillis != null) return MemoryLayout.objectBytes(3, 0) + MemoryLayout.arrayBytes(rawMillis.length, Long.BYTES);
+        return MemoryLayout.objectBytes(3, 0)
+                + MemoryLayout.arrayBytes(baseSeconds.length, Long.BYTES)
+                + MemoryLayout.arrayBytes(deltaSeconds.length, Integer.BYTES);
+    }
+
+    void writeTo(SnapshotOutput out) throws IOException {
+        if (rawMillis != null) {
+            out.writeInt(RAW);
+            out.writeLongs(rawMillis);
+        } else {
+            out.writeInt(ENCODED);
+            out.writeLongs(baseSeconds);
+            out.writeInts(deltaSeconds);
+        }
+    }
+
+    /**
+     * 讀回 {@link #writeTo(SnapshotOutput)} 寫出的內容，並檢查 list 數與位置數。
+     */
+    static TimestampColumn readFrom(SnapshotInput in, int lists, int positions) {
+        int kind = in.readInt();
+        if (kind == RAW) {
+            long[] rawMillis = in.readLongs();
+            if (rawMillis.length == positions) return new TimestampColumn(null, null, rawMillis);
+        } else if (kind == ENCODED) {
+            long[] baseSeconds = in.readLongs();
+            int[] deltaSeconds = in.readInts();
+            if (baseSeconds.length == lists && deltaSeconds.length == positions) {
+                return new TimestampColumn(baseSeconds, deltaSeconds, null);
+            }
+        }
+        throw new IllegalStateException("Snapshot enrollment dates do not match the CSR arrays.");
+    }
+}
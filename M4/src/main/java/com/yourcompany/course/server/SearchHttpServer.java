@@ -0,0 +1,339 @@
+package com.yourcompany.course.server;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.yourcompany.course.model.dto.CourseResult;
+import com.yourcompany.course.model.dto.Page;
+import com.yourcompany.course.model.dto.StudentResult;
+import com.yourcompany.course.search.SearchService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UnsupportedEncodingException;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 以 JDK 內建的 HttpServer 提供三個查詢功能的 JSON API，供其他服務在無 GUI 的模式下查詢選課資料。
+ * <ul>
+ *     <li>GET /api/students/{id}/courses：學生選修的課程</li>
+ *     <li>GET /api/courses/{id}/students[?pageSize=50&amp;cursor=...]：課程的學生名單，指定 pageSize 時分頁</li>
+ *     <li>GET /api/courses/popular[?k=10]：選修人數最多的 K 門課程</li>
+ *     <li>GET /api/health：存活檢查</li>
+ * </ul>
+ * 每個請求可用 backend=sql|memory|auto 指定方案 (auto 為 {@link com.yourcompany.course.search.AdaptiveSearchService})，
+ * 未指定時使用啟動時設定的預設方案。
+ * 回應以 {@link JsonWriter} 直接串流寫入 chunked 回應本體，不先組成整份字串。
+ * <p>
+ * 請求在 Java 21 以上的執行環境使用虛擬執行緒 (每個請求一條)，否則使用固定大小的執行緒池。
+ * 使用虛擬執行緒時，backend=sql 的請求另以號誌限制同時處理的數量，避免無上限地在連線池前排隊；
+ * auto 方案的 SQL 呼叫由路由器的延遲斷路器保護。
+ */
+public class SearchHttpServer implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(SearchHttpServer.class);
+
+    private static final int DEFAULT_TOP_K = 10;
+    private static final int MAX_TOP_K = 1000;
+    private static final int MAX_PAGE_SIZE = 10_000;
+    private static final int RESPONSE_BUFFER_CHARS = 8192;
+
+    static {
+        // Chunked responses go out as several small writes (headers, chunks, trailer); with Nagle's algorithm
+        // on they stall on the client's delayed ACK (~40 ms per request). Read once when HttpServer is first used.
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    public enum Backend {
+        SQL, MEMORY, AUTO;
+
+        /**
+         * @return 對應的方案；無法辨識時返回 null
+         */
+        public static Backend parse(String value) {
+            if (value == null) return null;
+            switch (value.toLowerCase(Locale.ROOT)) {
+                case "sql":
+                    return SQL;
+                case "memory":
+                case "in-memory":
+                    return MEMORY;
+                case "auto":
+                    return AUTO;
+                default:
+                    return null;
+            }
+        }
+    }
+
+    private final Map<Backend, SearchService> backends = new EnumMap<>(Backend.class);
+    private final Backend defaultBackend;
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final String executorDescription;
+    // Bounds concurrent SQL-backed requests when virtual threads remove the pool's bound; null otherwise.
+    private final Semaphore sqlPermits;
+
+    /**
+     * @param maxThreads 執行環境不支援虛擬執行緒時，處理請求的執行緒數；
+     *                   使用虛擬執行緒時則為同時處理 backend=sql 請求的上限 (通常設為連線池大小)
+     */
+    public SearchHttpServer(SearchService sqlService, SearchService inMemoryService, SearchService adaptiveService,
+                            Backend defaultBackend, InetSocketAddress address, int maxThreads) throws IOException {
+        backends.put(Backend.SQL, sqlService);
+        backends.put(Backend.MEMORY, inMemoryService);
+        backends.put(Backend.AUTO, adaptiveService);
+        this.defaultBackend = defaultBackend;
+
+        ExecutorService virtualThreads = newVirtualThreadExecutor();
+        if (virtualThreads != null) {
+            executor = virtualThreads;
+            executorDescription = "virtual threads, at most " + maxThreads + " concurrent SQL requests";
+            sqlPermits = new Semaphore(maxThreads, true);
+        } else {
+            executor = Executors.newFixedThreadPool(maxThreads, daemonThreadFactory());
+            executorDescription = "fixed pool of " + maxThreads + " threads";
+            sqlPermits = null;
+        }
+
+        server = HttpServer.create(address, 0);
+        server.createContext("/api/", this::handle);
+        server.setExecutor(executor);
+    }
+
+    public void start() {
+        server.start();
+        logger.info("Search HTTP server listening on port {} ({}, default backend {}).",
+                getPort(), executorDescription, defaultBackend);
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public String getExecutorDescription() {
+        return executorDescription;
+    }
+
+    /**
+     * 停止接受連線，最多等待 1 秒讓進行中的請求完成。
+     */
+    @Override
+    public void close() {
+        server.stop(1);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                sendError(exchange, 405, "Only GET is supported.");
+                return;
+            }
+            String[] path = exchange.getRequestURI().getPath().split("/");
+            Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+            // path[0] is "" and path[1] is "api"
+            if (path.length == 3 && path[2].equals("health")) {
+                writeHealth(exchange);
+                return;
+            }
+
+            Backend backend = query.containsKey("backend") ? Backend.parse(query.get("backend")) : defaultBackend;
+            if (backend == null) {
+                sendError(exchange, 400, "backend must be sql, memory or auto.");
+                return;
+            }
+            SearchService service = backends.get(backend);
+            Semaphore permits = backend == Backend.SQL ? sqlPermits : null;
+            if (permits == null) {
+                dispatch(exchange, path, query, backend, service);
+                return;
+            }
+            permits.acquire();
+            try {
+                dispatch(exchange, path, query, backend, service);
+            } finally {
+                permits.release();
+            }
+        } catch (IllegalArgumentException e) {
+            // NumberFormatException and invalid cursors land here too
+            sendError(exchange, 400, e.getMessage());
+        } catch (RejectedExecutionException e) {
+            // The adaptive router is shedding SQL load; tell clients to back off instead of reporting a fault.
+            exchange.getResponseHeaders().set("Retry-After", "5");
+            sendError(exchange, 503, e.getMessage());
+        } catch (InterruptedException e) {
+            // Only happens while waiting for an SQL permit during shutdown.
+            Thread.currentThread().interrupt();
+            sendError(exchange, 503, "Server is shutting down.");
+        } catch (RuntimeException e) {
+            logger.error("Error handling {}", exchange.getRequestURI(), e);
+            sendError(exchange, 500, "Internal server error.");
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void dispatch(HttpExchange exchange, String[] path, Map<String, String> query, Backend backend,
+                          SearchService service) throws IOException {
+        if (path.length == 5 && path[2].equals("students") && path[4].equals("courses")) {
+            long studentId = Long.parseLong(path[3]);
+            writeCourses(exchange, backend, studentId, service.findCoursesByStudent(studentId));
+        } else if (path.length == 4 && path[2].equals("courses") && path[3].equals("popular")) {
+            int k = query.containsKey("k") ? Integer.parseInt(query.get("k")) : DEFAULT_TOP_K;
+            if (k <= 0 || k > MAX_TOP_K) throw new IllegalArgumentException("k must be between 1 and " + MAX_TOP_K + ".");
+            writePopularCourses(exchange, backend, k, service.findTopKPopularCourses(k));
+        } else if (path.length == 5 && path[2].equals("courses") && path[4].equals("students")) {
+            long courseId = Long.parseLong(path[3]);
+            if (query.containsKey("pageSize")) {
+                int pageSize = Integer.parseInt(query.get("pageSize"));
+                if (pageSize <= 0 || pageSize > MAX_PAGE_SIZE) {
+                    throw new IllegalArgumentException("pageSize must be between 1 and " + MAX_PAGE_SIZE + ".");
+                }
+                Page<StudentResult> page = service.findStudentsByCourse(courseId, pageSize, query.get("cursor"));
+                writeStudents(exchange, backend, courseId, page.getItems(), page.getNextCursor(), true);
+            } else {
+                writeStudents(exchange, backend, courseId, service.findStudentsByCourse(courseId), null, false);
+            }
+        } else {
+            sendError(exchange, 404, "Unknown endpoint.");
+        }
+    }
+
+    private void writeHealth(HttpExchange exchange) throws IOException {
+        JsonWriter json = beginJson(exchange, 200);
+        json.beginObject().name("status").value("UP").name("executor").value(executorDescription).endObject();
+        json.flush();
+    }
+
+    private void writeCourses(HttpExchange exchange, Backend backend, long studentId, List<CourseResult> courses) throws IOException {
+        JsonWriter json = beginJson(exchange, 200);
+        json.beginObject()
+                .name("backend").value(backend.name())
+                .name("studentId").value(studentId)
+                .name("count").value(courses.size())
+                .name("courses").beginArray();
+        for (CourseResult course : courses) {
+            json.beginObject()
+                    .name("courseName").value(course.getCourseName())
+                    .name("credits").value(course.getCredits());
+            writeDate(json, "enrollmentDate", course.getEnrollmentDate());
+            json.endObject();
+        }
+        json.endArray().endObject();
+        json.flush();
+    }
+
+    private void writePopularCourses(HttpExchange exchange, Backend backend, int k, List<CourseResult> courses) throws IOException {
+        JsonWriter json = beginJson(exchange, 200);
+        json.beginObject()
+                .name("backend").value(backend.name())
+                .name("k").value(k)
+                .name("courses").beginArray();
+        for (CourseResult course : courses) {
+            json.beginObject()
+                    .name("courseName").value(course.getCourseName())
+                    .name("credits").value(course.getCredits())
+                    .name("enrollmentCount").value(course.getEnrollmentCount())
+                    .endObject();
+        }
+        json.endArray().endObject();
+        json.flush();
+    }
+
+    private void writeStudents(HttpExchange exchange, Backend backend, long courseId, List<StudentResult> students,
+                               String nextCursor, boolean paged) throws IOException {
+        JsonWriter json = beginJson(exchange, 200);
+        json.beginObject()
+                .name("backend").value(backend.name())
+                .name("courseId").value(courseId)
+                .name("count").value(students.size())
+                .name("students").beginArray();
+        for (StudentResult student : students) {
+            json.beginObject()
+                    .name("fullName").value(student.getStudentFullName())
+                    .name("email").value(student.getEmail());
+            writeDate(json, "enrollmentDate", student.getEnrollmentDate());
+            json.endObject();
+        }
+        json.endArray();
+        if (paged) json.name("nextCursor").value(nextCursor);
+        json.endObject();
+        json.flush();
+    }
+
+    /**
+     * 日期以 epoch 毫秒輸出，不格式化成字串。
+     */
+    private static void writeDate(JsonWriter json, String name, Date date) throws IOException {
+        json.name(name);
+        if (date == null) json.nullValue();
+        else json.value(date.getTime());
+    }
+
+    private static JsonWriter beginJson(HttpExchange exchange, int status) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, 0); // 0 = chunked, length unknown while streaming
+        return new JsonWriter(new BufferedWriter(
+                new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8), RESPONSE_BUFFER_CHARS));
+    }
+
+    private static void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        if (exchange.getResponseCode() != -1) return; // headers already sent; the connection is simply closed
+        JsonWriter json = beginJson(exchange, status);
+        json.beginObject().name("error").value(message).endObject();
+        json.flush();
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) throws UnsupportedEncodingException {
+        Map<String, String> query = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) return query;
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            String key = URLDecoder.decode(eq < 0 ? pair : pair.substring(0, eq), "UTF-8");
+            String value = eq < 0 ? "" : URLDecoder.decode(pair.substring(eq + 1), "UTF-8");
+            query.putIfAbsent(key, value);
+        }
+        return query;
+    }
+
+    /**
+     * 透過反射呼叫 Executors.newVirtualThreadPerTaskExecutor() (Java 21+)，使本專案仍可以 Java 11 編譯。
+     *
+     * @return 虛擬執行緒執行器；執行環境不支援時返回 null
+     */
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    private static ThreadFactory daemonThreadFactory() {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "http-search-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -1,16 +1,32 @@
 package com.yourcompany.course.ui;
 
 import com.yourcompany.course.benchmark.BenchmarkRunner;
+import com.yourcompany.course.benchmark.LoadGenerator;
+import com.yourcompany.course.benchmark.QueryMix;
+import com.yourcompany.course.benchmark.WorkloadGenerator;
+import com.yourcompany.course.config.DatabaseConfig;
 import com.yourcompany.course.generator.DataGenerator;
+import com.yourcompany.course.generator.EnrollmentLoadMode;
 import com.yourcompany.course.model.dto.BenchmarkResult;
+import com.yourcompany.course.model.dto.CacheStats;
+import com.yourcompany.course.model.dto.CoalescingStats;
+import com.yourcompany.course.model.dto.MemoryBreakdown;
+import com.yourcompany.course.model.dto.Page;
+import com.yourcompany.course.model.dto.StudentResult;
+import com.yourcompany.course.repository.DataRepository;
+import com.yourcompany.course.search.AsyncSearchService;
+import com.yourcompany.course.search.AdaptiveSearchService;
+import com.yourcompany.course.search.CachingSearchService;
+import com.yourcompany.course.search.CoalescingSearchService;
+import com.yourcompany.course.search.EnrollmentService;
 import com.yourcompany.course.search.InMemorySearchService;
 import com.yourcompany.course.search.SearchService;
 
 import javax.swing.*;
 import java.awt.*;
-import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
 
 public class MainFrame extends JFrame {
 
@@ -18,25 +34,50 @@ public class MainFrame extends JFrame {
     private static final int STUDENT_COUNT = 10000;
     private static final int COURSE_COUNT = 1000;
     private static final int TEACHER_COUNT = 100;
+    private static final int BENCHMARK_ITERATIONS = 1000;
+    private static final double ZIPF_EXPONENT = 0.99;
+    private static final int[] LOAD_TEST_THREAD_COUNTS = {1, 2, 4, 8, 16, 32};
+    private static final long LOAD_TEST_WARMUP_MILLIS = 1000;
+    private static final long LOAD_TEST_DURATION_MILLIS = 3000;
+    private static final int ROSTER_PAGE_SIZE = 50;
+    private static final long ASYNC_QUERY_TIMEOUT_MILLIS = 5000;
 
     // Services and Generators (Injected)
-    private final SearchService sqlService;
+    private final CachingSearchService sqlService;
     private final InMemorySearchService inMemoryService;
+    private final AdaptiveSearchService adaptiveService;
     private final DataGenerator dataGenerator;
+    private final DataRepository dataRepository;
+    private final EnrollmentService enrollmentService;
 
     // UI Components
     private JTextArea resultArea;
     private JLabel statusLabel;
     private JRadioButton sqlRadioButton;
     private JRadioButton inMemoryRadioButton;
+    private JRadioButton adaptiveRadioButton;
+    private JCheckBox sqlCacheCheckBox;
+    private JCheckBox asyncLoadTestCheckBox;
     private JTextField idField;
     private JComboBox<String> enrollmentScaleComboBox; // Renamed for clarity
+    private JComboBox<String> loadModeComboBox;
+    private JComboBox<String> workloadComboBox;
 
-    public MainFrame(SearchService sqlService, InMemorySearchService inMemoryService, DataGenerator dataGenerator) {
+    // Paged roster browsing state (EDT only)
+    private SearchService pagedService;
+    private long pagedCourseId;
+    private int pagedPageNumber;
+    private String pagedCursor;
+
+    public MainFrame(CachingSearchService sqlService, InMemorySearchService inMemoryService, AdaptiveSearchService adaptiveService,
+                     DataGenerator dataGenerator, DataRepository dataRepository, EnrollmentService enrollmentService) {
         // 1. Receive injected dependencies
         this.sqlService = sqlService;
         this.inMemoryService = inMemoryService;
+        this.adaptiveService = adaptiveService;
         this.dataGenerator = dataGenerator;
+        this.dataRepository = dataRepository;
+        this.enrollmentService = enrollmentService;
 
         // 2. Setup main window
         setTitle("課程選課系統效能測試");
@@ -50,11 +91,15 @@ public class MainFrame extends JFrame {
         topPanel.setLayout(new BoxLayout(topPanel, BoxLayout.Y_AXIS));
         topPanel.add(createDataGenerationPanel());
         topPanel.add(createControlPanel());
+        topPanel.add(createEnrollmentPanel());
 
         add(topPanel, BorderLayout.NORTH);
         add(createResultPanel(), BorderLayout.CENTER);
         add(createStatusPanel(), BorderLayout.SOUTH);
         add(createSchemeSelectionPanel(), BorderLayout.WEST);
+
+        // 4. Restore the in-memory index from the last snapshot, if it still matches the database
+        restoreInMemorySnapshot();
     }
 
     private JPanel createDataGenerationPanel() {
@@ -68,10 +113,18 @@ public class MainFrame extends JFrame {
         enrollmentScaleComboBox = new JComboBox<>(scales); // Use the renamed variable
         panel.add(enrollmentScaleComboBox);
 
+        panel.add(new JLabel("寫入方式:"));
+        loadModeComboBox = new JComboBox<>(new String[]{"JDBC 批次", "LOAD DATA", "LOAD DATA (延後建索引)"});
+        panel.add(loadModeComboBox);
+
         JButton generateDataBtn = new JButton("生成資料並載入");
         generateDataBtn.addActionListener(e -> generateData());
         panel.add(generateDataBtn);
 
+        JButton refreshBtn = new JButton("增量同步");
+        refreshBtn.addActionListener(e -> refreshInMemoryData());
+        panel.add(refreshBtn);
+
         return panel;
     }
 
@@ -92,10 +145,50 @@ public class MainFrame extends JFrame {
         JButton findTopCoursesBtn = new JButton("查詢熱門課程");
         findTopCoursesBtn.addActionListener(e -> executeSearch(SearchOperation.FIND_TOP_10_COURSES));
 
+        JButton pagedStudentsBtn = new JButton("分頁瀏覽課程學生");
+        pagedStudentsBtn.addActionListener(e -> executePagedRosterSearch());
+
         panel.add(findCoursesBtn);
         panel.add(findStudentsBtn);
+        panel.add(pagedStudentsBtn);
         panel.add(findTopCoursesBtn);
 
+        JButton loadTestBtn = new JButton("並行負載測試");
+        loadTestBtn.addActionListener(e -> executeLoadTest());
+        panel.add(loadTestBtn);
+        asyncLoadTestCheckBox = new JCheckBox("比較非同步 API");
+        panel.add(asyncLoadTestCheckBox);
+
+        JButton cacheStatsBtn = new JButton("快取統計");
+        cacheStatsBtn.addActionListener(e -> appendCacheStats());
+        panel.add(cacheStatsBtn);
+
+        panel.add(new JLabel("測試 ID 分佈:"));
+        workloadComboBox = new JComboBox<>(new String[]{"固定輸入 ID", "均勻隨機", "Zipfian"});
+        panel.add(workloadComboBox);
+
+        return panel;
+    }
+
+    private JPanel createEnrollmentPanel() {
+        JPanel panel = new JPanel(new FlowLayout(FlowLayout.LEFT, 10, 10));
+        panel.setBorder(BorderFactory.createTitledBorder("選課異動 (寫入資料庫並即時更新記憶體索引)"));
+
+        panel.add(new JLabel("學生 ID:"));
+        JTextField studentField = new JTextField(8);
+        panel.add(studentField);
+        panel.add(new JLabel("課程 ID:"));
+        JTextField courseField = new JTextField(8);
+        panel.add(courseField);
+
+        JButton enrollBtn = new JButton("選課");
+        enrollBtn.addActionListener(e -> executeEnrollmentChange(studentField.getText(), courseField.getText(), true));
+        panel.add(enrollBtn);
+
+        JButton dropBtn = new JButton("退選");
+        dropBtn.addActionListener(e -> executeEnrollmentChange(studentField.getText(), courseField.getText(), false));
+        panel.add(dropBtn);
+
         return panel;
     }
 
@@ -123,17 +216,58 @@ public class MainFrame extends JFrame {
 
         sqlRadioButton = new JRadioButton("方案A: SQL", true);
         inMemoryRadioButton = new JRadioButton("方案B: HashMap");
+        adaptiveRadioButton = new JRadioButton("自動路由 (A/B)");
+        adaptiveRadioButton.setToolTipText("記憶體索引已載入且最新時使用方案B，否則使用方案A (含快取)；SQL 延遲過高時斷路");
 
         ButtonGroup group = new ButtonGroup();
         group.add(sqlRadioButton);
         group.add(inMemoryRadioButton);
+        group.add(adaptiveRadioButton);
+
+        sqlCacheCheckBox = new JCheckBox("SQL 結果快取", false);
 
         panel.add(sqlRadioButton);
+        JCheckBox resultViewsCheckBox = new JCheckBox("預建結果視圖", inMemoryService.isMemoizeResults());
+        resultViewsCheckBox.addActionListener(e -> inMemoryService.setMemoizeResults(resultViewsCheckBox.isSelected()));
+
+        panel.add(sqlCacheCheckBox);
         panel.add(inMemoryRadioButton);
+        panel.add(resultViewsCheckBox);
+        panel.add(adaptiveRadioButton);
 
         return panel;
     }
 
+    private SearchService selectedService() {
+        if (adaptiveRadioButton.isSelected()) return adaptiveService;
+        if (!sqlRadioButton.isSelected()) return inMemoryService;
+        return sqlCacheCheckBox.isSelected() ? sqlService : sqlService.getDelegate();
+    }
+
+    private void appendCacheStats() {
+        resultArea.append("====== SQL 結果快取統計 ======\n");
+        for (CacheStats stats : sqlService.getCacheStats()) {
+            resultArea.append(stats + "\n");
+        }
+        CoalescingSearchService coalescing = coalescingService();
+        if (coalescing != null) {
+            resultArea.append("====== SQL 同時查詢合併統計 ======\n");
+            for (CoalescingStats stats : coalescing.getCoalescingStats()) {
+                resultArea.append(stats + "\n");
+            }
+        }
+        resultArea.append("====== 自動路由統計 ======\n");
+        resultArea.append(adaptiveService.getRoutingStats() + "\n");
+    }
+
+    /**
+     * @return SQL 快取底下的查詢合併層；未設定時返回 null
+     */
+    private CoalescingSearchService coalescingService() {
+        SearchService delegate = sqlService.getDelegate();
+        return delegate instanceof CoalescingSearchService ? (CoalescingSearchService) delegate : null;
+    }
+
     private void generateData() {
         String selected = (String) enrollmentScaleComboBox.getSelectedItem();
         if (selected == null) return;
@@ -154,8 +288,12 @@ public class MainFrame extends JFrame {
                 return; // Should not happen
         }
 
+        EnrollmentLoadMode loadMode = EnrollmentLoadMode.values()[loadModeComboBox.getSelectedIndex()];
+
         resultArea.setText(""); // Clear log area
         statusLabel.setText("正在生成資料，請查看日誌輸出...");
+        // Generation bypasses the ChangeLog, so the index cannot catch up until it is reloaded.
+        inMemoryService.markStale();
 
         new SwingWorker<Void, String>() {
             @Override
@@ -166,6 +304,7 @@ public class MainFrame extends JFrame {
                         COURSE_COUNT,
                         TEACHER_COUNT,
                         enrollmentCount,
+                        loadMode,
                         this::publish
                 );
                 return null;
@@ -180,12 +319,112 @@ public class MainFrame extends JFrame {
 
             @Override
             protected void done() {
+                sqlService.invalidateAll();
+                CoalescingSearchService coalescing = coalescingService();
+                if (coalescing != null) coalescing.forgetAll();
                 statusLabel.setText("資料生成完畢。現在開始自動載入記憶體資料...");
                 loadInMemoryData(); // Automatically reload after generation
             }
         }.execute();
     }
 
+    private void restoreInMemorySnapshot() {
+        new SwingWorker<Boolean, Void>() {
+            @Override
+            protected Boolean doInBackground() {
+                return inMemoryService.loadFromSnapshot();
+            }
+
+            @Override
+            protected void done() {
+                try {
+                    if (get()) {
+                        appendLoadSummary();
+                        statusLabel.setText("已從磁碟快照還原記憶體資料。系統就緒。");
+                    }
+                } catch (InterruptedException | ExecutionException e) {
+                    resultArea.append("WARN: Failed to restore in-memory snapshot: " + e.getMessage() + "\n");
+                }
+            }
+        }.execute();
+    }
+
+    /**
+     * 在結果區輸出最近一次載入的記憶體用量明細與各階段耗時。須在 EDT 上呼叫。
+     */
+    private void appendLoadSummary() {
+        MemoryBreakdown breakdown = inMemoryService.getMemoryBreakdown();
+        long memUsageMB = breakdown.getTotalBytes() / (1024 * 1024);
+        resultArea.append(String.format("記憶體資料載入完成！估算使用記憶體: %d MB\n", memUsageMB));
+        resultArea.append(inMemoryService.getLastLoadReport() + "\n");
+        resultArea.append("記憶體用量明細 (依物件配置估算):\n" + breakdown + "\n");
+        resultArea.append(String.format("對照: 選課索引 (欄式 CSR + 差值編碼時間) %.1f MB；若以 Enrollment 物件保存約 %.1f MB\n",
+                breakdown.getCategoryBytes(InMemorySearchService.CATEGORY_INDEX) / (1024.0 * 1024.0),
+                inMemoryService.getEnrollmentObjectLayoutBytes() / (1024.0 * 1024.0)));
+    }
+
+    private void refreshInMemoryData() {
+        new SwingWorker<Integer, Void>() {
+            private long elapsedNanos;
+
+            @Override
+            protected Integer doInBackground() {
+                long start = System.nanoTime();
+                int applied = inMemoryService.refresh();
+                elapsedNanos = System.nanoTime() - start;
+                return applied;
+            }
+
+            @Override
+            protected void done() {
+                try {
+                    resultArea.append(String.format("增量同步完成: 套用 %d 筆變更，耗時 %.1f ms (ChangeLog 已同步至 #%d)\n",
+                            get(), elapsedNanos / 1_000_000.0, inMemoryService.getLastChangeId()));
+                } catch (InterruptedException | ExecutionException e) {
+                    resultArea.append("ERROR: Incremental refresh failed: " + e.getMessage() + "\n");
+                }
+            }
+        }.execute();
+    }
+
+    private void executeEnrollmentChange(String studentText, String courseText, boolean enroll) {
+        long studentId;
+        long courseId;
+        try {
+            studentId = Long.parseLong(studentText.trim());
+            courseId = Long.parseLong(courseText.trim());
+        } catch (NumberFormatException e) {
+            JOptionPane.showMessageDialog(this, "請輸入有效的學生 ID 與課程 ID。", "輸入錯誤", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+
+        new SwingWorker<Boolean, Void>() {
+            private long elapsedNanos;
+
+            @Override
+            protected Boolean doInBackground() {
+                long start = System.nanoTime();
+                boolean changed = enroll ? enrollmentService.enroll(studentId, courseId) : enrollmentService.drop(studentId, courseId);
+                elapsedNanos = System.nanoTime() - start;
+                return changed;
+            }
+
+            @Override
+            protected void done() {
+                try {
+                    String action = enroll ? "選課" : "退選";
+                    if (get()) {
+                        resultArea.append(String.format("%s成功: 學生 %d, 課程 %d (%.2f ms)\n", action, studentId, courseId, elapsedNanos / 1_000_000.0));
+                    } else {
+                        resultArea.append(String.format("%s未生效: 學生 %d, 課程 %d (已存在/不存在或資料庫錯誤)\n", action, studentId, courseId));
+                    }
+                } catch (InterruptedException | ExecutionException e) {
+                    resultArea.append("ERROR: Enrollment change failed: " + e.getMessage() + "\n");
+                }
+            }
+        }.execute();
+    }
+
     private void loadInMemoryData() {
         new SwingWorker<Void, Void>() {
             @Override
@@ -199,8 +438,7 @@ public class MainFrame extends JFrame {
             protected void done() {
                 try {
                     get(); // Check for exceptions during load
-                    long memUsageMB = inMemoryService.getMemoryUsageBytes() / (1024 * 1024);
-                    publishAndAppend(String.format("記憶體資料載入完成！額外使用記憶體: %d MB\n", memUsageMB));
+                    appendLoadSummary();
                     statusLabel.setText("系統就緒。請執行查詢。");
                 } catch (InterruptedException | ExecutionException e) {
                     publishAndAppend("ERROR: Failed to load data into memory: " + e.getMessage() + "\n");
@@ -220,6 +458,142 @@ public class MainFrame extends JFrame {
         FIND_TOP_10_COURSES
     }
 
+    /**
+     * 依選擇的分佈建立測試用的 ID 來源：固定 ID 重播輸入值，其餘從資料庫中所有真實 ID 抽樣。
+     */
+    private WorkloadGenerator createWorkload(int workloadIndex, long fixedId, Supplier<long[]> allIds) {
+        switch (workloadIndex) {
+            case 1:
+                return WorkloadGenerator.uniform(allIds.get(), System.nanoTime());
+            case 2:
+                return WorkloadGenerator.zipfian(allIds.get(), ZIPF_EXPONENT, System.nanoTime());
+            default:
+                return WorkloadGenerator.replay(new long[]{fixedId});
+        }
+    }
+
+    /**
+     * 以 1~32 個執行緒 (closed-loop) 依序對目前選擇的方案施加混合查詢負載，輸出吞吐量擴展曲線與連線池等待時間。
+     * 勾選「比較非同步 API」時，接著以同樣數量的未完成請求透過 AsyncSearchService 再測一次
+     * (SQL 方案的執行緒數與連線池相同，記憶體方案與 CPU 核心數相同)。
+     */
+    private void executeLoadTest() {
+        SearchService currentService = selectedService();
+        int workloadIndex = workloadComboBox.getSelectedIndex() == 2 ? 2 : 1;
+        boolean compareAsync = asyncLoadTestCheckBox.isSelected();
+        int asyncThreads = currentService == inMemoryService ? Runtime.getRuntime().availableProcessors() : DatabaseConfig.MAXIMUM_POOL_SIZE;
+        statusLabel.setText("正在使用 " + currentService.getServiceName() + " 執行並行負載測試...");
+        resultArea.setText("====== 並行負載測試 (查詢比例 學生選課/課程學生/熱門課程 = 45/45/10) ======\n");
+
+        new SwingWorker<Void, String>() {
+            @Override
+            protected Void doInBackground() {
+                long[] studentIds = dataRepository.findAllStudentIds();
+                long[] courseIds = dataRepository.findAllCourseIds();
+                if (studentIds.length == 0 || courseIds.length == 0) {
+                    publish("沒有可用的學生或課程資料，請先生成資料。");
+                    return null;
+                }
+                LoadGenerator loadGenerator = new LoadGenerator(currentService,
+                        seed -> createWorkload(workloadIndex, 0, () -> studentIds),
+                        seed -> createWorkload(workloadIndex, 0, () -> courseIds),
+                        new QueryMix(45, 45, 10),
+                        DatabaseConfig.getPoolMetrics());
+                loadGenerator.runScalingCurve(LOAD_TEST_THREAD_COUNTS, LOAD_TEST_WARMUP_MILLIS, LOAD_TEST_DURATION_MILLIS, 0,
+                        result -> publish(result.toString()));
+                if (compareAsync) {
+                    publish("------ 非同步 API (執行緒池 " + asyncThreads + " 條, 逾時 " + ASYNC_QUERY_TIMEOUT_MILLIS + " ms) ------");
+                    int maxInFlight = LOAD_TEST_THREAD_COUNTS[LOAD_TEST_THREAD_COUNTS.length - 1];
+                    try (AsyncSearchService async = new AsyncSearchService(currentService, asyncThreads, maxInFlight, ASYNC_QUERY_TIMEOUT_MILLIS)) {
+                        for (int inFlight : LOAD_TEST_THREAD_COUNTS) {
+                            publish(loadGenerator.runAsync(async, inFlight, LOAD_TEST_WARMUP_MILLIS, LOAD_TEST_DURATION_MILLIS).toString());
+                        }
+                        publish(String.format("逾時 %d, 拒絕 %d", async.getTimedOutCount(), async.getRejectedCount()));
+                    }
+                }
+                return null;
+            }
+
+            @Override
+            protected void process(List<String> chunks) {
+                for (String message : chunks) {
+                    resultArea.append(message + "\n");
+                }
+            }
+
+            @Override
+            protected void done() {
+                try {
+                    get();
+                    statusLabel.setText("負載測試完成。");
+                } catch (InterruptedException | ExecutionException e) {
+                    resultArea.append("執行負載測試時發生錯誤: " + e.getCause().getMessage() + "\n");
+                    e.printStackTrace();
+                }
+            }
+        }.execute();
+    }
+
+    /**
+     * 分頁瀏覽課程名單：同一個課程與方案再次點擊時接著讀下一頁，讀完最後一頁後從第一頁重新開始。
+     */
+    private void executePagedRosterSearch() {
+        long courseId;
+        try {
+            courseId = Long.parseLong(idField.getText().trim());
+        } catch (NumberFormatException e) {
+            JOptionPane.showMessageDialog(this, "請輸入有效的數字ID。", "輸入錯誤", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+
+        SearchService currentService = selectedService();
+        if (currentService != pagedService || courseId != pagedCourseId || pagedCursor == null) {
+            pagedService = currentService;
+            pagedCourseId = courseId;
+            pagedPageNumber = 0;
+            pagedCursor = null;
+        }
+        String cursor = pagedCursor;
+        int pageNumber = pagedPageNumber + 1;
+        statusLabel.setText("正在使用 " + currentService.getServiceName() + " 讀取第 " + pageNumber + " 頁...");
+
+        new SwingWorker<Page<StudentResult>, Void>() {
+            private long elapsedNanos;
+
+            @Override
+            protected Page<StudentResult> doInBackground() {
+                long start = System.nanoTime();
+                Page<StudentResult> page = currentService.findStudentsByCourse(courseId, ROSTER_PAGE_SIZE, cursor);
+                elapsedNanos = System.nanoTime() - start;
+                return page;
+            }
+
+            @Override
+            protected void done() {
+                try {
+                    Page<StudentResult> page = get();
+                    StringBuilder sb = new StringBuilder();
+                    sb.append(String.format("====== 課程 %d 學生名單 第 %d 頁 (每頁 %d 筆, 耗時 %.2f ms) ======\n",
+                            courseId, pageNumber, ROSTER_PAGE_SIZE, elapsedNanos / 1_000_000.0));
+                    if (page.getItems().isEmpty()) {
+                        sb.append("未找到結果。\n");
+                    } else {
+                        page.getItems().forEach(r -> sb.append(r.toString()).append("\n"));
+                    }
+                    sb.append(page.hasNext() ? "(再按一次讀取下一頁)\n" : "(已是最後一頁)\n");
+                    resultArea.setText(sb.toString());
+                    statusLabel.setText("查詢完成。");
+                    if (pagedService == currentService && pagedCourseId == courseId) {
+                        pagedPageNumber = pageNumber;
+                        pagedCursor = page.getNextCursor();
+                    }
+                } catch (InterruptedException | ExecutionException e) {
+                    resultArea.setText("執行查詢時發生錯誤: " + e.getCause().getMessage());
+                }
+            }
+        }.execute();
+    }
+
     private void executeSearch(SearchOperation operation) {
         long id = 0;
         if (operation != SearchOperation.FIND_TOP_10_COURSES) {
@@ -231,11 +605,12 @@ public class MainFrame extends JFrame {
             }
         }
 
-        SearchService currentService = sqlRadioButton.isSelected() ? sqlService : inMemoryService;
+        SearchService currentService = selectedService();
         statusLabel.setText("正在使用 " + currentService.getServiceName() + " 執行查詢...");
         resultArea.setText("");
 
         long finalId = id;
+        int workloadIndex = workloadComboBox.getSelectedIndex();
 
         new SwingWorker<List<?>, Void>() {
             private BenchmarkResult benchmarkResult;
@@ -243,26 +618,21 @@ public class MainFrame extends JFrame {
             @Override
             protected List<?> doInBackground() throws Exception {
                 List<?> results;
-                // Use a larger, more realistic set for benchmarking if needed
-                List<Long> testIds = Collections.nCopies(1000, finalId);
 
                 switch (operation) {
                     case FIND_COURSES_BY_STUDENT:
-                        benchmarkResult = BenchmarkRunner.runFindCoursesByStudent(currentService, testIds);
+                        WorkloadGenerator studentIds = createWorkload(workloadIndex, finalId, dataRepository::findAllStudentIds);
+                        benchmarkResult = BenchmarkRunner.runFindCoursesByStudent(currentService, studentIds, BENCHMARK_ITERATIONS);
                         results = currentService.findCoursesByStudent(finalId);
                         break;
                     case FIND_STUDENTS_BY_COURSE:
-                        benchmarkResult = BenchmarkRunner.runFindStudentsByCourse(currentService, testIds);
+                        WorkloadGenerator courseIds = createWorkload(workloadIndex, finalId, dataRepository::findAllCourseIds);
+                        benchmarkResult = BenchmarkRunner.runFindStudentsByCourse(currentService, courseIds, BENCHMARK_ITERATIONS);
                         results = currentService.findStudentsByCourse(finalId);
                         break;
                     case FIND_TOP_10_COURSES:
                         // Benchmark for top 10 courses is slightly different as it takes no ID
-                        long startTime = System.nanoTime();
-                        for(int i=0; i<1000; i++) {
-                            currentService.findTop10PopularCourses();
-                        }
-                        long totalTime = System.nanoTime() - startTime;
-                        benchmarkResult = new BenchmarkResult(totalTime, 1000);
+                        benchmarkResult = BenchmarkRunner.runFindTopKPopularCourses(currentService, 10, BENCHMARK_ITERATIONS);
                         results = currentService.findTop10PopularCourses();
                         break;
                     default:
@@ -1,3 +1,4 @@
+DROP TABLE IF EXISTS ChangeLog;
 DROP TABLE IF EXISTS Enrollment;
 DROP TABLE IF EXISTS Course;
 DROP TABLE IF EXISTS Student;
@@ -26,14 +27,71 @@ CREATE TABLE Course (
     FOREIGN KEY (teacher_id) REFERENCES Teacher(teacher_id)
 );
 
+-- Secondary indexes and foreign keys are named so the bulk loader can drop and re-create them.
 CREATE TABLE Enrollment (
     student_id BIGINT,
     course_id BIGINT,
     enrollment_date TIMESTAMP NOT NULL,
     PRIMARY KEY (student_id, course_id),
-    FOREIGN KEY (student_id) REFERENCES Student(student_id),
-    FOREIGN KEY (course_id) REFERENCES Course(course_id)
+    INDEX idx_enrollment_student_id (student_id),
+    INDEX idx_enrollment_course_id (course_id),
+    CONSTRAINT fk_enrollment_student FOREIGN KEY (student_id) REFERENCES Student(student_id),
+    CONSTRAINT fk_enrollment_course FOREIGN KEY (course_id) REFERENCES Course(course_id)
 );
 
-CREATE INDEX idx_enrollment_student_id ON Enrollment(student_id);
-CREATE INDEX idx_enrollment_course_id ON Enrollment(course_id);
+-- Change tracking for InMemorySearchService.refresh(): every row change on Student, Course and
+-- Enrollment appends its key here. Triggers are single statements (no BEGIN ... END) so the
+-- script can still be split on ';'. Bulk loaders set @skip_change_log on their session and
+-- reload the in-memory index in full afterwards.
+-- change_id is allocated at INSERT but visible only at COMMIT, so a lower id can appear after a
+-- higher one was read. The reader keeps ids it skipped as gaps and re-reads them on every refresh
+-- until they appear or time out (rolled back, or allocated and never used); see ChangeCursor.
+-- Consumed entries are deleted by DataRepository.pruneChangesThrough() after a full load, a
+-- snapshot restore or a refresh that applied changes, up to the lowest of the published position,
+-- the oldest open gap and the on-disk snapshot's resume position (the snapshot must still be able
+-- to replay from it).
+CREATE TABLE ChangeLog (
+    change_id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    table_name VARCHAR(16) NOT NULL,
+    operation CHAR(1) NOT NULL,
+    student_id BIGINT,
+    course_id BIGINT
+);
+
+CREATE TRIGGER trg_student_insert AFTER INSERT ON Student FOR EACH ROW
+    INSERT INTO ChangeLog (table_name, operation, student_id)
+    SELECT 'Student', 'I', NEW.student_id FROM DUAL WHERE @skip_change_log IS NULL;
+
+CREATE TRIGGER trg_student_update AFTER UPDATE ON Student FOR EACH ROW
+    INSERT INTO ChangeLog (table_name, operation, student_id)
+    SELECT 'Student', 'U', NEW.student_id FROM DUAL WHERE @skip_change_log IS NULL;
+
+CREATE TRIGGER trg_student_delete AFTER DELETE ON Student FOR EACH ROW
+    INSERT INTO ChangeLog (table_name, operation, student_id)
+    SELECT 'Student', 'D', OLD.student_id FROM DUAL WHERE @skip_change_log IS NULL;
+
+CREATE TRIGGER trg_course_insert AFTER INSERT ON Course FOR EACH ROW
+    INSERT INTO ChangeLog (table_name, operation, course_id)
+    SELECT 'Course', 'I', NEW.course_id FROM DUAL WHERE @skip_change_log IS NULL;
+
+CREATE TRIGGER trg_course_update AFTER UPDATE ON Course FOR EACH ROW
+    INSERT INTO ChangeLog (table_name, operation, course_id)
+    SELECT 'Course', 'U', NEW.course_id FROM DUAL WHERE @skip_change_log IS NULL;
+
+CREATE TRIGGER trg_course_delete AFTER DELETE ON Course FOR EACH ROW
+    INSERT INTO ChangeLog (table_name, operation, course_id)
+    SELECT 'Course', 'D', OLD.course_id FROM DUAL WHERE @skip_change_log IS NULL;
+
+CREATE TRIGGER trg_enrollment_insert AFTER INSERT ON Enrollment FOR EACH ROW
+    INSERT INTO ChangeLog (table_name, operation, student_id, course_id)
+    SELECT 'Enrollment', 'I', NEW.student_id, NEW.course_id FROM DUAL WHERE @skip_change_log IS NULL;
+
+CREATE TRIGGER trg_enrollment_update AFTER UPDATE ON Enrollment FOR EACH ROW
+    INSERT INTO ChangeLog (table_name, operation, student_id, course_id)
+    SELECT 'Enrollment', 'U', OLD.student_id, OLD.course_id FROM DUAL WHERE @skip_change_log IS NULL
+    UNION ALL
+    SELECT 'Enrollment', 'U', NEW.student_id, NEW.course_id FROM DUAL WHERE @skip_change_log IS NULL;
+
+CREATE TRIGGER trg_enrollment_delete AFTER DELETE ON Enrollment FOR EACH ROW
+    INSERT INTO ChangeLog (table_name, operation, student_id, course_id)
+    SELECT 'Enrollment', 'D', OLD.student_id, OLD.course_id FROM DUAL WHERE @skip_change_log IS NULL;
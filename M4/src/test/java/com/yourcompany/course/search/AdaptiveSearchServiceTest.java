@@ -0,0 +1,204 @@
+package com.yourcompany.course.search;
+
+import com.yourcompany.course.model.dto.CourseResult;
+import com.yourcompany.course.model.dto.Page;
+import com.yourcompany.course.model.dto.StudentResult;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdaptiveSearchServiceTest {
+
+    private FakeDataRepository repository;
+    private StubSearchService sql;
+    private InMemorySearchService inMemory;
+    private AdaptiveSearchService router;
+
+    @BeforeEach
+    void setUp() {
+        repository = new FakeDataRepository();
+        for (long s = 1; s <= 5; s++) {
+            repository.addStudent(s);
+            repository.enroll(s, 100, s * 1_000);
+        }
+        repository.addCourse(100, 3);
+        repository.addCourse(101, 2);
+
+        sql = new StubSearchService("SQL");
+        List<StudentResult> students = new ArrayList<>();
+        for (long s = 1; s <= 5; s++) {
+            students.add(new StudentResult("First" + s + " Last" + s, "s" + s + "@example.com", null));
+        }
+        sql.studentsByCourse.put(100L, students);
+        sql.coursesByStudent.put(1L, List.of(new CourseResult("Course100", 3, 5L)));
+
+        inMemory = new InMemorySearchService(repository);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (router != null) router.close();
+    }
+
+    /**
+     * 讓 SQL 每次查詢至少花費指定時間，使其延遲可與門檻比較。
+     */
+    private void slowSql(long millis) {
+        sql.beforeAnswer = () -> {
+            try {
+                Thread.sleep(millis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+    }
+
+    /**
+     * 以一次慢查詢讓斷路器跳開；此時索引必須不可用，請求才會送往 SQL。
+     */
+    private void openCircuit() {
+        slowSql(5);
+        router.findCoursesByStudent(1);
+        assertEquals(AdaptiveSearchService.CircuitState.OPEN, router.getCircuitState());
+    }
+
+    @Test
+    void sqlAnswersUntilTheIndexIsLoaded() {
+        router = new AdaptiveSearchService(sql, inMemory, repository, 10_000, 0);
+
+        assertFalse(router.isIndexUsable());
+        assertEquals(1, router.findCoursesByStudent(1).size());
+        assertEquals(1, sql.queries.get());
+        assertEquals(0, router.getRoutingStats().getMemoryCalls());
+    }
+
+    @Test
+    void staleIndexIsBypassed() {
+        inMemory.loadData();
+        inMemory.markStale();
+        router = new AdaptiveSearchService(sql, inMemory, repository, 10_000, 0);
+
+        for (int i = 0; i < 50; i++) {
+            router.findStudentsByCourse(100);
+        }
+        assertEquals(50, sql.queries.get());
+        assertEquals(0, router.getRoutingStats().getMemoryCalls());
+    }
+
+    @Test
+    void fasterBackendTakesMostRequestsOnceBothAreUsable() {
+        inMemory.loadData();
+        slowSql(2);
+        router = new AdaptiveSearchService(sql, inMemory, repository, 10_000, 0);
+
+        for (int i = 0; i < 200; i++) {
+            assertEquals(5, router.findStudentsByCourse(100).size());
+        }
+        // A few requests explore the slower backend to keep its average current.
+        assertTrue(router.getRoutingStats().getMemoryCalls() >= 150, router.getRoutingStats().toString());
+    }
+
+    @Test
+    void openCircuitShedsRequestsWhenNoIndexIsLoaded() {
+        router = new AdaptiveSearchService(sql, inMemory, repository, 1, 0);
+        openCircuit();
+
+        assertThrows(RejectedExecutionException.class, () -> router.findCoursesByStudent(1));
+        assertEquals(1, sql.queries.get(), "the struggling database got no more requests");
+        assertEquals(1, router.getRoutingStats().getShedCalls());
+    }
+
+    @Test
+    void openCircuitFallsBackToAStaleIndex() {
+        inMemory.loadData();
+        inMemory.markStale();
+        router = new AdaptiveSearchService(sql, inMemory, repository, 1, 0);
+        openCircuit();
+
+        assertEquals(5, router.findStudentsByCourse(100).size());
+        assertEquals(1, sql.queries.get());
+        assertEquals(1, router.getRoutingStats().getDegradedCalls());
+    }
+
+    @Test
+    void sqlCursorStaysOnSqlOnceTheIndexIsUsable() {
+        router = new AdaptiveSearchService(sql, inMemory, repository, 10_000, 0);
+        Page<StudentResult> first = router.findStudentsByCourse(100, 2, null);
+        assertEquals('s', first.getNextCursor().charAt(0));
+
+        inMemory.loadData();
+        assertTrue(router.isIndexUsable());
+        Page<StudentResult> second = router.findStudentsByCourse(100, 2, first.getNextCursor());
+        Page<StudentResult> third = router.findStudentsByCourse(100, 2, second.getNextCursor());
+
+        assertEquals(3, sql.queries.get(), "every page came from the backend that issued the cursor");
+        assertEquals(0, router.getRoutingStats().getMemoryCalls());
+        assertEquals("First3 Last3", second.getItems().get(0).getStudentFullName());
+        assertEquals(List.of("First5 Last5"), names(third));
+        assertNull(third.getNextCursor());
+    }
+
+    @Test
+    void memoryCursorStaysOnTheIndexAndSqlCursorIsRejectedWhileTheCircuitIsOpen() {
+        inMemory.loadData();
+        inMemory.markStale();
+        router = new AdaptiveSearchService(sql, inMemory, repository, 1, 0);
+        slowSql(5);
+        // The slow first page both hands out an SQL cursor and opens the circuit.
+        Page<StudentResult> sqlPage = router.findStudentsByCourse(100, 2, null);
+        assertEquals('s', sqlPage.getNextCursor().charAt(0));
+        assertEquals(AdaptiveSearchService.CircuitState.OPEN, router.getCircuitState());
+        int sqlQueries = sql.queries.get();
+
+        Page<StudentResult> first = router.findStudentsByCourse(100, 2, null);
+        assertEquals('m', first.getNextCursor().charAt(0));
+        Page<StudentResult> second = router.findStudentsByCourse(100, 2, first.getNextCursor());
+        assertEquals(List.of("First3 Last3", "First4 Last4"), names(second));
+
+        assertThrows(RejectedExecutionException.class, () -> router.findStudentsByCourse(100, 2, sqlPage.getNextCursor()));
+        assertEquals(sqlQueries, sql.queries.get());
+    }
+
+    @Test
+    void unknownCursorIsRejected() {
+        router = new AdaptiveSearchService(sql, inMemory, repository, 10_000, 0);
+
+        assertThrows(IllegalArgumentException.class, () -> router.findStudentsByCourse(100, 2, ""));
+        assertThrows(IllegalArgumentException.class, () -> router.findStudentsByCourse(100, 2, "x" + Page.encodeCursor(2)));
+    }
+
+    @Test
+    void freshnessCheckCatchesTheIndexUpWithTheChangeLog() throws Exception {
+        inMemory.loadData();
+        router = new AdaptiveSearchService(sql, inMemory, repository, 10_000, 10);
+
+        repository.enroll(1, 101, 9_000);
+        long latest = repository.findLatestChangeId();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (inMemory.getLastChangeId() < latest && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+
+        assertEquals(latest, inMemory.getLastChangeId());
+        assertEquals(2, inMemory.findCoursesByStudent(1).size());
+    }
+
+    private static List<String> names(Page<StudentResult> page) {
+        List<String> names = new ArrayList<>();
+        for (StudentResult student : page.getItems()) {
+            names.add(student.getStudentFullName());
+        }
+        return names;
+    }
+}
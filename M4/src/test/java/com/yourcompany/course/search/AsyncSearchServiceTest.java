@@ -0,0 +1,145 @@
+package com.yourcompany.course.search;
+
+import com.yourcompany.course.model.dto.CourseResult;
+import com.yourcompany.course.repository.QueryCancellation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AsyncSearchServiceTest {
+
+    private StubSearchService delegate;
+    private AsyncSearchService async;
+    private final CountDownLatch running = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final AtomicReference<QueryCancellation> runningToken = new AtomicReference<>();
+
+    @BeforeEach
+    void setUp() {
+        delegate = new StubSearchService("SQL");
+        delegate.coursesByStudent.put(1L, List.of(new CourseResult("Course100", 3, 1L)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        async.close();
+    }
+
+    /**
+     * 讓下一個查詢卡住，直到 release 或它的取消權杖被取消為止。
+     */
+    private void blockNextQuery() {
+        delegate.beforeAnswer = () -> {
+            delegate.beforeAnswer = () -> { };
+            QueryCancellation token = QueryCancellation.current();
+            runningToken.set(token);
+            running.countDown();
+            try {
+                while (!token.isCancelled() && !release.await(5, TimeUnit.MILLISECONDS)) {
+                    // waiting, as a statement would until Statement.cancel()
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+    }
+
+    @Test
+    void completesWithTheDelegateAnswer() throws Exception {
+        async = new AsyncSearchService(delegate, 2, 4, 0);
+
+        assertEquals("Course100", async.findCoursesByStudent(1).get(5, TimeUnit.SECONDS).get(0).getCourseName());
+        assertEquals("SQL (Async)", async.getServiceName());
+    }
+
+    @Test
+    void timeoutFailsTheFutureAndCancelsTheRunningQuery() throws Exception {
+        async = new AsyncSearchService(delegate, 1, 4, 50);
+        blockNextQuery();
+
+        CompletableFuture<List<CourseResult>> future = async.findCoursesByStudent(1);
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+
+        ExecutionException e = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(TimeoutException.class, e.getCause());
+        assertTrue(runningToken.get().isCancelled(), "the statement of a timed-out query is cancelled");
+        assertEquals(1, async.getTimedOutCount());
+    }
+
+    @Test
+    void cancellingAQueuedQueryRemovesItBeforeItRuns() throws Exception {
+        async = new AsyncSearchService(delegate, 1, 4, 0);
+        blockNextQuery();
+        CompletableFuture<List<CourseResult>> first = async.findCoursesByStudent(1);
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+        CompletableFuture<List<CourseResult>> queued = async.findCoursesByStudent(1);
+        assertEquals(1, async.getQueuedCount());
+
+        queued.cancel(false);
+
+        assertEquals(0, async.getQueuedCount());
+        assertEquals(1, async.getCancelledCount());
+        release.countDown();
+        first.get(5, TimeUnit.SECONDS);
+        assertEquals(1, delegate.queries.get(), "the cancelled query never reached the delegate");
+    }
+
+    @Test
+    void cancellingARunningQueryCancelsItsStatement() throws Exception {
+        async = new AsyncSearchService(delegate, 1, 4, 0);
+        blockNextQuery();
+        CompletableFuture<List<CourseResult>> future = async.findCoursesByStudent(1);
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+
+        future.cancel(true);
+
+        assertTrue(runningToken.get().isCancelled());
+        assertThrows(CancellationException.class, future::join);
+        // The worker is free again for the next query.
+        assertEquals(1, async.findCoursesByStudent(1).get(5, TimeUnit.SECONDS).size());
+    }
+
+    @Test
+    void fullQueueRejectsImmediately() throws Exception {
+        async = new AsyncSearchService(delegate, 1, 1, 0);
+        blockNextQuery();
+        async.findCoursesByStudent(1);
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+        async.findCoursesByStudent(1);
+
+        CompletableFuture<List<CourseResult>> rejected = async.findCoursesByStudent(1);
+
+        ExecutionException e = assertThrows(ExecutionException.class, () -> rejected.get(1, TimeUnit.SECONDS));
+        assertInstanceOf(RejectedExecutionException.class, e.getCause());
+        assertEquals(1, async.getRejectedCount());
+    }
+
+    @Test
+    void closeCancelsQueriesStillQueued() throws Exception {
+        async = new AsyncSearchService(delegate, 1, 4, 0);
+        blockNextQuery();
+        async.findCoursesByStudent(1);
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+        CompletableFuture<List<CourseResult>> queued = async.findCoursesByStudent(1);
+
+        async.close();
+
+        assertTrue(queued.isCancelled());
+    }
+}
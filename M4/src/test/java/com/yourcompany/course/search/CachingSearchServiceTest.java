@@ -0,0 +1,109 @@
+package com.yourcompany.course.search;
+
+import com.yourcompany.course.model.dto.CourseResult;
+import com.yourcompany.course.model.dto.StudentResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class CachingSearchServiceTest {
+
+    private StubSearchService sql;
+    private CachingSearchService cache;
+
+    @BeforeEach
+    void setUp() {
+        sql = new StubSearchService("SQL");
+        sql.coursesByStudent.put(1L, List.of(new CourseResult("Course100", 3, 1L)));
+        sql.coursesByStudent.put(2L, List.of(new CourseResult("Course101", 2, 1L)));
+        sql.studentsByCourse.put(100L, List.of(new StudentResult("First1 Last1", "s1@example.com", null)));
+        sql.popularCourses = List.of(new CourseResult("Course100", 3, 5L), new CourseResult("Course101", 2, 4L));
+        cache = new CachingSearchService(sql, 100, 0);
+    }
+
+    @Test
+    void repeatedQueriesAreAnsweredFromTheCache() {
+        List<CourseResult> first = cache.findCoursesByStudent(1);
+        assertSame(first, cache.findCoursesByStudent(1));
+        cache.findTopKPopularCourses(2);
+        cache.findTopKPopularCourses(2);
+
+        assertEquals(2, sql.queries.get());
+        assertEquals(2, cache.getCacheStats().get(0).getHitCount() + cache.getCacheStats().get(2).getHitCount());
+    }
+
+    @Test
+    void enrollmentChangeInvalidatesTheStudentTheCourseAndTheRanking() {
+        cache.findCoursesByStudent(1);
+        cache.findCoursesByStudent(2);
+        cache.findStudentsByCourse(100);
+        cache.findTopKPopularCourses(2);
+        sql.queries.set(0);
+
+        sql.coursesByStudent.put(1L, List.of(new CourseResult("Course100", 3, 1L), new CourseResult("Course101", 2, 1L)));
+        cache.onEnrollmentChanged(1, 100);
+
+        assertEquals(2, cache.findCoursesByStudent(1).size());
+        cache.findStudentsByCourse(100);
+        cache.findTopKPopularCourses(2);
+        assertEquals(3, sql.queries.get());
+
+        cache.findCoursesByStudent(2);
+        assertEquals(3, sql.queries.get(), "an unrelated student stays cached");
+    }
+
+    @Test
+    void resultLoadedAcrossAnInvalidationIsNotCached() {
+        // The change commits, and is invalidated, while the SQL query that read the old rows is in flight.
+        sql.beforeAnswer = () -> {
+            sql.beforeAnswer = () -> { };
+            cache.onEnrollmentChanged(1, 100);
+        };
+        cache.findCoursesByStudent(1);
+
+        cache.findCoursesByStudent(1);
+        assertEquals(2, sql.queries.get(), "the possibly stale answer was not stored");
+        cache.findCoursesByStudent(1);
+        assertEquals(2, sql.queries.get());
+    }
+
+    @Test
+    void emptyResultsAreNotCached() {
+        cache.findCoursesByStudent(99);
+        cache.findCoursesByStudent(99);
+
+        assertEquals(2, sql.queries.get());
+    }
+
+    @Test
+    void batchLookupQueriesOnlyTheMisses() {
+        cache.findCoursesByStudent(1);
+        sql.queries.set(0);
+
+        Map<Long, List<CourseResult>> results = cache.findCoursesByStudents(new long[]{1, 2, 1});
+
+        assertEquals(List.of(1L, 2L), List.copyOf(results.keySet()));
+        assertEquals(1, sql.queries.get(), "student 1 came from the cache");
+        cache.findCoursesByStudent(2);
+        assertEquals(1, sql.queries.get(), "student 2 was stored by the batch");
+    }
+
+    @Test
+    void invalidateAllDropsEveryQuery() {
+        cache.findCoursesByStudent(1);
+        cache.findStudentsByCourse(100);
+        cache.findTopKPopularCourses(2);
+        cache.invalidateAll();
+        sql.queries.set(0);
+
+        cache.findCoursesByStudent(1);
+        cache.findStudentsByCourse(100);
+        cache.findTopKPopularCourses(2);
+        assertEquals(3, sql.queries.get());
+    }
+}
@@ -0,0 +1,78 @@
+package com.yourcompany.course.search;
+
+import com.yourcompany.course.model.ChangeLogEntry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+class ChangeCursorTest {
+
+    private static List<ChangeLogEntry> changes(long... ids) {
+        List<ChangeLogEntry> changes = new ArrayList<>();
+        for (long id : ids) {
+            changes.add(new ChangeLogEntry(id, ChangeLogEntry.STUDENT, "U", id, null));
+        }
+        return changes;
+    }
+
+    @Test
+    void skippedIdsBecomeGaps() {
+        ChangeCursor cursor = new ChangeCursor(10);
+        cursor.advance(changes(11, 14, 15), 0);
+
+        assertEquals(15, cursor.position());
+        assertEquals(List.of(12L, 13L), cursor.gaps());
+        assertEquals(11, cursor.pruneLimit(), "pruning stops below the oldest gap");
+    }
+
+    @Test
+    void filledGapsAreForgotten() {
+        ChangeCursor cursor = new ChangeCursor(10);
+        cursor.advance(changes(11, 14), 0);
+        cursor.fill(changes(12));
+
+        assertEquals(List.of(13L), cursor.gaps());
+        assertEquals(12, cursor.pruneLimit());
+
+        cursor.fill(changes(13));
+        assertFalse(cursor.hasGaps());
+        assertEquals(14, cursor.pruneLimit());
+    }
+
+    @Test
+    void gapsExpireByWhenTheyWereNoticed() {
+        ChangeCursor cursor = new ChangeCursor(0);
+        cursor.advance(changes(2), 100);
+        cursor.advance(changes(4), 200);
+
+        cursor.expireGaps(150);
+        assertEquals(List.of(3L), cursor.gaps());
+        cursor.expireGaps(201);
+        assertFalse(cursor.hasGaps());
+        assertEquals(4, cursor.pruneLimit());
+    }
+
+    @Test
+    void idsAtOrBeforeThePositionAreIgnored() {
+        ChangeCursor cursor = new ChangeCursor(10);
+        cursor.advance(changes(9, 10), 0);
+
+        assertEquals(10, cursor.position());
+        assertFalse(cursor.hasGaps());
+    }
+
+    @Test
+    void largeJumpsTrackOnlyTheIdsJustBelowThem() {
+        ChangeCursor cursor = new ChangeCursor(0);
+        cursor.advance(changes(1_000_000), 0);
+
+        List<Long> gaps = cursor.gaps();
+        assertEquals(ChangeCursor.MAX_TRACKED_GAPS, gaps.size());
+        assertEquals(1_000_000 - ChangeCursor.MAX_TRACKED_GAPS, (long) gaps.get(0));
+        assertEquals(999_999, (long) gaps.get(gaps.size() - 1));
+    }
+}
@@ -0,0 +1,174 @@
+package com.yourcompany.course.search;
+
+import com.yourcompany.course.model.dto.CourseResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EnrollmentServiceTest {
+
+    private FakeDataRepository repository;
+    private InMemorySearchService inMemory;
+    private EnrollmentService enrollments;
+
+    @BeforeEach
+    void setUp() {
+        repository = new FakeDataRepository();
+        for (long s = 1; s <= 8; s++) {
+            repository.addStudent(s);
+        }
+        for (long c = 100; c < 104; c++) {
+            repository.addCourse(c, 3);
+        }
+        repository.enroll(1, 100, 1_000);
+
+        inMemory = new InMemorySearchService(repository);
+        inMemory.loadData();
+        enrollments = new EnrollmentService(repository, inMemory);
+    }
+
+    private List<Long> enrolledCourses(long studentId) {
+        List<Long> courses = new ArrayList<>();
+        for (CourseResult course : inMemory.findCoursesByStudent(studentId)) {
+            courses.add(Long.parseLong(course.getCourseName().substring("Course".length())));
+        }
+        courses.sort(null);
+        return courses;
+    }
+
+    @Test
+    void writesGoThroughToTheIndexAndNotifyListeners() {
+        List<String> notified = new ArrayList<>();
+        enrollments.addChangeListener((studentId, courseId) -> notified.add(studentId + "/" + courseId));
+
+        assertTrue(enrollments.enroll(2, 101));
+        assertEquals(List.of(101L), enrolledCourses(2));
+        assertEquals(1, inMemory.findTopKPopularCourses(2).get(1).getEnrollmentCount());
+
+        assertTrue(enrollments.drop(1, 100));
+        assertEquals(List.of(), enrolledCourses(1));
+
+        assertEquals(List.of("2/101", "1/100"), notified);
+    }
+
+    @Test
+    void rejectedWritesChangeNothing() {
+        List<String> notified = new ArrayList<>();
+        enrollments.addChangeListener((studentId, courseId) -> notified.add(studentId + "/" + courseId));
+
+        assertFalse(enrollments.enroll(1, 100), "already enrolled");
+        assertFalse(enrollments.enroll(99, 100), "unknown student");
+        assertFalse(enrollments.drop(2, 100), "not enrolled");
+
+        assertEquals(List.of(100L), enrolledCourses(1));
+        assertTrue(notified.isEmpty());
+    }
+
+    @Test
+    void refreshAfterWritesIsANoOpForTheIndex() {
+        enrollments.enroll(2, 101);
+        enrollments.drop(1, 100);
+
+        assertEquals(2, inMemory.refresh());
+        assertEquals(List.of(101L), enrolledCourses(2));
+        assertEquals(List.of(), enrolledCourses(1));
+    }
+
+    @Test
+    void dropCannotCommitBetweenRefreshReadAndOverlayWrite() throws Exception {
+        repository.enroll(1, 100, 1_000); // a change of (1, 100) for refresh to re-read
+        CountDownLatch rowsRead = new CountDownLatch(1);
+        CountDownLatch resume = new CountDownLatch(1);
+        repository.afterEnrollmentLookup = () -> {
+            rowsRead.countDown();
+            await(resume);
+        };
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<Integer> refresh = executor.submit(inMemory::refresh);
+            assertTrue(rowsRead.await(5, TimeUnit.SECONDS));
+            repository.afterEnrollmentLookup = () -> { };
+
+            // refresh now holds the row state "enrolled" and is about to write it to the overlay.
+            Future<Boolean> drop = executor.submit(() -> enrollments.drop(1, 100));
+            Thread.sleep(50);
+            assertFalse(drop.isDone(), "the drop waits for the stripe lock held by refresh");
+
+            resume.countDown();
+            assertEquals(1, refresh.get(5, TimeUnit.SECONDS));
+            assertTrue(drop.get(5, TimeUnit.SECONDS));
+        } finally {
+            resume.countDown();
+            executor.shutdownNow();
+        }
+
+        assertEquals(List.of(), enrolledCourses(1), "refresh's older row state did not undo the drop");
+    }
+
+    @Test
+    void concurrentWritesAndRefreshesConvergeOnTheTable() throws Exception {
+        int threads = 4;
+        ExecutorService executor = Executors.newFixedThreadPool(threads + 1);
+        try {
+            List<Future<?>> writers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                Random random = new Random(t);
+                writers.add(executor.submit(() -> {
+                    for (int i = 0; i < 500; i++) {
+                        long studentId = 1 + random.nextInt(8);
+                        long courseId = 100 + random.nextInt(4);
+                        if (random.nextBoolean()) {
+                            enrollments.enroll(studentId, courseId);
+                        } else {
+                            enrollments.drop(studentId, courseId);
+                        }
+                    }
+                }));
+            }
+            Future<?> refresher = executor.submit(() -> {
+                while (!Thread.currentThread().isInterrupted()) {
+                    inMemory.refresh();
+                }
+            });
+            for (Future<?> writer : writers) {
+                writer.get(30, TimeUnit.SECONDS);
+            }
+            refresher.cancel(true);
+        } finally {
+            executor.shutdownNow();
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        }
+        inMemory.refresh();
+
+        Map<Long, List<Long>> expected = new TreeMap<>();
+        for (List<Long> key : repository.enrollments.keySet()) {
+            expected.computeIfAbsent(key.get(0), s -> new ArrayList<>()).add(key.get(1));
+        }
+        for (long s = 1; s <= 8; s++) {
+            assertEquals(expected.getOrDefault(s, List.of()), enrolledCourses(s), "student " + s);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,238 @@
+package com.yourcompany.course.search;
+
+import com.yourcompany.course.model.ChangeLogEntry;
+import com.yourcompany.course.model.Course;
+import com.yourcompany.course.model.Enrollment;
+import com.yourcompany.course.model.Student;
+import com.yourcompany.course.repository.DataRepository;
+import com.yourcompany.course.repository.EnrollmentRowHandler;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+/**
+ * 以記憶體中的表模擬 {@link DataRepository}，供不連資料庫的測試使用。
+ * 寫入方法會像 db_schema.sql 的 trigger 一樣附加 ChangeLog 紀錄。
+ */
+class FakeDataRepository extends DataRepository {
+
+    final Map<Long, Student> students = new TreeMap<>();
+    final Map<Long, Course> courses = new TreeMap<>();
+    // (student_id, course_id) -> enrollment_date millis
+    final Map<List<Long>, Long> enrollments = new TreeMap<>((a, b) -> {
+        int c = Long.compare(a.get(0), b.get(0));
+        return c != 0 ? c : Long.compare(a.get(1), b.get(1));
+    });
+    final List<ChangeLogEntry> changeLog = new ArrayList<>();
+    private long nextChangeId = 1;
+
+    // Streaming a row of this student throws, after the rows before it were handed out.
+    volatile long failScanAtStudent = -1;
+    // Key lookups of the named table ("Student", "Course" or "Enrollment") throw while set.
+    volatile String failLookupsOf;
+    // Runs after findEnrollmentsByKeys has read its rows, outside this object's monitor.
+    volatile Runnable afterEnrollmentLookup = () -> { };
+
+    FakeDataRepository() {
+        super(null);
+    }
+
+    synchronized void addStudent(long studentId) {
+        students.put(studentId, new Student(studentId, "First" + studentId, "Last" + studentId, null, "s" + studentId + "@example.com"));
+        log(ChangeLogEntry.STUDENT, studentId, null);
+    }
+
+    synchronized void addCourse(long courseId, int credits) {
+        courses.put(courseId, new Course(courseId, "Course" + courseId, null, credits, 1L));
+        log(ChangeLogEntry.COURSE, null, courseId);
+    }
+
+    synchronized void enroll(long studentId, long courseId, long millis) {
+        enrollments.put(key(studentId, courseId), millis);
+        log(ChangeLogEntry.ENROLLMENT, studentId, courseId);
+    }
+
+    synchronized void drop(long studentId, long courseId) {
+        enrollments.remove(key(studentId, courseId));
+        log(ChangeLogEntry.ENROLLMENT, studentId, courseId);
+    }
+
+    /**
+     * 模擬尚未提交的選課交易：change_id 現在配號，資料列與 ChangeLog 紀錄要到執行回傳的 commit 才看得到。
+     */
+    synchronized Runnable enrollUncommitted(long studentId, long courseId, long millis) {
+        long changeId = nextChangeId++;
+        return () -> {
+            synchronized (this) {
+                enrollments.put(key(studentId, courseId), millis);
+                changeLog.add(new ChangeLogEntry(changeId, ChangeLogEntry.ENROLLMENT, "I", studentId, courseId));
+                changeLog.sort(Comparator.comparingLong(ChangeLogEntry::getChangeId));
+            }
+        };
+    }
+
+    private void log(String table, Long studentId, Long courseId) {
+        changeLog.add(new ChangeLogEntry(nextChangeId++, table, "I", studentId, courseId));
+    }
+
+    static List<Long> key(long studentId, long courseId) {
+        return Arrays.asList(studentId, courseId);
+    }
+
+    @Override
+    public synchronized long countStudents() {
+        return students.size();
+    }
+
+    @Override
+    public synchronized long countCourses() {
+        return courses.size();
+    }
+
+    @Override
+    public synchronized long countEnrollments() {
+        return enrollments.size();
+    }
+
+    @Override
+    public long streamAllStudents(Consumer<Student> handler) {
+        List<Student> rows;
+        synchronized (this) {
+            rows = new ArrayList<>(students.values());
+        }
+        rows.forEach(handler);
+        return rows.size();
+    }
+
+    @Override
+    public long streamAllCourses(Consumer<Course> handler) {
+        List<Course> rows;
+        synchronized (this) {
+            rows = new ArrayList<>(courses.values());
+        }
+        rows.forEach(handler);
+        return rows.size();
+    }
+
+    @Override
+    public long streamEnrollmentsByStudentRange(long fromStudentId, long toStudentId, EnrollmentRowHandler handler) {
+        List<Map.Entry<List<Long>, Long>> rows = new ArrayList<>();
+        synchronized (this) {
+            for (Map.Entry<List<Long>, Long> row : enrollments.entrySet()) {
+                long studentId = row.getKey().get(0);
+                if (studentId >= fromStudentId && studentId < toStudentId) rows.add(Map.entry(row.getKey(), row.getValue()));
+            }
+        }
+        long streamed = 0;
+        for (Map.Entry<List<Long>, Long> row : rows) {
+            if (row.getKey().get(0) == failScanAtStudent) {
+                throw new RuntimeException("Streaming enrollments failed after " + streamed + " rows.");
+            }
+            handler.onRow(row.getKey().get(0), row.getKey().get(1), row.getValue());
+            streamed++;
+        }
+        return streamed;
+    }
+
+    @Override
+    public synchronized long[] findEnrollmentStudentIdRange() {
+        if (enrollments.isEmpty()) return new long[]{0, -1};
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        for (List<Long> key : enrollments.keySet()) {
+            min = Math.min(min, key.get(0));
+            max = Math.max(max, key.get(0));
+        }
+        return new long[]{min, max};
+    }
+
+    @Override
+    public synchronized long findLatestChangeId() {
+        return nextChangeId - 1;
+    }
+
+    @Override
+    public synchronized List<ChangeLogEntry> findChangesSince(long afterChangeId, int limit) {
+        List<ChangeLogEntry> found = new ArrayList<>();
+        for (ChangeLogEntry change : changeLog) {
+            if (change.getChangeId() > afterChangeId && found.size() < limit) found.add(change);
+        }
+        return found;
+    }
+
+    @Override
+    public synchronized List<ChangeLogEntry> findChangesByIds(Collection<Long> changeIds) {
+        List<ChangeLogEntry> found = new ArrayList<>();
+        for (ChangeLogEntry change : changeLog) {
+            if (changeIds.contains(change.getChangeId())) found.add(change);
+        }
+        return found;
+    }
+
+    @Override
+    public synchronized int pruneChangesThrough(long throughChangeId) {
+        int before = changeLog.size();
+        changeLog.removeIf(change -> change.getChangeId() <= throughChangeId);
+        return before - changeLog.size();
+    }
+
+    @Override
+    public synchronized List<Student> findStudentsByIds(Collection<Long> studentIds) {
+        checkLookup(ChangeLogEntry.STUDENT);
+        List<Student> found = new ArrayList<>();
+        for (Long id : studentIds) {
+            if (students.containsKey(id)) found.add(students.get(id));
+        }
+        return found;
+    }
+
+    @Override
+    public synchronized List<Course> findCoursesByIds(Collection<Long> courseIds) {
+        checkLookup(ChangeLogEntry.COURSE);
+        List<Course> found = new ArrayList<>();
+        for (Long id : courseIds) {
+            if (courses.containsKey(id)) found.add(courses.get(id));
+        }
+        return found;
+    }
+
+    @Override
+    public List<Enrollment> findEnrollmentsByKeys(List<long[]> keys) {
+        List<Enrollment> found = new ArrayList<>();
+        synchronized (this) {
+            checkLookup(ChangeLogEntry.ENROLLMENT);
+            for (long[] key : keys) {
+                Long millis = enrollments.get(key(key[0], key[1]));
+                if (millis != null) found.add(new Enrollment(key[0], key[1], new Timestamp(millis)));
+            }
+        }
+        afterEnrollmentLookup.run();
+        return found;
+    }
+
+    @Override
+    public synchronized boolean insertEnrollment(long studentId, long courseId, Timestamp enrollmentDate) {
+        if (!students.containsKey(studentId) || !courses.containsKey(courseId)
+                || enrollments.containsKey(key(studentId, courseId))) return false;
+        enroll(studentId, courseId, enrollmentDate.getTime());
+        return true;
+    }
+
+    @Override
+    public synchronized boolean deleteEnrollment(long studentId, long courseId) {
+        if (!enrollments.containsKey(key(studentId, courseId))) return false;
+        drop(studentId, courseId);
+        return true;
+    }
+
+    private void checkLookup(String table) {
+        if (table.equals(failLookupsOf)) throw new RuntimeException("Finding " + table + " rows by key failed.");
+    }
+}
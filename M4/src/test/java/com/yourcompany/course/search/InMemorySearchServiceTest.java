@@ -0,0 +1,261 @@
+package com.yourcompany.course.search;
+
+import com.yourcompany.course.model.ChangeLogEntry;
+import com.yourcompany.course.model.dto.CourseResult;
+import com.yourcompany.course.model.dto.Page;
+import com.yourcompany.course.model.dto.StudentResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InMemorySearchServiceTest {
+
+    private FakeDataRepository repository;
+    private InMemorySearchService service;
+
+    @BeforeEach
+    void setUp() {
+        repository = new FakeDataRepository();
+        for (long s = 1; s <= 3; s++) {
+            repository.addStudent(s);
+        }
+        repository.addCourse(100, 3);
+        repository.addCourse(101, 2);
+        repository.enroll(1, 100, 1_000);
+        repository.enroll(2, 100, 2_000);
+        repository.enroll(2, 101, 3_000);
+
+        service = new InMemorySearchService(repository);
+        service.setLoadPartitions(2);
+        service.loadData();
+    }
+
+    private List<String> courseNames(long studentId) {
+        List<String> names = new ArrayList<>();
+        for (CourseResult course : service.findCoursesByStudent(studentId)) {
+            names.add(course.getCourseName());
+        }
+        return names;
+    }
+
+    private List<String> studentNames(long courseId) {
+        List<String> names = new ArrayList<>();
+        for (StudentResult student : service.findStudentsByCourse(courseId)) {
+            names.add(student.getStudentFullName());
+        }
+        return names;
+    }
+
+    @Test
+    void loadConsumesTheChangeLog() {
+        assertEquals(repository.findLatestChangeId(), service.getLastChangeId());
+        assertTrue(repository.changeLog.isEmpty(), "changes folded into the load are pruned");
+        assertEquals(List.of("First1 Last1", "First2 Last2"), studentNames(100));
+    }
+
+    @Test
+    void failedReloadKeepsThePublishedIndex() {
+        long before = service.getLastChangeId();
+        repository.enroll(3, 100, 4_000);
+        repository.failScanAtStudent = 2;
+
+        assertThrows(RuntimeException.class, service::loadData);
+
+        assertEquals(List.of("First1 Last1", "First2 Last2"), studentNames(100));
+        assertEquals(List.of("Course100", "Course101"), courseNames(2), "no truncated index was published");
+        assertEquals(before, service.getLastChangeId());
+        assertEquals(1, repository.changeLog.size(), "the ChangeLog is not pruned");
+        assertFalse(service.isLoading());
+
+        repository.failScanAtStudent = -1;
+        assertEquals(1, service.refresh());
+        assertEquals(List.of("First1 Last1", "First2 Last2", "First3 Last3"), studentNames(100));
+    }
+
+    @Test
+    void refreshAppliesEnrollsAndDrops() {
+        repository.enroll(3, 101, 4_000);
+        repository.drop(1, 100);
+
+        assertEquals(2, service.refresh());
+
+        assertEquals(List.of("Course101"), courseNames(3));
+        assertEquals(List.of(), courseNames(1));
+        assertEquals(List.of("First2 Last2"), studentNames(100));
+        assertEquals(4_000, service.findCoursesByStudent(3).get(0).getEnrollmentDate().getTime());
+        assertEquals(repository.findLatestChangeId(), service.getLastChangeId());
+        assertTrue(repository.changeLog.isEmpty());
+    }
+
+    @Test
+    void refreshRendersEnrollmentsOfNewStudents() {
+        repository.addStudent(4);
+        repository.enroll(4, 100, 5_000);
+
+        assertEquals(2, service.refresh());
+
+        assertEquals(List.of("First1 Last1", "First2 Last2", "First4 Last4"), studentNames(100));
+    }
+
+    @Test
+    void refreshUpdatesPopularity() {
+        repository.enroll(1, 101, 4_000);
+        repository.enroll(3, 101, 5_000);
+        service.refresh();
+
+        List<CourseResult> top = service.findTopKPopularCourses(2);
+        assertEquals("Course101", top.get(0).getCourseName());
+        assertEquals(3, top.get(0).getEnrollmentCount());
+        assertEquals(2, top.get(1).getEnrollmentCount());
+    }
+
+    @Test
+    void failedEnrollmentLookupLeavesIndexAndChangeLogUntouched() {
+        long before = service.getLastChangeId();
+        repository.drop(1, 100);
+        repository.failLookupsOf = ChangeLogEntry.ENROLLMENT;
+
+        assertThrows(RuntimeException.class, service::refresh);
+
+        assertEquals(List.of("Course100"), courseNames(1), "a failed lookup is not a delete");
+        assertEquals(before, service.getLastChangeId());
+        assertEquals(1, repository.changeLog.size(), "unapplied changes are not pruned");
+
+        repository.failLookupsOf = null;
+        assertEquals(1, service.refresh());
+        assertEquals(List.of(), courseNames(1));
+        assertTrue(repository.changeLog.isEmpty());
+    }
+
+    @Test
+    void failedStudentLookupAbortsBeforeAnyOverlayWrite() {
+        long before = service.getLastChangeId();
+        repository.addStudent(2); // an update of student 2
+        repository.enroll(3, 100, 4_000);
+        repository.failLookupsOf = ChangeLogEntry.STUDENT;
+
+        assertThrows(RuntimeException.class, service::refresh);
+
+        assertEquals(List.of("First1 Last1", "First2 Last2"), studentNames(100), "student 2 is not deleted, student 3 not yet enrolled");
+        assertEquals(before, service.getLastChangeId());
+
+        repository.failLookupsOf = null;
+        assertEquals(2, service.refresh());
+        assertEquals(List.of("First1 Last1", "First2 Last2", "First3 Last3"), studentNames(100));
+    }
+
+    @Test
+    void reapplyingChangesDoesNotDoubleCount() {
+        repository.enroll(3, 100, 4_000);
+        repository.failLookupsOf = ChangeLogEntry.COURSE;
+        repository.addCourse(101, 2); // same batch, fails after nothing was applied
+        assertThrows(RuntimeException.class, service::refresh);
+
+        repository.failLookupsOf = null;
+        assertEquals(2, service.refresh());
+        assertEquals(3, service.findTopKPopularCourses(1).get(0).getEnrollmentCount());
+    }
+
+    @Test
+    void changeCommittedAfterAHigherIdIsStillApplied() {
+        Runnable commit = repository.enrollUncommitted(3, 100, 4_000);
+        repository.enroll(1, 101, 5_000);
+
+        assertEquals(1, service.refresh());
+        assertEquals(repository.findLatestChangeId(), service.getLastChangeId());
+        assertEquals(1, repository.changeLog.size(), "nothing past the open gap is pruned");
+
+        commit.run();
+        assertEquals(1, service.refresh());
+        assertEquals(List.of("First1 Last1", "First2 Last2", "First3 Last3"), studentNames(100));
+        assertTrue(repository.changeLog.isEmpty());
+    }
+
+    @Test
+    void changeCommittedAfterAReloadIsStillApplied() {
+        Runnable commit = repository.enrollUncommitted(3, 101, 4_000);
+        repository.enroll(1, 101, 5_000);
+        service.loadData();
+        assertEquals(List.of("Course100", "Course101"), courseNames(1));
+        assertEquals(List.of(), courseNames(3));
+
+        commit.run();
+        assertEquals(1, service.refresh());
+        assertEquals(List.of("Course101"), courseNames(3));
+    }
+
+    private List<String> pagedStudentNames(long courseId, int pageSize, List<Integer> pageSizes) {
+        List<String> names = new ArrayList<>();
+        String cursor = null;
+        do {
+            Page<StudentResult> page = service.findStudentsByCourse(courseId, pageSize, cursor);
+            pageSizes.add(page.getItems().size());
+            for (StudentResult student : page.getItems()) {
+                names.add(student.getStudentFullName());
+            }
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        return names;
+    }
+
+    private void enrollRoster(long courseId, long firstStudent, long lastStudent) {
+        for (long s = firstStudent; s <= lastStudent; s++) {
+            if (!repository.students.containsKey(s)) repository.addStudent(s);
+            repository.enroll(s, courseId, 10_000 + s);
+        }
+    }
+
+    @Test
+    void pagesWalkTheIndexedRosterOnceInOrder() {
+        repository.addCourse(200, 3);
+        enrollRoster(200, 1, 7);
+        service.loadData();
+
+        List<Integer> pageSizes = new ArrayList<>();
+        assertEquals(studentNames(200), pagedStudentNames(200, 3, pageSizes));
+        assertEquals(List.of(3, 3, 1), pageSizes);
+    }
+
+    @Test
+    void pagesFollowTheOverlayAfterRefresh() {
+        repository.addCourse(200, 3);
+        enrollRoster(200, 1, 7);
+        service.loadData();
+        enrollRoster(200, 8, 8);
+        repository.drop(3, 200);
+        service.refresh();
+
+        List<Integer> pageSizes = new ArrayList<>();
+        List<String> names = pagedStudentNames(200, 4, pageSizes);
+        assertEquals(studentNames(200), names);
+        assertEquals(7, names.size());
+        assertTrue(names.contains("First8 Last8"));
+        assertFalse(names.contains("First3 Last3"));
+        assertEquals(List.of(4, 3), pageSizes);
+    }
+
+    @Test
+    void pageEdgeCases() {
+        assertThrows(IllegalArgumentException.class, () -> service.findStudentsByCourse(100, 0, null));
+        assertThrows(IllegalArgumentException.class, () -> service.findStudentsByCourse(100, 2, "not a cursor"));
+
+        Page<StudentResult> unknown = service.findStudentsByCourse(999, 2, null);
+        assertTrue(unknown.getItems().isEmpty());
+        assertFalse(unknown.hasNext());
+
+        Page<StudentResult> pastTheEnd = service.findStudentsByCourse(100, 2, Page.encodeCursor(10));
+        assertTrue(pastTheEnd.getItems().isEmpty());
+        assertFalse(pastTheEnd.hasNext());
+
+        Page<StudentResult> exact = service.findStudentsByCourse(100, 2, null);
+        assertEquals(2, exact.getItems().size());
+        assertFalse(exact.hasNext(), "a full last page has no next cursor");
+    }
+}
@@ -0,0 +1,73 @@
+package com.yourcompany.course.search;
+
+import com.yourcompany.course.model.Student;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ParallelIndexLoaderTest {
+
+    private FakeDataRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        repository = new FakeDataRepository();
+        for (long s = 1; s <= 20; s++) {
+            repository.addStudent(s);
+        }
+        for (long c = 100; c < 105; c++) {
+            repository.addCourse(c, 3);
+        }
+        for (long s = 1; s <= 20; s++) {
+            repository.enroll(s, 100 + s % 5, 1_000 * s);
+            repository.enroll(s, 100 + (s + 1) % 5, 2_000 * s);
+        }
+    }
+
+    @Test
+    void mergesEveryPartitionIntoOneIndex() {
+        ParallelIndexLoader.Result result = new ParallelIndexLoader(repository, 4).load();
+
+        assertEquals(40, result.index.enrollmentCount());
+        assertEquals(40, result.report.getEnrollmentRows());
+        assertEquals(4, result.report.getPartitionNanos().length);
+        int student7 = result.index.getStudentIds().ordinalOf(7);
+        assertEquals(2, result.index.studentRangeEnd(student7) - result.index.studentRangeStart(student7));
+    }
+
+    @Test
+    void failedPartitionFailsTheWholeLoad() {
+        repository.failScanAtStudent = 12;
+
+        RuntimeException e = assertThrows(RuntimeException.class, () -> new ParallelIndexLoader(repository, 4).load());
+        assertEquals("Parallel index load failed.", e.getMessage());
+    }
+
+    @Test
+    void failedEntityTableFailsTheWholeLoad() {
+        FakeDataRepository failing = new FakeDataRepository() {
+            @Override
+            public long streamAllStudents(Consumer<Student> handler) {
+                throw new RuntimeException("Streaming students failed after 0 rows.");
+            }
+        };
+        failing.enroll(1, 100, 1_000);
+
+        assertThrows(RuntimeException.class, () -> new ParallelIndexLoader(failing, 2).load());
+    }
+
+    @Test
+    void splitRangeCoversEveryIdExactlyOnce() {
+        long[][] ranges = ParallelIndexLoader.splitRange(1, 10, 4);
+
+        assertEquals(4, ranges.length);
+        assertArrayEquals(new long[]{1, 4}, ranges[0]);
+        assertArrayEquals(new long[]{10, 11}, ranges[3]);
+        assertEquals(0, ParallelIndexLoader.splitRange(0, -1, 4).length);
+    }
+}
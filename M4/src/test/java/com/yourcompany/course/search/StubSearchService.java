@@ -0,0 +1,79 @@
+package com.yourcompany.course.search;
+
+import com.yourcompany.course.model.dto.CourseResult;
+import com.yourcompany.course.model.dto.StudentResult;
+import com.yourcompany.course.model.visitor.CourseRowVisitor;
+import com.yourcompany.course.model.visitor.PopularCourseVisitor;
+import com.yourcompany.course.model.visitor.StudentRowVisitor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 回傳預先設定的答案並計算呼叫次數的 {@link SearchService}，供測試裝飾器與路由使用。
+ */
+class StubSearchService implements SearchService {
+
+    final Map<Long, List<CourseResult>> coursesByStudent = new ConcurrentHashMap<>();
+    final Map<Long, List<StudentResult>> studentsByCourse = new ConcurrentHashMap<>();
+    volatile List<CourseResult> popularCourses = new ArrayList<>();
+    final AtomicInteger queries = new AtomicInteger();
+    // Runs at the start of every query, on the calling thread.
+    volatile Runnable beforeAnswer = () -> { };
+
+    private final String name;
+
+    StubSearchService(String name) {
+        this.name = name;
+    }
+
+    @Override
+    public List<CourseResult> findCoursesByStudent(long studentId) {
+        answering();
+        return new ArrayList<>(coursesByStudent.getOrDefault(studentId, List.of()));
+    }
+
+    @Override
+    public List<StudentResult> findStudentsByCourse(long courseId) {
+        answering();
+        return new ArrayList<>(studentsByCourse.getOrDefault(courseId, List.of()));
+    }
+
+    @Override
+    public List<CourseResult> findTopKPopularCourses(int k) {
+        answering();
+        List<CourseResult> all = popularCourses;
+        return new ArrayList<>(all.subList(0, Math.min(k, all.size())));
+    }
+
+    @Override
+    public int visitCoursesByStudent(long studentId, CourseRowVisitor visitor) {
+        answering();
+        return 0;
+    }
+
+    @Override
+    public int visitStudentsByCourse(long courseId, StudentRowVisitor visitor) {
+        answering();
+        return 0;
+    }
+
+    @Override
+    public int visitTopKPopularCourses(int k, PopularCourseVisitor visitor) {
+        answering();
+        return 0;
+    }
+
+    @Override
+    public String getServiceName() {
+        return name;
+    }
+
+    private void answering() {
+        queries.incrementAndGet();
+        beforeAnswer.run();
+    }
+}
@@ -0,0 +1,119 @@
+package com.yourcompany.course.search.cache;
+
+import com.yourcompany.course.model.dto.CacheStats;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SegmentedLruCacheTest {
+
+    @Test
+    void getReturnsStoredValue() {
+        SegmentedLruCache<Integer, String> cache = new SegmentedLruCache<>("test", 4, 0);
+        cache.put(1, "one");
+        assertEquals("one", cache.get(1));
+        assertNull(cache.get(2));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void keysSeenOnceAreEvictedBeforeProtectedKeys() {
+        SegmentedLruCache<Integer, String> cache = new SegmentedLruCache<>("test", 3, 0);
+        cache.put(1, "hot");
+        cache.get(1); // promoted to the protected segment
+        for (int key = 2; key <= 10; key++) {
+            cache.put(key, "scan");
+        }
+        assertEquals("hot", cache.get(1));
+        assertEquals(3, cache.size());
+    }
+
+    @Test
+    void leastRecentlyUsedProbationKeyIsEvictedFirst() {
+        SegmentedLruCache<Integer, String> cache = new SegmentedLruCache<>("test", 2, 0);
+        cache.put(1, "a");
+        cache.put(2, "b");
+        cache.put(3, "c");
+        assertNull(cache.get(1));
+        assertEquals("b", cache.get(2));
+        assertEquals("c", cache.get(3));
+    }
+
+    @Test
+    void expiredEntriesAreMisses() throws InterruptedException {
+        SegmentedLruCache<Integer, String> cache = new SegmentedLruCache<>("test", 4, 1);
+        cache.put(1, "short-lived");
+        Thread.sleep(5);
+        assertNull(cache.get(1));
+        assertEquals(1, cache.stats().getExpirationCount());
+    }
+
+    @Test
+    void statsCountHitsMissesAndEvictions() {
+        SegmentedLruCache<Integer, String> cache = new SegmentedLruCache<>("test", 1, 0);
+        cache.put(1, "a");
+        cache.get(1);
+        cache.get(2);
+        cache.put(2, "b");
+
+        CacheStats stats = cache.stats();
+        assertEquals(1, stats.getHitCount());
+        assertEquals(1, stats.getMissCount());
+        assertEquals(1, stats.getEvictionCount());
+
+        cache.resetStats();
+        assertEquals(0, cache.stats().getHitCount());
+    }
+
+    @Test
+    void invalidateRemovesFromEitherSegment() {
+        SegmentedLruCache<Integer, String> cache = new SegmentedLruCache<>("test", 4, 0);
+        cache.put(1, "a");
+        cache.get(1);
+        cache.put(2, "b");
+        cache.invalidate(1);
+        cache.invalidate(2);
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void loadStartedBeforeInvalidationIsNotStored() {
+        SegmentedLruCache<Integer, String> cache = new SegmentedLruCache<>("test", 4, 0);
+        long stamp = cache.loadStamp(1);
+        cache.invalidate(1);
+        assertFalse(cache.putIfNotInvalidated(1, "stale", stamp));
+        assertNull(cache.get(1));
+
+        long allStamp = cache.loadStamp(1);
+        cache.invalidateAll();
+        assertFalse(cache.putIfNotInvalidated(1, "stale", allStamp));
+    }
+
+    @Test
+    void invalidatingAnUnrelatedKeyKeepsTheLoad() {
+        SegmentedLruCache<Integer, String> cache = new SegmentedLruCache<>("test", 4, 0);
+        int other = keyInAnotherStripe(1);
+        long stamp = cache.loadStamp(1);
+        cache.invalidate(other);
+        assertTrue(cache.putIfNotInvalidated(1, "fresh", stamp));
+        assertEquals("fresh", cache.get(1));
+    }
+
+    @Test
+    void nonPositiveMaximumSizeIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new SegmentedLruCache<Integer, String>("test", 0, 0));
+    }
+
+    private static int keyInAnotherStripe(int key) {
+        for (int other = key + 1; ; other++) {
+            SegmentedLruCache<Integer, String> probe = new SegmentedLruCache<>("probe", 1, 0);
+            long before = probe.loadStamp(key);
+            probe.invalidate(other);
+            if (probe.loadStamp(key) == before) return other;
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.yourcompany.course.search.cache;
+
+import com.yourcompany.course.repository.QueryCancellation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SingleFlightTest {
+
+    private final SingleFlight<Long, String> flight = new SingleFlight<>("test");
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final List<Thread> waiters = new ArrayList<>();
+    private final CountDownLatch leading = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        executor.shutdownNow();
+    }
+
+    private String blockingLoad() {
+        int n = loads.incrementAndGet();
+        if (n == 1) {
+            leading.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return "answer " + n;
+    }
+
+    private Future<String> follow() {
+        return executor.submit(() -> {
+            synchronized (waiters) {
+                waiters.add(Thread.currentThread());
+            }
+            return flight.load(1L, this::blockingLoad);
+        });
+    }
+
+    /**
+     * 等到所有跟隨者都已阻塞在 leader 的 future 上。
+     */
+    private void awaitWaiters(int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (System.nanoTime() < deadline) {
+            int parked = 0;
+            synchronized (waiters) {
+                for (Thread waiter : waiters) {
+                    Thread.State state = waiter.getState();
+                    if (state == Thread.State.WAITING || state == Thread.State.TIMED_WAITING) parked++;
+                }
+            }
+            if (parked == count) return;
+            Thread.sleep(1);
+        }
+        throw new AssertionError("waiters did not block on the leader");
+    }
+
+    @Test
+    void concurrentCallersShareOneLoad() throws Exception {
+        Future<String> leader = executor.submit(() -> flight.load(1L, this::blockingLoad));
+        assertTrue(leading.await(5, TimeUnit.SECONDS));
+        List<Future<String>> followers = List.of(follow(), follow(), follow());
+        awaitWaiters(3);
+
+        release.countDown();
+
+        assertEquals("answer 1", leader.get(5, TimeUnit.SECONDS));
+        for (Future<String> follower : followers) {
+            assertEquals("answer 1", follower.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, flight.stats().getExecutionCount());
+        assertEquals(3, flight.stats().getCoalescedCount());
+    }
+
+    @Test
+    void waitersRetryWhenTheLeaderWasCancelled() throws Exception {
+        QueryCancellation token = new QueryCancellation();
+        Future<String> leader = executor.submit(() -> {
+            QueryCancellation.Registration binding = token.bind();
+            try {
+                return flight.load(1L, this::blockingLoad);
+            } finally {
+                binding.close();
+            }
+        });
+        assertTrue(leading.await(5, TimeUnit.SECONDS));
+        Future<String> follower = follow();
+        awaitWaiters(1);
+
+        token.cancel();
+        release.countDown();
+
+        assertEquals("answer 1", leader.get(5, TimeUnit.SECONDS), "the cancelled leader still gets its own answer");
+        assertEquals("answer 2", follower.get(5, TimeUnit.SECONDS), "the waiter ran its own load");
+        assertEquals(2, flight.stats().getExecutionCount());
+        assertEquals(1, flight.stats().getRetryCount());
+        assertEquals(0, flight.stats().getCoalescedCount());
+    }
+
+    @Test
+    void leaderFailureReachesWaiters() throws Exception {
+        Future<String> leader = executor.submit(() -> flight.load(1L, () -> {
+            blockingLoad();
+            throw new IllegalStateException("query failed");
+        }));
+        assertTrue(leading.await(5, TimeUnit.SECONDS));
+        Future<String> follower = follow();
+        awaitWaiters(1);
+
+        release.countDown();
+
+        ExecutionException e = assertThrows(ExecutionException.class, () -> follower.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, e.getCause());
+        assertThrows(ExecutionException.class, () -> leader.get(5, TimeUnit.SECONDS));
+        assertEquals(1, flight.stats().getExecutionCount());
+    }
+
+    @Test
+    void resultsAreNotKeptAfterTheLoad() {
+        release.countDown();
+        assertEquals("answer 1", flight.load(1L, this::blockingLoad));
+        assertEquals("answer 2", flight.load(1L, this::blockingLoad));
+        assertEquals(2, flight.stats().getExecutionCount());
+    }
+
+    @Test
+    void forgottenLoadIsNotJoinedByLaterCallers() throws Exception {
+        Future<String> leader = executor.submit(() -> flight.load(1L, this::blockingLoad));
+        assertTrue(leading.await(5, TimeUnit.SECONDS));
+
+        flight.forget(1L);
+        assertEquals("answer 2", flight.load(1L, this::blockingLoad));
+
+        release.countDown();
+        assertEquals("answer 1", leader.get(5, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,108 @@
+package com.yourcompany.course.search.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EnrollmentIndexTest {
+
+    private static final long DAY_MILLIS = 86_400_000L;
+
+    private static IdDictionary dictionary(long... ids) {
+        IdDictionary dictionary = new IdDictionary();
+        for (long id : ids) {
+            dictionary.add(id);
+        }
+        return dictionary;
+    }
+
+    private static long[] coursesOf(EnrollmentIndex index, long studentId) {
+        int student = index.getStudentIds().ordinalOf(studentId);
+        long[] ids = new long[index.studentRangeEnd(student) - index.studentRangeStart(student)];
+        for (int position = index.studentRangeStart(student); position < index.studentRangeEnd(student); position++) {
+            ids[position - index.studentRangeStart(student)] = index.getCourseIds().idAt(index.courseOrdinalAt(position));
+        }
+        Arrays.sort(ids);
+        return ids;
+    }
+
+    private static long[] studentsOf(EnrollmentIndex index, long courseId) {
+        int course = index.getCourseIds().ordinalOf(courseId);
+        long[] ids = new long[index.courseDegree(course)];
+        for (int position = index.courseRangeStart(course); position < index.courseRangeEnd(course); position++) {
+            ids[position - index.courseRangeStart(course)] = index.getStudentIds().idAt(index.studentOrdinalAt(position));
+        }
+        Arrays.sort(ids);
+        return ids;
+    }
+
+    @Test
+    void buildIndexesBothDirections() {
+        EnrollmentIndex.Builder builder = new EnrollmentIndex.Builder();
+        builder.add(1, 100, DAY_MILLIS);
+        builder.add(1, 200, 2 * DAY_MILLIS);
+        builder.add(2, 100, 3 * DAY_MILLIS);
+        EnrollmentIndex index = builder.build(dictionary(1, 2, 3), dictionary(100, 200));
+
+        assertEquals(3, index.enrollmentCount());
+        assertArrayEquals(new long[]{100, 200}, coursesOf(index, 1));
+        assertArrayEquals(new long[]{100}, coursesOf(index, 2));
+        assertArrayEquals(new long[0], coursesOf(index, 3));
+        assertArrayEquals(new long[]{1, 2}, studentsOf(index, 100));
+        assertEquals(1, index.courseDegree(index.getCourseIds().ordinalOf(200)));
+    }
+
+    @Test
+    void enrollmentTimesFollowTheirRows() {
+        EnrollmentIndex.Builder builder = new EnrollmentIndex.Builder();
+        builder.add(1, 100, 5 * DAY_MILLIS);
+        builder.add(2, 100, 9 * DAY_MILLIS);
+        EnrollmentIndex index = builder.build(dictionary(1, 2), dictionary(100));
+
+        int course = index.getCourseIds().ordinalOf(100);
+        for (int position = index.courseRangeStart(course); position < index.courseRangeEnd(course); position++) {
+            long studentId = index.getStudentIds().idAt(index.studentOrdinalAt(position));
+            assertEquals(studentId == 1 ? 5 * DAY_MILLIS : 9 * DAY_MILLIS, index.courseEnrollmentMillisAt(course, position));
+        }
+        int student = index.getStudentIds().ordinalOf(2);
+        assertEquals(9 * DAY_MILLIS, index.studentEnrollmentMillisAt(student, index.studentRangeStart(student)));
+        assertTrue(index.isTimestampEncoded());
+    }
+
+    @Test
+    void rowsReferencingUnknownEntitiesAreSkipped() {
+        EnrollmentIndex.Builder builder = new EnrollmentIndex.Builder();
+        builder.add(1, 100, 0);
+        builder.add(9, 100, 0);
+        builder.add(1, 999, 0);
+        EnrollmentIndex index = builder.build(dictionary(1), dictionary(100));
+
+        assertEquals(1, index.enrollmentCount());
+        assertArrayEquals(new long[]{1}, studentsOf(index, 100));
+    }
+
+    @Test
+    void mergeCombinesFragmentsInOrder() {
+        EnrollmentIndex.Builder first = new EnrollmentIndex.Builder(4);
+        first.add(1, 100, 0);
+        first.add(2, 100, 0);
+        EnrollmentIndex.Builder second = new EnrollmentIndex.Builder(4);
+        second.add(3, 100, 0);
+        second.add(3, 200, 0);
+
+        EnrollmentIndex index = EnrollmentIndex.merge(Arrays.asList(first, second), dictionary(1, 2, 3), dictionary(100, 200));
+
+        assertEquals(4, index.enrollmentCount());
+        int course = index.getCourseIds().ordinalOf(100);
+        long[] inOrder = new long[3];
+        for (int position = index.courseRangeStart(course); position < index.courseRangeEnd(course); position++) {
+            inOrder[position - index.courseRangeStart(course)] = index.getStudentIds().idAt(index.studentOrdinalAt(position));
+        }
+        assertArrayEquals(new long[]{1, 2, 3}, inOrder);
+        assertArrayEquals(new long[]{100, 200}, coursesOf(index, 3));
+    }
+}
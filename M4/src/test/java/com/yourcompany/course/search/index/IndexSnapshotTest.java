@@ -0,0 +1,134 @@
+package com.yourcompany.course.search.index;
+
+import com.yourcompany.course.model.Course;
+import com.yourcompany.course.model.Student;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IndexSnapshotTest {
+
+    private static final long[] STUDENT_IDS = {11, 12, 13};
+    private static final long[] COURSE_IDS = {101, 102};
+
+    @TempDir
+    Path directory;
+
+    private static IndexSnapshot snapshot(long enrollmentMillisStep, long changeId) {
+        IdDictionary studentIds = new IdDictionary();
+        StudentTable.Builder students = new StudentTable.Builder(STUDENT_IDS.length);
+        for (long id : STUDENT_IDS) {
+            studentIds.add(id);
+            students.add(new Student(id, "First" + id, "Last" + id, new Date(id * 86_400_000L), "s" + id + "@example.edu"));
+        }
+        IdDictionary courseIds = new IdDictionary();
+        CourseTable.Builder courses = new CourseTable.Builder(COURSE_IDS.length);
+        for (long id : COURSE_IDS) {
+            courseIds.add(id);
+            courses.add(new Course(id, "Course" + id, "About " + id, (int) (id % 4), 7L));
+        }
+        EnrollmentIndex.Builder enrollments = new EnrollmentIndex.Builder();
+        long millis = 1_700_000_000_000L;
+        for (long studentId : STUDENT_IDS) {
+            for (long courseId : COURSE_IDS) {
+                enrollments.add(studentId, courseId, millis);
+                millis += enrollmentMillisStep;
+            }
+        }
+        return new IndexSnapshot(enrollments.build(studentIds, courseIds), students.build(), courses.build(), changeId);
+    }
+
+    private static void assertSameContent(IndexSnapshot expected, IndexSnapshot actual) {
+        EnrollmentIndex expectedIndex = expected.getIndex();
+        EnrollmentIndex actualIndex = actual.getIndex();
+        assertEquals(expected.getChangeId(), actual.getChangeId());
+        assertEquals(expectedIndex.enrollmentCount(), actualIndex.enrollmentCount());
+        assertEquals(expectedIndex.isTimestampEncoded(), actualIndex.isTimestampEncoded());
+
+        for (int s = 0; s < STUDENT_IDS.length; s++) {
+            assertEquals(expectedIndex.getStudentIds().idAt(s), actualIndex.getStudentIds().idAt(s));
+            assertEquals(expected.getStudents().firstName(s), actual.getStudents().firstName(s));
+            assertEquals(expected.getStudents().lastName(s), actual.getStudents().lastName(s));
+            assertEquals(expected.getStudents().email(s), actual.getStudents().email(s));
+            assertEquals(expected.getStudents().dateOfBirthMillis(s), actual.getStudents().dateOfBirthMillis(s));
+            assertEquals(expectedIndex.studentRangeStart(s), actualIndex.studentRangeStart(s));
+            for (int position = expectedIndex.studentRangeStart(s); position < expectedIndex.studentRangeEnd(s); position++) {
+                assertEquals(expectedIndex.courseOrdinalAt(position), actualIndex.courseOrdinalAt(position));
+                assertEquals(expectedIndex.studentEnrollmentMillisAt(s, position), actualIndex.studentEnrollmentMillisAt(s, position));
+            }
+        }
+        for (int c = 0; c < COURSE_IDS.length; c++) {
+            assertEquals(expectedIndex.getCourseIds().idAt(c), actualIndex.getCourseIds().idAt(c));
+            assertEquals(expected.getCourses().courseName(c), actual.getCourses().courseName(c));
+            assertEquals(expected.getCourses().credits(c), actual.getCourses().credits(c));
+            assertEquals(expected.getCourses().teacherId(c), actual.getCourses().teacherId(c));
+            for (int position = expectedIndex.courseRangeStart(c); position < expectedIndex.courseRangeEnd(c); position++) {
+                assertEquals(expectedIndex.studentOrdinalAt(position), actualIndex.studentOrdinalAt(position));
+                assertEquals(expectedIndex.courseEnrollmentMillisAt(c, position), actualIndex.courseEnrollmentMillisAt(c, position));
+            }
+        }
+    }
+
+    @Test
+    void encodedTimestampsSurviveRoundTrip() {
+        IndexSnapshot written = snapshot(60_000L, 42);
+        assertTrue(written.getIndex().isTimestampEncoded());
+        Path path = directory.resolve("index.snapshot");
+        assertTrue(written.write(path));
+
+        IndexSnapshot read = IndexSnapshot.read(path, STUDENT_IDS.length, COURSE_IDS.length, 6);
+        assertNotNull(read);
+        assertSameContent(written, read);
+    }
+
+    @Test
+    void rawTimestampsSurviveRoundTrip() {
+        IndexSnapshot written = snapshot(1_234L, 7);
+        assertFalse(written.getIndex().isTimestampEncoded());
+        Path path = directory.resolve("index.snapshot");
+        assertTrue(written.write(path));
+
+        IndexSnapshot read = IndexSnapshot.read(path, STUDENT_IDS.length, COURSE_IDS.length, 6);
+        assertNotNull(read);
+        assertSameContent(written, read);
+    }
+
+    @Test
+    void snapshotWithDifferentRowCountsIsStale() {
+        Path path = directory.resolve("index.snapshot");
+        assertTrue(snapshot(60_000L, 1).write(path));
+        assertNull(IndexSnapshot.read(path, STUDENT_IDS.length, COURSE_IDS.length, 7));
+    }
+
+    @Test
+    void corruptedPayloadIsRejected() throws IOException {
+        Path path = directory.resolve("index.snapshot");
+        assertTrue(snapshot(60_000L, 1).write(path));
+        byte[] bytes = Files.readAllBytes(path);
+        bytes[bytes.length - 1] ^= 0x5A;
+        Files.write(path, bytes);
+        assertNull(IndexSnapshot.read(path, STUDENT_IDS.length, COURSE_IDS.length, 6));
+    }
+
+    @Test
+    void snapshotCanBeReplacedAfterItWasRead() {
+        Path path = directory.resolve("index.snapshot");
+        assertTrue(snapshot(60_000L, 1).write(path));
+        assertNotNull(IndexSnapshot.read(path, STUDENT_IDS.length, COURSE_IDS.length, 6));
+
+        assertTrue(snapshot(60_000L, 2).write(path));
+        IndexSnapshot read = IndexSnapshot.read(path, STUDENT_IDS.length, COURSE_IDS.length, 6);
+        assertNotNull(read);
+        assertEquals(2, read.getChangeId());
+    }
+}
@@ -0,0 +1,85 @@
+package com.yourcompany.course.search.index;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PopularityIndexTest {
+
+    private static IdDictionary courses(long... ids) {
+        IdDictionary dictionary = new IdDictionary();
+        for (long id : ids) {
+            dictionary.add(id);
+        }
+        return dictionary;
+    }
+
+    private static long[] topIds(PopularityIndex index, int k) {
+        long[] ids = new long[k];
+        int[] counts = new int[k];
+        int n = index.topK(k, ids, counts);
+        long[] result = new long[n];
+        System.arraycopy(ids, 0, result, 0, n);
+        return result;
+    }
+
+    @Test
+    void buildOrdersCoursesByDescendingCount() {
+        int[] degrees = {3, 0, 7, 5};
+        PopularityIndex index = PopularityIndex.build(courses(10, 20, 30, 40), c -> degrees[c]);
+
+        long[] ids = new long[4];
+        int[] counts = new int[4];
+        assertEquals(3, index.topK(4, ids, counts), "courses without enrollments are not ranked");
+        assertArrayEquals(new long[]{30, 40, 10, 0}, ids);
+        assertArrayEquals(new int[]{7, 5, 3, 0}, counts);
+        assertEquals(4, index.courseCount());
+    }
+
+    @Test
+    void incrementAndDecrementMoveCoursesAcrossBuckets() {
+        int[] degrees = {2, 2, 1};
+        PopularityIndex index = PopularityIndex.build(courses(1, 2, 3), c -> degrees[c]);
+
+        index.increment(3);
+        index.increment(3);
+        assertEquals(3, index.countOf(3));
+        assertArrayEquals(new long[]{3}, topIds(index, 1));
+
+        index.decrement(3);
+        index.decrement(3);
+        index.decrement(3);
+        assertEquals(0, index.countOf(3));
+        assertEquals(2, topIds(index, 3).length);
+    }
+
+    @Test
+    void decrementAtZeroIsIgnored() {
+        PopularityIndex index = PopularityIndex.build(courses(1), c -> 0);
+        index.decrement(1);
+        index.decrement(99);
+        assertEquals(0, index.countOf(1));
+        assertEquals(0, topIds(index, 5).length);
+    }
+
+    @Test
+    void unknownCourseIsAddedOnFirstIncrement() {
+        PopularityIndex index = PopularityIndex.empty();
+        for (long id = 1; id <= 40; id++) {
+            for (int i = 0; i < id; i++) {
+                index.increment(id);
+            }
+        }
+        assertEquals(40, index.courseCount());
+        assertEquals(40, index.countOf(40));
+        assertArrayEquals(new long[]{40, 39, 38}, topIds(index, 3));
+    }
+
+    @Test
+    void topKIsLimitedByOutputArrays() {
+        int[] degrees = {1, 2, 3};
+        PopularityIndex index = PopularityIndex.build(courses(1, 2, 3), c -> degrees[c]);
+        assertEquals(2, index.topK(10, new long[2], new int[2]));
+    }
+}
@@ -0,0 +1,59 @@
+package com.yourcompany.course.search.index;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TimestampColumnTest {
+
+    private static void assertDecodes(TimestampColumn column, int[] offsets, long[] millis) {
+        for (int list = 0; list < offsets.length - 1; list++) {
+            for (int position = offsets[list]; position < offsets[list + 1]; position++) {
+                assertEquals(millis[position], column.millisAt(list, position), "position " + position);
+            }
+        }
+    }
+
+    @Test
+    void wholeSecondsAreDeltaEncodedPerList() {
+        int[] offsets = {0, 3, 3, 5};
+        long[] millis = {1_700_000_000_000L, 1_700_000_500_000L, 1_600_000_000_000L, 5_000L, 0L};
+        TimestampColumn column = TimestampColumn.encode(offsets, millis);
+
+        assertTrue(column.isEncoded());
+        assertEquals(millis.length, column.length());
+        assertDecodes(column, offsets, millis);
+    }
+
+    @Test
+    void fractionalSecondsFallBackToRawMillis() {
+        int[] offsets = {0, 2};
+        long[] millis = {1_000L, 2_500L};
+        TimestampColumn column = TimestampColumn.encode(offsets, millis);
+
+        assertFalse(column.isEncoded());
+        assertDecodes(column, offsets, millis);
+    }
+
+    @Test
+    void spanBeyondUnsignedIntSecondsFallsBackToRawMillis() {
+        int[] offsets = {0, 2};
+        long[] millis = {0L, (0xFFFF_FFFFL + 1) * 1000};
+        TimestampColumn column = TimestampColumn.encode(offsets, millis);
+
+        assertFalse(column.isEncoded());
+        assertDecodes(column, offsets, millis);
+    }
+
+    @Test
+    void largestUnsignedDeltaStaysEncoded() {
+        int[] offsets = {0, 2};
+        long[] millis = {-1_000L, (0xFFFF_FFFFL - 1) * 1000};
+        TimestampColumn column = TimestampColumn.encode(offsets, millis);
+
+        assertTrue(column.isEncoded());
+        assertDecodes(column, offsets, millis);
+    }
+}